@@ -0,0 +1,77 @@
+// compact.ts
+/**
+ * 车辆位置二进制差分帧解码器，与服务端 CompactLocationEncoder 对应，每个连接一个实例
+ * 帧格式：flags, t, 新车辆字典, 位置差分列表；整数为LEB128变长编码，差分值经过zigzag变换
+ * 时间戳超过32位，变长整数用乘法而非位运算解码
+ */
+const SCALE = 1e6;
+const MOTION_SCALE = 100;
+const FLAG_RESET = 1;
+
+export class CompactLocationDecoder {
+  private ids = new Map<number, string>();
+  // 车辆编号 -> 上一次的 [经度, 纬度, 时间戳, 速度, 航向]
+  private last = new Map<number, [number, number, number, number, number]>();
+  private textDecoder = new TextDecoder();
+
+  decode(buffer: ArrayBuffer) {
+    const bytes = new Uint8Array(buffer);
+    let pos = 0;
+
+    const readVarint = () => {
+      let result = 0;
+      let factor = 1;
+      let b: number;
+      do {
+        b = bytes[pos++];
+        result += (b & 0x7f) * factor;
+        factor *= 128;
+      } while (b & 0x80);
+      return result;
+    };
+    const readZigzag = () => {
+      const n = readVarint();
+      return n % 2 === 0 ? n / 2 : -(n + 1) / 2;
+    };
+
+    const flags = bytes[pos++];
+    if (flags & FLAG_RESET) {
+      this.ids.clear();
+      this.last.clear();
+    }
+    const t = readVarint();
+
+    const dictCount = readVarint();
+    for (let i = 0; i < dictCount; i++) {
+      const index = readVarint();
+      const length = readVarint();
+      this.ids.set(index, this.textDecoder.decode(bytes.subarray(pos, pos + length)));
+      pos += length;
+    }
+
+    const count = readVarint();
+    const vehicles = new Array(count);
+    for (let i = 0; i < count; i++) {
+      const index = readVarint();
+      let prev = this.last.get(index);
+      if (!prev) {
+        prev = [0, 0, 0, 0, 0];
+        this.last.set(index, prev);
+      }
+      prev[0] += readZigzag();
+      prev[1] += readZigzag();
+      prev[2] += readZigzag();
+      prev[3] += readZigzag();
+      prev[4] += readZigzag();
+      vehicles[i] = {
+        vehicleId: this.ids.get(index),
+        longitude: prev[0] / SCALE,
+        latitude: prev[1] / SCALE,
+        timestampGNSS: prev[2],
+        speed: prev[3] / MOTION_SCALE,
+        heading: prev[4] / MOTION_SCALE
+      };
+    }
+    return { t, vehicles };
+  }
+}
@@ -0,0 +1,40 @@
+// deadReckoning.ts
+/**
+ * 车辆位置航位推算，与服务端 DeadReckoningGate 的外推公式一致
+ * 服务端只在外推位置偏差超过容差时推送，前端须持续外推才能显示车辆的当前位置
+ */
+const EARTH_RADIUS_METERS = 6371008.8;
+
+// 须与服务端 location.dead-reckoning.max-extrapolate-ms 一致
+export const MAX_EXTRAPOLATE_MS = 5000;
+
+export interface MotionAnchor {
+  longitude: number;
+  latitude: number;
+  // GNSS时间戳(毫秒)
+  timestampGNSS: number;
+  // 速度(米/秒)
+  speed?: number;
+  // 航向(度，正北为0，顺时针)
+  heading?: number;
+}
+
+/**
+ * 从锚点外推到指定时间的位置
+ * @param anchor 最近一次推送的位置
+ * @param now 服务端时间(毫秒)，可用帧中的 t 校正本地时钟
+ */
+export function extrapolate(anchor: MotionAnchor, now: number): [number, number] {
+  const speed = anchor.speed || 0;
+  const dt = Math.min(Math.max(now - anchor.timestampGNSS, 0), MAX_EXTRAPOLATE_MS) / 1000;
+  if (speed === 0 || dt === 0) {
+    return [anchor.longitude, anchor.latitude];
+  }
+  const heading = ((anchor.heading || 0) * Math.PI) / 180;
+  const north = speed * dt * Math.cos(heading);
+  const east = speed * dt * Math.sin(heading);
+  const latitude = anchor.latitude + (north / EARTH_RADIUS_METERS) * (180 / Math.PI);
+  const longitude = anchor.longitude
+    + (east / (EARTH_RADIUS_METERS * Math.cos((anchor.latitude * Math.PI) / 180))) * (180 / Math.PI);
+  return [longitude, latitude];
+}
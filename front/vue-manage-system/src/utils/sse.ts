@@ -5,6 +5,8 @@ interface SSEOptions {
   onMessage?: (data: any) => void;
   onError?: (error: any) => void;
   onOpen?: () => void;
+  // 断线期间的消息超出服务端重放范围时触发，参数为数据流ID，调用方应重新拉取全量数据
+  onReset?: (streamId: string) => void;
 }
 
 export function createSSEConnection(url: string, token: string, options?: SSEOptions) {
@@ -33,6 +35,12 @@ export function createSSEConnection(url: string, token: string, options?: SSEOpt
     }
   });
 
+  // 重连时服务端无法补齐断线期间的消息
+  eventSource.addEventListener('reset', (event: MessageEvent) => {
+    console.warn('SSE断线期间的消息已丢失:', event.data);
+    options?.onReset?.(event.data);
+  });
+
   // 错误处理
   eventSource.addEventListener('error', (error: Event) => {
     console.error('SSE连接错误:', error);
@@ -45,4 +53,58 @@ export function createSSEConnection(url: string, token: string, options?: SSEOpt
       eventSource.close();
     }
   };
-}
\ No newline at end of file
+}
+/**
+ * 在一个连接上订阅多个数据流，服务端以数据流ID作为事件名推送
+ * @param url      多路复用接口地址，如 /abc/api/datacontroller/public/ssestream-mux
+ * @param handlers 数据流ID -> 消息回调
+ */
+export function createMultiplexedSSEConnection(
+  url: string,
+  token: string,
+  handlers: Record<string, (data: any) => void>,
+  options?: Omit<SSEOptions, 'onMessage'>
+) {
+  const ids = Object.keys(handlers);
+  const eventSource = new EventSourcePolyfill(`${url}?ids=${encodeURIComponent(ids.join(','))}`, {
+    headers: {
+      'Authorization': `Bearer ${token}`,
+      'Accept': 'text/event-stream'
+    },
+    withCredentials: true
+  });
+
+  eventSource.addEventListener('open', () => {
+    console.log('SSE多路复用连接成功');
+    options?.onOpen?.();
+  });
+
+  for (const id of ids) {
+    eventSource.addEventListener(id, (event: MessageEvent) => {
+      let data: any;
+      try {
+        data = JSON.parse(event.data);
+      } catch (error) {
+        data = event.data;
+      }
+      handlers[id](data);
+    });
+  }
+
+  eventSource.addEventListener('reset', (event: MessageEvent) => {
+    console.warn('SSE断线期间的消息已丢失:', event.data);
+    options?.onReset?.(event.data);
+  });
+
+  eventSource.addEventListener('error', (error: Event) => {
+    console.error('SSE连接错误:', error);
+    options?.onError?.(error);
+  });
+
+  return {
+    eventSource,
+    close: () => {
+      eventSource.close();
+    }
+  };
+}
@@ -0,0 +1,75 @@
+// telemetry.ts
+import { CompactLocationDecoder } from './compact';
+
+/**
+ * 按订阅过滤的车辆位置WebSocket连接
+ * 服务端只推送订阅的车辆集合和经纬度范围内的车辆，帧格式与数据流1相同：{ t, vehicles: [...] }
+ * 车辆只在航位推算偏差超过容差时推送，显示时用 deadReckoning.ts 按速度和航向外推
+ * 订阅时 encoding 为 compact 则服务端发送二进制差分帧，在此解码为同样的结构
+ * 断线后按指数退避自动重连，并重新发送最近一次的订阅条件
+ */
+export interface TelemetrySubscription {
+  vehicles?: string[];
+  // [最小经度, 最小纬度, 最大经度, 最大纬度]
+  bbox?: [number, number, number, number];
+  encoding?: 'json' | 'compact';
+}
+
+export function createTelemetryConnection(url: string, token: string, onFrame: (data: any) => void) {
+  let socket: WebSocket | null = null;
+  let subscription: TelemetrySubscription | null = null;
+  let closed = false;
+  let retryDelay = 1000;
+  let retryTimer: ReturnType<typeof setTimeout> | null = null;
+
+  const base = url.startsWith('ws') ? url : `${location.protocol === 'https:' ? 'wss' : 'ws'}://${location.host}${url}`;
+
+  const connect = () => {
+    socket = new WebSocket(`${base}?token=${encodeURIComponent(token)}`);
+    socket.binaryType = 'arraybuffer';
+    // 差分状态属于单个连接，重连后重新开始
+    const decoder = new CompactLocationDecoder();
+    socket.onopen = () => {
+      console.log('位置订阅连接成功');
+      retryDelay = 1000;
+      if (subscription) {
+        socket?.send(JSON.stringify(subscription));
+      }
+    };
+    socket.onmessage = (event: MessageEvent) => {
+      try {
+        onFrame(event.data instanceof ArrayBuffer ? decoder.decode(event.data) : JSON.parse(event.data));
+      } catch (error) {
+        console.error('解析位置数据失败:', error);
+      }
+    };
+    socket.onclose = (event: CloseEvent) => {
+      // 1008 表示token无效，1003 表示订阅条件无效，重连也不会成功
+      if (closed || event.code === 1008 || event.code === 1003) {
+        console.warn('位置订阅连接关闭:', event.code, event.reason);
+        return;
+      }
+      retryTimer = setTimeout(connect, retryDelay);
+      retryDelay = Math.min(retryDelay * 2, 30000);
+    };
+  };
+
+  connect();
+
+  return {
+    // 替换订阅条件，连接未建立时在连接后发送
+    subscribe: (next: TelemetrySubscription) => {
+      subscription = next;
+      if (socket?.readyState === WebSocket.OPEN) {
+        socket.send(JSON.stringify(next));
+      }
+    },
+    close: () => {
+      closed = true;
+      if (retryTimer) {
+        clearTimeout(retryTimer);
+      }
+      socket?.close();
+    }
+  };
+}
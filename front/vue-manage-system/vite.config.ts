@@ -14,6 +14,8 @@ export default defineConfig({
 				//target: 'http://192.168.120.135:8080',
 
 				changeOrigin: true,
+				// 位置订阅使用WebSocket
+				ws: true,
 				rewrite: (path) => path.replace(/^\/abc/, '')
 			},
 			'/stu': {
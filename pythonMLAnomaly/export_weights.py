@@ -0,0 +1,95 @@
+# export_weights.py
+#
+# 将 transformer_autoencoder_custom.pth 和 scaler.pkl 导出为 Java 推理引擎
+# (org.swu.vehiclecloud.util.AutoencoderWeights) 读取的二进制文件。
+#
+# 用法: python export_weights.py [输出路径]，默认输出到 autoencoder_weights.bin
+#
+# 文件格式 (小端):
+#   magic "VCAE", int32 版本号 1
+#   int32 input_dim, hidden_dim, n_layers, ffn_dim
+#   float64 数组: scaler.mean[input], scaler.std[input]
+#   (时间戳、消息编号等特征数值很大，标准化需要双精度)
+#   float32 数组 (按下列顺序，矩阵均为行主序 [out, in]):
+#     input_norm.weight[input], input_norm.bias[input]
+#     linear_in.weight[hidden, input], linear_in.bias[hidden]
+#     pos_embedding[0, 0, :][hidden]
+#     每层:
+#       dyt_attn.alpha/gamma/beta[hidden]
+#       self_attn V 投影 weight[hidden, hidden], bias[hidden]
+#       self_attn.out_proj.weight[hidden, hidden], bias[hidden]
+#       dyt_ffn.alpha/gamma/beta[hidden]
+#       ffn.0.weight[ffn, hidden], bias[ffn]
+#       ffn.3.weight[hidden, ffn], bias[hidden]
+#     decoder.weight[input, hidden], decoder.bias[input]
+#   int32 参考样本数 n，随后 n 行原始特征 float64[input] 和 n 个 MSE float32，
+#   Java 端加载时用于校验前向计算结果。
+#
+# 服务端每条记录都以 seq_len=1 的序列推理，注意力对唯一的键做 softmax 权重恒为 1，
+# 注意力输出等于 out_proj(V)，因此只导出 in_proj 中的 V 部分。
+
+import struct
+import sys
+
+import numpy as np
+
+from main import MODEL_PATH, SCALER_PATH, load_or_fit_scaler, load_trained_model, score_batch
+
+REFERENCE_SAMPLES = 16
+
+
+def write_array(f, tensor, dtype='<f4'):
+    data = np.ascontiguousarray(np.asarray(tensor, dtype=dtype)).ravel()
+    f.write(data.tobytes())
+
+
+def export(out_path):
+    model = load_trained_model(MODEL_PATH, device='cpu')
+    scaler = load_or_fit_scaler(SCALER_PATH, fit_dim=12)
+    state = {k: v.detach().cpu().numpy() for k, v in model.state_dict().items()}
+
+    input_dim = state['linear_in.weight'].shape[1]
+    hidden_dim = state['linear_in.weight'].shape[0]
+    n_layers = len(model.encoder.layers)
+    ffn_dim = state['encoder.layers.0.ffn.0.weight'].shape[0]
+
+    with open(out_path, 'wb') as f:
+        f.write(b'VCAE')
+        f.write(struct.pack('<iiiii', 1, input_dim, hidden_dim, n_layers, ffn_dim))
+        write_array(f, scaler.mean, '<f8')
+        write_array(f, scaler.std, '<f8')
+        write_array(f, state['input_norm.weight'])
+        write_array(f, state['input_norm.bias'])
+        write_array(f, state['linear_in.weight'])
+        write_array(f, state['linear_in.bias'])
+        write_array(f, state['pos_embedding'].reshape(-1, hidden_dim)[0])
+        for i in range(n_layers):
+            p = f'encoder.layers.{i}.'
+            for name in ('alpha', 'gamma', 'beta'):
+                write_array(f, state[p + 'dyt_attn.' + name])
+            write_array(f, state[p + 'self_attn.in_proj_weight'][2 * hidden_dim:])
+            write_array(f, state[p + 'self_attn.in_proj_bias'][2 * hidden_dim:])
+            write_array(f, state[p + 'self_attn.out_proj.weight'])
+            write_array(f, state[p + 'self_attn.out_proj.bias'])
+            for name in ('alpha', 'gamma', 'beta'):
+                write_array(f, state[p + 'dyt_ffn.' + name])
+            write_array(f, state[p + 'ffn.0.weight'])
+            write_array(f, state[p + 'ffn.0.bias'])
+            write_array(f, state[p + 'ffn.3.weight'])
+            write_array(f, state[p + 'ffn.3.bias'])
+        write_array(f, state['decoder.weight'])
+        write_array(f, state['decoder.bias'])
+
+        # 以缩放器分布为中心生成参考样本，记录 Python 端的 MSE
+        rng = np.random.default_rng(0)
+        samples = scaler.mean + rng.standard_normal((REFERENCE_SAMPLES, input_dim)) * scaler.std
+        mse = score_batch(samples, model, scaler, device='cpu')
+        f.write(struct.pack('<i', REFERENCE_SAMPLES))
+        write_array(f, samples, '<f8')
+        write_array(f, mse)
+
+    print(f"已导出 {n_layers} 层模型权重到 {out_path} (input={input_dim}, hidden={hidden_dim}, ffn={ffn_dim})")
+
+
+if __name__ == "__main__":
+    export(sys.argv[1] if len(sys.argv) > 1 else "autoencoder_weights.bin")
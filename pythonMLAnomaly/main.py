@@ -5,6 +5,10 @@ import torch.nn as nn
 import numpy as np
 import os
 import pickle
+import socket
+import socketserver
+import struct
+import threading
 from fastapi import FastAPI, HTTPException
 from fastapi.middleware.cors import CORSMiddleware
 from pydantic import BaseModel, Field
@@ -50,6 +54,13 @@ class Record(BaseModel):
     header: Header # 消息头
     body: Body     # 消息体
 
+class BatchRequest(BaseModel):
+    features: List[List[float]] # 按行排列的特征，每行 12 维，顺序与 parse_record_from_model 一致
+
+class BatchResponse(BaseModel):
+    mse: List[float]  # 每行的重构误差
+    threshold: float  # 判定异常的 MSE 阈值
+
 # --- 特征解析函数 (针对 Pydantic 模型修改) ---
 def parse_record_from_model(record: Record):
     """
@@ -353,6 +364,31 @@ except Exception as e:
     exit() # 如果无法加载模型则退出
 
 # --- 异常检测函数 ---
+def score_batch(features: np.ndarray, model: TransformerAutoencoder, scaler: StandardScaler, device='cpu'):
+    """
+    对一批特征计算重构误差，单条和批量接口共用。
+
+    Args:
+        features (np.ndarray): 形状为 (batch_size, 12) 的原始特征。
+        model (TransformerAutoencoder): 加载的 PyTorch 模型。
+        scaler (StandardScaler): 拟合的缩放器对象。
+        device (str): 运行推理的设备 ('cpu' 或 'cuda')。
+
+    Returns:
+        np.ndarray: 形状为 (batch_size,) 的 MSE。
+    """
+    if scaler.mean is None or scaler.std is None:
+        raise RuntimeError("缩放器未拟合。无法执行转换。")
+    features_std = scaler.transform(features)
+    # (batch_size, 12) -> (batch_size, 1, 12)，每条记录作为 seq_len 为 1 的序列
+    input_tensor = torch.tensor(features_std, dtype=torch.float32, device=device).unsqueeze(1)
+    with torch.no_grad():
+        reconstructed = model(input_tensor)
+        if reconstructed.shape != input_tensor.shape:
+            raise ValueError(f"形状不匹配: 输入 {input_tensor.shape}, 重构 {reconstructed.shape}")
+        mse = torch.mean((reconstructed - input_tensor) ** 2, dim=(1, 2))
+    return mse.cpu().numpy()
+
 def detect_anomaly(record: Record, model: TransformerAutoencoder, scaler: StandardScaler, threshold=0.1, device='cpu'):
     """
     对单个记录执行异常检测。
@@ -373,41 +409,13 @@ def detect_anomaly(record: Record, model: TransformerAutoencoder, scaler: Standa
     features, vehicle_id = parse_record_from_model(record)
     features = np.array(features).reshape(1, -1) # 为缩放器重塑形状
 
-    # 在转换之前确保缩放器已拟合
-    if scaler.mean is None or scaler.std is None:
-        raise RuntimeError("缩放器未拟合。无法执行转换。")
-
     try:
-        # transform 期望 2D 数组
-        features_std = scaler.transform(features)
+        mse_loss = float(score_batch(features, model, scaler, device=device)[0])
+    except RuntimeError:
+        raise
     except Exception as e:
-        print(f"缩放期间出错: {e}")
-        raise HTTPException(status_code=500, detail="数据缩放期间出错。")
-
-    # 为模型重塑形状: (batch_size, seq_len, input_dim) -> (1, 1, 12)
-    # 假设单个记录预测的 seq_len 为 1
-    # 添加 seq_len 维度
-    input_tensor = torch.tensor(features_std, dtype=torch.float32, device=device).unsqueeze(1)
-
-    # 调试: 在模型推理前打印张量形状
-    # print(f"输入张量形状: {input_tensor.shape}") # 应为 [1, 1, 12]
-
-    with torch.no_grad(): # 推理时禁用梯度计算
-        try:
-            reconstructed = model(input_tensor)
-            # 调试: 打印重构张量的形状
-            # print(f"重构张量形状: {reconstructed.shape}") # 应与输入形状匹配
-
-            # 确保形状匹配以进行 MSE 计算
-            if reconstructed.shape != input_tensor.shape:
-                 raise ValueError(f"形状不匹配: 输入 {input_tensor.shape}, 重构 {reconstructed.shape}")
-
-            mse_loss = torch.mean((reconstructed - input_tensor) ** 2).item()
-
-        except Exception as e:
-            print(f"模型推理或损失计算期间出错: {e}")
-            # 根据潜在的模型问题考虑更具体的错误处理
-            raise HTTPException(status_code=500, detail=f"模型推理错误: {e}")
+        print(f"模型推理或损失计算期间出错: {e}")
+        raise HTTPException(status_code=500, detail=f"模型推理错误: {e}")
 
     print(f'车辆: {vehicle_id} 的 MSE: {mse_loss:.4f}') # 记录 MSE
     is_anomaly = mse_loss > threshold
@@ -460,6 +468,100 @@ async def detect(record: Record):
         print(f"/detect-anomaly 端点出现意外错误: {e}") # 记录错误
         raise HTTPException(status_code=500, detail=f"发生意外错误: {e}")
 
+@app.post("/detect-anomaly/batch",
+          response_model=BatchResponse,
+          summary="批量检测异常",
+          tags=["异常检测"])
+def detect_batch(request: BatchRequest):
+    """
+    接收一批已提取的特征，一次前向计算返回每行的重构误差。
+
+    - **features**: 二维数组，每行 12 维特征。
+
+    返回:
+    - 包含 'mse' 列表和 'threshold' 的 JSON 对象，顺序与请求一致。
+    """
+    if not request.features:
+        return {"mse": [], "threshold": 0.1}
+    features = np.array(request.features, dtype=np.float64)
+    if features.ndim != 2 or features.shape[1] != 12:
+        raise HTTPException(status_code=422, detail=f"特征形状应为 (n, 12)，实际为 {features.shape}")
+    try:
+        mse = score_batch(features, model, scaler, device=DEVICE)
+    except Exception as e:
+        print(f"/detect-anomaly/batch 端点出现意外错误: {e}")
+        raise HTTPException(status_code=500, detail=f"模型推理错误: {e}")
+    return {"mse": mse.tolist(), "threshold": 0.1}
+
+# --- Unix 域套接字二进制接口 ---
+# 与 Java 端 org.swu.vehiclecloud.util.UdsInferenceBackend 配合使用，省去 HTTP 和 JSON 的开销。
+# 帧格式 (小端，len 为其后的字节数):
+#   请求: int32 len | int64 request_id | int32 count | int32 dim | float64[count*dim] 原始特征
+#   响应: int32 len | int64 request_id | int32 status | status=0: int32 count | float32[count] MSE
+#                                                    | status!=0: UTF-8 错误信息
+# 客户端会流水线发送多个请求，服务端按到达顺序逐帧处理，响应带回请求编号。
+UDS_PATH = os.environ.get("ML_UDS_PATH", "/tmp/vehiclecloud-ml.sock")
+UDS_MAX_FRAME_BYTES = 64 * 1024 * 1024
+
+def recv_exact(sock, n):
+    """从套接字读取恰好 n 个字节，连接关闭时返回 None。"""
+    buf = bytearray(n)
+    view = memoryview(buf)
+    while n > 0:
+        read = sock.recv_into(view, n)
+        if read == 0:
+            return None
+        view = view[read:]
+        n -= read
+    return buf
+
+class UdsInferenceHandler(socketserver.BaseRequestHandler):
+    """每个连接一个线程，循环读取请求帧并写回 MSE。"""
+
+    def handle(self):
+        sock = self.request
+        while True:
+            header = recv_exact(sock, 4)
+            if header is None:
+                return
+            (length,) = struct.unpack('<i', header)
+            if length < 16 or length > UDS_MAX_FRAME_BYTES:
+                print(f"UDS 请求帧长度非法: {length}，关闭连接")
+                return
+            frame = recv_exact(sock, length)
+            if frame is None:
+                return
+            request_id, count, dim = struct.unpack_from('<qii', frame, 0)
+            try:
+                if count * dim * 8 != length - 16:
+                    raise ValueError(f"特征数量 {count}x{dim} 与帧长度 {length} 不一致")
+                if dim != 12:
+                    raise ValueError(f"特征维度应为 12，实际为 {dim}")
+                features = np.frombuffer(frame, dtype='<f8', count=count * dim, offset=16).reshape(count, dim)
+                mse = score_batch(features, model, scaler, device=DEVICE).astype('<f4')
+                body = struct.pack('<qii', request_id, 0, count) + mse.tobytes()
+            except Exception as e:
+                print(f"UDS 推理请求 {request_id} 出错: {e}")
+                body = struct.pack('<qi', request_id, 1) + str(e).encode('utf-8')
+            sock.sendall(struct.pack('<i', len(body)) + body)
+
+def start_uds_server(path=UDS_PATH):
+    """在后台线程中启动 UDS 服务，平台不支持 AF_UNIX 时跳过。"""
+    if not hasattr(socket, 'AF_UNIX'):
+        print("当前平台不支持 Unix 域套接字，跳过 UDS 接口")
+        return None
+    if os.path.exists(path):
+        os.remove(path) # 清理上次异常退出残留的套接字文件
+    server = socketserver.ThreadingUnixStreamServer(path, UdsInferenceHandler)
+    server.daemon_threads = True
+    threading.Thread(target=server.serve_forever, name="uds-inference", daemon=True).start()
+    print(f"UDS 推理接口监听于 {path}")
+    return server
+
+@app.on_event("startup")
+def on_startup():
+    start_uds_server()
+
 @app.get("/", include_in_schema=False) # 在 API 文档中不显示此路径
 async def root():
     return {"message": "欢迎使用异常检测 API。将数据 POST 到 /detect-anomaly/"}
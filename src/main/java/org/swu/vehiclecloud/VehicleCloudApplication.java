@@ -8,12 +8,6 @@ import org.springframework.boot.context.properties.EnableConfigurationProperties
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.transaction.annotation.EnableTransactionManagement;
 import org.swu.vehiclecloud.config.MqttConfigProperties;
-import org.springframework.boot.CommandLineRunner;
-import org.springframework.scheduling.annotation.Async;
-import org.springframework.stereotype.Component;
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.InputStreamReader;
 
 /**
  * 车辆云平台主启动类
@@ -23,6 +17,7 @@ import java.io.InputStreamReader;
  * @ServletComponentScan 启用Servlet组件扫描
  * @MapperScan 指定MyBatis mapper接口扫描路径
  * @EnableConfigurationProperties 启用配置属性绑定，用于MQTT配置
+ * pythonMLAnomaly 服务进程由 MlSidecarServiceImpl 在后台启动和守护
  */
 @SpringBootApplication
 @ServletComponentScan
@@ -30,8 +25,7 @@ import java.io.InputStreamReader;
 @EnableConfigurationProperties(MqttConfigProperties.class)
 @EnableTransactionManagement
 @EnableScheduling  // 启用定时任务
-@Component
-public class VehicleCloudApplication implements CommandLineRunner {
+public class VehicleCloudApplication {
 
     /**
      * 应用程序主入口
@@ -40,25 +34,6 @@ public class VehicleCloudApplication implements CommandLineRunner {
     public static void main(String[] args) {
         SpringApplication.run(VehicleCloudApplication.class, args);
     }
-
-    @Override
-    @Async
-    public void run(String... args) throws Exception {
-        try {
-            ProcessBuilder pb = new ProcessBuilder("python", "pythonMLAnomaly/main.py");
-            pb.redirectErrorStream(true);
-            Process process = pb.start();
-
-            BufferedReader reader = new BufferedReader(
-                new InputStreamReader(process.getInputStream()));
-            String line;
-            while ((line = reader.readLine()) != null) {
-                System.out.println("Python输出: " + line);
-            }
-        } catch (IOException e) {
-            System.err.println("启动Python进程失败: " + e.getMessage());
-        }
-    }
 }
     /*
 //                            _ooOoo_  
@@ -0,0 +1,28 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "cluster")
+public class ClusterConfig {
+    // 最小缩放级别
+    private int minZoom = 3;
+
+    // 最大缩放级别
+    private int maxZoom = 18;
+
+    // 聚类单元边长对应的屏幕像素数
+    private int cellPixels = 64;
+
+    // 单次返回的聚类数上限，超过时使用更粗的级别
+    private int maxClusters = 2000;
+
+    // SSE聚类推送间隔(毫秒)
+    private long streamIntervalMs = 1000;
+
+    // 超过该时间(毫秒)没有位置更新的车辆从聚类中移除
+    private long staleMs = 300000;
+}
@@ -0,0 +1,22 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "location.dead-reckoning")
+public class DeadReckoningConfig {
+    // 是否按航位推算偏差决定是否推送车辆位置，关闭时每帧都推送
+    private boolean enabled = true;
+
+    // 前端外推位置与真实位置的偏差容差(米)
+    private double toleranceMeters = 5;
+
+    // 最长推送间隔(毫秒)
+    private long heartbeatMs = 10000;
+
+    // 前端最长外推时间(毫秒)，须与前端 utils/deadReckoning.ts 中的 MAX_EXTRAPOLATE_MS 一致
+    private long maxExtrapolateMs = 5000;
+}
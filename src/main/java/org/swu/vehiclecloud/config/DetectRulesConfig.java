@@ -0,0 +1,79 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "detect.rules")
+public class DetectRulesConfig {
+    // 时钟偏差EWMA平滑系数
+    private double clockSkewAlpha = 0.05;
+
+    // 时钟偏差异常的标准差倍数
+    private double clockSkewK = 4.0;
+
+    // 时钟偏差异常的最小偏离(毫秒)
+    private double clockSkewMinDeviationMs = 100;
+
+    // 时钟偏差估计的预热样本数
+    private int clockSkewWarmup = 20;
+
+    // 预热期间时钟偏差的硬上限(毫秒)
+    private double clockSkewHardLimitMs = 10000;
+
+    // 位置跳变检测的隐含速度上限(米/秒)
+    private double geoMaxSpeedMps = 70;
+
+    // 位置跳变检测的最小跳变距离(米)
+    private double geoMinJumpMeters = 30;
+
+    // 连续多少帧彼此一致的跳变帧后重新选定位置锚点，不大于0时不重新选定
+    private int geoReanchorFrames = 3;
+
+    // 加速度差分窗口最大时间跨度(毫秒)
+    private long accelWindowMs = 1000;
+
+    // 加速度差分窗口最小时间跨度(毫秒)
+    private long accelMinSpanMs = 300;
+
+    // 急加速阈值(米/秒²)
+    private double harshAccelMps2 = 3.5;
+
+    // 急转弯横向加速度阈值(米/秒²)
+    private double harshLateralMps2 = 4.0;
+
+    // 急减速(制动)阈值(米/秒²)，取减速度的绝对值
+    private double harshBrakeMps2 = 5.0;
+
+    // 发动机扭矩滑动窗口大小(帧)
+    private int engineWindowSize = 50;
+
+    // 发动机扭矩突变判定所需的最少样本数
+    private int engineMinSamples = 20;
+
+    // 发动机扭矩突变的标准差倍数
+    private double engineTorqueK = 4.0;
+
+    // 发动机扭矩标准差下限，避免扭矩长期不变时过于敏感
+    private double engineMinStdDev = 5.0;
+
+    // 空挡/驻车挡下允许的最大扭矩
+    private double engineIdleMaxTorque = 100;
+
+    // 同一车辆同类异常的最小记录间隔(毫秒)
+    private long expCooldownMs = 1000;
+
+    // 统计异常评分的EWMA平滑系数
+    private double scoreAlpha = 0.02;
+
+    // 统计异常评分的预热样本数
+    private int scoreWarmup = 50;
+
+    // 参与更新的z分数上限
+    private double scoreZClip = 6.0;
+
+    // 综合异常分数(z²均值)超过该值时记录为统计异常
+    private double scoreThreshold = 9.0;
+}
@@ -0,0 +1,19 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "detect.sink")
+public class ExpSinkConfig {
+    // 每张异常表的待写入队列容量，队列满时丢弃新记录
+    private int queueCapacity = 10000;
+
+    // 单条批量插入语句的最大记录数
+    private int batchSize = 500;
+
+    // 批量写入间隔(毫秒)
+    private long flushIntervalMs = 200;
+}
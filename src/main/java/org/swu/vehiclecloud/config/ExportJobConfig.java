@@ -0,0 +1,28 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "export.job")
+public class ExportJobConfig {
+    // 导出工作线程数
+    private int workerThreads = 2;
+
+    // 等待执行的任务数上限，超过时拒绝提交
+    private int queueCapacity = 16;
+
+    // 导出文件存放目录，启动时清空其中的旧文件
+    private String directory = "exports";
+
+    // 已结束任务及其文件的保留时间(分钟)
+    private long retentionMinutes = 1440;
+
+    // 结束时间早于当前时间超过该值的时间范围视为已封闭，其导出结果可复用(秒)
+    private long closedRangeDelaySeconds = 300;
+
+    // SSE进度推送间隔(毫秒)
+    private long progressIntervalMs = 1000;
+}
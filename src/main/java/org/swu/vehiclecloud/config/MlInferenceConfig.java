@@ -0,0 +1,76 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ml.inference")
+public class MlInferenceConfig {
+    // 是否启用机器学习异常检测
+    private boolean enabled = false;
+
+    // 推理后端：http 调用 pythonMLAnomaly 服务；uds 通过Unix域套接字二进制协议调用；java 在JVM内加载导出的权重推理
+    private String backend = "http";
+
+    // 推理服务地址
+    private String baseUrl = "http://127.0.0.1:8081";
+
+    // uds 后端的套接字文件路径，需与 pythonMLAnomaly 的 ML_UDS_PATH 一致
+    private String socketPath = "/tmp/vehiclecloud-ml.sock";
+
+    // java 后端的权重文件，由 pythonMLAnomaly/export_weights.py 导出
+    private String modelPath = "pythonMLAnomaly/autoencoder_weights.bin";
+
+    // java 后端的推理线程数，0 表示使用CPU核数
+    private int javaThreads = 0;
+
+    // 基础采样率：每辆车每帧送去推理的概率
+    private double sampleBaseRate = 0.2;
+
+    // 提升采样率：可疑车辆每帧送去推理的概率上限
+    private double sampleBoostedRate = 1.0;
+
+    // 统计异常分数不高于该值时使用基础采样率
+    private double sampleScoreLow = 2.0;
+
+    // 统计异常分数不低于该值时使用提升采样率，区间内线性插值
+    private double sampleScoreHigh = 9.0;
+
+    // 触发规则异常后保持提升采样率的时间(毫秒)
+    private long sampleRuleBoostMs = 10000;
+
+    // 全车队每秒最多送去推理的帧数
+    private double budgetFps = 500;
+
+    // 只给提升采样使用的预算比例
+    private double budgetReserve = 0.3;
+
+    // 单批最大帧数
+    private int batchSize = 64;
+
+    // 凑批最长等待时间(毫秒)
+    private long lingerMs = 20;
+
+    // 待推理队列容量，队列满时丢弃新样本
+    private int queueCapacity = 4096;
+
+    // 同时在途的批请求上限
+    private int maxInflight = 4;
+
+    // 连接超时(毫秒)
+    private long connectTimeoutMs = 1000;
+
+    // 单个批请求超时(毫秒)
+    private long requestTimeoutMs = 2000;
+
+    // 连续失败多少次后熔断
+    private int breakerFailureThreshold = 5;
+
+    // 熔断持续时间(毫秒)，之后放行一个探测请求
+    private long breakerOpenMs = 10000;
+
+    // 重构误差(MSE)超过该值判定为异常
+    private double threshold = 0.1;
+}
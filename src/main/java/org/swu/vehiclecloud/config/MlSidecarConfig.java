@@ -0,0 +1,43 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ml.sidecar")
+public class MlSidecarConfig {
+    // 是否由本应用启动并守护 pythonMLAnomaly 服务进程
+    private boolean enabled = true;
+
+    // Python 解释器命令
+    private String command = "python";
+
+    // 服务脚本路径
+    private String script = "pythonMLAnomaly/main.py";
+
+    // 健康检查地址，返回200视为就绪
+    private String healthUrl = "http://127.0.0.1:8081/";
+
+    // 健康检查间隔(毫秒)
+    private long healthIntervalMs = 2000;
+
+    // 单次健康检查超时(毫秒)
+    private long healthTimeoutMs = 1000;
+
+    // 启动后超过该时间(毫秒)仍未就绪则重启，模型加载较慢时需调大
+    private long startupTimeoutMs = 180000;
+
+    // 就绪后连续多少次健康检查失败则重启
+    private int unhealthyThreshold = 3;
+
+    // 重启退避初始时间(毫秒)，每次连续失败翻倍
+    private long restartBackoffMs = 1000;
+
+    // 重启退避上限(毫秒)
+    private long restartBackoffMaxMs = 60000;
+
+    // 停止进程时等待其正常退出的时间(毫秒)，超时后强制结束
+    private long stopTimeoutMs = 5000;
+}
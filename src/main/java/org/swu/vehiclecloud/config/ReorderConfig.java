@@ -0,0 +1,25 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "ingest.reorder")
+public class ReorderConfig {
+    // 是否启用按messageId的重排与去重
+    private boolean enabled = true;
+
+    // 每辆车重排缓冲区容量(帧)
+    private int capacity = 32;
+
+    // 乱序帧最长等待时间(毫秒)
+    private long budgetMs = 200;
+
+    // 车辆无数据多久后清理其状态(秒)
+    private int idleEvictSeconds = 60;
+
+    // 车辆无数据多久后清理其消息编号统计(秒)，清理后累计值并入全车队统计
+    private int sequenceIdleEvictSeconds = 600;
+}
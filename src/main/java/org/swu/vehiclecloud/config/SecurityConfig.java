@@ -6,6 +6,7 @@ import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.swu.vehiclecloud.controller.TelemetryFeedEndpoint;
 import org.swu.vehiclecloud.util.JwtAuthFilter;
 import org.swu.vehiclecloud.util.JwtTokenProvider;
 
@@ -23,6 +24,8 @@ public class SecurityConfig {
                         // 这段代码表明登录和注册方法不需要JWT认证，其它所有方法均需要JWT认证
                         .requestMatchers("/api/usermanage/public/register").permitAll()
                         .requestMatchers("/api/usermanage/public/login").permitAll()
+                        // WebSocket握手无法携带请求头，由端点自行校验 ?token= 参数
+                        .requestMatchers(TelemetryFeedEndpoint.PATH).permitAll()
                         .anyRequest().authenticated());
 
         // 添加自定义的 JWT 过滤器
@@ -0,0 +1,52 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.HashMap;
+import java.util.Map;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "sse.push")
+public class SsePushConfig {
+    // 车辆位置合并推送间隔(毫秒)
+    private long locationIntervalMs = 250;
+
+    // 未单独配置的数据流每秒最多推送次数，不大于0表示不限流
+    private double defaultRatePerSecond = 4;
+
+    // 未单独配置的数据流突发容量
+    private int defaultBurst = 4;
+
+    // 每个数据流保留的最近事件数，用于断线重连时按Last-Event-ID补发
+    private int replayCapacity = 256;
+
+    // 没有订阅者超过该时间(毫秒)的数据流被移除，重放环随之丢弃
+    private long idleStreamTtlMs = 600000;
+
+    // 每个连接的待发送事件上限
+    private int subscriberBuffer = 256;
+
+    // 待发送队列满时的处理方式：drop-oldest 丢弃最早的事件，disconnect 断开连接
+    private String overflowPolicy = "drop-oldest";
+
+    // 待发送事件数超过该值视为积压
+    private int lagWatermark = 64;
+
+    // 持续积压超过该时间(毫秒)的连接被断开
+    private long lagEvictMs = 30000;
+
+    // 按数据流ID单独配置的限流参数
+    private Map<String, Limit> streams = new HashMap<>();
+
+    @Data
+    public static class Limit {
+        // 每秒最多推送次数，不大于0表示不限流
+        private double ratePerSecond = 4;
+
+        // 突发容量
+        private int burst = 4;
+    }
+}
@@ -0,0 +1,28 @@
+package org.swu.vehiclecloud.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+@Data
+@Configuration
+@ConfigurationProperties(prefix = "telemetry.feed")
+public class TelemetryFeedConfig {
+    // 是否启用按订阅过滤的WebSocket位置推送
+    private boolean enabled = true;
+
+    // 空间网格单元边长(度)
+    private double cellDegrees = 0.05;
+
+    // 单个范围订阅最多登记的网格单元数，超过时逐个检查
+    private int maxCellsPerSubscription = 4096;
+
+    // 单个连接最多订阅的车辆数
+    private int maxVehicleIds = 1000;
+
+    // 最大连接数
+    private int maxSessions = 500;
+
+    // 超过该时间没有位置更新的车辆不再保留最新位置和二进制编号(毫秒)
+    private long staleMs = 300000;
+}
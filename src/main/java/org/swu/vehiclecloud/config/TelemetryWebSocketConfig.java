@@ -0,0 +1,78 @@
+package org.swu.vehiclecloud.config;
+
+import jakarta.servlet.ServletContext;
+import jakarta.websocket.DeploymentException;
+import jakarta.websocket.server.ServerContainer;
+import jakarta.websocket.server.ServerEndpointConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.context.ServletContextAware;
+import org.swu.vehiclecloud.controller.TelemetryFeedEndpoint;
+import org.swu.vehiclecloud.mapper.UserMapper;
+import org.swu.vehiclecloud.service.TelemetryFeedService;
+import org.swu.vehiclecloud.util.JwtTokenProvider;
+
+/**
+ * 向内嵌Tomcat的WebSocket容器注册位置订阅端点
+ * 每个连接创建一个端点实例，依赖由Spring注入
+ */
+@Configuration
+public class TelemetryWebSocketConfig implements ServletContextAware, SmartInitializingSingleton {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryWebSocketConfig.class);
+
+    private final TelemetryFeedConfig config;
+
+    private final TelemetryFeedService telemetryFeedService;
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    private final UserMapper userMapper;
+
+    private ServletContext servletContext;
+
+    public TelemetryWebSocketConfig(TelemetryFeedConfig config, TelemetryFeedService telemetryFeedService,
+                                    JwtTokenProvider jwtTokenProvider, UserMapper userMapper) {
+        this.config = config;
+        this.telemetryFeedService = telemetryFeedService;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public void setServletContext(ServletContext servletContext) {
+        this.servletContext = servletContext;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!config.isEnabled()) {
+            log.info("WebSocket位置订阅未启用");
+            return;
+        }
+        ServerContainer container = servletContext == null ? null
+                : (ServerContainer) servletContext.getAttribute(ServerContainer.class.getName());
+        if (container == null) {
+            log.warn("未找到WebSocket容器, 位置订阅端点未注册");
+            return;
+        }
+        ServerEndpointConfig endpointConfig = ServerEndpointConfig.Builder
+                .create(TelemetryFeedEndpoint.class, TelemetryFeedEndpoint.PATH)
+                .configurator(new ServerEndpointConfig.Configurator() {
+                    @Override
+                    @SuppressWarnings("unchecked")
+                    public <T> T getEndpointInstance(Class<T> endpointClass) {
+                        return (T) new TelemetryFeedEndpoint(telemetryFeedService, jwtTokenProvider, userMapper);
+                    }
+                })
+                .build();
+        try {
+            container.addEndpoint(endpointConfig);
+            log.info("WebSocket位置订阅端点已注册: {}", TelemetryFeedEndpoint.PATH);
+        } catch (DeploymentException e) {
+            throw new IllegalStateException("注册WebSocket位置订阅端点失败", e);
+        }
+    }
+}
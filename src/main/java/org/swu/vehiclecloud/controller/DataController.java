@@ -8,8 +8,14 @@ import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
 import org.swu.vehiclecloud.controller.template.ApiResult;
 import org.swu.vehiclecloud.dto.AnomalyStat;
+import org.swu.vehiclecloud.dto.ClusterSnapshot;
+import org.swu.vehiclecloud.dto.LocationPushStats;
+import org.swu.vehiclecloud.dto.SsePushStats;
+import org.swu.vehiclecloud.dto.SseSubscriberStats;
 import org.swu.vehiclecloud.dto.VehicleExceptionCount;
 import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.service.LocationPushService;
+import org.swu.vehiclecloud.service.VehicleClusterService;
 import org.swu.vehiclecloud.annotations.PreAuthorizeRole;
 import org.swu.vehiclecloud.listener.MqttMessageListener;
 import reactor.core.publisher.Flux;
@@ -34,13 +40,53 @@ public class DataController {
     @Autowired
     private MqttMessageListener mqttMessageListener;
 
+    @Autowired
+    private VehicleClusterService vehicleClusterService;
+
+    @Autowired
+    private LocationPushService locationPushService;
+
     /**
      * 获取SSE数据流 (WebFlux)
+     * 浏览器断线自动重连时携带Last-Event-ID请求头，服务端据此补发断线期间的事件
      */
     @GetMapping(value = "/public/ssestream/{ID}", produces = MediaType.TEXT_EVENT_STREAM_VALUE) // 指定流式响应类型
     @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
-    public Flux<ServerSentEvent<String>> streamData(@PathVariable("ID") String id) {
-        return dataService.streamData(id);
+    public Flux<ServerSentEvent<String>> streamData(@PathVariable("ID") String id,
+                                                    @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return dataService.streamData(id, lastEventId);
+    }
+
+    /**
+     * 在一个连接上订阅多个SSE数据流，事件名为数据流ID
+     * 例如 /public/ssestream-mux?ids=1,3,4,5,6
+     */
+    @GetMapping(value = "/public/ssestream-mux", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public Flux<ServerSentEvent<String>> streamMultiplexed(@RequestParam("ids") List<String> ids,
+                                                           @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return dataService.streamMultiplexed(ids, lastEventId);
+    }
+
+    /**
+     * 获取视野内的车辆聚类
+     * 例如 /public/clusters?zoom=12&bbox=106.2,29.3,106.8,29.8
+     */
+    @GetMapping("/public/clusters")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<ClusterSnapshot> getClusters(@RequestParam("zoom") int zoom,
+                                                  @RequestParam("bbox") List<Double> bbox) {
+        return ApiResult.of(200, "OK", vehicleClusterService.getClusters(zoom, bbox));
+    }
+
+    /**
+     * 订阅视野内的车辆聚类，聚类变化时推送，事件名为clusters；视野或缩放级别变化时客户端重新连接
+     */
+    @GetMapping(value = "/public/clusters/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public Flux<ServerSentEvent<String>> streamClusters(@RequestParam("zoom") int zoom,
+                                                        @RequestParam("bbox") List<Double> bbox) {
+        return vehicleClusterService.streamClusters(zoom, bbox);
     }
 
     /**
@@ -52,6 +98,33 @@ public class DataController {
         dataService.setPushContent(id, content);
     }
 
+    /**
+     * 获取各SSE数据流的推送统计
+     */
+    @GetMapping("/public/ssestream-stats")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<List<SsePushStats>> getPushStats() {
+        return ApiResult.of(200, "OK", dataService.getPushStats());
+    }
+
+    /**
+     * 获取各SSE连接的待发送队列和延迟统计，用于定位读取过慢的客户端
+     */
+    @GetMapping("/public/ssestream-subscribers")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<List<SseSubscriberStats>> getSubscriberStats() {
+        return ApiResult.of(200, "OK", dataService.getSubscriberStats());
+    }
+
+    /**
+     * 获取车辆位置推送的航位推算统计，reductionRatio 为收到的帧数与推送数之比
+     */
+    @GetMapping("/public/location-push-stats")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<LocationPushStats> getLocationPushStats() {
+        return ApiResult.of(200, "OK", locationPushService.getStats());
+    }
+
     /**
      * 获取所有异常的数量
      */
@@ -0,0 +1,70 @@
+package org.swu.vehiclecloud.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.*;
+import org.swu.vehiclecloud.annotations.PreAuthorizeRole;
+import org.swu.vehiclecloud.controller.template.ApiResult;
+import org.swu.vehiclecloud.dto.AnomalyScoreStat;
+import org.swu.vehiclecloud.dto.ClockSkewStat;
+import org.swu.vehiclecloud.dto.MlInferenceStats;
+import org.swu.vehiclecloud.dto.MlSidecarStatus;
+import org.swu.vehiclecloud.service.DetectionStatsService;
+import org.swu.vehiclecloud.service.MlInferenceService;
+import org.swu.vehiclecloud.service.MlSidecarService;
+
+import java.util.List;
+
+/**
+ * 流式异常检测控制器
+ * 提供各车辆检测器在线估计值的查询接口
+ */
+@RestController
+@RequestMapping("/api/detection")
+@CrossOrigin(origins = "*")
+public class DetectionController {
+
+    @Autowired
+    private DetectionStatsService detectionStatsService;
+
+    @Autowired
+    private MlInferenceService mlInferenceService;
+
+    @Autowired
+    private MlSidecarService mlSidecarService;
+
+    /**
+     * 获取各车辆已学习的时钟偏差
+     */
+    @GetMapping("/public/clock-skew")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<List<ClockSkewStat>> getClockSkewTable() {
+        return ApiResult.of(200, "OK", detectionStatsService.getClockSkewTable());
+    }
+
+    /**
+     * 获取各车辆最近一帧的统计异常分数
+     */
+    @GetMapping("/public/anomaly-scores")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<List<AnomalyScoreStat>> getAnomalyScores() {
+        return ApiResult.of(200, "OK", detectionStatsService.getAnomalyScores());
+    }
+
+    /**
+     * 获取机器学习推理客户端运行统计
+     */
+    @GetMapping("/public/ml-inference")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<MlInferenceStats> getMlInferenceStats() {
+        return ApiResult.of(200, "OK", mlInferenceService.getStats());
+    }
+
+    /**
+     * 获取机器学习服务进程运行状态
+     */
+    @GetMapping("/public/ml-sidecar")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<MlSidecarStatus> getMlSidecarStatus() {
+        return ApiResult.of(200, "OK", mlSidecarService.getStatus());
+    }
+}
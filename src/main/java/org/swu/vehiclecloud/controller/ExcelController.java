@@ -1,13 +1,20 @@
 package org.swu.vehiclecloud.controller;
 
 import org.swu.vehiclecloud.annotations.PreAuthorizeRole;
+import org.swu.vehiclecloud.controller.template.ApiResult;
 import org.swu.vehiclecloud.service.ExcelService;
+import org.swu.vehiclecloud.service.ExportJobService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.io.Resource;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.swu.vehiclecloud.dto.ExcelExportRequest;
 import org.swu.vehiclecloud.dto.ExcelExportAllVehiclesRequest;
+import org.swu.vehiclecloud.dto.ExportJobStatus;
+import reactor.core.publisher.Flux;
 
 import java.util.List;
 import java.util.Map;
@@ -20,6 +27,9 @@ public class ExcelController {
     @Autowired
     private ExcelService excelService;
 
+    @Autowired
+    private ExportJobService exportJobService;
+
     /**
      * 导出指定表格的Excel文件
      * @param tableName 需要导出的表格名称
@@ -27,7 +37,7 @@ public class ExcelController {
      */
     @GetMapping("/business/tables/{tableName}/export")
     @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
-    public ResponseEntity<Resource> exportExcel(@PathVariable String tableName) {
+    public ResponseEntity<StreamingResponseBody> exportExcel(@PathVariable String tableName) {
         return excelService.exportExcel(tableName);
     }
 
@@ -38,7 +48,7 @@ public class ExcelController {
      */
     @PostMapping("/business/tables/combined-export")
     @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
-    public ResponseEntity<Resource> exportCombinedExcel(
+    public ResponseEntity<StreamingResponseBody> exportCombinedExcel(
             @RequestBody ExcelExportRequest request) {
         return excelService.exportCombinedExcel(
             request.getVehicleId(), 
@@ -56,7 +66,7 @@ public class ExcelController {
      */
     @PostMapping("/business/tables/all-vehicles-exceptions-export")
     @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
-    public ResponseEntity<Resource> exportAllVehiclesExceptions(
+    public ResponseEntity<StreamingResponseBody> exportAllVehiclesExceptions(
             @RequestBody ExcelExportAllVehiclesRequest request) {
         return excelService.exportAllVehiclesExceptions(
             request.getStartTime(),
@@ -65,4 +75,70 @@ public class ExcelController {
             request.getSelectedColumns()
         );
     }
-}
\ No newline at end of file
+
+    /**
+     * 提交后台导出指定表格的任务
+     * @param tableName 需要导出的表格名称
+     * @return 任务状态
+     */
+    @PostMapping("/business/export-jobs/tables/{tableName}")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
+    public ApiResult<ExportJobStatus> submitTableExport(@PathVariable String tableName) {
+        return ApiResult.of(200, "OK", exportJobService.submitTableExport(tableName));
+    }
+
+    /**
+     * 提交后台导出指定车辆组合数据的任务
+     * @param request 包含车辆ID、时间范围、选定表和列的请求对象
+     * @return 任务状态
+     */
+    @PostMapping("/business/export-jobs/combined")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
+    public ApiResult<ExportJobStatus> submitCombinedExport(@RequestBody ExcelExportRequest request) {
+        return ApiResult.of(200, "OK", exportJobService.submitCombinedExport(request));
+    }
+
+    /**
+     * 提交后台导出时间段内所有车辆异常数据的任务
+     * @param request 包含时间范围、选定表和列的请求对象
+     * @return 任务状态
+     */
+    @PostMapping("/business/export-jobs/all-vehicles-exceptions")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
+    public ApiResult<ExportJobStatus> submitAllVehiclesExport(@RequestBody ExcelExportAllVehiclesRequest request) {
+        return ApiResult.of(200, "OK", exportJobService.submitAllVehiclesExport(request));
+    }
+
+    /**
+     * 查询导出任务状态
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    @GetMapping("/business/export-jobs/{jobId}")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
+    public ApiResult<ExportJobStatus> getExportJob(@PathVariable String jobId) {
+        return ApiResult.of(200, "OK", exportJobService.getStatus(jobId));
+    }
+
+    /**
+     * 订阅导出任务进度，事件名为progress，任务结束后流结束
+     * @param jobId 任务ID
+     * @return SSE事件流
+     */
+    @GetMapping(value = "/business/export-jobs/{jobId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
+    public Flux<ServerSentEvent<String>> streamExportJob(@PathVariable String jobId) {
+        return exportJobService.streamStatus(jobId);
+    }
+
+    /**
+     * 下载导出任务生成的文件，支持Range请求断点续传
+     * @param jobId 任务ID
+     * @return 包含Excel文件的HTTP响应
+     */
+    @GetMapping("/business/export-jobs/{jobId}/file")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN"})
+    public ResponseEntity<Resource> downloadExportJob(@PathVariable String jobId) {
+        return exportJobService.download(jobId);
+    }
+}
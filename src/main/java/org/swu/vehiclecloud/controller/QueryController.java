@@ -1,18 +1,24 @@
 package org.swu.vehiclecloud.controller;
 
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.swu.vehiclecloud.annotations.PreAuthorizeRole;
+import org.swu.vehiclecloud.controller.template.ApiResult;
+import org.swu.vehiclecloud.dto.TablePage;
 import org.swu.vehiclecloud.service.QueryService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 import org.swu.vehiclecloud.dto.ExcelExportRequest;
 import org.swu.vehiclecloud.dto.ExcelExportAllVehiclesRequest;
 
-import java.util.List;
-import java.util.Map;
+import java.io.IOException;
+import java.time.LocalDateTime;
 
 /**
  * 查询控制器
  * 提供查询异常数据的API接口
+ * 返回整表或多表数据的接口以数据库游标流式写出JSON数组，响应格式不变，服务端不缓存全部结果
  */
 @RestController
 @RequestMapping("/api/query")
@@ -25,46 +31,99 @@ public class QueryController {
     /**
      * 查询指定表格的数据
      * @param tableName 需要查询的表格名称
-     * @return 查询结果列表
+     * @param response 以JSON数组流式写出查询结果
      */
     @GetMapping("/business/tables/{tableName}")
     @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
-    public List<Map<String, Object>> queryTable(@PathVariable String tableName) {
-        return queryService.queryTable(tableName);
+    public void queryTable(@PathVariable String tableName, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        queryService.streamTable(tableName, response.getOutputStream());
+    }
+
+    /**
+     * 按 (timestamp, id) 键集分页查询指定表格的数据
+     * 例如 /business/tables/speed_exp/page?limit=500，之后传入返回的 nextCursor 取下一页
+     * @param tableName 需要查询的表格名称
+     * @param vehicleId 车辆ID，可选
+     * @param startTime 开始时间，可选
+     * @param endTime 结束时间，可选
+     * @param cursor 上一页返回的游标，第一页不传
+     * @param limit 每页行数，默认500，最大5000
+     * @return 本页数据和下一页游标
+     */
+    @GetMapping("/business/tables/{tableName}/page")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<TablePage> queryTablePage(
+            @PathVariable String tableName,
+            @RequestParam(required = false) String vehicleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer limit) {
+        return ApiResult.of(200, "OK",
+                queryService.queryTablePage(tableName, vehicleId, startTime, endTime, cursor, limit));
+    }
+
+    /**
+     * 以NDJSON(每行一个JSON对象)流式导出指定表格的数据，按 (timestamp, id) 升序
+     * @param tableName 需要查询的表格名称
+     * @param vehicleId 车辆ID，可选
+     * @param startTime 开始时间，可选
+     * @param endTime 结束时间，可选
+     * @param response 流式写出查询结果
+     */
+    @GetMapping("/business/tables/{tableName}/stream")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public void streamTable(
+            @PathVariable String tableName,
+            @RequestParam(required = false) String vehicleId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startTime,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endTime,
+            HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_NDJSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        queryService.streamTableNdjson(tableName, vehicleId, startTime, endTime, response.getOutputStream());
     }
 
     /**
      * 查询指定车辆和时间范围内的组合数据
      * @param request 包含车辆ID、时间范围、选定表和列的请求对象
-     * @return 查询结果列表
+     * @param response 以JSON数组流式写出查询结果
      */
     @PostMapping("/business/tables/combined-query")
     @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
-    public List<Map<String, Object>> queryCombinedData(
-            @RequestBody ExcelExportRequest request) {
-        return queryService.queryCombinedData(
+    public void queryCombinedData(
+            @RequestBody ExcelExportRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        queryService.streamCombinedData(
             request.getVehicleId(), 
             request.getStartTime(), 
             request.getEndTime(), 
             request.getSelectedTables(), 
-            request.getSelectedColumns()
+            request.getSelectedColumns(),
+            response.getOutputStream()
         );
     }
     
     /**
      * 查询时间段内所有车辆的异常数据
      * @param request 包含时间范围、选定表和列的请求对象
-     * @return 查询结果列表
+     * @param response 以JSON数组流式写出查询结果
      */
     @PostMapping("/business/tables/all-vehicles-exceptions-query")
     @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
-    public List<Map<String, Object>> queryAllVehiclesExceptions(
-            @RequestBody ExcelExportAllVehiclesRequest request) {
-        return queryService.queryAllVehiclesExceptions(
+    public void queryAllVehiclesExceptions(
+            @RequestBody ExcelExportAllVehiclesRequest request, HttpServletResponse response) throws IOException {
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setCharacterEncoding("UTF-8");
+        queryService.streamAllVehiclesExceptions(
             request.getStartTime(),
             request.getEndTime(),
             request.getSelectedTables(),
-            request.getSelectedColumns()
+            request.getSelectedColumns(),
+            response.getOutputStream()
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package org.swu.vehiclecloud.controller;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.MediaType;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.web.bind.annotation.*;
+import org.swu.vehiclecloud.annotations.PreAuthorizeRole;
+import org.swu.vehiclecloud.controller.template.ApiResult;
+import org.swu.vehiclecloud.dto.SequenceStats;
+import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.service.SequenceStatsService;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * 消息编号连续性统计控制器
+ * 提供车辆及全车队的丢包率、缺口分布和乱序深度查询接口
+ */
+@RestController
+@RequestMapping("/api/sequencestats")
+@CrossOrigin(origins = "*")
+public class SequenceStatsController {
+
+    @Autowired
+    private SequenceStatsService sequenceStatsService;
+
+    @Autowired
+    private DataService dataService;
+
+    /**
+     * 获取全车队汇总统计
+     */
+    @GetMapping("/public/fleet")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<SequenceStats> getFleetStats() {
+        return ApiResult.of(200, "OK", sequenceStatsService.getFleetStats());
+    }
+
+    /**
+     * 获取所有在线车辆的统计，按实时丢包率降序
+     */
+    @GetMapping("/public/vehicles")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<List<SequenceStats>> getAllVehicleStats() {
+        return ApiResult.of(200, "OK", sequenceStatsService.getAllVehicleStats());
+    }
+
+    /**
+     * 获取单辆车的统计
+     * @param vehicleId 车辆ID
+     */
+    @GetMapping("/public/vehicles/{vehicleId}")
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public ApiResult<SequenceStats> getVehicleStats(@PathVariable String vehicleId) {
+        SequenceStats stats = sequenceStatsService.getVehicleStats(vehicleId);
+        if (stats == null) {
+            return ApiResult.of(404, "Vehicle not found: " + vehicleId);
+        }
+        return ApiResult.of(200, "OK", stats);
+    }
+
+    /**
+     * 订阅统计SSE数据流（每5秒推送一次，等同于 /api/datacontroller/public/ssestream/12）
+     */
+    @GetMapping(value = "/public/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorizeRole(roles = {"SYS_ADMIN", "BIZ_ADMIN", "USER"})
+    public Flux<ServerSentEvent<String>> streamStats(@RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return dataService.streamData("12", lastEventId);
+    }
+}
@@ -0,0 +1,131 @@
+package org.swu.vehiclecloud.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.Endpoint;
+import jakarta.websocket.EndpointConfig;
+import jakarta.websocket.MessageHandler;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.swu.vehiclecloud.entity.User;
+import org.swu.vehiclecloud.mapper.UserMapper;
+import org.swu.vehiclecloud.service.TelemetryFeedService;
+import org.swu.vehiclecloud.util.JwtTokenProvider;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 按订阅过滤的车辆位置WebSocket端点
+ * <p>
+ * 浏览器WebSocket无法设置请求头，JWT通过 ?token= 参数传递，连接建立时校验。
+ * 客户端发送订阅条件，每次发送都替换之前的条件，两项都给出时取并集：
+ * <pre>
+ * {"vehicles": ["V001", "V002"], "bbox": [最小经度, 最小纬度, 最大经度, 最大纬度], "encoding": "compact"}
+ * </pre>
+ * 服务端只推送满足条件的车辆的位置，默认为与数据流1相同的JSON文本帧；
+ * encoding为compact时改为二进制差分帧，格式见 {@link org.swu.vehiclecloud.util.CompactLocationEncoder}。
+ * </p>
+ */
+public class TelemetryFeedEndpoint extends Endpoint {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryFeedEndpoint.class);
+
+    public static final String PATH = "/ws/telemetry";
+
+    private static final Set<String> ROLES = Set.of("SYS_ADMIN", "BIZ_ADMIN", "USER");
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final TelemetryFeedService telemetryFeedService;
+
+    private final JwtTokenProvider jwtTokenProvider;
+
+    private final UserMapper userMapper;
+
+    public TelemetryFeedEndpoint(TelemetryFeedService telemetryFeedService,
+                                 JwtTokenProvider jwtTokenProvider, UserMapper userMapper) {
+        this.telemetryFeedService = telemetryFeedService;
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.userMapper = userMapper;
+    }
+
+    @Override
+    public void onOpen(Session session, EndpointConfig endpointConfig) {
+        List<String> tokens = session.getRequestParameterMap().get("token");
+        if (tokens == null || tokens.isEmpty() || !authorized(tokens.get(0))) {
+            close(session, CloseReason.CloseCodes.VIOLATED_POLICY, "unauthorized");
+            return;
+        }
+        if (!telemetryFeedService.register(session)) {
+            close(session, CloseReason.CloseCodes.TRY_AGAIN_LATER, "too many sessions");
+            return;
+        }
+        session.setMaxTextMessageBufferSize(64 * 1024);
+        session.addMessageHandler(String.class, (MessageHandler.Whole<String>) message -> onSubscribe(session, message));
+    }
+
+    @Override
+    public void onClose(Session session, CloseReason closeReason) {
+        telemetryFeedService.unregister(session);
+    }
+
+    @Override
+    public void onError(Session session, Throwable thr) {
+        log.debug("位置订阅连接异常 ID[{}]: {}", session.getId(), thr.getMessage());
+        telemetryFeedService.unregister(session);
+    }
+
+    private void onSubscribe(Session session, String message) {
+        try {
+            JsonNode root = objectMapper.readTree(message);
+            List<String> vehicleIds = new ArrayList<>();
+            JsonNode vehicles = root.get("vehicles");
+            if (vehicles != null && vehicles.isArray()) {
+                for (JsonNode node : vehicles) {
+                    vehicleIds.add(node.asText());
+                }
+            }
+            double[] bbox = null;
+            JsonNode range = root.get("bbox");
+            if (range != null && range.isArray()) {
+                bbox = new double[range.size()];
+                for (int i = 0; i < bbox.length; i++) {
+                    bbox[i] = range.get(i).asDouble(Double.NaN);
+                }
+            }
+            JsonNode encoding = root.get("encoding");
+            boolean compact = encoding != null && "compact".equalsIgnoreCase(encoding.asText());
+            telemetryFeedService.subscribe(session, vehicleIds, bbox, compact);
+        } catch (IOException | IllegalArgumentException e) {
+            log.warn("位置订阅条件无效 ID[{}]: {}", session.getId(), e.getMessage());
+            telemetryFeedService.unregister(session);
+            close(session, CloseReason.CloseCodes.CANNOT_ACCEPT, "invalid subscription");
+        }
+    }
+
+    // 与JwtAuthFilter和@PreAuthorizeRole相同的校验：token未过期、签名有效且用户角色允许
+    private boolean authorized(String token) {
+        try {
+            if (!jwtTokenProvider.validateTokenExpiration(token)) {
+                return false;
+            }
+            String userId = jwtTokenProvider.getUserIdFromToken(token);
+            User user = userMapper.findById(Integer.parseInt(userId));
+            return user != null && ROLES.contains(user.getRole());
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+
+    private static void close(Session session, CloseReason.CloseCode code, String reason) {
+        try {
+            session.close(new CloseReason(code, reason));
+        } catch (IOException ignored) {
+        }
+    }
+}
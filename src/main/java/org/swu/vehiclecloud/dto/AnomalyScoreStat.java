@@ -0,0 +1,26 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 车辆统计异常分数DTO
+ */
+@Getter
+@Setter
+public class AnomalyScoreStat {
+    /**
+     * 车辆ID
+     */
+    private String vehicleId;
+
+    /**
+     * 最近一帧的综合异常分数(z²均值)
+     */
+    private double score;
+
+    /**
+     * 是否已完成预热
+     */
+    private boolean warmedUp;
+}
@@ -0,0 +1,46 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 车辆时钟偏差估计DTO
+ */
+@Getter
+@Setter
+public class ClockSkewStat {
+    /**
+     * 车辆ID
+     */
+    private String vehicleId;
+
+    /**
+     * 已学习的时钟偏差 timestampGNSS - timestamp (毫秒)
+     */
+    private double offsetMs;
+
+    /**
+     * 时钟偏差标准差(毫秒)
+     */
+    private double stdDevMs;
+
+    /**
+     * 最近一帧的时钟偏差(毫秒)
+     */
+    private long lastOffsetMs;
+
+    /**
+     * 样本数
+     */
+    private long samples;
+
+    /**
+     * 判定为时间戳异常的帧数
+     */
+    private long anomalies;
+
+    /**
+     * 是否已完成预热
+     */
+    private boolean warmedUp;
+}
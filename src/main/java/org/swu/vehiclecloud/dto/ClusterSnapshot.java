@@ -0,0 +1,33 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 视野内车辆聚类结果DTO
+ */
+@Getter
+@Setter
+public class ClusterSnapshot {
+    /**
+     * 生成时间(毫秒)
+     */
+    private long t;
+
+    /**
+     * 实际使用的缩放级别，聚类过多时低于请求的级别
+     */
+    private int zoom;
+
+    /**
+     * 视野内车辆数
+     */
+    private int vehicles;
+
+    /**
+     * 聚类列表
+     */
+    private List<VehicleCluster> clusters;
+}
@@ -0,0 +1,61 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 后台导出任务状态DTO
+ */
+@Getter
+@Setter
+public class ExportJobStatus {
+    /**
+     * 任务ID
+     */
+    private String jobId;
+
+    /**
+     * 下载文件名
+     */
+    private String fileName;
+
+    /**
+     * 任务状态：QUEUED / RUNNING / DONE / FAILED
+     */
+    private String state;
+
+    /**
+     * 已写入的数据行数
+     */
+    private long rowsWritten;
+
+    /**
+     * 文件大小(字节)，完成前为null
+     */
+    private Long fileSize;
+
+    /**
+     * 结果是否可被相同的请求复用(时间范围已封闭)
+     */
+    private boolean cacheable;
+
+    /**
+     * 提交时间(毫秒时间戳)
+     */
+    private long createdAt;
+
+    /**
+     * 开始执行时间(毫秒时间戳)
+     */
+    private Long startedAt;
+
+    /**
+     * 结束时间(毫秒时间戳)
+     */
+    private Long finishedAt;
+
+    /**
+     * 失败原因
+     */
+    private String error;
+}
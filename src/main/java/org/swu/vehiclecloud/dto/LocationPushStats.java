@@ -0,0 +1,51 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 车辆位置推送的航位推算统计DTO
+ */
+@Getter
+@Setter
+public class LocationPushStats {
+    /**
+     * 是否启用航位推算门限
+     */
+    private boolean enabled;
+
+    /**
+     * 外推偏差容差(米)
+     */
+    private double toleranceMeters;
+
+    /**
+     * 收到的位置帧数
+     */
+    private long received;
+
+    /**
+     * 外推位置在容差内、未推送的帧数
+     */
+    private long suppressed;
+
+    /**
+     * 车辆第一帧推送数
+     */
+    private long initial;
+
+    /**
+     * 外推偏差超过容差的推送数
+     */
+    private long deviation;
+
+    /**
+     * 超过心跳间隔的推送数
+     */
+    private long heartbeat;
+
+    /**
+     * 收到的帧数与推送数之比
+     */
+    private double reductionRatio;
+}
@@ -0,0 +1,81 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 机器学习推理客户端运行统计DTO
+ */
+@Getter
+@Setter
+public class MlInferenceStats {
+    /**
+     * 是否启用
+     */
+    private boolean enabled;
+
+    /**
+     * 推理后端名称
+     */
+    private String backend;
+
+    /**
+     * 熔断器状态：CLOSED / OPEN / HALF_OPEN
+     */
+    private String breakerState;
+
+    /**
+     * 按基础采样率采样的帧数
+     */
+    private long sampledBase;
+
+    /**
+     * 按提升采样率采样的帧数
+     */
+    private long sampledBoosted;
+
+    /**
+     * 因推理预算不足未采样的帧数
+     */
+    private long budgetRejected;
+
+    /**
+     * 已入队的样本数
+     */
+    private long submitted;
+
+    /**
+     * 因队列已满或熔断被丢弃的样本数
+     */
+    private long dropped;
+
+    /**
+     * 已完成推理的样本数
+     */
+    private long scored;
+
+    /**
+     * 判定为异常的样本数
+     */
+    private long anomalies;
+
+    /**
+     * 已发送的批请求数
+     */
+    private long batches;
+
+    /**
+     * 失败的批请求数
+     */
+    private long failedBatches;
+
+    /**
+     * 当前队列中的样本数
+     */
+    private int queued;
+
+    /**
+     * 当前在途的批请求数
+     */
+    private int inflight;
+}
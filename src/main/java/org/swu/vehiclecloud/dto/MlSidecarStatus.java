@@ -0,0 +1,56 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 机器学习服务进程运行状态DTO
+ */
+@Getter
+@Setter
+public class MlSidecarStatus {
+    /**
+     * 是否由本应用守护
+     */
+    private boolean enabled;
+
+    /**
+     * 进程状态：STOPPED / STARTING / READY / UNHEALTHY / BACKOFF
+     */
+    private String state;
+
+    /**
+     * 是否就绪
+     */
+    private boolean ready;
+
+    /**
+     * 当前进程号，未运行时为null
+     */
+    private Long pid;
+
+    /**
+     * 累计重启次数
+     */
+    private long restarts;
+
+    /**
+     * 上一次退出码，未退出过时为null
+     */
+    private Integer lastExitCode;
+
+    /**
+     * 当前进程启动时间(毫秒时间戳)
+     */
+    private Long startedAt;
+
+    /**
+     * 最近一次就绪时间(毫秒时间戳)
+     */
+    private Long readySince;
+
+    /**
+     * 最近一次从启动到就绪的耗时(毫秒)
+     */
+    private Long startupMillis;
+}
@@ -0,0 +1,89 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * 消息编号连续性统计DTO
+ * 车辆维度或全车队维度的丢包率、缺口分布和乱序深度
+ */
+@Getter
+@Setter
+public class SequenceStats {
+    /**
+     * 车辆ID，全车队统计时为null
+     */
+    private String vehicleId;
+
+    /**
+     * 统计的车辆数量
+     */
+    private int vehicleCount;
+
+    /**
+     * 已到达的不重复帧数
+     */
+    private long received;
+
+    /**
+     * 重复帧数
+     */
+    private long duplicates;
+
+    /**
+     * 乱序到达的帧数
+     */
+    private long reordered;
+
+    /**
+     * 判定丢失的帧数
+     */
+    private long lost;
+
+    /**
+     * 判定丢失后才到达的帧数
+     */
+    private long lateBeyondWindow;
+
+    /**
+     * 车端计数器重置次数
+     */
+    private long resets;
+
+    /**
+     * 最近窗口内的实时丢包率
+     */
+    private double lossRate;
+
+    /**
+     * 累计丢包率
+     */
+    private double cumulativeLossRate;
+
+    /**
+     * 最近一次乱序深度
+     */
+    private long lastReorderDepth;
+
+    /**
+     * 最大乱序深度
+     */
+    private long maxReorderDepth;
+
+    /**
+     * 连续丢失长度直方图
+     */
+    private Map<String, Long> gapHistogram;
+
+    /**
+     * 乱序深度直方图
+     */
+    private Map<String, Long> reorderDepthHistogram;
+
+    /**
+     * 重排缓冲区计数（仅全车队统计）：released/late/dropped/duplicate
+     */
+    private Map<String, Long> reorderBuffer;
+}
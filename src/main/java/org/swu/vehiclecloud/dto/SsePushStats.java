@@ -0,0 +1,66 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 单个SSE数据流的推送统计DTO
+ */
+@Getter
+@Setter
+public class SsePushStats {
+    /**
+     * 数据流ID
+     */
+    private String streamId;
+
+    /**
+     * 当前订阅者数量
+     */
+    private int subscribers;
+
+    /**
+     * 限流速率(每秒推送次数)，不大于0表示不限流
+     */
+    private double ratePerSecond;
+
+    /**
+     * 突发容量
+     */
+    private int burst;
+
+    /**
+     * 已推送的消息数
+     */
+    private long emitted;
+
+    /**
+     * 被限流丢弃的消息数
+     */
+    private long throttled;
+
+    /**
+     * 因没有订阅者丢弃的消息数
+     */
+    private long noSubscriber;
+
+    /**
+     * 断线重连时补发的消息数
+     */
+    private long replayed;
+
+    /**
+     * 断线期间消息超出重放范围、要求客户端重新拉取的次数
+     */
+    private long resets;
+
+    /**
+     * 订阅者读取过慢被丢弃的消息数
+     */
+    private long subscriberDropped;
+
+    /**
+     * 因读取过慢被断开的连接数
+     */
+    private long evicted;
+}
@@ -0,0 +1,58 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * 单个SSE连接的发送统计DTO
+ */
+@Getter
+@Setter
+public class SseSubscriberStats {
+    /**
+     * 连接ID
+     */
+    private long subscriberId;
+
+    /**
+     * 订阅的数据流ID
+     */
+    private List<String> streams;
+
+    /**
+     * 连接建立时间(毫秒)
+     */
+    private long connectedAt;
+
+    /**
+     * 当前待发送事件数
+     */
+    private int queued;
+
+    /**
+     * 待发送事件数峰值
+     */
+    private int maxQueued;
+
+    /**
+     * 已交给下游发送的事件数
+     */
+    private long delivered;
+
+    /**
+     * 队列满被丢弃的事件数
+     */
+    private long dropped;
+
+    /**
+     * 最早一条待发送事件已等待的时间(毫秒)
+     */
+    private long lagMillis;
+
+    /**
+     * 连续积压的时间(毫秒)，未积压时为0
+     */
+    private long behindMillis;
+}
@@ -0,0 +1,24 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 按 (timestamp, id) 键集分页的表数据DTO
+ */
+@Getter
+@Setter
+public class TablePage {
+    /**
+     * 本页数据
+     */
+    private List<Map<String, Object>> rows;
+
+    /**
+     * 下一页的游标，作为cursor参数传入；已到最后一页时为null
+     */
+    private String nextCursor;
+}
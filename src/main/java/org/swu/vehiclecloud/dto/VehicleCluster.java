@@ -0,0 +1,31 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+import lombok.Setter;
+
+/**
+ * 车辆位置聚类DTO
+ */
+@Getter
+@Setter
+public class VehicleCluster {
+    /**
+     * 聚类中心经度(成员位置平均值)
+     */
+    private double longitude;
+
+    /**
+     * 聚类中心纬度
+     */
+    private double latitude;
+
+    /**
+     * 车辆数
+     */
+    private int count;
+
+    /**
+     * 只有一辆车时为该车辆ID，否则为null
+     */
+    private String vehicleId;
+}
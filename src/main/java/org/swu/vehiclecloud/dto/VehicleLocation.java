@@ -0,0 +1,49 @@
+package org.swu.vehiclecloud.dto;
+
+import lombok.Getter;
+
+/**
+ * 车辆最新位置DTO，创建后不再修改，可在推送线程间共享
+ */
+@Getter
+public class VehicleLocation {
+    /**
+     * 车辆ID
+     */
+    private final String vehicleId;
+
+    /**
+     * 经度
+     */
+    private final double longitude;
+
+    /**
+     * 纬度
+     */
+    private final double latitude;
+
+    /**
+     * GNSS时间戳(毫秒)
+     */
+    private final long timestampGNSS;
+
+    /**
+     * 速度(米/秒)，前端按速度和航向外推位置
+     */
+    private final double speed;
+
+    /**
+     * 航向(度，正北为0，顺时针)
+     */
+    private final double heading;
+
+    public VehicleLocation(String vehicleId, double longitude, double latitude, long timestampGNSS,
+                           double speed, double heading) {
+        this.vehicleId = vehicleId;
+        this.longitude = longitude;
+        this.latitude = latitude;
+        this.timestampGNSS = timestampGNSS;
+        this.speed = speed;
+        this.heading = heading;
+    }
+}
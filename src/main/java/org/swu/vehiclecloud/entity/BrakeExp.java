@@ -15,7 +15,6 @@ import java.util.Date;
 @ToString
 @NoArgsConstructor
 @TableName("brake_exp")
-@Deprecated
 public class BrakeExp {
     @TableId
     private Integer id; // 自增id
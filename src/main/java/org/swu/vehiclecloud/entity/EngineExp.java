@@ -15,7 +15,6 @@ import java.util.Date;
 @ToString
 @NoArgsConstructor
 @TableName("engine_exp")
-@Deprecated
 public class EngineExp {
     @TableId
     private Integer id; // 自增id
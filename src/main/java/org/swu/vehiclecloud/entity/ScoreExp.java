@@ -0,0 +1,32 @@
+package org.swu.vehiclecloud.entity;
+
+import com.baomidou.mybatisplus.annotation.TableId;
+import com.baomidou.mybatisplus.annotation.TableName;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import lombok.ToString;
+
+import java.sql.Timestamp;
+
+@Getter
+@Setter
+@ToString
+@NoArgsConstructor
+@TableName("score_exp")
+public class ScoreExp {
+    @TableId
+    private Integer id; // 自增id
+
+    private String vehicleId; // 车辆id
+
+    private Timestamp timestamp; // 时间戳
+
+    private double score; // 统计异常分数(各特征z²的均值)，与ml_exp的mse不可直接比较
+
+    public ScoreExp(String vehicleId, Timestamp timestamp, double score) {
+        this.vehicleId = vehicleId;
+        this.timestamp = timestamp;
+        this.score = score;
+    }
+}
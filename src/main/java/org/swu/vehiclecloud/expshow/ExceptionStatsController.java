@@ -55,6 +55,11 @@ public class ExceptionStatsController {
                 "SELECT COUNT(*) FROM timestamp_exp", Integer.class);
         result.add(createStatItem(timestampCount, "时间戳异常"));
 
+        // 8. 统计评分异常表
+        int scoreCount = jdbcTemplate.queryForObject(
+                "SELECT COUNT(*) FROM score_exp", Integer.class);
+        result.add(createStatItem(scoreCount, "统计评分异常"));
+
         return result;
     }
 
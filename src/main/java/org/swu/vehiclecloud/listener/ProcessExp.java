@@ -1,6 +1,5 @@
 package org.swu.vehiclecloud.listener;
 
-import cn.hutool.core.util.StrUtil;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
@@ -8,10 +7,15 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
+import org.swu.vehiclecloud.config.DetectRulesConfig;
+import org.swu.vehiclecloud.config.ReorderConfig;
 import org.swu.vehiclecloud.entity.*;
 import org.swu.vehiclecloud.event.MqttMessageEvent;
-import org.swu.vehiclecloud.mapper.VehicleExpMapper;
 import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.service.ExpSinkService;
+import org.swu.vehiclecloud.service.LocationPushService;
+import org.swu.vehiclecloud.util.KinematicsWindow;
+import org.swu.vehiclecloud.util.RollingWindow;
 import org.springframework.scheduling.annotation.Scheduled;
 
 import java.io.IOException;
@@ -30,15 +34,24 @@ import java.util.concurrent.*;
 @Component
 public class ProcessExp {
     @Autowired
-    private VehicleExpMapper vehicleExpMapper;
+    private ExpSinkService expSinkService;
 
     @Autowired
     private DataService dataService;
 
-    private static long previousTimestamp = 0;
+    @Autowired
+    private LocationPushService locationPushService;
+
+    @Autowired
+    private VehicleStateRegistry vehicleStateRegistry;
 
-    // 存储每个车辆的上一次数据，线程安全的Map
-    private final ConcurrentMap<String, Map<String, Object>> vehicleDataCache = new ConcurrentHashMap<>();
+    @Autowired
+    private ReorderConfig reorderConfig;
+
+    @Autowired
+    private DetectRulesConfig detectRulesConfig;
+
+    private static long previousTimestamp = 0;
 
     // 存储某个时间片异常车的数量，线程安全的Map
     private final ConcurrentMap<Long, Integer> numOfExpCar = new ConcurrentHashMap<>();
@@ -46,9 +59,6 @@ public class ProcessExp {
     // 记录异常车辆的线程安全的Set
     private final ConcurrentSkipListSet<String> vehicleIdSet = new ConcurrentSkipListSet<>();
 
-    // 线程池调度器
-    private final ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor();
-
     // 日志记录的类
     private static final Logger logger = LoggerFactory.getLogger(ProcessExp.class);
 
@@ -56,11 +66,64 @@ public class ProcessExp {
     private static final ObjectMapper objectMapper = new ObjectMapper();
 
     @EventListener
-    public void handleMqttMessage(MqttMessageEvent event) throws IOException, ParseException {
+    public void handleMqttMessage(MqttMessageEvent event) {
+        Map<String, Object> payload = event.getMessage();
+        Map<String, Object> body = (Map<String, Object>) payload.get("body");
+        if (body == null || !(body.get("vehicleId") instanceof String)) {
+            processFrameSafely(payload);
+            return;
+        }
+
+        // 同一车辆的帧在车辆锁内顺序处理，检测器状态只在锁内读写
+        Object messageId = body.get("messageId");
+        while (true) {
+            VehicleState state = vehicleStateRegistry.getOrCreate((String) body.get("vehicleId"));
+            synchronized (state) {
+                if (state.isEvicted()) {
+                    // 取得状态后、加锁前该车辆被清理，重新获取新的状态
+                    continue;
+                }
+                state.touch(System.currentTimeMillis());
+                if (reorderConfig.isEnabled() && messageId instanceof Number) {
+                    // 按messageId重排、去重后释放
+                    state.getReorderBuffer().offer(((Number) messageId).longValue(), payload,
+                            System.nanoTime(), this::processFrameSafely);
+                } else {
+                    // 没有消息编号或关闭重排时直接处理
+                    processFrameSafely(payload);
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * 定时释放重排缓冲区中等待超时的帧，并清理长时间无数据的车辆
+     */
+    @Scheduled(fixedRateString = "${ingest.reorder.flush-interval-ms:50}")
+    public void flushReorderBuffers() {
+        long nowNanos = System.nanoTime();
+        for (VehicleState state : vehicleStateRegistry.getAll()) {
+            synchronized (state) {
+                state.getReorderBuffer().flushExpired(nowNanos, this::processFrameSafely);
+            }
+        }
+        vehicleStateRegistry.evictIdle(System.currentTimeMillis(),
+                state -> state.getReorderBuffer().drainAll(this::processFrameSafely));
+    }
+
+    // 处理单帧数据，异常只记录日志，不影响同批释放的其它帧
+    private void processFrameSafely(Map<String, Object> payload) {
+        try {
+            processFrame(payload);
+        } catch (Exception e) {
+            logger.error("车辆数据处理失败: {}", e.getMessage());
+        }
+    }
+
+    private void processFrame(Map<String, Object> payload) throws IOException, ParseException {
         // 每监听条数据检测一次
         try {
-            // 提取车辆数据
-            Map<String, Object> payload = event.getMessage();
             // 获取 header 部分
             Map<String, Object> header = (Map<String, Object>) payload.get("header");
 
@@ -87,10 +150,19 @@ public class ProcessExp {
             double longitude = (double) position.get("longitude");
             double latitude = (double) position.get("latitude");
 
+            // 获取 heading、tapPos 和 engineTorque
+            double heading = (double) body.get("heading");
+            int tapPos = (int) body.get("tapPos");
+            int engineTorque = (int) body.get("engineTorque");
+
             boolean steeringExp = false;
             boolean timestampExp = false;
             boolean geoLocationExp = false;
             boolean speedExp = false;
+            boolean accelerationExp = false;
+            boolean brakeExp = false;
+            boolean engineExp = false;
+            boolean statisticalExp = false;
 //                Map<String, Object> payload = event.getMessage();
 //
 //                Map<String, Object> dataContent = (Map<String, Object>) payload.get("dataContent");
@@ -149,72 +221,45 @@ public class ProcessExp {
                 // scheduler.scheduleAtFixedRate(this::pushNumOfExpData, 0, 10, TimeUnit.SECONDS);
             }
 
-            // 将经纬度推给前端，不论是否异常
-            Map<String, Object> pushLocationData = new HashMap<>();
-            pushLocationData.put("vehicleId", vehicleId);
-            pushLocationData.put("longitude", longitude);
-            pushLocationData.put("latitude", latitude);
-            dataService.setPushContent("1", objectMapper.writeValueAsString(pushLocationData));
-            // 上一个时间片某辆车的数据
-            Map<String, Object> previousVehicleData = vehicleDataCache.get(vehicleId);
-
-            // 当前时间片某辆车的数据
-            Map<String, Object> currentVehicleData = new HashMap<>();
-
-            // 接受车辆的数据，则存储车辆数据到缓存当中, 用来判断转向异常和经纬度异常
-            currentVehicleData.put("timestamp", timestamp);
-            currentVehicleData.put("steeringAngle", steeringAngle);
-//              currentVehicleData.put("yawRate", yawRate);
-            currentVehicleData.put("longitude", longitude);
-            currentVehicleData.put("latitude", latitude);
-
-            if (StrUtil.isEmptyIfStr(previousVehicleData)) {
-                vehicleDataCache.put(vehicleId, currentVehicleData);
-
-                // 启动一个任务，如果10秒之内没有收到该车辆的新数据，则从缓存中删除该车辆数据
-                scheduler.schedule(() -> {
-                    Map<String, Object> cachedData = vehicleDataCache.get(vehicleId);
-                    if (StrUtil.isEmptyIfStr(cachedData)) {
-                        vehicleDataCache.remove(vehicleId);
-                    }
-                }, 10, TimeUnit.SECONDS);
-            } else {
-                if (Math.abs(timestampGNSS - (Long) previousVehicleData.get("timestamp")) > Math.pow(10, 4)) {
-                    // 经纬度异常检测
-                    geoLocationExp = detectGeoLocationExp(vehicleId, longitude,
-                            latitude, (double) previousVehicleData.get("longitude"),
-                            (double) previousVehicleData.get("latitude"), datestamp);
-//                        // 检测横摆角速度与方向盘转角变化趋势是否匹配
-//                        detectSwivelAngleExp(vehicleId, steeringAngle,
-//                                yawRate, (double) previousVehicleData.get("steeringAngle"),
-//                                (double) previousVehicleData.get("yawRate"), datestamp,
-//                                numOfExp);
-                    vehicleDataCache.replace(vehicleId, previousVehicleData, currentVehicleData);
-                }
-            }
+            // 当前车辆的流式检测状态，调用方已持有该车辆的锁
+            VehicleState state = vehicleStateRegistry.getOrCreate(vehicleId);
+
+            // 记录最新经纬度、速度和航向，不论是否异常；前端外推偏差超过容差时由定时任务合并后推给前端
+            locationPushService.update(state, longitude, latitude, timestampGNSS, velocityGNSS / 100, heading);
+
+            // 经纬度异常检测，每帧与上一帧比较隐含速度
+            geoLocationExp = detectGeoLocationExp(state, longitude, latitude, timestampGNSS, datestamp);
+
+            // 由速度和航向的滑动窗口估计纵向、横向加速度
+            boolean kinematicsReady = state.getKinematics().add(timestampGNSS, velocityGNSS / 100, heading);
 
             // 加速度异常检测
-//                detectAccelerationExp(vehicleId, accelerationLon, accelerationLat,
-//                        accelerationVer, datestamp, numOfExp);
+            accelerationExp = kinematicsReady && detectAccelerationExp(state, timestampGNSS, datestamp);
 
             // 速度异常检测
             speedExp = detectSpeedExp(vehicleId, velocityGNSS, datestamp);
 
             // 发动机异常检测
-//                detectEngineExp(vehicleId, engineSpeed, engineTorque, datestamp, numOfExp);
+            engineExp = detectEngineExp(state, tapPos, engineTorque, timestampGNSS, datestamp);
 
             // 制动异常检测
-//                detectBrakeExp(vehicleId, brakeFlag, brakePos, brakePressure, datestamp, numOfExp);
+            brakeExp = kinematicsReady && detectBrakeExp(state, timestampGNSS, datestamp);
 
             // 转向异常检测
             steeringExp = detectSteeringExp(vehicleId, steeringAngle, datestamp);
 
-            // 时间戳异常检测
-            timestampExp = detectTimestampExp(vehicleId, timestampGNSS, timestamp, datestamp);
+            // 统计异常评分，每帧计算速度、航向变化率、转角和扭矩的综合z分数
+            statisticalExp = detectStatisticalExp(state, timestampGNSS, velocityGNSS / 100, heading,
+                    steeringAngle / 10000.0, engineTorque / 100.0, datestamp);
+
+            // 时间戳异常检测，与该车已学习的时钟偏差比较
+            timestampExp = detectTimestampExp(state, timestampGNSS, timestamp, datestamp);
 
             // 将对应时间片的异常车数量存入缓存
             // 使用 compute 来更新值
-            if(steeringExp || timestampExp || geoLocationExp || speedExp) {
+            if(steeringExp || timestampExp || geoLocationExp || speedExp
+                    || accelerationExp || brakeExp || engineExp || statisticalExp) {
+                state.setLastRuleHitMillis(System.currentTimeMillis());
                 numOfExpCar.compute(previousTimestamp, (key, currentValue) ->
                         (currentValue == null ? 0 : currentValue) + 1
                 );
@@ -230,31 +275,41 @@ public class ProcessExp {
         }
     }
 
-//    private void detectAccelerationExp(String vehicleId, double accelerationLon,
-//                                       double accelerationLat, double accelerationVer,
-//                                       Timestamp timestamp, int numOfExp) throws JsonProcessingException {
-//        // 判断加速度是否异常
-//        if(isAccelerationExp(accelerationLon,accelerationLat,
-//                accelerationVer)){
-//            // 车辆有异常
-//            numOfExp = 1;
-//
-//            // 创建加速度异常对象
-//            AccelerationExp accelerationExp = new AccelerationExp(vehicleId, accelerationLon / 100,
-//                    accelerationLat / 100, accelerationVer / 100,
-//                    timestamp);
-//
-//            // 插入加速度异常对象
-//            vehicleExpMapper.insertAccelerationExp(accelerationExp);
-//
-//            // 推送异常信息给前端
-//            Map<String, Object> pushData = new HashMap<>();
-//            pushData.put("vehicleId", vehicleId);
-//            pushData.put("accelerationExp", true);
-//            dataService.setPushContent("5", objectMapper.writeValueAsString(pushData));
-//        }
-//    }
-//
+    private boolean detectAccelerationExp(VehicleState state, long timestampGNSS,
+                                          Timestamp datestamp) throws JsonProcessingException {
+        KinematicsWindow kinematics = state.getKinematics();
+        double accelerationLon = kinematics.getAccelerationLon();
+        double accelerationLat = kinematics.getAccelerationLat();
+        int numOfExp = 0;
+        // 判断加速度是否异常，同一车辆在冷却时间内只记录一次
+        if(isAccelerationExp(accelerationLon, accelerationLat)
+                && isCooledDown(state.getLastAccelerationExpMillis(), timestampGNSS)){
+            state.setLastAccelerationExpMillis(timestampGNSS);
+            String vehicleId = state.getVehicleId();
+            if(!vehicleIdSet.contains(vehicleId)){
+                // 车辆第一次出现异常，计数器+1
+                numOfExp = 1;
+
+                // 向集合中加入该车辆，之后的10秒内如果该车辆继续出现异常则不重复计数
+                vehicleIdSet.add(vehicleId);
+            }
+
+            // 创建加速度异常对象，垂向加速度无数据源记为0
+            AccelerationExp accelerationExp = new AccelerationExp(vehicleId, accelerationLon,
+                    accelerationLat, 0, datestamp);
+
+            // 提交加速度异常对象，批量写入
+            expSinkService.submit(accelerationExp);
+
+            // 推送异常信息给前端
+            Map<String, Object> pushData = new HashMap<>();
+            pushData.put("vehicleId", vehicleId);
+            pushData.put("accelerationExp", true);
+            dataService.setPushContent("8", objectMapper.writeValueAsString(pushData));
+        }
+        return numOfExp == 1;
+    }
+
     private boolean detectSpeedExp(String vehicleId, double velocityGNSS,
                                 Timestamp timestamp) throws JsonProcessingException {
         int numOfExp = 0;
@@ -271,8 +326,8 @@ public class ProcessExp {
             // 创建速度异常对象
             SpeedExp speedExp = new SpeedExp(vehicleId, velocityGNSS / 100, timestamp);
 
-            // 插入速度异常对象
-            vehicleExpMapper.insertSpeedExp(speedExp);
+            // 提交速度异常对象，批量写入
+            expSinkService.submit(speedExp);
 
             // 推送异常信息给前端
             Map<String, Object> pushData = new HashMap<>();
@@ -283,54 +338,102 @@ public class ProcessExp {
         return numOfExp == 1;
     }
 //
-//    private void detectEngineExp(String vehicleId, double engineSpeed,
-//                                 double engineTorque, Timestamp timestamp,
-//                                 int numOfExp) throws JsonProcessingException {
-//        // 判断发动机是否异常
-//        if(isEngineExp(engineSpeed, engineTorque)){
-//            // 车辆有异常
-//            numOfExp = 1;
-//
-//            // 创建发动机异常对象
-//            EngineExp engineExp = new EngineExp(vehicleId, engineSpeed,
-//                    engineTorque / 100, timestamp);
-//
-//            // 插入发动机异常对象
-//            vehicleExpMapper.insertEngineExp(engineExp);
-//
-//            // 推送异常信息给前端
-//            Map<String, Object> pushData = new HashMap<>();
-//            pushData.put("vehicleId", vehicleId);
-//            pushData.put("engineExp", true);
-//            dataService.setPushContent("7", objectMapper.writeValueAsString(pushData));
-//        }
-//    }
-//
-//    private void detectBrakeExp(String vehicleId, int brakeFlag,
-//                                double brakePos, double brakePressure,
-//                                Timestamp timestamp, int numOfExp) throws JsonProcessingException {
-//        if(isBrakeExp(brakeFlag, brakePos, brakePressure)){
-//            // 车辆有异常
-//            numOfExp = 1;
-//
-//            // 将brakeFlag转换为boolean
-//            boolean flag = brakeFlag != 0;
-//
-//            // 创建制动异常对象
-//            BrakeExp brakeExp = new BrakeExp(vehicleId, flag,
-//                    brakePos / 10, brakePressure / 100,
-//                    timestamp);
-//
-//            // 插入制动异常对象
-//            vehicleExpMapper.insertBrakeExp(brakeExp);
-//
-//            // 推送异常信息给前端
-//            Map<String, Object> pushData = new HashMap<>();
-//            pushData.put("vehicleId", vehicleId);
-//            pushData.put("brakeExp", true);
-//            dataService.setPushContent("7", objectMapper.writeValueAsString(pushData));
-//        }
-//    }
+    private boolean detectEngineExp(VehicleState state, int tapPos, int engineTorque,
+                                    long timestampGNSS, Timestamp datestamp) throws JsonProcessingException {
+        double torque = engineTorque / 100.0;
+        RollingWindow torqueWindow = state.getTorqueWindow();
+        // 先与历史窗口比较，再将本帧加入窗口
+        boolean exp = isEngineExp(torqueWindow, tapPos, torque);
+        torqueWindow.add(torque);
+
+        int numOfExp = 0;
+        if(exp && isCooledDown(state.getLastEngineExpMillis(), timestampGNSS)){
+            state.setLastEngineExpMillis(timestampGNSS);
+            String vehicleId = state.getVehicleId();
+            if(!vehicleIdSet.contains(vehicleId)){
+                // 车辆第一次出现异常，计数器+1
+                numOfExp = 1;
+
+                // 向集合中加入该车辆，之后的10秒内如果该车辆继续出现异常则不重复计数
+                vehicleIdSet.add(vehicleId);
+            }
+
+            // 创建发动机异常对象，发动机转速无数据源记为0
+            EngineExp engineExp = new EngineExp(vehicleId, 0, torque, datestamp);
+
+            // 提交发动机异常对象，批量写入
+            expSinkService.submit(engineExp);
+
+            // 推送异常信息给前端
+            Map<String, Object> pushData = new HashMap<>();
+            pushData.put("vehicleId", vehicleId);
+            pushData.put("engineExp", true);
+            dataService.setPushContent("13", objectMapper.writeValueAsString(pushData));
+        }
+        return numOfExp == 1;
+    }
+
+    private boolean detectBrakeExp(VehicleState state, long timestampGNSS,
+                                   Timestamp datestamp) throws JsonProcessingException {
+        int numOfExp = 0;
+        // 急减速视为制动异常，同一车辆在冷却时间内只记录一次
+        if(isBrakeExp(state.getKinematics().getAccelerationLon())
+                && isCooledDown(state.getLastBrakeExpMillis(), timestampGNSS)){
+            state.setLastBrakeExpMillis(timestampGNSS);
+            String vehicleId = state.getVehicleId();
+            if(!vehicleIdSet.contains(vehicleId)){
+                // 车辆第一次出现异常，计数器+1
+                numOfExp = 1;
+
+                // 向集合中加入该车辆，之后的10秒内如果该车辆继续出现异常则不重复计数
+                vehicleIdSet.add(vehicleId);
+            }
+
+            // 创建制动异常对象，踏板开度和主缸压力无数据源记为0
+            BrakeExp brakeExp = new BrakeExp(vehicleId, true, 0, 0, datestamp);
+
+            // 提交制动异常对象，批量写入
+            expSinkService.submit(brakeExp);
+
+            // 推送异常信息给前端
+            Map<String, Object> pushData = new HashMap<>();
+            pushData.put("vehicleId", vehicleId);
+            pushData.put("brakeExp", true);
+            dataService.setPushContent("9", objectMapper.writeValueAsString(pushData));
+        }
+        return numOfExp == 1;
+    }
+
+    private boolean detectStatisticalExp(VehicleState state, long timestampGNSS, double speedMps,
+                                         double heading, double steeringAngle, double engineTorque,
+                                         Timestamp datestamp) throws JsonProcessingException {
+        double score = state.getScorer().score(timestampGNSS, speedMps, heading, steeringAngle, engineTorque);
+        int numOfExp = 0;
+        if(score > detectRulesConfig.getScoreThreshold()
+                && isCooledDown(state.getLastScoreExpMillis(), timestampGNSS)){
+            state.setLastScoreExpMillis(timestampGNSS);
+            String vehicleId = state.getVehicleId();
+            if(!vehicleIdSet.contains(vehicleId)){
+                // 车辆第一次出现异常，计数器+1
+                numOfExp = 1;
+
+                // 向集合中加入该车辆，之后的10秒内如果该车辆继续出现异常则不重复计数
+                vehicleIdSet.add(vehicleId);
+            }
+
+            // 统计评分与自编码器的mse量纲不同，单独写入score_exp
+            expSinkService.submit(new ScoreExp(vehicleId, datestamp, score));
+
+            // 推送异常信息给前端
+            Map<String, Object> pushData = new HashMap<>();
+            pushData.put("vehicleId", vehicleId);
+            pushData.put("mlExp", true);
+            pushData.put("source", "statistical");
+            pushData.put("score", score);
+            dataService.setPushContent("7", objectMapper.writeValueAsString(pushData));
+        }
+        return numOfExp == 1;
+    }
 
     private boolean detectSteeringExp(String vehicleId, double steeringAngle,
                                    Timestamp timestamp) throws JsonProcessingException {
@@ -348,8 +451,8 @@ public class ProcessExp {
             SteeringExp steeringExp = new SteeringExp(vehicleId, steeringAngle / 10000,
                     timestamp);
 
-            // 插入转向异常对象
-            vehicleExpMapper.insertSteeringExp(steeringExp);
+            // 提交转向异常对象，批量写入
+            expSinkService.submit(steeringExp);
 
             // 推送异常信息给前端
             Map<String, Object> pushData = new HashMap<>();
@@ -383,10 +486,11 @@ public class ProcessExp {
 //        }
 //    }
 
-    private boolean detectTimestampExp(String vehicleId, long timestampGNSS,
+    private boolean detectTimestampExp(VehicleState state, long timestampGNSS,
                                     long timestamp, Timestamp datestamp) throws JsonProcessingException, ParseException {
+        String vehicleId = state.getVehicleId();
         int numOfExp = 0;
-        if(isTimeStampExp(timestampGNSS, timestamp)){
+        if(isTimeStampExp(state, timestampGNSS, timestamp)){
             if(!vehicleIdSet.contains(vehicleId)){
                 // 车辆第一次出现异常，计数器+1
                 numOfExp = 1;
@@ -402,8 +506,8 @@ public class ProcessExp {
             TimestampExp timestampExp = new TimestampExp(vehicleId, datestampGNSS,
                     datestamp);
 
-            // 插入时间戳异常对象
-            vehicleExpMapper.insertTimestampExp(timestampExp);
+            // 提交时间戳异常对象，批量写入
+            expSinkService.submit(timestampExp);
 
             // 推送异常信息给前端
             Map<String, Object> pushData = new HashMap<>();
@@ -414,11 +518,12 @@ public class ProcessExp {
         return numOfExp == 1;
     }
 
-    private boolean detectGeoLocationExp(String vehicleId, double longitude,
-                                      double latitude, double previousLongitude,
-                                      double previousLatitude, Timestamp datestamp) throws JsonProcessingException {
+    private boolean detectGeoLocationExp(VehicleState state, double longitude,
+                                      double latitude, long timestampGNSS,
+                                      Timestamp datestamp) throws JsonProcessingException {
+        String vehicleId = state.getVehicleId();
         int numOfExp = 0;
-        if(isGeoLocationExp(longitude, latitude, previousLongitude, previousLatitude)){
+        if(isGeoLocationExp(state, longitude, latitude, timestampGNSS)){
             if(!vehicleIdSet.contains(vehicleId)){
                 // 车辆第一次出现异常，计数器+1
                 numOfExp = 1;
@@ -431,8 +536,8 @@ public class ProcessExp {
             GeoLocationExp geoLocationExp = new GeoLocationExp(vehicleId, longitude,
                     latitude, datestamp);
 
-            // 插入地理位置异常对象
-            vehicleExpMapper.insertGeoLocationExp(geoLocationExp);
+            // 提交地理位置异常对象，批量写入
+            expSinkService.submit(geoLocationExp);
 
             // 推送异常信息给前端
             Map<String, Object> pushData = new HashMap<>();
@@ -443,25 +548,36 @@ public class ProcessExp {
         return numOfExp == 1;
     }
 
-//    private boolean isAccelerationExp(double accelerationLon, double accelerationLat,
-//                                      double accelerationVer) {
-//        return accelerationLon > 500 || accelerationLon < -500
-//                || accelerationLat > 500 || accelerationLat < -500
-//                || accelerationVer > 500 || accelerationVer < -500;
-//    }
-//
+    private boolean isAccelerationExp(double accelerationLon, double accelerationLat) {
+        return accelerationLon > detectRulesConfig.getHarshAccelMps2()
+                || Math.abs(accelerationLat) > detectRulesConfig.getHarshLateralMps2();
+    }
+
     private boolean isSpeedExp(double velocityGNSS) {
         return velocityGNSS / 100 > 10;
     }
 //
-//    private boolean isEngineExp(double engineSpeed, double engineTorque) {
-//        return engineSpeed < 50 && engineTorque >= 50000;
-//    }
-//
-//    private boolean isBrakeExp(int brakeFlag, double brakePos, double brakePressure) {
-//        return (brakeFlag == 1 && brakePos < 50 && brakePressure < 5000) ||
-//                (brakeFlag == 0 && brakePos != 0 && brakePressure != 0);
-//    }
+    // 空挡(0)或驻车挡(1)下扭矩过大，或扭矩相对滑动窗口突变
+    private boolean isEngineExp(RollingWindow torqueWindow, int tapPos, double torque) {
+        if ((tapPos == 0 || tapPos == 1) && torque > detectRulesConfig.getEngineIdleMaxTorque()) {
+            return true;
+        }
+        if (torqueWindow.size() < detectRulesConfig.getEngineMinSamples()) {
+            return false;
+        }
+        double stdDev = Math.max(torqueWindow.stdDev(), detectRulesConfig.getEngineMinStdDev());
+        return Math.abs(torque - torqueWindow.mean()) > detectRulesConfig.getEngineTorqueK() * stdDev;
+    }
+
+    private boolean isBrakeExp(double accelerationLon) {
+        return accelerationLon < -detectRulesConfig.getHarshBrakeMps2();
+    }
+
+    // 同一车辆同类异常距上次记录超过冷却时间，GNSS时间回退时重新计时
+    private boolean isCooledDown(long lastExpMillis, long timestampGNSS) {
+        return timestampGNSS < lastExpMillis
+                || timestampGNSS - lastExpMillis >= detectRulesConfig.getExpCooldownMs();
+    }
 
     private boolean isSteeringExp(double steeringAngle) {
         return Math.abs(steeringAngle) > Math.pow(10, 7);
@@ -476,29 +592,15 @@ public class ProcessExp {
 //                        && Math.abs(yawRate - previousYawRate) <= 5 * Math.pow(10, 2));
 //    }
 
-    private boolean isTimeStampExp(long timestampGNSS, long timestamp) {
-        return Math.abs(timestampGNSS - timestamp) > 100;
+    // 各车OBU时钟存在稳定偏差，只有偏离该车已学习偏差过大时才判定异常
+    private boolean isTimeStampExp(VehicleState state, long timestampGNSS, long timestamp) {
+        return state.getClockSkew().observe(timestampGNSS - timestamp);
     }
 
-    private boolean isGeoLocationExp(double longitude, double latitude,
-                                     double previousLongitude, double previousLatitude) {
-        // 计算经度差值
-        double longitudeDiff = Math.abs(longitude - previousLongitude);
-
-        // 如果经度差值大于180，取180到360之间的最小差值
-        if (longitudeDiff > 180) {
-            longitudeDiff = 360 - longitudeDiff;
-        }
-
-        // 计算纬度差值
-        double latitudeDiff = Math.abs(latitude - previousLatitude);
-
-        // 判断是否超过阈值
-        if (longitudeDiff > 0.005 || latitudeDiff > 0.004) {
-            return true;
-        }
-
-        return false;
+    // 相邻两帧的大圆距离超过抖动范围且隐含速度超过物理上限时判定为位置跳变
+    private boolean isGeoLocationExp(VehicleState state, double longitude,
+                                     double latitude, long timestampGNSS) {
+        return state.getGeoJump().check(latitude, longitude, timestampGNSS);
     }
 
     /**
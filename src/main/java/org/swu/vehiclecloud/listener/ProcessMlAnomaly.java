@@ -1,108 +1,80 @@
-//package org.swu.vehiclecloud.listener;
-//
-//import com.fasterxml.jackson.databind.ObjectMapper;
-//import org.springframework.beans.factory.annotation.Autowired;
-//import org.springframework.context.event.EventListener;
-//import org.springframework.stereotype.Component;
-//import org.springframework.web.client.RestTemplate;
-//import org.swu.vehiclecloud.entity.MlExpcetion;
-//import org.swu.vehiclecloud.event.MqttMessageEvent;
-//import org.swu.vehiclecloud.mapper.VehicleExpMapper;
-//
-//import java.io.IOException;
-//import java.sql.Timestamp;
-//import java.text.ParseException;
-//import java.text.SimpleDateFormat;
-//import java.util.Date;
-//import java.util.HashMap;
-//import java.util.Map;
-//import org.springframework.http.*;
-//import org.swu.vehiclecloud.service.DataService;
-//
-//@Component
-//public class ProcessMlAnomaly {
-//    @Autowired
-//    private VehicleExpMapper vehicleExpMapper;
-//
-//    // 处理json数据的类
-//    private static final ObjectMapper objectMapper = new ObjectMapper();
-//
-//    @Autowired
-//    private DataService dataService;
-//
-//    // 每5次执行一次
-//    private static int eventCount = 0;
-//
-//    // Create a RestTemplate instance
-//    private final RestTemplate restTemplate = new RestTemplate();
-//
-//    @EventListener
-//    public void handleMqttMessage(MqttMessageEvent event) throws IOException, ParseException {
-//        eventCount++;
-//        if(eventCount % 5 == 0) {
-//            try {
-//                // 提取车辆数据
-//                Map<String, Object> payload = event.getMessage();
-//
-//                // 获取 header 部分
-//                Map<String, Object> header = (Map<String, Object>) payload.get("header");
-//
-//                // 获取 timestamp (来自header)
-//                long timestamp = (long) header.get("timestamp");
-//
-//                // 调用机器学习检测模块
-//                String apiUrl = "http://127.0.0.1:8081/detect-anomaly/";
-//                HttpHeaders headers = new HttpHeaders();
-//                headers.setContentType(MediaType.APPLICATION_JSON);
-//                HttpEntity<Map<String, Object>> request = new HttpEntity<>(payload, headers);
-//
-//                // 接受返回值
-//                ResponseEntity<Map> responseEntity = restTemplate.exchange(apiUrl, HttpMethod.POST, request, Map.class);
-//
-//                // 解析返回值
-//                Map<String, Object> responseBody = responseEntity.getBody();
-//                String vehicleId = (String) responseBody.get("vehicle_id");
-//                double mse = (double) responseBody.get("mse");
-//
-//                if(mse > 0.1){
-//                    // 车辆异常
-//                    vehicleExpMapper.insertMlExp(new MlExpcetion(vehicleId, UtcToCst(timestamp), mse));
-//                    Map<String, Object> MlData = new HashMap<>();
-//                    MlData.put("vehicleId", vehicleId);
-//                    MlData.put("mlExp", true);
-//                    dataService.setPushContent("7", objectMapper.writeValueAsString(MlData));
-//                }else{
-//                    // 车辆正常
-//                    Map<String, Object> MlData = new HashMap<>();
-//                    MlData.put("vehicleId", vehicleId);
-//                    MlData.put("mlExp", false);
-//                    dataService.setPushContent("7", objectMapper.writeValueAsString(MlData));
-//                }
-//            } catch (NullPointerException e) {
-//                throw new NullPointerException("Bad request. Missing required fields.");
-//            } catch (NumberFormatException e) {
-//                throw new NumberFormatException("Bad request. Invalid number format.");
-//            } catch (ParseException e) {
-//                throw new ParseException("Server error, timestamp parse failed", 1);
-//            }
-//        }
-//    }
-//
-//    /**
-//     * 将 UTC 时间戳转换为东八区 Date 对象
-//     * @param timestamp UTC 时间戳（单位：秒）
-//     * @return Date 对象（东八区时间）
-//     */
-//    private Timestamp UtcToCst(long timestamp) throws ParseException {
-//        // 将时间戳转换为Date对象
-//        Date date = new Date(timestamp);
-//
-//        // 创建SimpleDateFormat对象，定义格式为DATETIME格式
-//        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
-//
-//        // 将Date对象格式化为字符串
-//        String formattedDate = sdf.format(date);
-//
-//        return Timestamp.valueOf(formattedDate);
-//    }
-//}
+package org.swu.vehiclecloud.listener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.swu.vehiclecloud.config.MlInferenceConfig;
+import org.swu.vehiclecloud.event.MqttMessageEvent;
+import org.swu.vehiclecloud.service.MlInferenceService;
+import org.swu.vehiclecloud.util.MlFeatureExtractor;
+
+import java.sql.Timestamp;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.Map;
+
+/*
+    此类的handleMqttMessage方法按车辆的自适应采样率提取车辆数据特征，提交给机器学习推理服务批量检测
+ */
+@Component
+public class ProcessMlAnomaly {
+    @Autowired
+    private MlInferenceService mlInferenceService;
+
+    @Autowired
+    private MlInferenceConfig mlInferenceConfig;
+
+    @Autowired
+    private VehicleStateRegistry vehicleStateRegistry;
+
+    @EventListener
+    public void handleMqttMessage(MqttMessageEvent event) {
+        if (!mlInferenceConfig.isEnabled()) {
+            return;
+        }
+
+        // 提取车辆数据
+        Map<String, Object> payload = event.getMessage();
+        Map<String, Object> header = (Map<String, Object>) payload.get("header");
+        Map<String, Object> body = (Map<String, Object>) payload.get("body");
+        if (header == null || body == null || !(body.get("vehicleId") instanceof String)
+                || !(header.get("timestamp") instanceof Long)) {
+            return;
+        }
+
+        // 统计分数升高或近期触发规则异常的车辆提高采样率，全车队受推理预算限制
+        VehicleState state = vehicleStateRegistry.getOrCreate((String) body.get("vehicleId"));
+        synchronized (state) {
+            if (!mlInferenceService.shouldSample(state, System.currentTimeMillis())) {
+                return;
+            }
+        }
+
+        double[] features = new double[MlFeatureExtractor.FEATURE_DIM];
+        if (!MlFeatureExtractor.extract(payload, features, 0)) {
+            return;
+        }
+
+        // 入队即返回，推理在后台线程批量进行
+        mlInferenceService.submit((String) body.get("vehicleId"),
+                UtcToCst((long) header.get("timestamp")), features);
+    }
+
+    /**
+     * 将 UTC 时间戳转换为东八区 Date 对象
+     * @param timestamp UTC 时间戳（单位：毫秒）
+     * @return Date 对象（东八区时间）
+     */
+    private Timestamp UtcToCst(long timestamp) {
+        // 将时间戳转换为Date对象
+        Date date = new Date(timestamp);
+
+        // 创建SimpleDateFormat对象，定义格式为DATETIME格式
+        SimpleDateFormat sdf = new SimpleDateFormat("yyyy-MM-dd HH:mm:ss");
+
+        // 将Date对象格式化为字符串
+        String formattedDate = sdf.format(date);
+
+        return Timestamp.valueOf(formattedDate);
+    }
+}
@@ -0,0 +1,170 @@
+package org.swu.vehiclecloud.listener;
+
+import org.swu.vehiclecloud.util.ClockSkewEstimator;
+import org.swu.vehiclecloud.util.DeadReckoningGate;
+import org.swu.vehiclecloud.util.GeoJumpDetector;
+import org.swu.vehiclecloud.util.KinematicsWindow;
+import org.swu.vehiclecloud.util.ReorderBuffer;
+import org.swu.vehiclecloud.util.RollingWindow;
+import org.swu.vehiclecloud.util.StreamingAnomalyScorer;
+
+import java.util.Map;
+
+/**
+ * 单辆车的流式处理状态
+ * <p>同一车辆的数据帧在该对象的锁内按顺序处理，字段只在持有锁时读写</p>
+ */
+public class VehicleState {
+
+    private final String vehicleId;
+
+    // 按messageId重排与去重的缓冲区
+    private final ReorderBuffer<Map<String, Object>> reorderBuffer;
+
+    // 时钟偏差估计器，自身同步，可在锁外读取快照
+    private final ClockSkewEstimator clockSkew;
+
+    // 位置跳变检测器
+    private final GeoJumpDetector geoJump;
+
+    // 速度、航向滑动窗口，用于估计纵向和横向加速度
+    private final KinematicsWindow kinematics;
+
+    // 发动机扭矩滑动窗口
+    private final RollingWindow torqueWindow;
+
+    // 统计异常评分器
+    private final StreamingAnomalyScorer scorer;
+
+    // 位置推送的航位推算门限
+    private final DeadReckoningGate deadReckoning;
+
+    // 最近一次记录加速度、制动、发动机异常的GNSS时间(毫秒)，用于限制同类异常的记录频率
+    private long lastAccelerationExpMillis;
+    private long lastBrakeExpMillis;
+    private long lastEngineExpMillis;
+    private long lastScoreExpMillis;
+
+    // 机器学习采样额度，每帧累加采样率，满1时采样
+    private double mlSampleCredit;
+
+    // 最近一次触发任一检测规则的时间(毫秒)，用于提高该车的机器学习采样率
+    private volatile long lastRuleHitMillis;
+
+    // 最近一次收到数据的时间(毫秒)，用于清理下线车辆
+    private volatile long lastSeenMillis;
+
+    // 已从注册表清理，持有锁的线程看到该标记后应重新获取车辆状态
+    private boolean evicted;
+
+    public VehicleState(String vehicleId, ReorderBuffer<Map<String, Object>> reorderBuffer,
+                        ClockSkewEstimator clockSkew, GeoJumpDetector geoJump,
+                        KinematicsWindow kinematics, RollingWindow torqueWindow,
+                        StreamingAnomalyScorer scorer, DeadReckoningGate deadReckoning) {
+        this.vehicleId = vehicleId;
+        this.reorderBuffer = reorderBuffer;
+        this.clockSkew = clockSkew;
+        this.geoJump = geoJump;
+        this.kinematics = kinematics;
+        this.torqueWindow = torqueWindow;
+        this.scorer = scorer;
+        this.deadReckoning = deadReckoning;
+        this.lastSeenMillis = System.currentTimeMillis();
+    }
+
+    public String getVehicleId() {
+        return vehicleId;
+    }
+
+    public ReorderBuffer<Map<String, Object>> getReorderBuffer() {
+        return reorderBuffer;
+    }
+
+    public ClockSkewEstimator getClockSkew() {
+        return clockSkew;
+    }
+
+    public GeoJumpDetector getGeoJump() {
+        return geoJump;
+    }
+
+    public KinematicsWindow getKinematics() {
+        return kinematics;
+    }
+
+    public RollingWindow getTorqueWindow() {
+        return torqueWindow;
+    }
+
+    public StreamingAnomalyScorer getScorer() {
+        return scorer;
+    }
+
+    public DeadReckoningGate getDeadReckoning() {
+        return deadReckoning;
+    }
+
+    public long getLastAccelerationExpMillis() {
+        return lastAccelerationExpMillis;
+    }
+
+    public void setLastAccelerationExpMillis(long lastAccelerationExpMillis) {
+        this.lastAccelerationExpMillis = lastAccelerationExpMillis;
+    }
+
+    public long getLastBrakeExpMillis() {
+        return lastBrakeExpMillis;
+    }
+
+    public void setLastBrakeExpMillis(long lastBrakeExpMillis) {
+        this.lastBrakeExpMillis = lastBrakeExpMillis;
+    }
+
+    public long getLastEngineExpMillis() {
+        return lastEngineExpMillis;
+    }
+
+    public void setLastEngineExpMillis(long lastEngineExpMillis) {
+        this.lastEngineExpMillis = lastEngineExpMillis;
+    }
+
+    public long getLastScoreExpMillis() {
+        return lastScoreExpMillis;
+    }
+
+    public void setLastScoreExpMillis(long lastScoreExpMillis) {
+        this.lastScoreExpMillis = lastScoreExpMillis;
+    }
+
+    public double getMlSampleCredit() {
+        return mlSampleCredit;
+    }
+
+    public void setMlSampleCredit(double mlSampleCredit) {
+        this.mlSampleCredit = mlSampleCredit;
+    }
+
+    public long getLastRuleHitMillis() {
+        return lastRuleHitMillis;
+    }
+
+    public void setLastRuleHitMillis(long lastRuleHitMillis) {
+        this.lastRuleHitMillis = lastRuleHitMillis;
+    }
+
+    public long getLastSeenMillis() {
+        return lastSeenMillis;
+    }
+
+    public void touch(long nowMillis) {
+        this.lastSeenMillis = nowMillis;
+    }
+
+    public boolean isEvicted() {
+        return evicted;
+    }
+
+    public void markEvicted() {
+        this.evicted = true;
+    }
+}
@@ -0,0 +1,122 @@
+package org.swu.vehiclecloud.listener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.swu.vehiclecloud.config.DeadReckoningConfig;
+import org.swu.vehiclecloud.config.DetectRulesConfig;
+import org.swu.vehiclecloud.config.ReorderConfig;
+import org.swu.vehiclecloud.util.ClockSkewEstimator;
+import org.swu.vehiclecloud.util.DeadReckoningGate;
+import org.swu.vehiclecloud.util.GeoJumpDetector;
+import org.swu.vehiclecloud.util.KinematicsWindow;
+import org.swu.vehiclecloud.util.ReorderBuffer;
+import org.swu.vehiclecloud.util.RollingWindow;
+import org.swu.vehiclecloud.util.StreamingAnomalyScorer;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * 车辆流式处理状态注册表
+ * <p>按车辆ID保存VehicleState，长时间无数据的车辆会被清理</p>
+ */
+@Component
+public class VehicleStateRegistry {
+
+    private final ReorderConfig reorderConfig;
+
+    private final DetectRulesConfig detectRulesConfig;
+
+    private final DeadReckoningConfig deadReckoningConfig;
+
+    // 车辆ID -> 车辆状态
+    private final ConcurrentMap<String, VehicleState> states = new ConcurrentHashMap<>();
+
+    // 全车队重排计数器
+    private final ReorderBuffer.Counters reorderCounters = new ReorderBuffer.Counters();
+
+    @Autowired
+    public VehicleStateRegistry(ReorderConfig reorderConfig, DetectRulesConfig detectRulesConfig,
+                                DeadReckoningConfig deadReckoningConfig) {
+        this.reorderConfig = reorderConfig;
+        this.detectRulesConfig = detectRulesConfig;
+        this.deadReckoningConfig = deadReckoningConfig;
+    }
+
+    /**
+     * 获取车辆状态，不存在则创建
+     * @param vehicleId 车辆ID
+     * @return 车辆状态
+     */
+    public VehicleState getOrCreate(String vehicleId) {
+        return states.computeIfAbsent(vehicleId, this::createState);
+    }
+
+    // 按当前配置创建车辆状态及其检测器
+    private VehicleState createState(String vehicleId) {
+        return new VehicleState(vehicleId,
+                new ReorderBuffer<>(reorderConfig.getCapacity(), reorderConfig.getBudgetMs(), reorderCounters),
+                new ClockSkewEstimator(detectRulesConfig.getClockSkewAlpha(), detectRulesConfig.getClockSkewK(),
+                        detectRulesConfig.getClockSkewMinDeviationMs(), detectRulesConfig.getClockSkewWarmup(),
+                        detectRulesConfig.getClockSkewHardLimitMs()),
+                new GeoJumpDetector(detectRulesConfig.getGeoMaxSpeedMps(), detectRulesConfig.getGeoMinJumpMeters(),
+                        detectRulesConfig.getGeoReanchorFrames()),
+                new KinematicsWindow(detectRulesConfig.getAccelWindowMs(), detectRulesConfig.getAccelMinSpanMs()),
+                new RollingWindow(detectRulesConfig.getEngineWindowSize()),
+                new StreamingAnomalyScorer(detectRulesConfig.getScoreAlpha(), detectRulesConfig.getScoreWarmup(),
+                        detectRulesConfig.getScoreZClip()),
+                // 未启用时容差为0，每帧都推送
+                new DeadReckoningGate(deadReckoningConfig.isEnabled() ? deadReckoningConfig.getToleranceMeters() : 0,
+                        deadReckoningConfig.getHeartbeatMs(), deadReckoningConfig.getMaxExtrapolateMs()));
+    }
+
+    /**
+     * 获取车辆状态
+     * @param vehicleId 车辆ID
+     * @return 车辆状态，不存在时返回null
+     */
+    public VehicleState get(String vehicleId) {
+        return states.get(vehicleId);
+    }
+
+    /**
+     * @return 当前所有车辆状态的只读视图
+     */
+    public Collection<VehicleState> getAll() {
+        return Collections.unmodifiableCollection(states.values());
+    }
+
+    /**
+     * 清理超过空闲时间的车辆状态
+     * <p>
+     * 在车辆锁内重新检查空闲时间，标记为已清理后再从注册表移除。
+     * 清理前已取得该状态的线程拿到锁后会看到清理标记，需重新调用 {@link #getOrCreate}。
+     * </p>
+     * @param nowMillis 当前时间(毫秒)
+     * @param onEvict   清理前在车辆锁内执行的回调，用于释放残留数据
+     */
+    public void evictIdle(long nowMillis, Consumer<VehicleState> onEvict) {
+        long idleMillis = reorderConfig.getIdleEvictSeconds() * 1000L;
+        for (VehicleState state : states.values()) {
+            if (nowMillis - state.getLastSeenMillis() < idleMillis) {
+                continue;
+            }
+            synchronized (state) {
+                // 加锁前可能刚收到新数据
+                if (state.isEvicted() || nowMillis - state.getLastSeenMillis() < idleMillis) {
+                    continue;
+                }
+                onEvict.accept(state);
+                state.markEvicted();
+                states.remove(state.getVehicleId(), state);
+            }
+        }
+    }
+
+    public ReorderBuffer.Counters getReorderCounters() {
+        return reorderCounters;
+    }
+}
@@ -108,7 +108,14 @@ public interface DataMapper {
     int countTimestampAnomalies();
 
     /**
-     * 统计一段时间内各车辆的总异常数量（包含所有7个异常表）
+     * 统计统计评分异常记录数
+     * @return score_exp表的记录总数
+     */
+    @Select("SELECT COUNT(*) FROM score_exp")
+    int countScoreAnomalies();
+
+    /**
+     * 统计一段时间内各车辆的总异常数量（包含所有8个异常表）
      * @return 包含vehicleId和count的Map列表
      */
     @Select("SELECT vehicleId AS name, COUNT(*) AS value FROM ( " +
@@ -125,6 +132,8 @@ public interface DataMapper {
             "    SELECT vehicleId FROM geo_location_exp WHERE timestamp BETWEEN #{startTime} AND #{endTime} " +
             "    UNION ALL " +
             "    SELECT vehicleId FROM timestamp_exp WHERE timestamp BETWEEN #{startTime} AND #{endTime} " +
+            "    UNION ALL " +
+            "    SELECT vehicleId FROM score_exp WHERE timestamp BETWEEN #{startTime} AND #{endTime} " +
             ") t " +
             "GROUP BY vehicleId")
     List<Map<String, Object>> countExceptionsByVehicle(@Param("startTime") LocalDateTime startTime,
@@ -2,6 +2,8 @@ package org.swu.vehiclecloud.mapper;
 
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.*;
+import org.apache.ibatis.cursor.Cursor;
+import org.apache.ibatis.mapping.ResultSetType;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -102,6 +104,26 @@ public interface ExcelMapper {
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime);
 
+    /**
+     * 查询时间范围内在任一表中出现过的车辆ID
+     * @param tables    表名列表
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @return 按车辆ID升序排列的车辆ID列表
+     */
+    @Select("<script>" +
+            "SELECT DISTINCT vehicleId FROM (" +
+            "<foreach collection='tables' item='table' separator=' UNION ALL '>" +
+            "SELECT vehicleId FROM ${table} WHERE timestamp BETWEEN #{startTime} AND #{endTime}" +
+            "</foreach>" +
+            ") AS combined_tables " +
+            "ORDER BY vehicleId" +
+            "</script>")
+    List<String> selectDistinctVehicleIds(
+            @Param("tables") List<String> tables,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+
     /**
      * 查询指定表在时间范围内的所有车辆数据
      * @param tableName 表名
@@ -114,4 +136,72 @@ public interface ExcelMapper {
             @Param("tableName") String tableName,
             @Param("startTime") LocalDateTime startTime,
             @Param("endTime") LocalDateTime endTime);
-}
\ No newline at end of file
+
+    /**
+     * 按 (timestamp, id) 键集分页查询指定表的数据，车辆ID和时间范围均可为null
+     * 从上一页最后一行之后开始读取，不使用OFFSET，翻页代价与页码无关；表上需有 (timestamp, id) 索引
+     * @param tableName      表名
+     * @param vehicleId      车辆ID
+     * @param startTime      开始时间
+     * @param endTime        结束时间
+     * @param afterTimestamp 上一页最后一行的时间戳，第一页为null
+     * @param afterId        上一页最后一行的ID
+     * @param limit          最多返回的行数
+     * @return 按 (timestamp, id) 升序排列的Map列表
+     */
+    @Select("<script>" +
+            "SELECT * FROM ${tableName}" +
+            "<where>" +
+            "<if test='vehicleId != null'>vehicleId = #{vehicleId}</if>" +
+            "<if test='startTime != null'> AND timestamp &gt;= #{startTime}</if>" +
+            "<if test='endTime != null'> AND timestamp &lt;= #{endTime}</if>" +
+            "<if test='afterTimestamp != null'>" +
+            " AND timestamp &gt;= #{afterTimestamp} AND (timestamp &gt; #{afterTimestamp} OR id &gt; #{afterId})" +
+            "</if>" +
+            "</where>" +
+            " ORDER BY timestamp, id LIMIT #{limit}" +
+            "</script>")
+    List<Map<String, Object>> selectPage(
+            @Param("tableName") String tableName,
+            @Param("vehicleId") String vehicleId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime,
+            @Param("afterTimestamp") LocalDateTime afterTimestamp,
+            @Param("afterId") Long afterId,
+            @Param("limit") int limit);
+
+    /**
+     * 以游标逐行读取指定表的数据，车辆ID和时间范围均可为null
+     * MySQL驱动在 fetchSize 为 Integer.MIN_VALUE 时逐行从服务端读取结果，内存占用与结果行数无关；
+     * 游标只能在事务内遍历，遍历结束前该连接不能执行其他语句
+     * @param tableName 表名
+     * @param vehicleId 车辆ID
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @return 按 (timestamp, id) 升序排列的游标
+     */
+    @Select("<script>" +
+            "SELECT * FROM ${tableName}" +
+            "<where>" +
+            "<if test='vehicleId != null'>vehicleId = #{vehicleId}</if>" +
+            "<if test='startTime != null'> AND timestamp &gt;= #{startTime}</if>" +
+            "<if test='endTime != null'> AND timestamp &lt;= #{endTime}</if>" +
+            "</where>" +
+            " ORDER BY timestamp, id" +
+            "</script>")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> cursorFromTable(
+            @Param("tableName") String tableName,
+            @Param("vehicleId") String vehicleId,
+            @Param("startTime") LocalDateTime startTime,
+            @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 以游标逐行读取整张表，不排序，用于没有 timestamp 列的表
+     * @param tableName 表名
+     * @return 游标
+     */
+    @Select("SELECT * FROM ${tableName}")
+    @Options(resultSetType = ResultSetType.FORWARD_ONLY, fetchSize = Integer.MIN_VALUE)
+    Cursor<Map<String, Object>> cursorAllFromTable(@Param("tableName") String tableName);
+}
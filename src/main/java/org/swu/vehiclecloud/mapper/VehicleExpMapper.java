@@ -2,80 +2,117 @@ package org.swu.vehiclecloud.mapper;
 
 import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
-import org.apache.ibatis.annotations.Options;
 import org.swu.vehiclecloud.entity.*;
 
+import java.util.List;
+
 @Mapper
 public interface VehicleExpMapper {
-//    /**
-//     * 插入加速度异常对象
-//     * @param accelerationExp 加速度异常对象
-//     */
-//    @Insert("INSERT INTO acceleration_exp (vehicleId, accelerationLon, accelerationLat, accelerationVer, timestamp) " +
-//            "VALUES (#{vehicleId}, #{accelerationLon}, #{accelerationLat}, #{accelerationVer}, #{timestamp})")
-//    @Options(useGeneratedKeys = true, keyProperty = "id")
-//    void insertAccelerationExp(AccelerationExp accelerationExp);
+    /**
+     * 批量插入速度异常对象
+     * @param list 速度异常对象列表
+     */
+    @Insert("<script>" +
+            "INSERT INTO speed_exp (vehicleId, velocityGNSS, timestamp) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.velocityGNSS}, #{item.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertSpeedExp(List<SpeedExp> list);
+
+    /**
+     * 批量插入转向异常对象
+     * @param list 转向异常对象列表
+     */
+    @Insert("<script>" +
+            "INSERT INTO steering_exp (vehicleId, steeringAngle, timestamp) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.steeringAngle}, #{item.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertSteeringExp(List<SteeringExp> list);
 
     /**
-     * 插入速度异常对象
-     * @param speedExp 速度异常对象
+     * 批量插入时间戳异常对象
+     * @param list 时间戳异常对象列表
      */
-    @Insert("INSERT INTO speed_exp (vehicleId, velocityGNSS, timestamp) " +
-            "VALUES (#{vehicleId}, #{velocityGNSS}, #{timestamp})")
-    @Options(useGeneratedKeys = true, keyProperty = "id")
-    void insertSpeedExp(SpeedExp speedExp);
+    @Insert("<script>" +
+            "INSERT INTO timestamp_exp (vehicleId, timestampGNSS, timestamp) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.timestampGNSS}, #{item.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertTimestampExp(List<TimestampExp> list);
 
-//    /**
-//     * 插入发动机异常对象
-//     * @param engineExp 发动机异常对象
-//     */
-//    @Insert("INSERT INTO engine_exp (vehicleId, engineSpeed, engineTorque, timestamp) " +
-//            "VALUES (#{vehicleId}, #{engineSpeed}, #{engineTorque}, #{timestamp})")
-//    @Options(useGeneratedKeys = true, keyProperty = "id")
-//    void insertEngineExp(EngineExp engineExp);
+    /**
+     * 批量插入经纬度异常对象
+     * @param list 经纬度异常对象列表
+     */
+    @Insert("<script>" +
+            "INSERT INTO geo_location_exp (vehicleId, longitude, latitude, timestamp) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.longitude}, #{item.latitude}, #{item.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertGeoLocationExp(List<GeoLocationExp> list);
 
-//    /**
-//     * 插入制动异常对象
-//     * @param brakeExp 制动异常对象
-//     */
-//    @Insert("INSERT INTO brake_exp (vehicleId, brakeFlag, brakePos, brakePressure, timestamp) " +
-//            "VALUES (#{vehicleId}, #{brakeFlag}, #{brakePos}, #{brakePressure}, #{timestamp})")
-//    @Options(useGeneratedKeys = true, keyProperty = "id")
-//    void insertBrakeExp(BrakeExp brakeExp);
+    /**
+     * 批量插入加速度异常对象
+     * @param list 加速度异常对象列表
+     */
+    @Insert("<script>" +
+            "INSERT INTO acceleration_exp (vehicleId, accelerationLon, accelerationLat, accelerationVer, timestamp) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.accelerationLon}, #{item.accelerationLat}, #{item.accelerationVer}, #{item.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertAccelerationExp(List<AccelerationExp> list);
 
     /**
-     * 插入转向异常对象
-     * @param steeringExp 转向异常对象
+     * 批量插入制动异常对象
+     * @param list 制动异常对象列表
      */
-    @Insert("INSERT INTO steering_exp (vehicleId, steeringAngle, timestamp) " +
-            "VALUES (#{vehicleId}, #{steeringAngle}, #{timestamp})")
-    @Options(useGeneratedKeys = true, keyProperty = "id")
-    void insertSteeringExp(SteeringExp steeringExp);
+    @Insert("<script>" +
+            "INSERT INTO brake_exp (vehicleId, brakeFlag, brakePos, brakePressure, timestamp) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.brakeFlag}, #{item.brakePos}, #{item.brakePressure}, #{item.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertBrakeExp(List<BrakeExp> list);
 
     /**
-     * 插入时间戳异常对象
-     * @param timestampExp 时间戳异常对象
+     * 批量插入发动机异常对象
+     * @param list 发动机异常对象列表
      */
-    @Insert("INSERT INTO timestamp_exp (vehicleId, timestampGNSS, timestamp) " +
-            "VALUES (#{vehicleId}, #{timestampGNSS}, #{timestamp})")
-    @Options(useGeneratedKeys = true, keyProperty = "id")
-    void insertTimestampExp(TimestampExp timestampExp);
+    @Insert("<script>" +
+            "INSERT INTO engine_exp (vehicleId, engineSpeed, engineTorque, timestamp) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.engineSpeed}, #{item.engineTorque}, #{item.timestamp})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertEngineExp(List<EngineExp> list);
 
     /**
-     * 插入经纬度异常对象
-     * @param geoLocationExp 经纬度异常对象
+     * 批量插入机器学习检测的车辆异常对象
+     * @param list 机器学习检测的车辆异常对象列表
      */
-    @Insert("INSERT INTO geo_location_exp (vehicleId, longitude, latitude, timestamp) " +
-            "VALUES (#{vehicleId}, #{longitude}, #{latitude}, #{timestamp})")
-    @Options(useGeneratedKeys = true, keyProperty = "id")
-    void insertGeoLocationExp(GeoLocationExp geoLocationExp);
+    @Insert("<script>" +
+            "INSERT INTO ml_exp (vehicleId, timestamp, mse) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.timestamp}, #{item.mse})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertMlExp(List<MlExpcetion> list);
 
     /**
-     * 插入机器学习检测的车辆异常对象
-     * @param mlExpcetion 机器学习检测的车辆异常对象
+     * 批量插入统计评分异常对象
+     * @param list 统计评分异常对象列表
      */
-    @Insert("INSERT INTO ml_exp (vehicleId, timestamp, mse) " +
-            "VALUES (#{vehicleId}, #{timestamp}, #{mse})")
-    @Options(useGeneratedKeys = true, keyProperty = "id")
-    void insertMlExp(MlExpcetion mlExpcetion);
+    @Insert("<script>" +
+            "INSERT INTO score_exp (vehicleId, timestamp, score) VALUES " +
+            "<foreach collection='list' item='item' separator=','>" +
+            "(#{item.vehicleId}, #{item.timestamp}, #{item.score})" +
+            "</foreach>" +
+            "</script>")
+    void batchInsertScoreExp(List<ScoreExp> list);
 }
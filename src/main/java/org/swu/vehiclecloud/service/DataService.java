@@ -4,11 +4,14 @@ import io.swagger.annotations.Api;
 import org.springframework.http.codec.ServerSentEvent;
 import org.swu.vehiclecloud.controller.template.ApiResult;
 import org.swu.vehiclecloud.dto.AnomalyStat;
+import org.swu.vehiclecloud.dto.SsePushStats;
+import org.swu.vehiclecloud.dto.SseSubscriberStats;
 import org.swu.vehiclecloud.dto.VehicleExceptionCount;
 import reactor.core.publisher.Flux;
 
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Map;
 
@@ -25,11 +28,26 @@ public interface DataService {
      * 为给定ID创建或获取共享的SSE数据流。
      * 使用相同ID连接的多个客户端将接收到相同的事件流。
      * 该流每秒根据当前为该ID设置的内容发送数据。
+     * 携带Last-Event-ID重连时先补发其后的事件；断线期间的事件已超出重放范围时先发送reset事件。
      *
-     * @param id SSE流的唯一标识符。
+     * @param id          SSE流的唯一标识符。
+     * @param lastEventId 客户端最后收到的事件ID，首次连接为null。
      * @return 发射包含数据的ServerSentEvent对象的Flux流。
      */
-    Flux<ServerSentEvent<String>> streamData(String id);
+    Flux<ServerSentEvent<String>> streamData(String id, String lastEventId);
+
+    /**
+     * 在一个SSE连接上同时订阅多个数据流。
+     * 每个数据流仍通过其共享的发射器分发，事件名(event)为数据流ID，客户端按事件名区分来源。
+     *
+     * 事件ID全局递增，重放事件按ID合并、实时事件按ID顺序入队，连接上收到的ID严格递增，
+     * 因此一个Last-Event-ID可同时用于补发所有数据流的事件。
+     *
+     * @param ids         要订阅的数据流ID集合，重复的ID只订阅一次。
+     * @param lastEventId 客户端最后收到的事件ID，首次连接为null。
+     * @return 合并后的SSE事件流。
+     */
+    Flux<ServerSentEvent<String>> streamMultiplexed(Collection<String> ids, String lastEventId);
 
     /**
      * 设置或更新特定SSE流ID要推送的内容。
@@ -42,6 +60,28 @@ public interface DataService {
      */
     void setPushContent(String id, String content);
 
+    /**
+     * 判断指定SSE流当前是否有订阅者，没有订阅者时调用方可以跳过序列化。
+     *
+     * @param id SSE流的唯一标识符。
+     * @return 有至少一个订阅者时返回true。
+     */
+    boolean hasSubscribers(String id);
+
+    /**
+     * 获取各SSE流的订阅者数量、限流参数和推送计数。
+     *
+     * @return 按数据流ID排序的统计列表。
+     */
+    List<SsePushStats> getPushStats();
+
+    /**
+     * 获取当前每个SSE连接的待发送队列长度、延迟和丢弃统计。
+     *
+     * @return 按连接ID排序的统计列表。
+     */
+    List<SseSubscriberStats> getSubscriberStats();
+
 
     /**
      * 获取所有异常类型的统计信息
@@ -0,0 +1,24 @@
+package org.swu.vehiclecloud.service;
+
+import org.swu.vehiclecloud.dto.AnomalyScoreStat;
+import org.swu.vehiclecloud.dto.ClockSkewStat;
+
+import java.util.List;
+
+/**
+ * 流式异常检测状态查询服务接口
+ */
+public interface DetectionStatsService {
+
+    /**
+     * 获取所有在线车辆的时钟偏差估计，按偏差绝对值从大到小排序
+     * @return 时钟偏差列表
+     */
+    List<ClockSkewStat> getClockSkewTable();
+
+    /**
+     * 获取所有在线车辆最近一帧的统计异常分数，按分数从大到小排序
+     * @return 异常分数列表
+     */
+    List<AnomalyScoreStat> getAnomalyScores();
+}
@@ -0,0 +1,21 @@
+package org.swu.vehiclecloud.service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 已通过参数校验的Excel导出任务
+ * 任务在只读事务中执行，可在任意线程调用
+ */
+@FunctionalInterface
+public interface ExcelExportTask {
+
+    /**
+     * 生成Excel文件并写入输出流
+     * @param out         输出流，由调用方关闭
+     * @param rowsWritten 已写入的数据行数，每写入一行加1
+     * @throws IOException 写入失败时抛出
+     */
+    void writeTo(OutputStream out, AtomicLong rowsWritten) throws IOException;
+}
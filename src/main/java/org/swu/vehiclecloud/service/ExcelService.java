@@ -1,7 +1,7 @@
 package org.swu.vehiclecloud.service;
 
-import org.springframework.core.io.Resource;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 
 import java.util.List;
@@ -12,9 +12,9 @@ import org.springframework.transaction.annotation.Transactional;
 
 @Transactional
 public interface ExcelService {
-    ResponseEntity<Resource> exportExcel(String tableName);
+    ResponseEntity<StreamingResponseBody> exportExcel(String tableName);
     
-    ResponseEntity<Resource> exportCombinedExcel(
+    ResponseEntity<StreamingResponseBody> exportCombinedExcel(
             String vehicleId, 
             LocalDateTime startTime, 
             LocalDateTime endTime, 
@@ -29,9 +29,37 @@ public interface ExcelService {
      * @param selectedColumns 每个表选定的列
      * @return 包含Excel文件的HTTP响应
      */
-    ResponseEntity<Resource> exportAllVehiclesExceptions(
+    ResponseEntity<StreamingResponseBody> exportAllVehiclesExceptions(
             LocalDateTime startTime,
             LocalDateTime endTime,
             List<String> selectedTables,
             Map<String, List<String>> selectedColumns);
-}
\ No newline at end of file
+
+    /**
+     * 校验参数并返回导出指定表的任务，供后台导出任务使用
+     * @param tableName 表名
+     * @return 导出任务
+     */
+    ExcelExportTask prepareExcel(String tableName);
+
+    /**
+     * 校验参数并返回导出指定车辆组合数据的任务，参数同 {@link #exportCombinedExcel}
+     * @return 导出任务
+     */
+    ExcelExportTask prepareCombinedExcel(
+            String vehicleId,
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            List<String> selectedTables,
+            Map<String, List<String>> selectedColumns);
+
+    /**
+     * 校验参数并返回导出所有车辆异常数据的任务，参数同 {@link #exportAllVehiclesExceptions}
+     * @return 导出任务
+     */
+    ExcelExportTask prepareAllVehiclesExceptions(
+            LocalDateTime startTime,
+            LocalDateTime endTime,
+            List<String> selectedTables,
+            Map<String, List<String>> selectedColumns);
+}
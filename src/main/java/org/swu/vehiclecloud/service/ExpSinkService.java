@@ -0,0 +1,38 @@
+package org.swu.vehiclecloud.service;
+
+import org.swu.vehiclecloud.entity.*;
+
+/**
+ * 车辆异常记录批量写入服务接口
+ * <p>检测线程只负责入队，由独立的写入线程按表批量写入数据库，避免在车辆锁内或定时任务线程上同步访问数据库</p>
+ */
+public interface ExpSinkService {
+
+    void submit(SpeedExp speedExp);
+
+    void submit(SteeringExp steeringExp);
+
+    void submit(TimestampExp timestampExp);
+
+    void submit(GeoLocationExp geoLocationExp);
+
+    void submit(AccelerationExp accelerationExp);
+
+    void submit(BrakeExp brakeExp);
+
+    void submit(EngineExp engineExp);
+
+    void submit(MlExpcetion mlExpcetion);
+
+    void submit(ScoreExp scoreExp);
+
+    /**
+     * 立即将所有队列中的记录写入数据库
+     */
+    void flush();
+
+    /**
+     * @return 因队列已满被丢弃的记录总数
+     */
+    long getDroppedCount();
+}
@@ -0,0 +1,59 @@
+package org.swu.vehiclecloud.service;
+
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.swu.vehiclecloud.dto.ExcelExportAllVehiclesRequest;
+import org.swu.vehiclecloud.dto.ExcelExportRequest;
+import org.swu.vehiclecloud.dto.ExportJobStatus;
+import reactor.core.publisher.Flux;
+
+/**
+ * 后台Excel导出任务服务接口
+ * 导出在有界工作线程池中执行，结果写入本地文件后下载；
+ * 相同的请求在执行期间只计算一次，时间范围已封闭的请求完成后复用结果文件
+ */
+public interface ExportJobService {
+
+    /**
+     * 提交导出指定表的任务
+     * @param tableName 表名
+     * @return 任务状态，相同的任务正在执行时返回该任务
+     */
+    ExportJobStatus submitTableExport(String tableName);
+
+    /**
+     * 提交导出指定车辆组合数据的任务
+     * @param request 包含车辆ID、时间范围、选定表和列的请求对象
+     * @return 任务状态，相同的任务正在执行或已有可复用结果时返回该任务
+     */
+    ExportJobStatus submitCombinedExport(ExcelExportRequest request);
+
+    /**
+     * 提交导出时间段内所有车辆异常数据的任务
+     * @param request 包含时间范围、选定表和列的请求对象
+     * @return 任务状态，相同的任务正在执行或已有可复用结果时返回该任务
+     */
+    ExportJobStatus submitAllVehiclesExport(ExcelExportAllVehiclesRequest request);
+
+    /**
+     * 查询任务状态
+     * @param jobId 任务ID
+     * @return 任务状态
+     */
+    ExportJobStatus getStatus(String jobId);
+
+    /**
+     * 订阅任务进度，按配置的间隔推送状态，事件名为progress；任务结束后推送最终状态并结束
+     * @param jobId 任务ID
+     * @return SSE事件流
+     */
+    Flux<ServerSentEvent<String>> streamStatus(String jobId);
+
+    /**
+     * 下载已完成任务的文件，支持Range请求断点续传
+     * @param jobId 任务ID
+     * @return 文件响应
+     */
+    ResponseEntity<Resource> download(String jobId);
+}
@@ -0,0 +1,39 @@
+package org.swu.vehiclecloud.service;
+
+import org.swu.vehiclecloud.dto.LocationPushStats;
+import org.swu.vehiclecloud.listener.VehicleState;
+
+/**
+ * 车辆位置合并推送服务接口
+ * <p>
+ * 检测线程只记录每辆车的最新位置，由定时任务把上一周期内位置有更新的车辆合并成一帧推送到数据流1，
+ * 同一车辆在一个周期内的多次更新只保留最后一次。
+ * 推送内容带速度和航向，前端据此外推车辆位置；只有外推偏差超过容差或超过心跳间隔的帧才会推送，
+ * 外推公式见 {@link org.swu.vehiclecloud.util.DeadReckoningGate}。
+ * </p>
+ */
+public interface LocationPushService {
+
+    /**
+     * 按航位推算门限判断后记录车辆最新位置，不阻塞、不序列化；调用方需持有车辆锁
+     * @param state         车辆状态
+     * @param longitude     经度
+     * @param latitude      纬度
+     * @param timestampGNSS GNSS时间戳(毫秒)
+     * @param speed         速度(米/秒)
+     * @param heading       航向(度，正北为0，顺时针)
+     */
+    void update(VehicleState state, double longitude, double latitude, long timestampGNSS,
+                double speed, double heading);
+
+    /**
+     * 立即推送上一次推送以来有更新的车辆位置
+     */
+    void flush();
+
+    /**
+     * 获取航位推算门限的统计
+     * @return 统计
+     */
+    LocationPushStats getStats();
+}
@@ -0,0 +1,36 @@
+package org.swu.vehiclecloud.service;
+
+import org.swu.vehiclecloud.dto.MlInferenceStats;
+import org.swu.vehiclecloud.listener.VehicleState;
+
+import java.sql.Timestamp;
+
+/**
+ * 机器学习异常检测推理服务接口
+ * <p>样本先入队，由后台线程按批量大小和等待时间凑批后异步送去推理，异常结果写入ml_exp并推送数据流7</p>
+ */
+public interface MlInferenceService {
+
+    /**
+     * 按车辆的自适应采样率和全车队推理预算决定是否采样当前帧
+     * <p>调用方需持有该车辆状态的锁</p>
+     * @param state     车辆流式处理状态
+     * @param nowMillis 当前时间(毫秒)
+     * @return 需要采样时返回true；未启用时返回false
+     */
+    boolean shouldSample(VehicleState state, long nowMillis);
+
+    /**
+     * 提交一个待推理样本，不阻塞调用线程
+     * @param vehicleId 车辆ID
+     * @param timestamp 数据时间
+     * @param features  特征，长度为 MlFeatureExtractor.FEATURE_DIM
+     * @return 入队成功返回true；未启用、队列已满时返回false
+     */
+    boolean submit(String vehicleId, Timestamp timestamp, double[] features);
+
+    /**
+     * @return 推理客户端运行统计
+     */
+    MlInferenceStats getStats();
+}
@@ -0,0 +1,20 @@
+package org.swu.vehiclecloud.service;
+
+import org.swu.vehiclecloud.dto.MlSidecarStatus;
+
+/**
+ * 机器学习服务进程守护接口
+ * <p>在后台启动 pythonMLAnomaly 服务，定时健康检查，进程退出或失去响应时按退避时间重启</p>
+ */
+public interface MlSidecarService {
+
+    /**
+     * @return 服务是否可以接收推理请求；未启用守护(由外部管理)时始终返回true
+     */
+    boolean isReady();
+
+    /**
+     * @return 服务进程运行状态
+     */
+    MlSidecarStatus getStatus();
+}
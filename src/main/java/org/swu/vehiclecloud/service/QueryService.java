@@ -1,5 +1,9 @@
 package org.swu.vehiclecloud.service;
 
+import org.swu.vehiclecloud.dto.TablePage;
+
+import java.io.IOException;
+import java.io.OutputStream;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
@@ -7,46 +11,76 @@ import java.util.Map;
 /**
  * 查询服务接口
  * 提供查询异常数据的功能
+ * <p>
+ * 整表和多表查询以数据库游标逐行读取，经JSON生成器直接写入输出流，内存占用与表大小无关；
+ * 游标需在事务内遍历，流式方法须经本接口的代理调用。
+ * </p>
  */
 import org.springframework.transaction.annotation.Transactional;
 
-@Transactional
+@Transactional(readOnly = true)
 public interface QueryService {
-    
+
+    /**
+     * 以JSON数组流式输出指定表的所有数据
+     * @param tableName 表名
+     * @param out 输出流
+     */
+    void streamTable(String tableName, OutputStream out) throws IOException;
+
     /**
-     * 查询指定表的所有数据
+     * 以NDJSON(每行一个JSON对象)流式输出指定表的数据，按 (timestamp, id) 升序
      * @param tableName 表名
-     * @return 查询结果列表
+     * @param vehicleId 车辆ID，可为null
+     * @param startTime 开始时间，可为null
+     * @param endTime 结束时间，可为null
+     * @param out 输出流
      */
-    List<Map<String, Object>> queryTable(String tableName);
-    
+    void streamTableNdjson(String tableName, String vehicleId, LocalDateTime startTime, LocalDateTime endTime,
+                           OutputStream out) throws IOException;
+
+    /**
+     * 按 (timestamp, id) 键集分页查询指定表的数据
+     * @param tableName 表名
+     * @param vehicleId 车辆ID，可为null
+     * @param startTime 开始时间，可为null
+     * @param endTime 结束时间，可为null
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param limit 每页行数，为null时使用默认值
+     * @return 本页数据和下一页游标
+     */
+    TablePage queryTablePage(String tableName, String vehicleId, LocalDateTime startTime, LocalDateTime endTime,
+                             String cursor, Integer limit);
+
     /**
-     * 查询指定车辆和时间范围内的组合数据
+     * 以JSON数组流式输出指定车辆和时间范围内的组合数据
      * @param vehicleId 车辆ID
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @param selectedTables 选定的异常表
      * @param selectedColumns 每个表选定的列
-     * @return 查询结果列表
+     * @param out 输出流
      */
-    List<Map<String, Object>> queryCombinedData(
+    void streamCombinedData(
             String vehicleId, 
             LocalDateTime startTime, 
             LocalDateTime endTime, 
             List<String> selectedTables,
-            Map<String, List<String>> selectedColumns);
+            Map<String, List<String>> selectedColumns,
+            OutputStream out) throws IOException;
             
     /**
-     * 查询时间段内所有车辆的异常数据
+     * 以JSON数组流式输出时间段内所有车辆的异常数据
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @param selectedTables 选定的异常表
      * @param selectedColumns 每个表选定的列
-     * @return 查询结果列表
+     * @param out 输出流
      */
-    List<Map<String, Object>> queryAllVehiclesExceptions(
+    void streamAllVehiclesExceptions(
             LocalDateTime startTime,
             LocalDateTime endTime,
             List<String> selectedTables,
-            Map<String, List<String>> selectedColumns);
-}
\ No newline at end of file
+            Map<String, List<String>> selectedColumns,
+            OutputStream out) throws IOException;
+}
@@ -0,0 +1,37 @@
+package org.swu.vehiclecloud.service;
+
+import org.swu.vehiclecloud.dto.SequenceStats;
+
+import java.util.List;
+
+/**
+ * 消息编号连续性(丢包、乱序)统计服务接口
+ */
+public interface SequenceStatsService {
+
+    /**
+     * 记录一个到达的消息编号
+     * @param vehicleId 车辆ID
+     * @param messageId 消息编号
+     */
+    void record(String vehicleId, long messageId);
+
+    /**
+     * 获取单辆车的统计
+     * @param vehicleId 车辆ID
+     * @return 统计结果，车辆不存在时返回null
+     */
+    SequenceStats getVehicleStats(String vehicleId);
+
+    /**
+     * 获取所有在线车辆的统计，按实时丢包率从高到低排序
+     * @return 统计结果列表
+     */
+    List<SequenceStats> getAllVehicleStats();
+
+    /**
+     * 获取全车队汇总统计
+     * @return 汇总统计结果
+     */
+    SequenceStats getFleetStats();
+}
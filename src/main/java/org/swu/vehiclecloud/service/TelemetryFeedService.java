@@ -0,0 +1,51 @@
+package org.swu.vehiclecloud.service;
+
+import jakarta.websocket.Session;
+import org.swu.vehiclecloud.dto.VehicleLocation;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 按订阅过滤的车辆位置推送服务接口
+ * <p>
+ * 每个WebSocket连接声明关注的车辆集合和/或经纬度范围，只接收其中车辆的位置更新，
+ * 帧格式与数据流1相同：{"t": 推送时间, "vehicles": [{vehicleId, longitude, latitude, timestampGNSS}, ...]}，
+ * 或按连接的选择使用 {@link org.swu.vehiclecloud.util.CompactLocationEncoder} 的二进制差分帧。
+ * </p>
+ */
+public interface TelemetryFeedService {
+
+    /**
+     * 登记新连接，连接数达到上限时返回false
+     * @param session WebSocket连接
+     * @return 登记成功返回true
+     */
+    boolean register(Session session);
+
+    /**
+     * 替换连接的订阅条件，并立即推送满足新条件的车辆的最新位置
+     * @param session    WebSocket连接
+     * @param vehicleIds 关注的车辆ID，可为空
+     * @param bbox       关注的范围 [最小经度, 最小纬度, 最大经度, 最大纬度]，可为null
+     * @param compact    为true时以二进制差分帧发送，否则为JSON文本帧
+     */
+    void subscribe(Session session, Collection<String> vehicleIds, double[] bbox, boolean compact);
+
+    /**
+     * 移除连接及其订阅
+     * @param session WebSocket连接
+     */
+    void unregister(Session session);
+
+    /**
+     * 按各连接的订阅条件分发一批位置更新
+     * @param locations 上一周期内有更新的车辆位置
+     */
+    void publish(List<VehicleLocation> locations);
+
+    /**
+     * @return 当前是否有连接
+     */
+    boolean hasSubscribers();
+}
@@ -0,0 +1,39 @@
+package org.swu.vehiclecloud.service;
+
+import org.springframework.http.codec.ServerSentEvent;
+import org.swu.vehiclecloud.dto.ClusterSnapshot;
+import org.swu.vehiclecloud.dto.VehicleLocation;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+
+/**
+ * 车辆位置服务端聚类服务接口
+ * <p>
+ * 按地图缩放级别把视野内的车辆聚合成网格聚类，返回的数据量只与视野大小有关，与在线车辆数无关。
+ * </p>
+ */
+public interface VehicleClusterService {
+
+    /**
+     * 按一批位置更新增量调整聚类
+     * @param locations 上一周期内有更新的车辆位置
+     */
+    void update(List<VehicleLocation> locations);
+
+    /**
+     * 查询视野内的聚类
+     * @param zoom 地图缩放级别
+     * @param bbox 视野 [最小经度, 最小纬度, 最大经度, 最大纬度]
+     * @return 聚类结果
+     */
+    ClusterSnapshot getClusters(int zoom, List<Double> bbox);
+
+    /**
+     * 订阅视野内的聚类，按配置的间隔推送，聚类没有变化时不推送
+     * @param zoom 地图缩放级别
+     * @param bbox 视野 [最小经度, 最小纬度, 最大经度, 最大纬度]
+     * @return 事件名为clusters的SSE事件流
+     */
+    Flux<ServerSentEvent<String>> streamClusters(int zoom, List<Double> bbox);
+}
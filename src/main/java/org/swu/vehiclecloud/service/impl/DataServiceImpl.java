@@ -6,15 +6,23 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.SsePushConfig;
 import org.swu.vehiclecloud.controller.template.ApiResult;
 import org.swu.vehiclecloud.dto.AnomalyStat;
+import org.swu.vehiclecloud.dto.SsePushStats;
+import org.swu.vehiclecloud.dto.SseSubscriberStats;
 import org.swu.vehiclecloud.dto.VehicleExceptionCount;
 
 import org.swu.vehiclecloud.entity.MlExpcetion;
 import org.swu.vehiclecloud.mapper.DataMapper;
 import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.util.GcraRateLimiter;
+import org.swu.vehiclecloud.util.SseReplayBuffer;
+import reactor.core.Disposable;
 import reactor.core.publisher.Flux;
+import reactor.core.publisher.FluxSink;
 import reactor.core.publisher.Mono;
 import reactor.core.publisher.Sinks;
 import reactor.core.scheduler.Schedulers;
@@ -23,8 +31,10 @@ import java.time.Duration;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * SSE数据流服务实现类
@@ -36,70 +46,118 @@ public class DataServiceImpl implements DataService {
     private static final Logger log = LoggerFactory.getLogger(DataServiceImpl.class);
 
     /**
-     * 内容发射器缓存
-     * <p>Key: 数据流ID，Value: 对应内容发射器</p>
+     * 数据流缓存
+     * <p>Key: 数据流ID，Value: 该流的发射器、重放环、限流器和计数；
+     * 订阅者全部断开后保留 {@link SsePushConfig#getIdleStreamTtlMs()} 以便重连时重放，之后由 {@link #sweepIdleStreams()} 移除</p>
      */
-    private final Map<String, Sinks.Many<String>> contentSinks = new ConcurrentHashMap<>();
+    private final Map<String, SseStream> streams = new ConcurrentHashMap<>();
 
     /**
-     * 活跃数据流缓存
-     * <p>Key: 数据流ID，Value: 对应的SSE数据流</p>
+     * 全局事件ID生成器
+     * <p>在推送时于数据流锁内分配，同一事件对所有订阅者ID相同；以启动时间为起点，重启后的ID大于重启前的ID</p>
      */
-    private final Map<String, Flux<ServerSentEvent<String>>> activeStreams = new ConcurrentHashMap<>();
+    private final AtomicLong eventIdCounter = new AtomicLong(System.currentTimeMillis() * 1000);
 
     /**
-     * 全局事件ID生成器
+     * 新建数据流的重放起点，Last-Event-ID小于该值时回复reset
+     * <p>初始为本进程第一个事件ID之前的值(更早的ID来自重启之前)；
+     * 移除带有事件的空闲数据流后提高到其最后一个事件ID，重建的数据流无法补发被丢弃的事件。在 streamsLock 内读写</p>
+     */
+    private long replayFloor = eventIdCounter.get();
+
+    /**
+     * 创建和移除数据流的锁
+     * <p>只在数据流不存在、首次被服务端推送或空闲清理时获取，已存在的数据流推送时不经过该锁。
+     * 分配事件ID、写入重放环和发射在各数据流自己的锁内进行，不同数据流的推送互不等待</p>
+     */
+    private final Object streamsLock = new Object();
+
+    /**
+     * 由客户端订阅创建、既未推送过也未单独配置的数据流数量，在 streamsLock 内读写
+     */
+    private int clientStreams;
+
+    /**
+     * 单个多路复用连接最多订阅的数据流数量
      */
-    private final AtomicLong eventIdCounter = new AtomicLong();
+    private static final int MAX_MULTIPLEXED_STREAMS = 32;
 
     /**
-     * 订阅者计数器
-     * <p>Key: 数据流ID，Value: 当前订阅数</p>
+     * 客户端订阅可创建的未知数据流数量上限，防止任意ID无限创建数据流；
+     * 服务端推送和单独配置的数据流不计入，不受该上限影响
      */
-    private final Map<String, AtomicInteger> subscriberCounts = new ConcurrentHashMap<>();
+    private static final int MAX_CLIENT_STREAMS = 256;
+
+    /**
+     * 下游每次向订阅者队列预取的事件数
+     */
+    private static final int SUBSCRIBER_PREFETCH = 8;
+
+    /**
+     * 当前连接
+     * <p>Key: 连接ID，Value: 连接的待发送队列和统计</p>
+     */
+    private final Map<Long, SseSubscriber> subscribers = new ConcurrentHashMap<>();
+
+    private final AtomicLong subscriberIdCounter = new AtomicLong();
+
+    @Autowired
+    private SsePushConfig ssePushConfig;
 
     /**
      * 获取指定ID的SSE数据流
-     * 如果该ID的数据流不存在，则创建一个新的数据流
-     * 使用Sinks.Many作为内容发射器，支持多播和背压
+     * 每个订阅者先收到重放环中 Last-Event-ID 之后的事件，再接收实时事件；
+     * 重放环无法覆盖断线期间的全部事件时，先收到一条名为reset的事件，客户端应重新拉取全量数据
      *
-     * @param id 数据流标识符，区分不同的SSE通道
+     * @param id          数据流标识符，区分不同的SSE通道
+     * @param lastEventId 客户端重连时携带的Last-Event-ID，首次连接为null
      * @return Flux<ServerSentEvent < String>> 包含服务器推送事件的响应式流
      * 会自动处理订阅和取消订阅事件
      */
     @Override
-    public Flux<ServerSentEvent<String>> streamData(String id) {
+    public Flux<ServerSentEvent<String>> streamData(String id, String lastEventId) {
         if (id == null || id.trim().isEmpty()) {
             return Flux.error(new IllegalArgumentException("数据流ID不能为空"));
         }
 
-        try {
-            log.debug("获取数据流 ID[{}], 当前活跃流数量: {}", id, activeStreams.size());
-            return activeStreams.computeIfAbsent(id, this::createAndShareStreamForId)
-                    .doOnSubscribe(subscription -> handleSubscribe(id))
-                    .doFinally(signalType -> handleCancel(id))
-                    .doOnError(e -> log.error("数据流处理异常 ID[{}]: {}", id, e.getMessage()));
-        } catch (Exception e) {
-            log.error("创建数据流失败 ID[{}]: {}", id, e.getMessage());
-            return Flux.error(e);
+        log.debug("获取数据流 ID[{}], 当前数据流数量: {}", id, streams.size());
+        return subscribe(List.of(id), parseLastEventId(lastEventId), false)
+                .doOnError(e -> log.error("数据流处理异常 ID[{}]: {}", id, e.getMessage()));
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> streamMultiplexed(Collection<String> ids, String lastEventId) {
+        if (ids == null || ids.isEmpty()) {
+            return Flux.error(new IllegalArgumentException("数据流ID不能为空"));
+        }
+        Set<String> distinct = new LinkedHashSet<>();
+        for (String id : ids) {
+            if (id == null || id.trim().isEmpty()) {
+                return Flux.error(new IllegalArgumentException("数据流ID不能为空"));
+            }
+            distinct.add(id.trim());
         }
+        if (distinct.size() > MAX_MULTIPLEXED_STREAMS) {
+            return Flux.error(new IllegalArgumentException("单个连接最多订阅 " + MAX_MULTIPLEXED_STREAMS + " 个数据流"));
+        }
+
+        log.debug("创建多路复用数据流 ID{}", distinct);
+        // 与单流订阅共用同一个发射器和重放环，事件ID全局递增，一个Last-Event-ID可同时用于所有流
+        return subscribe(new ArrayList<>(distinct), parseLastEventId(lastEventId), true)
+                .doOnError(e -> log.error("多路复用数据流处理异常 ID{}: {}", distinct, e.getMessage()));
     }
 
     /**
      * 设置推送内容
-     * 立即将内容推送给所有订阅该ID的客户端
-     * 使用tryEmitNext进行高效推送，失败时自动重试
+     * 立即将内容推送给所有订阅该ID的客户端，并写入该流的重放环
+     * 超过该流的限流速率时直接丢弃并计数；限流器基于CAS，在获取任何锁之前判定，被限流的推送不在监视器上排队。
+     * 通过限流的推送只在该数据流的锁内分配事件ID、写入重放环并发射，同一数据流的ID顺序与发射顺序一致；
+     * 多路复用连接按事件ID合并各流的事件，见 {@link SseSubscriber}
      *
      * @param id      目标数据流标识符，必须与streamData中的ID一致
      * @param content 要推送的内容（不可为null）
      * @throws IllegalArgumentException 如果content为null时抛出
      */
-    // 限流相关：每个ID维护最近推送时间戳和计数
-    private final Map<String, AtomicLong> lastPushTimestamp = new ConcurrentHashMap<>();
-    private final Map<String, AtomicInteger> pushCountInWindow = new ConcurrentHashMap<>();
-    private static final long RATE_LIMIT_WINDOW_MS = 250; // 每...毫秒内
-    private static final int RATE_LIMIT_MAX_PUSH = 1; //最多发送多少次
-    
     @Override
     public void setPushContent(String id, String content) {
         if (content == null) {
@@ -109,162 +167,311 @@ public class DataServiceImpl implements DataService {
         if (id == null || id.trim().isEmpty()) {
             throw new IllegalArgumentException("数据流ID不能为空");
         }
-    
-        // 检查当前订阅者数量
-        AtomicInteger counter = subscriberCounts.get(id);
-        int subscriberCount = (counter != null) ? counter.get() : 0;
-        if (subscriberCount <= 0) {
-            log.info("当前无订阅者，推送内容被丢弃 ID[{}]: {}", id, content);
-            return;
+
+        SseStream stream = streams.get(id);
+        if (stream == null || !stream.known) {
+            stream = resolveStream(id, true);
         }
-    
+
         // 限流逻辑
-        long now = System.currentTimeMillis();
-        AtomicLong lastTs = lastPushTimestamp.computeIfAbsent(id, k -> new AtomicLong(0));
-        AtomicInteger count = pushCountInWindow.computeIfAbsent(id, k -> new AtomicInteger(0));
-        synchronized (lastTs) {
-            long last = lastTs.get();
-            if (now - last >= RATE_LIMIT_WINDOW_MS) {
-                lastTs.set(now);
-                count.set(1);
-            } else {
-                int cur = count.incrementAndGet();
-                if (cur > RATE_LIMIT_MAX_PUSH) {
-                    return;
+        if (!stream.limiter.tryAcquire(System.nanoTime())) {
+            stream.throttled.increment();
+            return;
+        }
+
+        log.debug("设置推送内容 ID[{}]: {}", id, content);
+
+        Sinks.EmitResult result;
+        while (true) {
+            synchronized (stream) {
+                if (!stream.removed) {
+                    // 先公布ID下界再分配，订阅者据此判断更小的ID是否可能还未到达
+                    stream.pendingId = eventIdCounter.get() + 1;
+                    long eventId = eventIdCounter.incrementAndGet();
+                    stream.pendingId = eventId;
+                    SseReplayBuffer.Event event = new SseReplayBuffer.Event(eventId, content);
+                    // 没有订阅者时也写入重放环，断线重连的客户端可以补齐
+                    stream.replay.append(event);
+                    result = stream.sink.tryEmitNext(event);
+                    stream.pendingId = Long.MAX_VALUE;
+                    break;
                 }
             }
+            // 刚被空闲清理移除，推送到重新创建的数据流
+            stream = resolveStream(id, true);
         }
-    
-        log.info("设置推送内容 ID[{}]: {}", id, content);
-    
-        try {
-            Sinks.Many<String> sink = contentSinks.computeIfAbsent(id,
-                    key -> {
-                        log.debug("创建新的内容发射器 ID[{}]", key);
-                        // 设置缓冲区最大10条，超出丢弃最老的
-                        return Sinks.many().multicast().onBackpressureBuffer(10, false);
-                    });
-    
-            // 确保立即推送新内容给所有订阅者
-            Sinks.EmitResult result = sink.tryEmitNext(content);
-            if (result.isFailure()) {
-                log.warn("首次内容发送失败 ID[{}], 尝试重试", id);
-                // 如果第一次发送失败，尝试使用emitComplete重试
-                sink.emitNext(content, (signalType, emitResult) -> {
-                    if (emitResult.isFailure()) {
-                        log.error("内容发送失败 ID[{}]: {}", id, emitResult);
-                        return false; // 不再重试
-                    }
-                    log.debug("重试发送成功 ID[{}]", id);
-                    return true;
-                });
-            } else {
-                log.debug("内容发送成功 ID[{}]", id);
+        // 唤醒因等待本流更小ID而暂停出队的连接
+        for (SseSubscriber subscriber : stream.live) {
+            if (subscriber.waiting) {
+                subscriber.drain();
             }
-        } catch (Exception e) {
-            log.error("设置推送内容异常 ID[{}]: {}", id, e.getMessage());
-            throw e;
+        }
+        if (result.isSuccess()) {
+            stream.emitted.increment();
+        } else if (result == Sinks.EmitResult.FAIL_ZERO_SUBSCRIBER) {
+            stream.noSubscriber.increment();
+        } else {
+            log.warn("内容发送失败 ID[{}]: {}", id, result);
         }
     }
 
+    @Override
+    public boolean hasSubscribers(String id) {
+        SseStream stream = streams.get(id);
+        return stream != null && stream.subscribers.get() > 0;
+    }
+
+    @Override
+    public List<SsePushStats> getPushStats() {
+        List<SsePushStats> result = new ArrayList<>(streams.size());
+        for (SseStream stream : new TreeMap<>(streams).values()) {
+            SsePushStats stats = new SsePushStats();
+            stats.setStreamId(stream.id);
+            stats.setSubscribers(stream.subscribers.get());
+            stats.setRatePerSecond(stream.limiter.getRatePerSecond());
+            stats.setBurst(stream.limiter.getBurst());
+            stats.setEmitted(stream.emitted.sum());
+            stats.setThrottled(stream.throttled.sum());
+            stats.setNoSubscriber(stream.noSubscriber.sum());
+            stats.setReplayed(stream.replayed.sum());
+            stats.setResets(stream.resets.sum());
+            stats.setSubscriberDropped(stream.subscriberDropped.sum());
+            stats.setEvicted(stream.evicted.sum());
+            result.add(stats);
+        }
+        return result;
+    }
+
+    @Override
+    public List<SseSubscriberStats> getSubscriberStats() {
+        List<SseSubscriberStats> result = new ArrayList<>(subscribers.size());
+        long now = System.nanoTime();
+        for (SseSubscriber subscriber : new TreeMap<>(subscribers).values()) {
+            result.add(subscriber.stats(now));
+        }
+        return result;
+    }
+
     /**
-     * 创建并共享指定ID的数据流
-     * 内部使用Sinks.Many作为内容发射源
-     * 配置了1条消息的replay缓存和30秒的无订阅清理延迟
+     * 在 streamsLock 内获取或创建数据流
+     */
+    private SseStream resolveStream(String id, boolean pushed) {
+        synchronized (streamsLock) {
+            return getStream(id, pushed);
+        }
+    }
+
+    /**
+     * 获取或创建数据流，按数据流ID读取限流配置，未单独配置时使用默认值，调用方需持有 streamsLock
+     * 服务端推送的数据流总能创建；客户端订阅只能额外创建 {@link #MAX_CLIENT_STREAMS} 个未知数据流，
+     * 因此客户端随意订阅不会影响检测线程的推送
      *
-     * @param id 数据流标识符
-     * @return Flux<ServerSentEvent < String>> 新创建的SSE数据流
-     * 会自动转换为SSE格式并添加事件ID
+     * @param id     数据流ID
+     * @param pushed 是否由服务端推送调用
+     * @return 数据流
+     * @throws IllegalStateException 客户端创建的未知数据流已达上限时抛出
      */
-    private Flux<ServerSentEvent<String>> createAndShareStreamForId(String id) {
+    private SseStream getStream(String id, boolean pushed) {
+        SseStream stream = streams.get(id);
+        if (stream != null) {
+            if (pushed && !stream.known) {
+                stream.known = true;
+                clientStreams--;
+            }
+            return stream;
+        }
+        SsePushConfig.Limit limit = ssePushConfig.getStreams().get(id);
+        boolean known = pushed || limit != null;
+        if (!known && clientStreams >= MAX_CLIENT_STREAMS) {
+            throw new IllegalStateException("客户端创建的数据流数量已达上限 " + MAX_CLIENT_STREAMS);
+        }
         log.info("创建新SSE数据流 ID: {}", id);
+        GcraRateLimiter limiter = limit != null
+                ? new GcraRateLimiter(limit.getRatePerSecond(), limit.getBurst())
+                : new GcraRateLimiter(ssePushConfig.getDefaultRatePerSecond(), ssePushConfig.getDefaultBurst());
+        stream = new SseStream(id, limiter, new SseReplayBuffer(ssePushConfig.getReplayCapacity(), replayFloor),
+                known, System.currentTimeMillis());
+        streams.put(id, stream);
+        if (!known) {
+            clientStreams++;
+        }
+        return stream;
+    }
 
-        Sinks.Many<String> contentSink = contentSinks.computeIfAbsent(id,
-                key -> Sinks.many().multicast().onBackpressureBuffer(10, false));
-        // 推送一条初始化消息，确保流激活
-        contentSink.tryEmitNext("init");
-        // 不做replay缓存，客户端断开重连只能收到新消息
-        return contentSink.asFlux()
-                .map(this::buildSSE)
-                .publishOn(Schedulers.boundedElastic());
+    /**
+     * 移除没有订阅者超过 {@link SsePushConfig#getIdleStreamTtlMs()} 的数据流，其重放环随之丢弃
+     * 之后再推送或订阅时重新创建，携带旧ID重连的客户端收到reset
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void sweepIdleStreams() {
+        long deadline = System.currentTimeMillis() - ssePushConfig.getIdleStreamTtlMs();
+        int removed = 0;
+        synchronized (streamsLock) {
+            Iterator<SseStream> it = streams.values().iterator();
+            while (it.hasNext()) {
+                SseStream stream = it.next();
+                // 在数据流锁内判定并标记，之后到达的推送和订阅改用重新创建的数据流
+                synchronized (stream) {
+                    if (stream.subscribers.get() > 0 || stream.idleSinceMillis > deadline) {
+                        continue;
+                    }
+                    stream.removed = true;
+                }
+                it.remove();
+                removed++;
+                replayFloor = Math.max(replayFloor, stream.replay.lastId());
+                if (!stream.known) {
+                    clientStreams--;
+                }
+            }
+        }
+        if (removed > 0) {
+            log.info("移除空闲SSE数据流 {} 个, 剩余 {} 个", removed, streams.size());
+        }
     }
 
     /**
-     * 构建SSE事件对象
+     * 为一个连接创建事件流
+     * 逐个在数据流锁内取出重放事件并订阅发射器，推送也在同一把锁内进行，因此每个流的重放和实时事件之间不重不漏；
+     * 各流的事件在连接队列中按事件ID合并，全部订阅完成后才开始出队，连接上收到的事件ID严格递增。
+     * 连接订阅的所有数据流共用一个有界队列，只在下游请求时出队，整个连接只做一次线程切换；
+     * 队列满或长期积压时按 {@link SsePushConfig#getOverflowPolicy()} 处理，不影响其他连接
      *
-     * @param content 事件内容
+     * @param ids         订阅的数据流ID
+     * @param lastId      Last-Event-ID，为null时不重放
+     * @param multiplexed 为true时事件名为数据流ID，否则为message
+     * @return 该连接的事件流
+     */
+    private Flux<ServerSentEvent<String>> subscribe(List<String> ids, Long lastId, boolean multiplexed) {
+        return Flux.<ServerSentEvent<String>>create(emitter -> {
+                    List<SseStream> targets = new ArrayList<>(ids.size());
+                    synchronized (streamsLock) {
+                        for (String id : ids) {
+                            targets.add(getStream(id, false));
+                        }
+                    }
+                    SseSubscriber subscriber = new SseSubscriber(subscriberIdCounter.incrementAndGet(), targets, emitter,
+                            ssePushConfig.getSubscriberBuffer(), ssePushConfig.getLagWatermark(),
+                            TimeUnit.MILLISECONDS.toNanos(ssePushConfig.getLagEvictMs()),
+                            "disconnect".equalsIgnoreCase(ssePushConfig.getOverflowPolicy()));
+                    List<Disposable> live = new ArrayList<>(ids.size());
+                    for (int i = 0; i < targets.size(); i++) {
+                        SseStream stream = targets.get(i);
+                        while (true) {
+                            synchronized (stream) {
+                                if (!stream.removed) {
+                                    if (lastId != null) {
+                                        replay(subscriber, stream, lastId, multiplexed);
+                                    }
+                                    String eventName = multiplexed ? stream.id : "message";
+                                    SseStream source = stream;
+                                    live.add(stream.sink.asFlux().subscribe(event -> subscriber.offer(source, event.id, buildSSE(eventName, event))));
+                                    stream.live.add(subscriber);
+                                    handleSubscribe(stream);
+                                    break;
+                                }
+                            }
+                            stream = resolveStream(stream.id, false);
+                            targets.set(i, stream);
+                        }
+                    }
+                    subscribers.put(subscriber.id, subscriber);
+                    emitter.onDispose(() -> {
+                        live.forEach(Disposable::dispose);
+                        subscribers.remove(subscriber.id);
+                        for (SseStream stream : targets) {
+                            stream.live.remove(subscriber);
+                            handleCancel(stream);
+                        }
+                    });
+                    emitter.onRequest(n -> subscriber.drain());
+                    subscriber.start();
+                })
+                // 预取量小，积压留在订阅者自己的队列中，便于统计和处理；
+                // 不延迟错误，断开慢连接时不必等下游取完已预取的事件
+                .publishOn(Schedulers.boundedElastic(), false, SUBSCRIBER_PREFETCH)
+                .onErrorResume(SubscriberEvicted.class, e -> Flux.empty())
+                .startWith(connectedComment());
+    }
+
+    /**
+     * 将数据流中 lastId 之后的事件放入连接队列，调用方需持有该数据流的锁
+     * 重放环已无法覆盖时改为一条reset事件，排在队首；各流的重放事件在队列中按事件ID合并
+     */
+    private void replay(SseSubscriber subscriber, SseStream stream, long lastId, boolean multiplexed) {
+        List<SseReplayBuffer.Event> missed = stream.replay.after(lastId);
+        if (missed == null) {
+            stream.resets.increment();
+            subscriber.replay(stream, Long.MIN_VALUE, ServerSentEvent.<String>builder().event("reset").data(stream.id).build());
+            return;
+        }
+        stream.replayed.add(missed.size());
+        String eventName = multiplexed ? stream.id : "message";
+        for (SseReplayBuffer.Event event : missed) {
+            subscriber.replay(stream, event.id, buildSSE(eventName, event));
+        }
+    }
+
+    private static Long parseLastEventId(String lastEventId) {
+        if (lastEventId == null || lastEventId.isBlank()) {
+            return null;
+        }
+        try {
+            return Long.parseLong(lastEventId.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * 连接建立后立即发送的注释行，浏览器会忽略，仅用于尽早发出响应头
+     */
+    private static ServerSentEvent<String> connectedComment() {
+        return ServerSentEvent.<String>builder().comment("connected").build();
+    }
+
+    /**
+     * 构建SSE事件对象，多路复用时事件名为数据流ID
+     *
+     * @param eventName 事件名
+     * @param event     带ID的事件
      * @return 完整的ServerSentEvent对象
      */
-    private ServerSentEvent<String> buildSSE(String content) {
+    private ServerSentEvent<String> buildSSE(String eventName, SseReplayBuffer.Event event) {
         return ServerSentEvent.<String>builder()
-                .id(String.valueOf(eventIdCounter.incrementAndGet()))
-                .event("message")
-                .data(content)
+                .id(String.valueOf(event.id))
+                .event(eventName)
+                .data(event.content)
                 .build();
     }
 
     /**
      * 处理订阅事件
      *
-     * @param id 数据流标识符
+     * @param stream 数据流
      */
-    private void handleSubscribe(String id) {
-        try {
-            AtomicInteger counter = subscriberCounts.computeIfAbsent(id,
-                    k -> {
-                        log.debug("初始化订阅计数器 ID[{}]", id);
-                        return new AtomicInteger();
-                    });
-            int count = counter.incrementAndGet();
-            log.info("新增订阅者 ID[{}], 当前总数: {}", id, count);
-
-            // 冗余状态检查
-            if (count <= 0) {
-                log.warn("异常订阅计数 ID[{}]: {}", id, count);
-                counter.set(1);
-            }
-        } catch (Exception e) {
-            log.error("处理订阅事件异常 ID[{}]: {}", id, e.getMessage());
-            throw e;
-        }
+    private void handleSubscribe(SseStream stream) {
+        int count = stream.subscribers.incrementAndGet();
+        log.info("新增订阅者 ID[{}], 当前总数: {}", stream.id, count);
     }
 
     /**
      * 处理取消订阅事件
+     * 数据流本身保留，重放环在没有订阅者期间继续记录，空闲超时后由 {@link #sweepIdleStreams()} 移除
      *
-     * @param id 数据流标识符
+     * @param stream 数据流
      */
-    private void handleCancel(String id) {
-        try {
-            AtomicInteger counter = subscriberCounts.get(id);
-            if (counter == null) {
-                log.warn("取消订阅时未找到计数器 ID[{}]", id);
-                return;
-            }
-
-            int remaining = counter.decrementAndGet();
-            log.info("取消订阅 ID[{}], 剩余订阅: {}", id, remaining);
-
-            // 冗余状态检查
-            if (remaining < 0) {
-                log.warn("异常订阅计数 ID[{}]: {}", id, remaining);
-                counter.set(0);
-                remaining = 0;
-            }
+    private void handleCancel(SseStream stream) {
+        int remaining = stream.subscribers.decrementAndGet();
+        if (remaining <= 0) {
+            stream.idleSinceMillis = System.currentTimeMillis();
+        }
+        log.info("取消订阅 ID[{}], 剩余订阅: {}", stream.id, remaining);
 
-            // 订阅者为0时立即清理资源
-            if (remaining == 0) {
-                log.debug("立即清理资源 ID[{}]", id);
-                activeStreams.remove(id);
-                contentSinks.remove(id);
-                subscriberCounts.remove(id);
-                lastPushTimestamp.remove(id);
-                pushCountInWindow.remove(id);
-                log.debug("资源清理完成 ID[{}]", id);
-            }
-        } catch (Exception e) {
-            log.error("处理取消订阅异常 ID[{}]: {}", id, e.getMessage());
-            throw e;
+        // 冗余状态检查
+        if (remaining < 0) {
+            log.warn("异常订阅计数 ID[{}]: {}", stream.id, remaining);
+            stream.subscribers.set(0);
         }
     }
 
@@ -315,6 +522,7 @@ public class DataServiceImpl implements DataService {
         stats.add(new AnomalyStat("发动机异常", dataMapper.countEngineAnomalies(), "#ff5722"));
         stats.add(new AnomalyStat("地理位置异常", dataMapper.countGeolocationAnomalies(), "#ff5722"));
         stats.add(new AnomalyStat("时间戳异常", dataMapper.countTimestampAnomalies(), "#ff5722"));
+        stats.add(new AnomalyStat("统计评分异常", dataMapper.countScoreAnomalies(), "#9c27b0"));
 
         // 2. 计算总异常数用于百分比计算
         int total = stats.stream().mapToInt(AnomalyStat::getValue).sum();
@@ -335,7 +543,7 @@ public class DataServiceImpl implements DataService {
 
     @Override
     public List<VehicleExceptionCount> getVehicleExceptionCounts(LocalDateTime startTime, LocalDateTime endTime) {
-        // 1. 从数据库获取各车辆异常数量统计（现在包含7个表）
+        // 1. 从数据库获取各车辆异常数量统计（现在包含8个表）
         List<Map<String, Object>> rawData = dataMapper.countExceptionsByVehicle(startTime, endTime);
 
         // 2. 转换为VehicleExceptionCount对象列表
@@ -511,6 +719,210 @@ public class DataServiceImpl implements DataService {
         }
     }
 
+    // 单个数据流：共享发射器、重放环、限流器和计数
+    private static final class SseStream {
+        private final String id;
+        // 直接发射给当前订阅者，不缓存；每个订阅者的缓冲在各自的事件流中
+        private final Sinks.Many<SseReplayBuffer.Event> sink = Sinks.many().multicast().directBestEffort();
+        private final SseReplayBuffer replay;
+        private final GcraRateLimiter limiter;
+        private final AtomicInteger subscribers = new AtomicInteger();
+        private final LongAdder emitted = new LongAdder();
+        private final LongAdder throttled = new LongAdder();
+        private final LongAdder noSubscriber = new LongAdder();
+        private final LongAdder replayed = new LongAdder();
+        private final LongAdder resets = new LongAdder();
+        private final LongAdder subscriberDropped = new LongAdder();
+        private final LongAdder evicted = new LongAdder();
+        // 当前订阅该流的连接，推送后唤醒其中等待的连接
+        private final Set<SseSubscriber> live = ConcurrentHashMap.newKeySet();
+        // 正在推送的事件ID(分配前为其下界)，没有推送进行时为Long.MAX_VALUE
+        private volatile long pendingId = Long.MAX_VALUE;
+        // 服务端推送过或单独配置的数据流，不计入客户端创建上限，在 streamsLock 内写入
+        private volatile boolean known;
+        // 已被空闲清理移除，在该数据流的锁内读写
+        private boolean removed;
+        // 最近一次变为没有订阅者的时间，有订阅者期间无意义
+        private volatile long idleSinceMillis;
+
+        private SseStream(String id, GcraRateLimiter limiter, SseReplayBuffer replay, boolean known, long createdMillis) {
+            this.id = id;
+            this.limiter = limiter;
+            this.replay = replay;
+            this.known = known;
+            this.idleSinceMillis = createdMillis;
+        }
+    }
+
+    // 单个连接：订阅的所有数据流共用的待发送队列，按事件ID排序，方法在 this 锁内执行
+    // 不同数据流的推送并发进行，事件ID较小的推送可能稍晚到达；队首事件只有在所订阅的各流都没有更小ID正在推送时才出队
+    private static final class SseSubscriber {
+        private final long id;
+        private final List<SseStream> streams;
+        private final FluxSink<ServerSentEvent<String>> emitter;
+        private final int capacity;
+        private final int lagWatermark;
+        private final long lagEvictNanos;
+        private final boolean disconnectOnOverflow;
+        private final long connectedAt = System.currentTimeMillis();
+        private final ArrayDeque<Queued> queue = new ArrayDeque<>();
+        private long delivered;
+        private long dropped;
+        private int maxQueued;
+        // 队列长度超过水位线的起始时间，未超过时为0
+        private long behindSinceNanos;
+        private boolean evicted;
+        // 订阅和重放完成前不出队
+        private boolean started;
+        // 队首事件正在等待更小ID的推送，推送结束后由推送线程再次出队
+        private volatile boolean waiting;
+
+        private SseSubscriber(long id, List<SseStream> streams, FluxSink<ServerSentEvent<String>> emitter,
+                              int capacity, int lagWatermark, long lagEvictNanos, boolean disconnectOnOverflow) {
+            this.id = id;
+            this.streams = streams;
+            this.emitter = emitter;
+            this.capacity = Math.max(1, capacity);
+            this.lagWatermark = Math.max(0, Math.min(lagWatermark, this.capacity - 1));
+            this.lagEvictNanos = lagEvictNanos;
+            this.disconnectOnOverflow = disconnectOnOverflow;
+        }
+
+        // 重放事件不受容量限制，数量由重放环容量决定
+        private synchronized void replay(SseStream stream, long eventId, ServerSentEvent<String> event) {
+            enqueue(new Queued(stream, eventId, event, System.nanoTime()));
+        }
+
+        private synchronized void start() {
+            started = true;
+            drain();
+        }
+
+        private synchronized void offer(SseStream stream, long eventId, ServerSentEvent<String> event) {
+            if (evicted) {
+                return;
+            }
+            long now = System.nanoTime();
+            if (behindSinceNanos != 0 && now - behindSinceNanos > lagEvictNanos) {
+                evict("持续积压超过 " + TimeUnit.NANOSECONDS.toMillis(lagEvictNanos) + " 毫秒");
+                return;
+            }
+            if (queue.size() >= capacity) {
+                if (disconnectOnOverflow) {
+                    evict("队列已满");
+                    return;
+                }
+                queue.pollFirst().stream.subscriberDropped.increment();
+                dropped++;
+            }
+            enqueue(new Queued(stream, eventId, event, now));
+            drain();
+        }
+
+        // 按事件ID插入，通常就在队尾
+        private void enqueue(Queued queued) {
+            if (queue.isEmpty() || queue.peekLast().eventId <= queued.eventId) {
+                queue.addLast(queued);
+            } else {
+                ArrayDeque<Queued> later = new ArrayDeque<>();
+                while (!queue.isEmpty() && queue.peekLast().eventId > queued.eventId) {
+                    later.addFirst(queue.pollLast());
+                }
+                queue.addLast(queued);
+                queue.addAll(later);
+            }
+            maxQueued = Math.max(maxQueued, queue.size());
+        }
+
+        // 所订阅的各流都没有比 eventId 更小的ID正在推送
+        private boolean released(long eventId) {
+            for (SseStream stream : streams) {
+                if (stream.pendingId < eventId) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        // 按下游请求量出队，其余留在队列中
+        private synchronized void drain() {
+            if (!started) {
+                return;
+            }
+            while (!queue.isEmpty() && emitter.requestedFromDownstream() > 0 && !emitter.isCancelled()) {
+                Queued head = queue.peekFirst();
+                if (!released(head.eventId)) {
+                    // 先公布等待状态再复查，推送线程结束推送后必然看到等待状态或本线程看到推送已结束
+                    waiting = true;
+                    if (!released(head.eventId)) {
+                        break;
+                    }
+                }
+                waiting = false;
+                emitter.next(queue.pollFirst().event);
+                delivered++;
+            }
+            if (queue.size() <= lagWatermark) {
+                behindSinceNanos = 0;
+            } else if (behindSinceNanos == 0) {
+                behindSinceNanos = System.nanoTime();
+            }
+        }
+
+        // 结束该连接，客户端重连时可携带Last-Event-ID从重放环补齐
+        private void evict(String reason) {
+            evicted = true;
+            queue.clear();
+            for (SseStream stream : streams) {
+                stream.evicted.increment();
+            }
+            log.warn("SSE连接 {} 读取过慢已断开({}), 已发送 {} 条, 丢弃 {} 条", id, reason, delivered, dropped);
+            emitter.error(SubscriberEvicted.INSTANCE);
+        }
+
+        private synchronized SseSubscriberStats stats(long nowNanos) {
+            SseSubscriberStats stats = new SseSubscriberStats();
+            stats.setSubscriberId(id);
+            List<String> ids = new ArrayList<>(streams.size());
+            for (SseStream stream : streams) {
+                ids.add(stream.id);
+            }
+            stats.setStreams(ids);
+            stats.setConnectedAt(connectedAt);
+            stats.setQueued(queue.size());
+            stats.setMaxQueued(maxQueued);
+            stats.setDelivered(delivered);
+            stats.setDropped(dropped);
+            stats.setLagMillis(queue.isEmpty() ? 0 : TimeUnit.NANOSECONDS.toMillis(nowNanos - queue.peekFirst().enqueuedNanos));
+            stats.setBehindMillis(behindSinceNanos == 0 ? 0 : TimeUnit.NANOSECONDS.toMillis(nowNanos - behindSinceNanos));
+            return stats;
+        }
+    }
+
+    // 断开慢连接的信号，在publishOn之后转换为正常结束
+    private static final class SubscriberEvicted extends RuntimeException {
+        private static final SubscriberEvicted INSTANCE = new SubscriberEvicted();
+
+        private SubscriberEvicted() {
+            super("subscriber evicted", null, false, false);
+        }
+    }
+
+    private static final class Queued {
+        private final SseStream stream;
+        // 排序用的事件ID，reset事件为Long.MIN_VALUE
+        private final long eventId;
+        private final ServerSentEvent<String> event;
+        private final long enqueuedNanos;
+
+        private Queued(SseStream stream, long eventId, ServerSentEvent<String> event, long enqueuedNanos) {
+            this.stream = stream;
+            this.eventId = eventId;
+            this.event = event;
+            this.enqueuedNanos = enqueuedNanos;
+        }
+    }
+
     // 内部类用于表示每个日期的在线和活跃车辆数量
     @Getter
     public static class DateVehicleCount {
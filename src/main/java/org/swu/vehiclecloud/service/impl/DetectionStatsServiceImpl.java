@@ -0,0 +1,65 @@
+package org.swu.vehiclecloud.service.impl;
+
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.dto.AnomalyScoreStat;
+import org.swu.vehiclecloud.dto.ClockSkewStat;
+import org.swu.vehiclecloud.listener.VehicleState;
+import org.swu.vehiclecloud.listener.VehicleStateRegistry;
+import org.swu.vehiclecloud.service.DetectionStatsService;
+import org.swu.vehiclecloud.util.ClockSkewEstimator;
+import org.swu.vehiclecloud.util.StreamingAnomalyScorer;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 流式异常检测状态查询服务实现类
+ * <p>从车辆状态注册表读取各检测器的在线估计值</p>
+ */
+@Service
+public class DetectionStatsServiceImpl implements DetectionStatsService {
+
+    private final VehicleStateRegistry vehicleStateRegistry;
+
+    public DetectionStatsServiceImpl(VehicleStateRegistry vehicleStateRegistry) {
+        this.vehicleStateRegistry = vehicleStateRegistry;
+    }
+
+    @Override
+    public List<ClockSkewStat> getClockSkewTable() {
+        List<ClockSkewStat> result = new ArrayList<>();
+        ClockSkewEstimator.Snapshot snapshot = new ClockSkewEstimator.Snapshot();
+        for (VehicleState state : vehicleStateRegistry.getAll()) {
+            state.getClockSkew().snapshot(snapshot);
+            if (snapshot.samples == 0) {
+                continue;
+            }
+            ClockSkewStat stat = new ClockSkewStat();
+            stat.setVehicleId(state.getVehicleId());
+            stat.setOffsetMs(snapshot.offsetMs);
+            stat.setStdDevMs(snapshot.stdDevMs);
+            stat.setLastOffsetMs(snapshot.lastOffsetMs);
+            stat.setSamples(snapshot.samples);
+            stat.setAnomalies(snapshot.anomalies);
+            stat.setWarmedUp(snapshot.warmedUp);
+            result.add(stat);
+        }
+        result.sort((a, b) -> Double.compare(Math.abs(b.getOffsetMs()), Math.abs(a.getOffsetMs())));
+        return result;
+    }
+
+    @Override
+    public List<AnomalyScoreStat> getAnomalyScores() {
+        List<AnomalyScoreStat> result = new ArrayList<>();
+        for (VehicleState state : vehicleStateRegistry.getAll()) {
+            StreamingAnomalyScorer scorer = state.getScorer();
+            AnomalyScoreStat stat = new AnomalyScoreStat();
+            stat.setVehicleId(state.getVehicleId());
+            stat.setScore(scorer.getLastScore());
+            stat.setWarmedUp(scorer.isWarmedUp());
+            result.add(stat);
+        }
+        result.sort((a, b) -> Double.compare(b.getScore(), a.getScore()));
+        return result;
+    }
+}
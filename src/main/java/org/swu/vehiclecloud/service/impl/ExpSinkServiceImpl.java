@@ -0,0 +1,204 @@
+package org.swu.vehiclecloud.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.ExpSinkConfig;
+import org.swu.vehiclecloud.entity.*;
+import org.swu.vehiclecloud.mapper.VehicleExpMapper;
+import org.swu.vehiclecloud.service.ExpSinkService;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * 车辆异常记录批量写入服务实现类
+ * <p>每张异常表对应一个有界队列，定时批量插入；队列满时丢弃新记录并计数，不阻塞检测线程。
+ * 批量插入在自己的单线程调度器中执行，不使用 @Scheduled：Spring默认只有一个定时任务线程，
+ * 乱序缓冲释放、位置推送等短周期任务也在其上运行，一次慢插入会推迟它们</p>
+ */
+@Service
+public class ExpSinkServiceImpl implements ExpSinkService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExpSinkServiceImpl.class);
+
+    private final int batchSize;
+
+    private final long flushIntervalMs;
+
+    private final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "exp-sink-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicLong dropped = new AtomicLong();
+
+    private final Lane<SpeedExp> speedLane;
+    private final Lane<SteeringExp> steeringLane;
+    private final Lane<TimestampExp> timestampLane;
+    private final Lane<GeoLocationExp> geoLocationLane;
+    private final Lane<AccelerationExp> accelerationLane;
+    private final Lane<BrakeExp> brakeLane;
+    private final Lane<EngineExp> engineLane;
+    private final Lane<MlExpcetion> mlLane;
+    private final Lane<ScoreExp> scoreLane;
+
+    private final List<Lane<?>> lanes = new ArrayList<>();
+
+    public ExpSinkServiceImpl(VehicleExpMapper vehicleExpMapper, ExpSinkConfig config) {
+        this.batchSize = config.getBatchSize();
+        this.flushIntervalMs = config.getFlushIntervalMs();
+        int capacity = config.getQueueCapacity();
+        speedLane = register(new Lane<>("speed_exp", capacity, vehicleExpMapper::batchInsertSpeedExp));
+        steeringLane = register(new Lane<>("steering_exp", capacity, vehicleExpMapper::batchInsertSteeringExp));
+        timestampLane = register(new Lane<>("timestamp_exp", capacity, vehicleExpMapper::batchInsertTimestampExp));
+        geoLocationLane = register(new Lane<>("geo_location_exp", capacity, vehicleExpMapper::batchInsertGeoLocationExp));
+        accelerationLane = register(new Lane<>("acceleration_exp", capacity, vehicleExpMapper::batchInsertAccelerationExp));
+        brakeLane = register(new Lane<>("brake_exp", capacity, vehicleExpMapper::batchInsertBrakeExp));
+        engineLane = register(new Lane<>("engine_exp", capacity, vehicleExpMapper::batchInsertEngineExp));
+        mlLane = register(new Lane<>("ml_exp", capacity, vehicleExpMapper::batchInsertMlExp));
+        scoreLane = register(new Lane<>("score_exp", capacity, vehicleExpMapper::batchInsertScoreExp));
+    }
+
+    @Override
+    public void submit(SpeedExp speedExp) {
+        speedLane.offer(speedExp);
+    }
+
+    @Override
+    public void submit(SteeringExp steeringExp) {
+        steeringLane.offer(steeringExp);
+    }
+
+    @Override
+    public void submit(TimestampExp timestampExp) {
+        timestampLane.offer(timestampExp);
+    }
+
+    @Override
+    public void submit(GeoLocationExp geoLocationExp) {
+        geoLocationLane.offer(geoLocationExp);
+    }
+
+    @Override
+    public void submit(AccelerationExp accelerationExp) {
+        accelerationLane.offer(accelerationExp);
+    }
+
+    @Override
+    public void submit(BrakeExp brakeExp) {
+        brakeLane.offer(brakeExp);
+    }
+
+    @Override
+    public void submit(EngineExp engineExp) {
+        engineLane.offer(engineExp);
+    }
+
+    @Override
+    public void submit(MlExpcetion mlExpcetion) {
+        mlLane.offer(mlExpcetion);
+    }
+
+    @Override
+    public void submit(ScoreExp scoreExp) {
+        scoreLane.offer(scoreExp);
+    }
+
+    @PostConstruct
+    public void start() {
+        flusher.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * 将各队列中的记录批量写入数据库，由写入线程定时调用
+     */
+    @Override
+    public synchronized void flush() {
+        for (Lane<?> lane : lanes) {
+            lane.flush();
+        }
+    }
+
+    // 未捕获的异常会使调度器停止后续执行
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.error("异常记录批量写入出错: {}", e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public long getDroppedCount() {
+        return dropped.get();
+    }
+
+    /**
+     * 应用关闭前写入剩余记录
+     */
+    @PreDestroy
+    public void shutdown() {
+        flusher.shutdown();
+        try {
+            flusher.awaitTermination(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flush();
+    }
+
+    private <T> Lane<T> register(Lane<T> lane) {
+        lanes.add(lane);
+        return lane;
+    }
+
+    /**
+     * 单张异常表的待写入队列
+     */
+    private class Lane<T> {
+        private final String table;
+        private final BlockingQueue<T> queue;
+        private final Consumer<List<T>> batchInsert;
+        private final List<T> batch = new ArrayList<>();
+
+        Lane(String table, int capacity, Consumer<List<T>> batchInsert) {
+            this.table = table;
+            this.queue = new ArrayBlockingQueue<>(capacity);
+            this.batchInsert = batchInsert;
+        }
+
+        void offer(T record) {
+            if (!queue.offer(record)) {
+                // 只在丢弃数量跨过2的幂时告警，避免日志刷屏
+                long count = dropped.incrementAndGet();
+                if ((count & (count - 1)) == 0) {
+                    log.warn("异常记录队列已满，已丢弃 {} 条 table[{}]", count, table);
+                }
+            }
+        }
+
+        void flush() {
+            while (queue.drainTo(batch, batchSize) > 0) {
+                try {
+                    batchInsert.accept(batch);
+                } catch (DataAccessException e) {
+                    log.error("异常记录批量写入失败 table[{}], 丢弃 {} 条: {}", table, batch.size(), e.getMessage());
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,348 @@
+package org.swu.vehiclecloud.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.ExportJobConfig;
+import org.swu.vehiclecloud.dto.ExcelExportAllVehiclesRequest;
+import org.swu.vehiclecloud.dto.ExcelExportRequest;
+import org.swu.vehiclecloud.dto.ExportJobStatus;
+import org.swu.vehiclecloud.exception.BusinessException;
+import org.swu.vehiclecloud.service.ExcelExportTask;
+import org.swu.vehiclecloud.service.ExcelService;
+import org.swu.vehiclecloud.service.ExportJobService;
+import reactor.core.publisher.Flux;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 后台Excel导出任务服务实现类
+ * <p>
+ * 提交时同步校验参数，导出在固定大小的工作线程池中执行，等待队列满时拒绝提交。
+ * 文件先写入 .part 临时文件，完成后改名，下载时由Spring MVC按Range请求返回文件片段。
+ * 每个任务按请求参数生成键：同键任务正在执行时直接返回该任务；
+ * 时间范围已封闭的任务完成后结果在保留期内复用，其余任务完成后不再参与去重。
+ * 任务状态只保存在内存中，启动时清空导出目录。
+ * </p>
+ */
+@Service
+public class ExportJobServiceImpl implements ExportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ExportJobServiceImpl.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final String FILE_SUFFIX = ".xlsx";
+    private static final String PART_SUFFIX = ".xlsx.part";
+
+    private enum State { QUEUED, RUNNING, DONE, FAILED }
+
+    private final ExportJobConfig config;
+
+    private final ExcelService excelService;
+
+    private final Path directory;
+
+    private final ThreadPoolExecutor executor;
+
+    // 任务ID -> 任务
+    private final Map<String, ExportJob> jobs = new ConcurrentHashMap<>();
+
+    // 请求键 -> 正在执行或结果可复用的任务，只在 byKey 锁内修改
+    private final Map<String, ExportJob> byKey = new HashMap<>();
+
+    public ExportJobServiceImpl(ExportJobConfig config, ExcelService excelService) {
+        this.config = config;
+        this.excelService = excelService;
+        this.directory = Paths.get(config.getDirectory()).toAbsolutePath();
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(
+                config.getWorkerThreads(), config.getWorkerThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                r -> {
+                    Thread thread = new Thread(r, "export-job-" + threadIndex.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @PostConstruct
+    public void init() throws IOException {
+        Files.createDirectories(directory);
+        // 上次运行的任务状态已丢失，其文件无法再被下载
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "*" + FILE_SUFFIX + "*")) {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+        }
+        log.info("Excel导出任务目录: {}", directory);
+    }
+
+    @PreDestroy
+    public void stop() {
+        executor.shutdownNow();
+    }
+
+    @Override
+    public ExportJobStatus submitTableExport(String tableName) {
+        ExcelExportTask task = excelService.prepareExcel(tableName);
+        // 整表导出没有时间范围，数据随时变化，只在执行期间去重
+        return submit("table|" + tableName, tableName + FILE_SUFFIX, false, task);
+    }
+
+    @Override
+    public ExportJobStatus submitCombinedExport(ExcelExportRequest request) {
+        ExcelExportTask task = excelService.prepareCombinedExcel(request.getVehicleId(), request.getStartTime(),
+                request.getEndTime(), request.getSelectedTables(), request.getSelectedColumns());
+        // 与导出逻辑一致：开始时间早于结束时间才按时间范围查询
+        boolean hasTimeRange = request.getStartTime() != null && request.getEndTime() != null
+                && request.getStartTime().isBefore(request.getEndTime());
+        String key = "combined|" + request.getVehicleId()
+                + "|" + (hasTimeRange ? request.getStartTime() + "|" + request.getEndTime() : "")
+                + "|" + columnsKey(request.getSelectedTables(), request.getSelectedColumns());
+        return submit(key, "vehicle_data" + FILE_SUFFIX, hasTimeRange && isClosed(request.getEndTime()), task);
+    }
+
+    @Override
+    public ExportJobStatus submitAllVehiclesExport(ExcelExportAllVehiclesRequest request) {
+        ExcelExportTask task = excelService.prepareAllVehiclesExceptions(request.getStartTime(),
+                request.getEndTime(), request.getSelectedTables(), request.getSelectedColumns());
+        String key = "all-vehicles|" + request.getStartTime() + "|" + request.getEndTime()
+                + "|" + columnsKey(request.getSelectedTables(), request.getSelectedColumns());
+        return submit(key, "all_vehicles_exceptions" + FILE_SUFFIX, isClosed(request.getEndTime()), task);
+    }
+
+    @Override
+    public ExportJobStatus getStatus(String jobId) {
+        return find(jobId).toStatus();
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> streamStatus(String jobId) {
+        ExportJob job = find(jobId);
+        return Flux.interval(Duration.ZERO, Duration.ofMillis(config.getProgressIntervalMs()))
+                .onBackpressureDrop()
+                .map(tick -> job.toStatus())
+                .takeUntil(status -> status.getFinishedAt() != null)
+                .map(status -> {
+                    try {
+                        return ServerSentEvent.<String>builder()
+                                .event("progress")
+                                .data(objectMapper.writeValueAsString(status))
+                                .build();
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("导出任务状态序列化失败", e);
+                    }
+                });
+    }
+
+    @Override
+    public ResponseEntity<Resource> download(String jobId) {
+        ExportJob job = find(jobId);
+        if (job.state != State.DONE) {
+            throw new BusinessException(409, "导出任务尚未完成: " + job.state);
+        }
+        Path file = directory.resolve(job.id + FILE_SUFFIX);
+        if (!Files.exists(file)) {
+            throw new BusinessException(404, "导出文件已过期");
+        }
+
+        // 响应体为Resource时，Spring MVC按请求的Range头返回206及对应片段
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_OCTET_STREAM);
+        headers.setContentDispositionFormData("attachment", job.fileName);
+        headers.set(HttpHeaders.ACCEPT_RANGES, "bytes");
+        return ResponseEntity.ok()
+                .headers(headers)
+                .body(new FileSystemResource(file));
+    }
+
+    /**
+     * 定时清理超过保留时间的已结束任务及其文件
+     */
+    @Scheduled(fixedDelay = 60000)
+    public void cleanup() {
+        long expireBefore = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(config.getRetentionMinutes());
+        for (ExportJob job : jobs.values()) {
+            Long finishedAt = job.finishedAt;
+            if (finishedAt == null || finishedAt > expireBefore) {
+                continue;
+            }
+            synchronized (byKey) {
+                byKey.remove(job.key, job);
+            }
+            jobs.remove(job.id);
+            try {
+                Files.deleteIfExists(directory.resolve(job.id + FILE_SUFFIX));
+            } catch (IOException e) {
+                log.warn("删除过期导出文件失败 [{}]: {}", job.id, e.getMessage());
+            }
+        }
+    }
+
+    private ExportJobStatus submit(String key, String fileName, boolean cacheable, ExcelExportTask task) {
+        synchronized (byKey) {
+            ExportJob existing = byKey.get(key);
+            if (existing != null && existing.isReusable()) {
+                log.debug("导出请求复用任务 [{}]", existing.id);
+                return existing.toStatus();
+            }
+            ExportJob job = new ExportJob(UUID.randomUUID().toString().replace("-", ""),
+                    key, fileName, cacheable, task);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                throw new BusinessException(503, "导出任务过多，请稍后重试");
+            }
+            jobs.put(job.id, job);
+            byKey.put(key, job);
+            log.info("提交导出任务 [{}]: {}", job.id, key);
+            return job.toStatus();
+        }
+    }
+
+    private void run(ExportJob job) {
+        job.startedAt = System.currentTimeMillis();
+        job.state = State.RUNNING;
+        Path part = directory.resolve(job.id + PART_SUFFIX);
+        Path file = directory.resolve(job.id + FILE_SUFFIX);
+        try {
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part), 1 << 16)) {
+                job.task.writeTo(out, job.rowsWritten);
+            }
+            Files.move(part, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.fileSize = Files.size(file);
+            job.finishedAt = System.currentTimeMillis();
+            job.state = State.DONE;
+            log.info("导出任务完成 [{}]: {} 行, {} 字节, 耗时 {} 毫秒", job.id, job.rowsWritten.get(),
+                    job.fileSize, job.finishedAt - job.startedAt);
+        } catch (Exception e) {
+            try {
+                Files.deleteIfExists(part);
+            } catch (IOException ignored) {
+            }
+            job.error = e.getMessage();
+            job.finishedAt = System.currentTimeMillis();
+            job.state = State.FAILED;
+            log.warn("导出任务失败 [{}]: {}", job.id, e.getMessage());
+        } finally {
+            // 释放任务持有的请求参数；只有封闭时间范围的成功结果继续参与去重
+            job.task = null;
+            if (job.state != State.DONE || !job.cacheable) {
+                synchronized (byKey) {
+                    byKey.remove(job.key, job);
+                }
+            }
+        }
+    }
+
+    private ExportJob find(String jobId) {
+        ExportJob job = jobs.get(jobId);
+        if (job == null) {
+            throw new BusinessException(404, "导出任务不存在: " + jobId);
+        }
+        return job;
+    }
+
+    // 结束时间足够早，之后不会再有该时间范围内的数据写入
+    private boolean isClosed(LocalDateTime endTime) {
+        return endTime != null
+                && endTime.plusSeconds(config.getClosedRangeDelaySeconds()).isBefore(LocalDateTime.now());
+    }
+
+    // 按选定表的顺序拼接每个表选定的列，与导出文件的表头顺序一致
+    private static String columnsKey(List<String> selectedTables, Map<String, List<String>> selectedColumns) {
+        StringBuilder key = new StringBuilder();
+        for (String table : selectedTables) {
+            key.append(table).append(':')
+                    .append(selectedColumns == null ? "" : String.join(",",
+                            selectedColumns.getOrDefault(table, Collections.emptyList())))
+                    .append(';');
+        }
+        return key.toString();
+    }
+
+    /**
+     * 导出任务，字段由工作线程写入，查询线程读取
+     */
+    private final class ExportJob {
+        final String id;
+        final String key;
+        final String fileName;
+        final boolean cacheable;
+        final long createdAt = System.currentTimeMillis();
+        final AtomicLong rowsWritten = new AtomicLong();
+        volatile ExcelExportTask task;
+        volatile State state = State.QUEUED;
+        volatile Long startedAt;
+        volatile Long finishedAt;
+        volatile Long fileSize;
+        volatile String error;
+
+        ExportJob(String id, String key, String fileName, boolean cacheable, ExcelExportTask task) {
+            this.id = id;
+            this.key = key;
+            this.fileName = fileName;
+            this.cacheable = cacheable;
+            this.task = task;
+        }
+
+        // 正在执行，或已完成且结果文件仍在
+        boolean isReusable() {
+            State current = state;
+            return current == State.QUEUED || current == State.RUNNING
+                    || (current == State.DONE && cacheable && Files.exists(directory.resolve(id + FILE_SUFFIX)));
+        }
+
+        ExportJobStatus toStatus() {
+            ExportJobStatus status = new ExportJobStatus();
+            status.setJobId(id);
+            status.setFileName(fileName);
+            // 先读状态，保证状态为已结束时结束时间等字段已写入
+            State current = state;
+            status.setState(current.name());
+            status.setRowsWritten(rowsWritten.get());
+            status.setFileSize(fileSize);
+            status.setCacheable(cacheable);
+            status.setCreatedAt(createdAt);
+            status.setStartedAt(startedAt);
+            status.setFinishedAt(current == State.DONE || current == State.FAILED ? finishedAt : null);
+            status.setError(error);
+            return status;
+        }
+    }
+}
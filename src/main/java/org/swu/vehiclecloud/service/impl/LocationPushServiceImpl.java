@@ -0,0 +1,175 @@
+package org.swu.vehiclecloud.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.DeadReckoningConfig;
+import org.swu.vehiclecloud.dto.LocationPushStats;
+import org.swu.vehiclecloud.dto.VehicleLocation;
+import org.swu.vehiclecloud.listener.VehicleState;
+import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.service.LocationPushService;
+import org.swu.vehiclecloud.service.TelemetryFeedService;
+import org.swu.vehiclecloud.service.VehicleClusterService;
+import org.swu.vehiclecloud.util.DeadReckoningGate;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 车辆位置合并推送服务实现类
+ * <p>
+ * 每帧先经车辆的 {@link DeadReckoningGate} 判断，前端外推位置仍在容差内的帧不推送。
+ * 需要推送的帧只替换并发Map中该车辆的最新位置；定时任务逐个取出并移除有更新的车辆，
+ * 序列化为一帧 {"t": 推送时间, "vehicles": [{vehicleId, longitude, latitude, timestampGNSS, speed, heading}, ...]}。
+ * 同一批更新同时交给 {@link TelemetryFeedService} 按WebSocket连接的订阅条件过滤推送。
+ * 服务端聚类没有客户端外推，因此在判断之前记录每帧的位置，按同一周期合并后交给
+ * {@link VehicleClusterService} 增量更新，聚类中心最多滞后一个推送间隔。
+ * 数据流1没有订阅者时不做序列化。
+ * </p>
+ */
+@Service
+public class LocationPushServiceImpl implements LocationPushService {
+
+    private static final Logger log = LoggerFactory.getLogger(LocationPushServiceImpl.class);
+
+    private static final String STREAM_ID = "1";
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final DataService dataService;
+
+    private final TelemetryFeedService telemetryFeedService;
+
+    private final VehicleClusterService vehicleClusterService;
+
+    private final DeadReckoningConfig deadReckoningConfig;
+
+    private final LongAdder received = new LongAdder();
+    private final LongAdder suppressed = new LongAdder();
+    private final LongAdder initial = new LongAdder();
+    private final LongAdder deviation = new LongAdder();
+    private final LongAdder heartbeat = new LongAdder();
+
+    // 车辆ID -> 上一次推送以来需要推送的最新位置
+    private final ConcurrentMap<String, VehicleLocation> changed = new ConcurrentHashMap<>();
+
+    // 车辆ID -> 上一次聚类更新以来的最新位置，不经外推判断
+    private final ConcurrentMap<String, VehicleLocation> clusterChanged = new ConcurrentHashMap<>();
+
+    public LocationPushServiceImpl(DataService dataService, TelemetryFeedService telemetryFeedService,
+                                   VehicleClusterService vehicleClusterService,
+                                   DeadReckoningConfig deadReckoningConfig) {
+        this.dataService = dataService;
+        this.telemetryFeedService = telemetryFeedService;
+        this.vehicleClusterService = vehicleClusterService;
+        this.deadReckoningConfig = deadReckoningConfig;
+    }
+
+    @Override
+    public void update(VehicleState state, double longitude, double latitude, long timestampGNSS,
+                       double speed, double heading) {
+        received.increment();
+        VehicleLocation location = new VehicleLocation(state.getVehicleId(), longitude, latitude, timestampGNSS, speed, heading);
+        clusterChanged.put(state.getVehicleId(), location);
+        switch (state.getDeadReckoning().offer(longitude, latitude, timestampGNSS, speed, heading)) {
+            case SUPPRESS:
+                suppressed.increment();
+                return;
+            case INITIAL:
+                initial.increment();
+                break;
+            case DEVIATION:
+                deviation.increment();
+                break;
+            default:
+                heartbeat.increment();
+                break;
+        }
+        changed.put(state.getVehicleId(), location);
+    }
+
+    @Override
+    @Scheduled(fixedDelayString = "${sse.push.location-interval-ms:250}")
+    public void flush() {
+        List<VehicleLocation> clusterBatch = drain(clusterChanged);
+        if (!clusterBatch.isEmpty()) {
+            vehicleClusterService.update(clusterBatch);
+        }
+
+        List<VehicleLocation> batch = drain(changed);
+        if (batch.isEmpty()) {
+            return;
+        }
+
+        // WebSocket订阅按各连接的车辆集合和范围过滤
+        telemetryFeedService.publish(batch);
+
+        if (!dataService.hasSubscribers(STREAM_ID)) {
+            return;
+        }
+        StringWriter writer = new StringWriter(64 + batch.size() * 96);
+        try (JsonGenerator gen = jsonFactory.createGenerator(writer)) {
+            gen.writeStartObject();
+            gen.writeNumberField("t", System.currentTimeMillis());
+            gen.writeArrayFieldStart("vehicles");
+            for (VehicleLocation location : batch) {
+                gen.writeStartObject();
+                gen.writeStringField("vehicleId", location.getVehicleId());
+                gen.writeNumberField("longitude", location.getLongitude());
+                gen.writeNumberField("latitude", location.getLatitude());
+                gen.writeNumberField("timestampGNSS", location.getTimestampGNSS());
+                gen.writeNumberField("speed", location.getSpeed());
+                gen.writeNumberField("heading", location.getHeading());
+                gen.writeEndObject();
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        } catch (IOException e) {
+            log.error("车辆位置序列化失败: {}", e.getMessage());
+            return;
+        }
+        dataService.setPushContent(STREAM_ID, writer.toString());
+    }
+
+    // 先移除再收集，移除之后到达的更新留到下一周期
+    private static List<VehicleLocation> drain(ConcurrentMap<String, VehicleLocation> source) {
+        if (source.isEmpty()) {
+            return List.of();
+        }
+        List<VehicleLocation> batch = new ArrayList<>(source.size());
+        Iterator<String> it = source.keySet().iterator();
+        while (it.hasNext()) {
+            VehicleLocation location = source.remove(it.next());
+            if (location != null) {
+                batch.add(location);
+            }
+        }
+        return batch;
+    }
+
+    @Override
+    public LocationPushStats getStats() {
+        LocationPushStats stats = new LocationPushStats();
+        stats.setEnabled(deadReckoningConfig.isEnabled());
+        stats.setToleranceMeters(deadReckoningConfig.getToleranceMeters());
+        long total = received.sum();
+        long pushed = initial.sum() + deviation.sum() + heartbeat.sum();
+        stats.setReceived(total);
+        stats.setSuppressed(suppressed.sum());
+        stats.setInitial(initial.sum());
+        stats.setDeviation(deviation.sum());
+        stats.setHeartbeat(heartbeat.sum());
+        stats.setReductionRatio(pushed == 0 ? 0 : (double) total / pushed);
+        return stats;
+    }
+}
@@ -0,0 +1,336 @@
+package org.swu.vehiclecloud.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.MlInferenceConfig;
+import org.swu.vehiclecloud.dto.MlInferenceStats;
+import org.swu.vehiclecloud.entity.MlExpcetion;
+import org.swu.vehiclecloud.listener.VehicleState;
+import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.service.ExpSinkService;
+import org.swu.vehiclecloud.service.MlInferenceService;
+import org.swu.vehiclecloud.service.MlSidecarService;
+import org.swu.vehiclecloud.util.AdaptiveSampler;
+import org.swu.vehiclecloud.util.AutoencoderEngine;
+import org.swu.vehiclecloud.util.AutoencoderWeights;
+import org.swu.vehiclecloud.util.CircuitBreaker;
+import org.swu.vehiclecloud.util.HttpInferenceBackend;
+import org.swu.vehiclecloud.util.InferenceBackend;
+import org.swu.vehiclecloud.util.MatMulKernel;
+import org.swu.vehiclecloud.util.MlFeatureExtractor;
+import org.swu.vehiclecloud.util.UdsInferenceBackend;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 机器学习异常检测推理服务实现类
+ * <p>
+ * 后台凑批线程从有界队列取样本，达到批量大小或等待超过linger时间即发出一个批请求。
+ * 在途请求数受信号量限制，超过上限时凑批线程等待，队列满后新样本直接丢弃；
+ * 推理后端连续失败时熔断，熔断期间的批次直接丢弃。
+ * </p>
+ */
+@Service
+public class MlInferenceServiceImpl implements MlInferenceService {
+
+    private static final Logger log = LoggerFactory.getLogger(MlInferenceServiceImpl.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private static final int DIM = MlFeatureExtractor.FEATURE_DIM;
+
+    private final MlInferenceConfig config;
+
+    private final ExpSinkService expSinkService;
+
+    private final DataService dataService;
+
+    private final MlSidecarService mlSidecarService;
+
+    private final BlockingQueue<Sample> queue;
+
+    private final Semaphore inflight;
+
+    private final CircuitBreaker breaker;
+
+    private final AdaptiveSampler sampler;
+
+    private final AtomicLong submitted = new AtomicLong();
+    private final AtomicLong dropped = new AtomicLong();
+    private final AtomicLong scored = new AtomicLong();
+    private final AtomicLong anomalies = new AtomicLong();
+    private final AtomicLong batches = new AtomicLong();
+    private final AtomicLong failedBatches = new AtomicLong();
+
+    private volatile InferenceBackend backend;
+
+    // 后端是否为本应用守护的Python服务，服务未就绪时不发请求
+    private boolean remote;
+
+    private volatile boolean running = false;
+
+    private Thread batcher;
+
+    public MlInferenceServiceImpl(MlInferenceConfig config, ExpSinkService expSinkService,
+                                  DataService dataService, MlSidecarService mlSidecarService) {
+        this.config = config;
+        this.expSinkService = expSinkService;
+        this.dataService = dataService;
+        this.mlSidecarService = mlSidecarService;
+        this.queue = new ArrayBlockingQueue<>(config.getQueueCapacity());
+        this.inflight = new Semaphore(config.getMaxInflight());
+        this.breaker = new CircuitBreaker(config.getBreakerFailureThreshold(), config.getBreakerOpenMs());
+        this.sampler = new AdaptiveSampler(config.getSampleBaseRate(), config.getSampleBoostedRate(),
+                config.getSampleScoreLow(), config.getSampleScoreHigh(), config.getSampleRuleBoostMs(),
+                config.getBudgetFps(), config.getBudgetReserve());
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("机器学习异常检测未启用");
+            return;
+        }
+        start(createBackend());
+    }
+
+    // 使用给定后端启动凑批线程，backend 为null时不启动
+    void start(InferenceBackend backend) {
+        if (backend == null) {
+            return;
+        }
+        this.backend = backend;
+        remote = !(backend instanceof AutoencoderEngine);
+        running = true;
+        batcher = new Thread(this::runBatcher, "ml-inference-batcher");
+        batcher.setDaemon(true);
+        batcher.start();
+        log.info("机器学习推理客户端已启动, 后端: {}", backend.name());
+    }
+
+    // 按配置创建推理后端，java 后端权重加载失败或校验不通过时返回null
+    private InferenceBackend createBackend() {
+        if ("uds".equalsIgnoreCase(config.getBackend())) {
+            return new UdsInferenceBackend(config.getSocketPath());
+        }
+        if (!"java".equalsIgnoreCase(config.getBackend())) {
+            return new HttpInferenceBackend(config.getBaseUrl(),
+                    config.getConnectTimeoutMs(), config.getRequestTimeoutMs());
+        }
+        try {
+            AutoencoderWeights weights = AutoencoderWeights.load(Path.of(config.getModelPath()));
+            int threads = config.getJavaThreads() > 0
+                    ? config.getJavaThreads() : Runtime.getRuntime().availableProcessors();
+            AutoencoderEngine engine = new AutoencoderEngine(weights, MatMulKernel.best(), threads);
+            double error = engine.verify();
+            if (error > 1e-3) {
+                log.error("JVM推理结果与导出时的参考MSE相对误差为 {}, 权重文件与推理实现不一致, 机器学习异常检测未启动", error);
+                engine.close();
+                return null;
+            }
+            return engine;
+        } catch (IOException | IllegalArgumentException e) {
+            log.error("加载自编码器权重失败, 机器学习异常检测未启动: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (batcher != null) {
+            batcher.interrupt();
+        }
+        if (backend != null) {
+            backend.close();
+        }
+    }
+
+    @Override
+    public boolean shouldSample(VehicleState state, long nowMillis) {
+        if (!running) {
+            return false;
+        }
+        long lastRuleHit = state.getLastRuleHitMillis();
+        double rate = sampler.rate(state.getScorer().getLastScore(),
+                lastRuleHit == 0 ? -1 : nowMillis - lastRuleHit);
+        double credit = state.getMlSampleCredit() + rate;
+        if (credit < 1) {
+            state.setMlSampleCredit(credit);
+            return false;
+        }
+        if (!sampler.tryAcquire(sampler.isBoosted(rate), System.nanoTime())) {
+            // 预算不足时不累积欠账，下一帧再申请
+            state.setMlSampleCredit(1);
+            return false;
+        }
+        state.setMlSampleCredit(credit - 1);
+        return true;
+    }
+
+    @Override
+    public boolean submit(String vehicleId, Timestamp timestamp, double[] features) {
+        if (!running) {
+            return false;
+        }
+        if (!queue.offer(new Sample(vehicleId, timestamp, features))) {
+            dropped.incrementAndGet();
+            return false;
+        }
+        submitted.incrementAndGet();
+        return true;
+    }
+
+    @Override
+    public MlInferenceStats getStats() {
+        MlInferenceStats stats = new MlInferenceStats();
+        stats.setEnabled(running);
+        InferenceBackend current = backend;
+        stats.setBackend(current == null ? null : current.name());
+        stats.setBreakerState(breaker.getState().name());
+        stats.setSampledBase(sampler.getSampledBase());
+        stats.setSampledBoosted(sampler.getSampledBoosted());
+        stats.setBudgetRejected(sampler.getRejected());
+        stats.setSubmitted(submitted.get());
+        stats.setDropped(dropped.get());
+        stats.setScored(scored.get());
+        stats.setAnomalies(anomalies.get());
+        stats.setBatches(batches.get());
+        stats.setFailedBatches(failedBatches.get());
+        stats.setQueued(queue.size());
+        stats.setInflight(config.getMaxInflight() - inflight.availablePermits());
+        return stats;
+    }
+
+    // 凑批循环：取到第一个样本后最多再等待linger时间
+    private void runBatcher() {
+        int batchSize = config.getBatchSize();
+        long lingerNanos = TimeUnit.MILLISECONDS.toNanos(config.getLingerMs());
+        while (running) {
+            try {
+                Sample first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                List<Sample> batch = new ArrayList<>(batchSize);
+                batch.add(first);
+                long deadline = System.nanoTime() + lingerNanos;
+                while (batch.size() < batchSize) {
+                    if (queue.drainTo(batch, batchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    if (remaining <= 0) {
+                        break;
+                    }
+                    Sample next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                dispatch(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (Exception e) {
+                log.error("机器学习推理凑批异常: {}", e.getMessage());
+            }
+        }
+    }
+
+    private void dispatch(List<Sample> batch) throws InterruptedException {
+        // 在途请求达到上限时在此等待，由有界队列向上游施加背压
+        inflight.acquire();
+        // 服务加载模型期间直接丢弃，避免启动阶段的连接失败触发熔断
+        if ((remote && !mlSidecarService.isReady()) || !breaker.allowRequest(System.currentTimeMillis())) {
+            inflight.release();
+            dropped.addAndGet(batch.size());
+            return;
+        }
+
+        int count = batch.size();
+        double[] features = new double[count * DIM];
+        for (int i = 0; i < count; i++) {
+            System.arraycopy(batch.get(i).features, 0, features, i * DIM, DIM);
+        }
+        batches.incrementAndGet();
+        CompletableFuture<float[]> request = backend.score(features, count, DIM);
+        // 超时只让本批结果失败；许可等后端请求本身结束且结果处理完(含熔断计数)后才释放
+        CompletableFuture<float[]> handled = request.copy()
+                .orTimeout(config.getRequestTimeoutMs(), TimeUnit.MILLISECONDS)
+                .whenComplete((mse, ex) -> {
+                    if (ex == null && mse.length != count) {
+                        // 后端实现均应校验数量，这里兜底，避免结果与样本错位
+                        ex = new IllegalStateException("推理结果数量 " + mse.length + " 与样本数 " + count + " 不一致");
+                    }
+                    if (ex != null) {
+                        breaker.onFailure(System.currentTimeMillis());
+                        failedBatches.incrementAndGet();
+                        log.warn("机器学习推理批请求失败, 丢弃 {} 个样本: {}", count, ex.getMessage());
+                        return;
+                    }
+                    breaker.onSuccess();
+                    handleResults(batch, mse);
+                });
+        CompletableFuture.allOf(request, handled).whenComplete((v, ex) -> inflight.release());
+    }
+
+    private void handleResults(List<Sample> batch, float[] mse) {
+        scored.addAndGet(batch.size());
+        for (int i = 0; i < batch.size(); i++) {
+            if (mse[i] <= config.getThreshold()) {
+                continue;
+            }
+            Sample sample = batch.get(i);
+            anomalies.incrementAndGet();
+
+            // 车辆异常，写入ml_exp
+            expSinkService.submit(new MlExpcetion(sample.vehicleId, sample.timestamp, mse[i]));
+
+            // 推送异常信息给前端
+            try {
+                Map<String, Object> pushData = new HashMap<>();
+                pushData.put("vehicleId", sample.vehicleId);
+                pushData.put("mlExp", true);
+                pushData.put("source", "autoencoder");
+                pushData.put("mse", mse[i]);
+                dataService.setPushContent("7", objectMapper.writeValueAsString(pushData));
+            } catch (JsonProcessingException e) {
+                log.error("Error while processing JSON for ml push data: {}", e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * 待推理样本
+     */
+    private static class Sample {
+        private final String vehicleId;
+        private final Timestamp timestamp;
+        private final double[] features;
+
+        Sample(String vehicleId, Timestamp timestamp, double[] features) {
+            this.vehicleId = vehicleId;
+            this.timestamp = timestamp;
+            this.features = features;
+        }
+    }
+}
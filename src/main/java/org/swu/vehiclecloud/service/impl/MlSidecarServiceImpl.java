@@ -0,0 +1,244 @@
+package org.swu.vehiclecloud.service.impl;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.MlInferenceConfig;
+import org.swu.vehiclecloud.config.MlSidecarConfig;
+import org.swu.vehiclecloud.dto.MlSidecarStatus;
+import org.swu.vehiclecloud.service.MlSidecarService;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 机器学习服务进程守护实现类
+ * <p>
+ * 守护线程负责启动Python进程、定时健康检查和重启，应用启动流程不等待模型加载。
+ * 进程输出由独立线程逐行写入日志。启动超时、就绪后连续健康检查失败或进程退出时，
+ * 结束进程并按指数退避重启；进程就绪后退避时间复位。
+ * </p>
+ */
+@Service
+public class MlSidecarServiceImpl implements MlSidecarService {
+
+    private static final Logger log = LoggerFactory.getLogger(MlSidecarServiceImpl.class);
+
+    private enum State { STOPPED, STARTING, READY, UNHEALTHY, BACKOFF }
+
+    private final MlSidecarConfig config;
+
+    private final MlInferenceConfig inferenceConfig;
+
+    private final HttpClient httpClient;
+
+    private volatile boolean running = false;
+
+    private volatile State state = State.STOPPED;
+
+    private volatile Process process;
+
+    private volatile long restarts;
+    private volatile Integer lastExitCode;
+    private volatile Long startedAt;
+    private volatile Long readySince;
+    private volatile Long startupMillis;
+
+    private Thread supervisor;
+
+    public MlSidecarServiceImpl(MlSidecarConfig config, MlInferenceConfig inferenceConfig) {
+        this.config = config;
+        this.inferenceConfig = inferenceConfig;
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(config.getHealthTimeoutMs()))
+                .build();
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!config.isEnabled()) {
+            log.info("机器学习服务进程守护未启用");
+            return;
+        }
+        running = true;
+        supervisor = new Thread(this::supervise, "ml-sidecar-supervisor");
+        supervisor.setDaemon(true);
+        supervisor.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Process current = process;
+        if (supervisor != null) {
+            supervisor.interrupt();
+        }
+        if (current != null) {
+            terminate(current);
+        }
+        state = State.STOPPED;
+    }
+
+    @Override
+    public boolean isReady() {
+        return !config.isEnabled() || state == State.READY;
+    }
+
+    @Override
+    public MlSidecarStatus getStatus() {
+        MlSidecarStatus status = new MlSidecarStatus();
+        status.setEnabled(config.isEnabled());
+        status.setState(state.name());
+        status.setReady(isReady());
+        Process current = process;
+        status.setPid(current != null && current.isAlive() ? current.pid() : null);
+        status.setRestarts(restarts);
+        status.setLastExitCode(lastExitCode);
+        status.setStartedAt(startedAt);
+        status.setReadySince(readySince);
+        status.setStartupMillis(startupMillis);
+        return status;
+    }
+
+    // 守护循环：启动 -> 监控直到进程退出 -> 退避 -> 重启
+    private void supervise() {
+        long backoff = config.getRestartBackoffMs();
+        while (running) {
+            boolean becameReady = false;
+            try {
+                Process current = launch();
+                becameReady = monitor(current);
+                lastExitCode = current.waitFor();
+                log.warn("机器学习服务进程已退出, 退出码: {}", lastExitCode);
+            } catch (IOException e) {
+                log.error("启动机器学习服务进程失败: {}", e.getMessage());
+            } catch (InterruptedException e) {
+                break;
+            } finally {
+                process = null;
+            }
+            if (!running) {
+                break;
+            }
+            if (becameReady) {
+                backoff = config.getRestartBackoffMs();
+            }
+            state = State.BACKOFF;
+            log.info("{} 毫秒后重启机器学习服务进程", backoff);
+            try {
+                Thread.sleep(backoff);
+            } catch (InterruptedException e) {
+                break;
+            }
+            backoff = Math.min(backoff * 2, config.getRestartBackoffMaxMs());
+            restarts++;
+        }
+        state = State.STOPPED;
+    }
+
+    private Process launch() throws IOException {
+        ProcessBuilder pb = new ProcessBuilder(config.getCommand(), config.getScript());
+        pb.redirectErrorStream(true);
+        pb.environment().put("PYTHONUNBUFFERED", "1");
+        pb.environment().put("PYTHONIOENCODING", "utf-8");
+        pb.environment().put("ML_UDS_PATH", inferenceConfig.getSocketPath());
+        state = State.STARTING;
+        readySince = null;
+        Process current = pb.start();
+        process = current;
+        startedAt = System.currentTimeMillis();
+        log.info("机器学习服务进程已启动, pid: {}", current.pid());
+
+        Thread pump = new Thread(() -> pumpOutput(current), "ml-sidecar-output");
+        pump.setDaemon(true);
+        pump.start();
+        return current;
+    }
+
+    // 健康检查直到进程退出或被结束，返回期间是否曾就绪
+    private boolean monitor(Process current) throws InterruptedException {
+        boolean becameReady = false;
+        int failures = 0;
+        while (running && !current.waitFor(config.getHealthIntervalMs(), TimeUnit.MILLISECONDS)) {
+            long now = System.currentTimeMillis();
+            if (probe()) {
+                failures = 0;
+                if (state != State.READY) {
+                    state = State.READY;
+                    readySince = now;
+                    if (!becameReady) {
+                        startupMillis = now - startedAt;
+                        log.info("机器学习服务已就绪, 启动耗时 {} 毫秒", startupMillis);
+                    } else {
+                        log.info("机器学习服务已恢复");
+                    }
+                    becameReady = true;
+                }
+            } else if (becameReady) {
+                state = State.UNHEALTHY;
+                if (++failures >= config.getUnhealthyThreshold()) {
+                    log.warn("机器学习服务连续 {} 次健康检查失败, 重启进程", failures);
+                    terminate(current);
+                }
+            } else if (now - startedAt > config.getStartupTimeoutMs()) {
+                log.warn("机器学习服务启动超过 {} 毫秒仍未就绪, 重启进程", config.getStartupTimeoutMs());
+                terminate(current);
+            }
+        }
+        state = State.UNHEALTHY;
+        return becameReady;
+    }
+
+    private boolean probe() {
+        try {
+            HttpRequest request = HttpRequest.newBuilder(URI.create(config.getHealthUrl()))
+                    .timeout(Duration.ofMillis(config.getHealthTimeoutMs()))
+                    .GET()
+                    .build();
+            return httpClient.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private void pumpOutput(Process current) {
+        try (BufferedReader reader = new BufferedReader(
+                new InputStreamReader(current.getInputStream(), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                log.info("[ml-sidecar] {}", line);
+            }
+        } catch (IOException e) {
+            log.debug("读取机器学习服务进程输出结束: {}", e.getMessage());
+        }
+    }
+
+    // 先请求正常退出，超时后强制结束进程及其子进程
+    private void terminate(Process current) {
+        current.descendants().forEach(ProcessHandle::destroy);
+        current.destroy();
+        try {
+            if (!current.waitFor(config.getStopTimeoutMs(), TimeUnit.MILLISECONDS)) {
+                current.descendants().forEach(ProcessHandle::destroyForcibly);
+                current.destroyForcibly();
+            }
+        } catch (InterruptedException e) {
+            current.destroyForcibly();
+            Thread.currentThread().interrupt();
+        }
+    }
+}
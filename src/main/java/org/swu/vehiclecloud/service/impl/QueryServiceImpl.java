@@ -1,145 +1,186 @@
 package org.swu.vehiclecloud.service.impl;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.cursor.Cursor;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.dto.TablePage;
+import org.swu.vehiclecloud.exception.BusinessException;
 import org.swu.vehiclecloud.mapper.ExcelMapper;
 import org.swu.vehiclecloud.service.QueryService;
 import org.swu.vehiclecloud.util.SQLInjectionProtector;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.*;
+import java.util.function.Function;
 
 /**
  * 查询服务实现类
  * 该类实现了QueryService接口，提供查询数据库表数据的功能
+ * <p>
+ * 查询结果不再整体加载为List：流式方法逐行读取游标、转换后立即写出，
+ * 分页查询按上一页最后一行的 (timestamp, id) 继续读取。
+ * </p>
  */
 @Service
 public class QueryServiceImpl implements QueryService {
 
+    // 分页查询的默认和最大每页行数
+    private static final int DEFAULT_PAGE_SIZE = 500;
+    private static final int MAX_PAGE_SIZE = 5000;
+
+    // 流式输出时每写出该行数刷新一次，客户端可以边收边处理
+    private static final int FLUSH_EVERY_ROWS = 1000;
+
     @Autowired
     private ExcelMapper excelMapper; // 复用ExcelMapper进行数据查询
 
+    @Autowired
+    private ObjectMapper objectMapper; // 与接口返回值使用相同的序列化配置
+
     /**
-     * 查询指定表的所有数据
+     * 以JSON数组流式输出指定表的所有数据
      * @param tableName 表名，不能为空
-     * @return 查询结果列表
+     * @param out 输出流
      * @throws IllegalArgumentException 当表名验证失败时抛出
      */
     @Override
-    public List<Map<String, Object>> queryTable(String tableName) {
+    public void streamTable(String tableName, OutputStream out) throws IOException {
         // SQL注入防护 - 验证表名合法性
-        if (!SQLInjectionProtector.validateTableName(tableName)) {
-            throw new IllegalArgumentException("非法的表名: " + tableName);
+        validateTables(Collections.singletonList(tableName));
+
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+             Cursor<Map<String, Object>> cursor = excelMapper.cursorAllFromTable(tableName)) {
+            gen.writeStartArray();
+            writeRows(gen, cursor, null);
+            gen.writeEndArray();
         }
-        
-        // 从数据库查询指定表的所有数据
-        return excelMapper.selectAllFromTable(tableName);
     }
 
     /**
-     * 查询指定车辆和时间范围内的组合数据
+     * 以NDJSON流式输出指定表的数据
+     * @param tableName 表名，不能为空
+     * @param vehicleId 车辆ID，可为null
+     * @param startTime 开始时间，可为null
+     * @param endTime 结束时间，可为null
+     * @param out 输出流
+     * @throws IllegalArgumentException 当表名验证失败时抛出
+     */
+    @Override
+    public void streamTableNdjson(String tableName, String vehicleId, LocalDateTime startTime,
+                                  LocalDateTime endTime, OutputStream out) throws IOException {
+        validateTables(Collections.singletonList(tableName));
+
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out);
+             Cursor<Map<String, Object>> cursor = excelMapper.cursorFromTable(tableName, vehicleId, startTime, endTime)) {
+            // 每行以换行结尾，不使用默认的空格分隔
+            gen.setRootValueSeparator(null);
+            int count = 0;
+            for (Map<String, Object> row : cursor) {
+                gen.writeObject(row);
+                gen.writeRaw('\n');
+                if (++count % FLUSH_EVERY_ROWS == 0) {
+                    gen.flush();
+                }
+            }
+        }
+    }
+
+    /**
+     * 按 (timestamp, id) 键集分页查询指定表的数据
+     * @param tableName 表名，不能为空
+     * @param vehicleId 车辆ID，可为null
+     * @param startTime 开始时间，可为null
+     * @param endTime 结束时间，可为null
+     * @param cursor 上一页返回的游标，第一页为null
+     * @param limit 每页行数，为null时使用默认值
+     * @return 本页数据和下一页游标
+     * @throws IllegalArgumentException 当表名验证失败时抛出
+     * @throws BusinessException 当游标或每页行数无效时抛出
+     */
+    @Override
+    public TablePage queryTablePage(String tableName, String vehicleId, LocalDateTime startTime,
+                                    LocalDateTime endTime, String cursor, Integer limit) {
+        validateTables(Collections.singletonList(tableName));
+        int pageSize = limit == null ? DEFAULT_PAGE_SIZE : limit;
+        if (pageSize <= 0 || pageSize > MAX_PAGE_SIZE) {
+            throw new BusinessException(400, "每页行数须在1到" + MAX_PAGE_SIZE + "之间");
+        }
+
+        LocalDateTime afterTimestamp = null;
+        Long afterId = null;
+        if (cursor != null && !cursor.isEmpty()) {
+            try {
+                String[] parts = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8).split(",", 2);
+                afterTimestamp = LocalDateTime.parse(parts[0]);
+                afterId = Long.parseLong(parts[1]);
+            } catch (RuntimeException e) {
+                throw new BusinessException(400, "无效的分页游标");
+            }
+        }
+
+        // 多取一行判断是否还有下一页
+        List<Map<String, Object>> rows = excelMapper.selectPage(tableName, vehicleId, startTime, endTime,
+                afterTimestamp, afterId, pageSize + 1);
+        TablePage page = new TablePage();
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            page.setNextCursor(encodeCursor(rows.get(pageSize - 1)));
+        }
+        page.setRows(rows);
+        return page;
+    }
+
+    /**
+     * 以JSON数组流式输出指定车辆和时间范围内的组合数据
      * @param vehicleId 车辆ID，不能为空
      * @param startTime 开始时间，可为null
      * @param endTime 结束时间，可为null
      * @param selectedTables 选定的表名列表，不能为null或空
      * @param selectedColumns 每个表选定的列名映射，key为表名，value为列名列表
-     * @return 查询结果列表
+     * @param out 输出流
      * @throws IllegalArgumentException 当表名验证失败时抛出
      */
     @Override
-    public List<Map<String, Object>> queryCombinedData(
+    public void streamCombinedData(
             String vehicleId, 
             LocalDateTime startTime, 
             LocalDateTime endTime, 
             List<String> selectedTables,
-            Map<String, List<String>> selectedColumns) {
+            Map<String, List<String>> selectedColumns,
+            OutputStream out) throws IOException {
         
-        // 判断是否有有效的时间范围
+        // 判断是否有有效的时间范围，无时间范围时查询该车辆的所有记录
         boolean hasTimeRange = startTime != null && endTime != null && startTime.isBefore(endTime);
 
         // 验证表名 - 防止SQL注入攻击
-        for (String table : selectedTables) {
-            if (!SQLInjectionProtector.validateTableName(table)) {
-                throw new IllegalArgumentException("非法的表名: " + table);
-            }
-        }
+        validateTables(selectedTables);
 
-        // 存储所有表的数据
-        List<Map<String, Object>> combinedData = new ArrayList<>();
-        
-        // 遍历每个选定的表，根据是否有时间范围调用不同的查询方法
-        for (String table : selectedTables) {
-            List<Map<String, Object>> tableData;
-            if (hasTimeRange) {
-                // 有时间范围的情况：从每个表获取时间戳范围内的数据
-                tableData = excelMapper.selectFromTableWithFilter(
-                    table,
-                    vehicleId,
-                    startTime,
-                    endTime
-                );
-            } else {
-                // 无时间范围的情况：从每个表获取该车辆的所有记录
-                tableData = excelMapper.selectByVehicleId(
-                    table,
-                    vehicleId
-                );
-            }
-            
-            // 处理查询结果，只保留选定的列
-            List<String> columns = selectedColumns.getOrDefault(table, Collections.emptyList());
-            if (!columns.isEmpty()) {
-                for (Map<String, Object> row : tableData) {
-                    Map<String, Object> filteredRow = new HashMap<>();
-                    // 保留vehicleId和timestamp
-                    filteredRow.put("vehicleId", row.get("vehicleId"));
-                    if (row.containsKey("timestamp")) {
-                        filteredRow.put("timestamp", row.get("timestamp"));
-                    }
-                    // 添加表名前缀，避免不同表的同名列冲突
-                    for (String column : columns) {
-                        if (row.containsKey(column)) {
-                            filteredRow.put(table + "_" + column, row.get(column));
-                        }
-                    }
-                    // 添加表名标记
-                    filteredRow.put("table", table);
-                    combinedData.add(filteredRow);
-                }
-            } else {
-                // 如果没有选择列，则只添加标记列
-                for (Map<String, Object> row : tableData) {
-                    Map<String, Object> markerRow = new HashMap<>();
-                    markerRow.put("vehicleId", row.get("vehicleId"));
-                    if (row.containsKey("timestamp")) {
-                        markerRow.put("timestamp", row.get("timestamp"));
-                    }
-                    markerRow.put("table", table);
-                    markerRow.put(table, 1); // 标记存在
-                    combinedData.add(markerRow);
-                }
-            }
-        }
-        
-        return combinedData;
+        streamTables(selectedTables, selectedColumns, vehicleId,
+                hasTimeRange ? startTime : null, hasTimeRange ? endTime : null, out);
     }
 
     /**
-     * 查询时间段内所有车辆的异常数据
+     * 以JSON数组流式输出时间段内所有车辆的异常数据
      * @param startTime 开始时间
      * @param endTime 结束时间
      * @param selectedTables 选定的异常表
      * @param selectedColumns 每个表选定的列
-     * @return 查询结果列表
+     * @param out 输出流
      * @throws IllegalArgumentException 当表名验证失败时抛出
      */
     @Override
-    public List<Map<String, Object>> queryAllVehiclesExceptions(
+    public void streamAllVehiclesExceptions(
             LocalDateTime startTime,
             LocalDateTime endTime,
             List<String> selectedTables,
-            Map<String, List<String>> selectedColumns) {
+            Map<String, List<String>> selectedColumns,
+            OutputStream out) throws IOException {
         
         // 验证时间范围
         if (startTime == null || endTime == null || !startTime.isBefore(endTime)) {
@@ -147,58 +188,77 @@ public class QueryServiceImpl implements QueryService {
         }
         
         // 验证表名 - 防止SQL注入攻击
-        for (String table : selectedTables) {
-            if (!SQLInjectionProtector.validateTableName(table)) {
-                throw new IllegalArgumentException("非法的表名: " + table);
+        validateTables(selectedTables);
+
+        streamTables(selectedTables, selectedColumns, null, startTime, endTime, out);
+    }
+
+    // 依次读取每个表的游标，按选定的列转换后写入同一个JSON数组
+    private void streamTables(List<String> tables, Map<String, List<String>> selectedColumns, String vehicleId,
+                              LocalDateTime startTime, LocalDateTime endTime, OutputStream out) throws IOException {
+        try (JsonGenerator gen = objectMapper.getFactory().createGenerator(out)) {
+            gen.writeStartArray();
+            for (String table : tables) {
+                List<String> columns = selectedColumns == null
+                        ? Collections.emptyList()
+                        : selectedColumns.getOrDefault(table, Collections.emptyList());
+                try (Cursor<Map<String, Object>> cursor = excelMapper.cursorFromTable(table, vehicleId, startTime, endTime)) {
+                    writeRows(gen, cursor, row -> projectRow(table, row, columns));
+                }
             }
+            gen.writeEndArray();
         }
-        
-        // 存储所有表的数据
-        List<Map<String, Object>> allVehiclesData = new ArrayList<>();
-        
-        // 遍历每个选定的表，查询时间范围内的所有车辆数据
-        for (String table : selectedTables) {
-            List<Map<String, Object>> tableData = excelMapper.selectAllVehiclesWithTimeRange(
-                table,
-                startTime,
-                endTime
-            );
-            
-            // 处理查询结果，只保留选定的列
-            List<String> columns = selectedColumns.getOrDefault(table, Collections.emptyList());
-            if (!columns.isEmpty()) {
-                for (Map<String, Object> row : tableData) {
-                    Map<String, Object> filteredRow = new HashMap<>();
-                    // 保留vehicleId和timestamp
-                    filteredRow.put("vehicleId", row.get("vehicleId"));
-                    if (row.containsKey("timestamp")) {
-                        filteredRow.put("timestamp", row.get("timestamp"));
-                    }
-                    // 添加表名前缀，避免不同表的同名列冲突
-                    for (String column : columns) {
-                        if (row.containsKey(column)) {
-                            filteredRow.put(table + "_" + column, row.get(column));
-                        }
-                    }
-                    // 添加表名标记
-                    filteredRow.put("table", table);
-                    allVehiclesData.add(filteredRow);
-                }
-            } else {
-                // 如果没有选择列，则只添加标记列
-                for (Map<String, Object> row : tableData) {
-                    Map<String, Object> markerRow = new HashMap<>();
-                    markerRow.put("vehicleId", row.get("vehicleId"));
-                    if (row.containsKey("timestamp")) {
-                        markerRow.put("timestamp", row.get("timestamp"));
-                    }
-                    markerRow.put("table", table);
-                    markerRow.put(table, 1); // 标记存在
-                    allVehiclesData.add(markerRow);
+    }
+
+    private void writeRows(JsonGenerator gen, Cursor<Map<String, Object>> cursor,
+                           Function<Map<String, Object>, Map<String, Object>> mapper) throws IOException {
+        int count = 0;
+        for (Map<String, Object> row : cursor) {
+            gen.writeObject(mapper == null ? row : mapper.apply(row));
+            if (++count % FLUSH_EVERY_ROWS == 0) {
+                gen.flush();
+            }
+        }
+    }
+
+    // 只保留选定的列；没有选择列时只输出标记列
+    private Map<String, Object> projectRow(String table, Map<String, Object> row, List<String> columns) {
+        Map<String, Object> result = new HashMap<>();
+        // 保留vehicleId和timestamp
+        result.put("vehicleId", row.get("vehicleId"));
+        if (row.containsKey("timestamp")) {
+            result.put("timestamp", row.get("timestamp"));
+        }
+        if (!columns.isEmpty()) {
+            // 添加表名前缀，避免不同表的同名列冲突
+            for (String column : columns) {
+                if (row.containsKey(column)) {
+                    result.put(table + "_" + column, row.get(column));
                 }
             }
+        } else {
+            result.put(table, 1); // 标记存在
         }
-        
-        return allVehiclesData;
+        // 添加表名标记
+        result.put("table", table);
+        return result;
+    }
+
+    private void validateTables(List<String> tables) {
+        for (String table : tables) {
+            if (!SQLInjectionProtector.validateTableName(table)) {
+                throw new IllegalArgumentException("非法的表名: " + table);
+            }
+        }
+    }
+
+    // 游标为 "时间戳,ID" 的URL安全Base64编码，对客户端不透明
+    private String encodeCursor(Map<String, Object> row) {
+        Object timestamp = row.get("timestamp");
+        LocalDateTime time = timestamp instanceof Timestamp
+                ? ((Timestamp) timestamp).toLocalDateTime()
+                : (LocalDateTime) timestamp;
+        String raw = time + "," + ((Number) row.get("id")).longValue();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
-}
\ No newline at end of file
+}
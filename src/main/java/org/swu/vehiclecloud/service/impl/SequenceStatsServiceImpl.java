@@ -0,0 +1,217 @@
+package org.swu.vehiclecloud.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.ReorderConfig;
+import org.swu.vehiclecloud.dto.SequenceStats;
+import org.swu.vehiclecloud.event.MqttMessageEvent;
+import org.swu.vehiclecloud.listener.VehicleStateRegistry;
+import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.service.SequenceStatsService;
+import org.swu.vehiclecloud.util.ReorderBuffer;
+import org.swu.vehiclecloud.util.SequenceTracker;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * 消息编号连续性统计服务实现类
+ * <p>监听原始MQTT数据帧，按车辆跟踪messageId的丢包、乱序和重复情况，
+ * 并定时通过SSE数据流12推送全车队统计</p>
+ */
+@Service
+public class SequenceStatsServiceImpl implements SequenceStatsService {
+
+    private static final Logger log = LoggerFactory.getLogger(SequenceStatsServiceImpl.class);
+
+    // SSE推送中附带的丢包率最高车辆数
+    private static final int PUSH_TOP_VEHICLES = 10;
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final DataService dataService;
+
+    private final VehicleStateRegistry vehicleStateRegistry;
+
+    private final ReorderConfig reorderConfig;
+
+    // 车辆ID -> 编号跟踪器
+    private final ConcurrentMap<String, SequenceTracker> trackers = new ConcurrentHashMap<>();
+
+    // 已清理车辆的累计统计，保证全车队累计值不因清理而减少
+    private final SequenceTracker.Snapshot retired = new SequenceTracker.Snapshot();
+
+    public SequenceStatsServiceImpl(DataService dataService, VehicleStateRegistry vehicleStateRegistry,
+                                    ReorderConfig reorderConfig) {
+        this.dataService = dataService;
+        this.vehicleStateRegistry = vehicleStateRegistry;
+        this.reorderConfig = reorderConfig;
+    }
+
+    /**
+     * 处理MQTT消息事件，记录原始到达顺序
+     */
+    @EventListener
+    public void handleMqttMessage(MqttMessageEvent event) {
+        Map<String, Object> body = (Map<String, Object>) event.getMessage().get("body");
+        if (body == null) {
+            return;
+        }
+        Object vehicleId = body.get("vehicleId");
+        Object messageId = body.get("messageId");
+        if (vehicleId instanceof String && messageId instanceof Number) {
+            record((String) vehicleId, ((Number) messageId).longValue());
+        }
+    }
+
+    @Override
+    public void record(String vehicleId, long messageId) {
+        // 在映射的桶锁内记录，清理线程不会在取得跟踪器与记录之间将其移除
+        trackers.compute(vehicleId, (id, tracker) -> {
+            if (tracker == null) {
+                tracker = new SequenceTracker();
+            }
+            tracker.record(messageId);
+            return tracker;
+        });
+    }
+
+    @Override
+    public SequenceStats getVehicleStats(String vehicleId) {
+        SequenceTracker tracker = trackers.get(vehicleId);
+        if (tracker == null) {
+            return null;
+        }
+        SequenceTracker.Snapshot snapshot = new SequenceTracker.Snapshot();
+        tracker.snapshot(snapshot);
+        SequenceStats stats = toStats(snapshot);
+        stats.setVehicleId(vehicleId);
+        stats.setVehicleCount(1);
+        return stats;
+    }
+
+    @Override
+    public List<SequenceStats> getAllVehicleStats() {
+        List<SequenceStats> result = new ArrayList<>(trackers.size());
+        SequenceTracker.Snapshot snapshot = new SequenceTracker.Snapshot();
+        for (Map.Entry<String, SequenceTracker> entry : trackers.entrySet()) {
+            entry.getValue().snapshot(snapshot);
+            SequenceStats stats = toStats(snapshot);
+            stats.setVehicleId(entry.getKey());
+            stats.setVehicleCount(1);
+            result.add(stats);
+        }
+        result.sort((a, b) -> Double.compare(b.getLossRate(), a.getLossRate()));
+        return result;
+    }
+
+    @Override
+    public SequenceStats getFleetStats() {
+        SequenceTracker.Snapshot total = new SequenceTracker.Snapshot();
+        synchronized (retired) {
+            accumulate(total, retired);
+        }
+        SequenceTracker.Snapshot snapshot = new SequenceTracker.Snapshot();
+        for (SequenceTracker tracker : trackers.values()) {
+            tracker.snapshot(snapshot);
+            accumulate(total, snapshot);
+            total.windowSpan += snapshot.windowSpan;
+            total.windowHoles += snapshot.windowHoles;
+            total.lastReorderDepth = Math.max(total.lastReorderDepth, snapshot.lastReorderDepth);
+        }
+        SequenceStats stats = toStats(total);
+        stats.setVehicleCount(trackers.size());
+
+        ReorderBuffer.Counters counters = vehicleStateRegistry.getReorderCounters();
+        Map<String, Long> reorderBuffer = new LinkedHashMap<>();
+        reorderBuffer.put("released", counters.getReleased());
+        reorderBuffer.put("late", counters.getLate());
+        reorderBuffer.put("dropped", counters.getDropped());
+        reorderBuffer.put("duplicate", counters.getDuplicate());
+        stats.setReorderBuffer(reorderBuffer);
+        return stats;
+    }
+
+    /**
+     * 每 5 秒推送一次全车队统计和丢包率最高的车辆，并清理下线车辆
+     */
+    @Scheduled(fixedRate = 5000)
+    public void pushSequenceStats() {
+        evictIdle();
+        try {
+            List<SequenceStats> vehicles = getAllVehicleStats();
+            Map<String, Object> pushData = new HashMap<>();
+            pushData.put("fleet", getFleetStats());
+            pushData.put("vehicles", vehicles.subList(0, Math.min(PUSH_TOP_VEHICLES, vehicles.size())));
+            dataService.setPushContent("12", objectMapper.writeValueAsString(pushData));
+        } catch (JsonProcessingException e) {
+            log.error("Error while processing JSON for sequence stats: {}", e.getMessage());
+        }
+    }
+
+    // 逐个车辆在桶锁内重新检查空闲时间后移除，与 record 互斥
+    private void evictIdle() {
+        long idleMillis = reorderConfig.getSequenceIdleEvictSeconds() * 1000L;
+        long now = System.currentTimeMillis();
+        SequenceTracker.Snapshot snapshot = new SequenceTracker.Snapshot();
+        for (String vehicleId : trackers.keySet()) {
+            trackers.computeIfPresent(vehicleId, (id, tracker) -> {
+                if (now - tracker.getLastSeenMillis() < idleMillis) {
+                    return tracker;
+                }
+                tracker.snapshot(snapshot);
+                synchronized (retired) {
+                    accumulate(retired, snapshot);
+                }
+                return null;
+            });
+        }
+    }
+
+    // 累加可求和的计数与直方图
+    private static void accumulate(SequenceTracker.Snapshot target, SequenceTracker.Snapshot source) {
+        target.received += source.received;
+        target.duplicates += source.duplicates;
+        target.reordered += source.reordered;
+        target.lost += source.lost;
+        target.lateBeyondWindow += source.lateBeyondWindow;
+        target.resets += source.resets;
+        target.maxReorderDepth = Math.max(target.maxReorderDepth, source.maxReorderDepth);
+        for (int i = 0; i < target.gapHistogram.length; i++) {
+            target.gapHistogram[i] += source.gapHistogram[i];
+            target.reorderHistogram[i] += source.reorderHistogram[i];
+        }
+    }
+
+    private static SequenceStats toStats(SequenceTracker.Snapshot snapshot) {
+        SequenceStats stats = new SequenceStats();
+        stats.setReceived(snapshot.received);
+        stats.setDuplicates(snapshot.duplicates);
+        stats.setReordered(snapshot.reordered);
+        stats.setLost(snapshot.lost);
+        stats.setLateBeyondWindow(snapshot.lateBeyondWindow);
+        stats.setResets(snapshot.resets);
+        stats.setLossRate(snapshot.windowSpan > 0 ? (double) snapshot.windowHoles / snapshot.windowSpan : 0);
+        long resolved = snapshot.received + snapshot.lost;
+        stats.setCumulativeLossRate(resolved > 0 ? (double) snapshot.lost / resolved : 0);
+        stats.setLastReorderDepth(snapshot.lastReorderDepth);
+        stats.setMaxReorderDepth(snapshot.maxReorderDepth);
+        stats.setGapHistogram(toHistogram(snapshot.gapHistogram));
+        stats.setReorderDepthHistogram(toHistogram(snapshot.reorderHistogram));
+        return stats;
+    }
+
+    private static Map<String, Long> toHistogram(long[] buckets) {
+        Map<String, Long> histogram = new LinkedHashMap<>();
+        for (int i = 0; i < buckets.length; i++) {
+            histogram.put(SequenceTracker.HISTOGRAM_LABELS[i], buckets[i]);
+        }
+        return histogram;
+    }
+}
@@ -0,0 +1,339 @@
+package org.swu.vehiclecloud.service.impl;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import jakarta.websocket.CloseReason;
+import jakarta.websocket.SendHandler;
+import jakarta.websocket.Session;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.TelemetryFeedConfig;
+import org.swu.vehiclecloud.dto.VehicleLocation;
+import org.swu.vehiclecloud.service.TelemetryFeedService;
+import org.swu.vehiclecloud.util.CompactLocationEncoder;
+import org.swu.vehiclecloud.util.SpatialGridIndex;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.ByteBuffer;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 按订阅过滤的车辆位置推送服务实现类
+ * <p>
+ * 车辆集合订阅按车辆ID反向索引，范围订阅登记到空间网格索引，每条位置更新只查找关注它的连接，
+ * 代价与连接总数无关。每个连接有自己的待发送Map，同一车辆只保留最新位置；
+ * 上一帧发送完成后才发送下一帧，读取慢的客户端收到的帧更少，但不会积压，也不影响其他连接。
+ * 帧不会被丢弃，因此选择二进制编码的连接可以按连接维护差分状态。
+ * 长时间没有更新的车辆定期从最新位置和编号表中移除；再次出现时分配新编号，
+ * 二进制连接把它当作新车辆重新发送ID；有编号被清理后各二进制连接的下一帧重置差分状态，释放旧编号。
+ * </p>
+ */
+@Service
+public class TelemetryFeedServiceImpl implements TelemetryFeedService {
+
+    private static final Logger log = LoggerFactory.getLogger(TelemetryFeedServiceImpl.class);
+
+    private static final JsonFactory jsonFactory = new JsonFactory();
+
+    private final TelemetryFeedConfig config;
+
+    // 连接ID -> 连接
+    private final Map<String, FeedClient> clients = new ConcurrentHashMap<>();
+
+    // 车辆ID -> 订阅了该车辆的连接
+    private final Map<String, Set<FeedClient>> byVehicle = new ConcurrentHashMap<>();
+
+    private final SpatialGridIndex<FeedClient> grid;
+
+    // 每辆车的最新位置，用于订阅条件变化时立即推送
+    private final Map<String, LatestLocation> latest = new ConcurrentHashMap<>();
+
+    // 车辆ID -> 二进制帧中使用的车辆编号，车辆被清理前不变，编号不复用
+    private final Map<String, Integer> vehicleIndexes = new ConcurrentHashMap<>();
+
+    private final AtomicInteger nextVehicleIndex = new AtomicInteger();
+
+    public TelemetryFeedServiceImpl(TelemetryFeedConfig config) {
+        this.config = config;
+        this.grid = new SpatialGridIndex<>(config.getCellDegrees(), config.getMaxCellsPerSubscription());
+    }
+
+    @Override
+    public boolean register(Session session) {
+        if (clients.size() >= config.getMaxSessions()) {
+            return false;
+        }
+        clients.put(session.getId(), new FeedClient(session));
+        log.info("新增位置订阅连接 ID[{}], 当前总数: {}", session.getId(), clients.size());
+        return true;
+    }
+
+    @Override
+    public void subscribe(Session session, Collection<String> vehicleIds, double[] bbox, boolean compact) {
+        FeedClient client = clients.get(session.getId());
+        if (client == null) {
+            return;
+        }
+        Set<String> ids = vehicleIds == null ? Collections.emptySet() : new HashSet<>(vehicleIds);
+        if (ids.size() > config.getMaxVehicleIds()) {
+            throw new IllegalArgumentException("单个连接最多订阅 " + config.getMaxVehicleIds() + " 辆车");
+        }
+        if (bbox != null && bbox.length != 4) {
+            throw new IllegalArgumentException("范围须为 [最小经度, 最小纬度, 最大经度, 最大纬度]");
+        }
+
+        synchronized (client) {
+            if (bbox != null) {
+                // 范围非法时抛出异常，原订阅保持不变
+                grid.put(client, bbox[0], bbox[1], bbox[2], bbox[3]);
+            } else {
+                grid.remove(client);
+            }
+            removeVehicleIds(client);
+            for (String vehicleId : ids) {
+                byVehicle.computeIfAbsent(vehicleId, k -> ConcurrentHashMap.newKeySet()).add(client);
+            }
+            client.vehicleIds = ids;
+            if (!compact) {
+                client.encoder = null;
+            } else if (client.encoder == null) {
+                // 新编码器的第一帧带清空标记，客户端据此重置解码状态
+                client.encoder = new CompactLocationEncoder();
+            }
+        }
+        log.debug("位置订阅条件更新 ID[{}]: {} 辆车, 范围 {}", session.getId(), ids.size(),
+                bbox == null ? "无" : bbox[0] + "," + bbox[1] + "," + bbox[2] + "," + bbox[3]);
+
+        // 客户端切换视野后立即补齐新范围内车辆的位置，不必等车辆移动
+        client.pending.clear();
+        for (LatestLocation entry : latest.values()) {
+            VehicleLocation location = entry.location;
+            if (ids.contains(location.getVehicleId())
+                    || (bbox != null && grid.contains(client, location.getLongitude(), location.getLatitude()))) {
+                client.pending.put(location.getVehicleId(), location);
+            }
+        }
+        send(client);
+    }
+
+    @Override
+    public void unregister(Session session) {
+        FeedClient client = clients.remove(session.getId());
+        if (client == null) {
+            return;
+        }
+        synchronized (client) {
+            grid.remove(client);
+            removeVehicleIds(client);
+            client.vehicleIds = Collections.emptySet();
+        }
+        client.pending.clear();
+        log.info("位置订阅连接断开 ID[{}], 剩余连接: {}", session.getId(), clients.size());
+    }
+
+    @Override
+    public void publish(List<VehicleLocation> locations) {
+        boolean anyClient = !clients.isEmpty();
+        long now = System.currentTimeMillis();
+        for (VehicleLocation location : locations) {
+            latest.put(location.getVehicleId(), new LatestLocation(location, now));
+            if (!anyClient) {
+                continue;
+            }
+            Set<FeedClient> subscribers = byVehicle.get(location.getVehicleId());
+            if (subscribers != null) {
+                for (FeedClient client : subscribers) {
+                    client.pending.put(location.getVehicleId(), location);
+                }
+            }
+            grid.query(location.getLongitude(), location.getLatitude(),
+                    client -> client.pending.put(location.getVehicleId(), location));
+        }
+        if (!anyClient) {
+            return;
+        }
+        for (FeedClient client : clients.values()) {
+            if (!client.pending.isEmpty()) {
+                send(client);
+            }
+        }
+    }
+
+    @Override
+    public boolean hasSubscribers() {
+        return !clients.isEmpty();
+    }
+
+    /**
+     * 移除长时间没有位置更新的车辆的最新位置和编号
+     */
+    @Scheduled(fixedDelayString = "${telemetry.feed.stale-ms:300000}")
+    public void removeStale() {
+        long deadline = System.currentTimeMillis() - config.getStaleMs();
+        int before = latest.size();
+        // 条件删除，与并发的 publish 竞争时保留新写入的位置
+        latest.values().removeIf(entry -> entry.updatedMillis < deadline);
+        if (vehicleIndexes.keySet().removeIf(vehicleId -> !latest.containsKey(vehicleId))) {
+            // 编码器非线程安全，由持有发送权的线程在下一帧前重置
+            for (FeedClient client : clients.values()) {
+                client.resetEncoder = true;
+            }
+        }
+        int removed = before - latest.size();
+        if (removed > 0) {
+            log.info("移除 {} 辆长时间未更新位置的车辆, 剩余 {} 辆", removed, latest.size());
+        }
+    }
+
+    // 调用方需持有 client 锁
+    private void removeVehicleIds(FeedClient client) {
+        for (String vehicleId : client.vehicleIds) {
+            byVehicle.computeIfPresent(vehicleId, (k, set) -> {
+                set.remove(client);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    // 上一帧发送完成前不发送，待发送的位置留在Map中合并，完成回调中再发送
+    private void send(FeedClient client) {
+        while (!client.pending.isEmpty() && client.sending.compareAndSet(false, true)) {
+            CompactLocationEncoder encoder = client.encoder;
+            Object frame = encoder != null ? drainCompact(client, encoder) : drain(client);
+            if (frame == null) {
+                client.sending.set(false);
+                continue;
+            }
+            SendHandler handler = result -> {
+                client.sending.set(false);
+                if (!result.isOK()) {
+                    log.warn("位置推送失败 ID[{}]: {}", client.session.getId(), result.getException().getMessage());
+                    close(client);
+                } else if (!client.pending.isEmpty()) {
+                    send(client);
+                }
+            };
+            try {
+                if (frame instanceof ByteBuffer) {
+                    client.session.getAsyncRemote().sendBinary((ByteBuffer) frame, handler);
+                } else {
+                    client.session.getAsyncRemote().sendText((String) frame, handler);
+                }
+            } catch (RuntimeException e) {
+                client.sending.set(false);
+                log.warn("位置推送失败 ID[{}]: {}", client.session.getId(), e.getMessage());
+                close(client);
+            }
+            return;
+        }
+    }
+
+    // 取出并移除待发送的位置，序列化为一帧；没有待发送位置时返回null
+    private String drain(FeedClient client) {
+        StringWriter writer = new StringWriter(64 + client.pending.size() * 96);
+        int count = 0;
+        try (JsonGenerator gen = jsonFactory.createGenerator(writer)) {
+            gen.writeStartObject();
+            gen.writeNumberField("t", System.currentTimeMillis());
+            gen.writeArrayFieldStart("vehicles");
+            Iterator<String> it = client.pending.keySet().iterator();
+            while (it.hasNext()) {
+                VehicleLocation location = client.pending.remove(it.next());
+                if (location == null) {
+                    continue;
+                }
+                gen.writeStartObject();
+                gen.writeStringField("vehicleId", location.getVehicleId());
+                gen.writeNumberField("longitude", location.getLongitude());
+                gen.writeNumberField("latitude", location.getLatitude());
+                gen.writeNumberField("timestampGNSS", location.getTimestampGNSS());
+                gen.writeNumberField("speed", location.getSpeed());
+                gen.writeNumberField("heading", location.getHeading());
+                gen.writeEndObject();
+                count++;
+            }
+            gen.writeEndArray();
+            gen.writeEndObject();
+        } catch (IOException e) {
+            log.error("车辆位置序列化失败: {}", e.getMessage());
+            return null;
+        }
+        return count > 0 ? writer.toString() : null;
+    }
+
+    // 取出并移除待发送的位置，编码为二进制差分帧；没有待发送位置时返回null
+    private ByteBuffer drainCompact(FeedClient client, CompactLocationEncoder encoder) {
+        if (client.resetEncoder) {
+            client.resetEncoder = false;
+            encoder.reset();
+        }
+        int count = 0;
+        Iterator<String> it = client.pending.keySet().iterator();
+        while (it.hasNext()) {
+            VehicleLocation location = client.pending.remove(it.next());
+            if (location == null) {
+                continue;
+            }
+            encoder.add(vehicleIndex(location.getVehicleId()), location.getVehicleId(),
+                    location.getLongitude(), location.getLatitude(), location.getTimestampGNSS(),
+                    location.getSpeed(), location.getHeading());
+            count++;
+        }
+        return count > 0 ? encoder.finish(System.currentTimeMillis()) : null;
+    }
+
+    private int vehicleIndex(String vehicleId) {
+        Integer index = vehicleIndexes.get(vehicleId);
+        return index != null ? index : vehicleIndexes.computeIfAbsent(vehicleId, k -> nextVehicleIndex.getAndIncrement());
+    }
+
+    private void close(FeedClient client) {
+        unregister(client.session);
+        try {
+            client.session.close(new CloseReason(CloseReason.CloseCodes.GOING_AWAY, "send failed"));
+        } catch (IOException ignored) {
+        }
+    }
+
+    private static final class LatestLocation {
+        final VehicleLocation location;
+        // 服务端收到该位置的时间
+        final long updatedMillis;
+
+        LatestLocation(VehicleLocation location, long updatedMillis) {
+            this.location = location;
+            this.updatedMillis = updatedMillis;
+        }
+    }
+
+    private static final class FeedClient {
+        final Session session;
+        // 车辆ID -> 待发送的最新位置
+        final ConcurrentMap<String, VehicleLocation> pending = new ConcurrentHashMap<>();
+        // 是否有一帧正在发送
+        final AtomicBoolean sending = new AtomicBoolean();
+        // 订阅的车辆ID，只在 this 锁内替换
+        volatile Set<String> vehicleIds = Collections.emptySet();
+        // 二进制差分编码状态，JSON连接为null；只在持有发送权时使用
+        volatile CompactLocationEncoder encoder;
+        // 有车辆编号被清理，下一帧前需重置编码器
+        volatile boolean resetEncoder;
+
+        FeedClient(Session session) {
+            this.session = session;
+        }
+    }
+}
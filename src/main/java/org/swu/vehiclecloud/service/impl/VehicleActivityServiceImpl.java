@@ -22,7 +22,8 @@ public class VehicleActivityServiceImpl implements VehicleActivityService {
             "geo_location_exp",
             "speed_exp",
             "steering_exp",
-            "timestamp_exp"
+            "timestamp_exp",
+            "score_exp"
     );
 
     public VehicleActivityServiceImpl(VehicleActivityMapper vehicleActivityMapper) {
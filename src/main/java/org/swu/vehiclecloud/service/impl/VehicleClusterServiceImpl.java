@@ -0,0 +1,118 @@
+package org.swu.vehiclecloud.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.codec.ServerSentEvent;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.swu.vehiclecloud.config.ClusterConfig;
+import org.swu.vehiclecloud.dto.ClusterSnapshot;
+import org.swu.vehiclecloud.dto.VehicleCluster;
+import org.swu.vehiclecloud.dto.VehicleLocation;
+import org.swu.vehiclecloud.exception.BusinessException;
+import org.swu.vehiclecloud.service.VehicleClusterService;
+import org.swu.vehiclecloud.util.VehicleClusterIndex;
+import reactor.core.publisher.Flux;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 车辆位置服务端聚类服务实现类
+ * <p>
+ * 位置更新由 LocationPushServiceImpl 每个合并周期批量传入，增量维护 {@link VehicleClusterIndex}；
+ * 超过配置时间没有更新的车辆由定时任务移除。SSE订阅按间隔查询一次视野内的聚类，
+ * 索引版本号没有变化时跳过，不重复推送。
+ * </p>
+ */
+@Service
+public class VehicleClusterServiceImpl implements VehicleClusterService {
+
+    private static final Logger log = LoggerFactory.getLogger(VehicleClusterServiceImpl.class);
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ClusterConfig config;
+
+    private final VehicleClusterIndex index;
+
+    public VehicleClusterServiceImpl(ClusterConfig config) {
+        this.config = config;
+        this.index = new VehicleClusterIndex(config.getMinZoom(), config.getMaxZoom(), config.getCellPixels());
+    }
+
+    @Override
+    public void update(List<VehicleLocation> locations) {
+        long now = System.currentTimeMillis();
+        for (VehicleLocation location : locations) {
+            index.update(location.getVehicleId(), location.getLongitude(), location.getLatitude(), now);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${cluster.stale-ms:300000}")
+    public void removeStale() {
+        int removed = index.removeOlderThan(System.currentTimeMillis() - config.getStaleMs());
+        if (removed > 0) {
+            log.info("移除 {} 辆长时间未更新位置的车辆, 剩余 {} 辆", removed, index.size());
+        }
+    }
+
+    @Override
+    public ClusterSnapshot getClusters(int zoom, List<Double> bbox) {
+        double[] range = checkBbox(bbox);
+        VehicleClusterIndex.Result result = index.query(zoom, range[0], range[1], range[2], range[3], config.getMaxClusters());
+        ClusterSnapshot snapshot = new ClusterSnapshot();
+        snapshot.setT(System.currentTimeMillis());
+        snapshot.setZoom(result.zoom);
+        snapshot.setVehicles(result.vehicles);
+        List<VehicleCluster> clusters = new ArrayList<>(result.clusters.size());
+        for (VehicleClusterIndex.Cluster c : result.clusters) {
+            VehicleCluster cluster = new VehicleCluster();
+            cluster.setLongitude(c.longitude);
+            cluster.setLatitude(c.latitude);
+            cluster.setCount(c.count);
+            cluster.setVehicleId(c.vehicleId);
+            clusters.add(cluster);
+        }
+        snapshot.setClusters(clusters);
+        return snapshot;
+    }
+
+    @Override
+    public Flux<ServerSentEvent<String>> streamClusters(int zoom, List<Double> bbox) {
+        checkBbox(bbox);
+        AtomicLong lastVersion = new AtomicLong(-1);
+        return Flux.interval(Duration.ZERO, Duration.ofMillis(config.getStreamIntervalMs()))
+                .onBackpressureDrop()
+                .filter(tick -> {
+                    long version = index.version();
+                    return lastVersion.getAndSet(version) != version;
+                })
+                .map(tick -> {
+                    try {
+                        return ServerSentEvent.<String>builder()
+                                .event("clusters")
+                                .data(objectMapper.writeValueAsString(getClusters(zoom, bbox)))
+                                .build();
+                    } catch (JsonProcessingException e) {
+                        throw new IllegalStateException("聚类结果序列化失败", e);
+                    }
+                });
+    }
+
+    private static double[] checkBbox(List<Double> bbox) {
+        if (bbox == null || bbox.size() != 4 || bbox.contains(null)) {
+            throw new BusinessException(400, "bbox须为 最小经度,最小纬度,最大经度,最大纬度");
+        }
+        double[] range = {bbox.get(0), bbox.get(1), bbox.get(2), bbox.get(3)};
+        if (!(range[0] <= range[2] && range[1] <= range[3])
+                || range[0] < -180 || range[2] > 180 || range[1] < -90 || range[3] > 90) {
+            throw new BusinessException(400, "bbox经纬度范围非法");
+        }
+        return range;
+    }
+}
@@ -0,0 +1,122 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 机器学习推理的自适应采样器
+ * <p>
+ * 每辆车按基础采样率采样；统计异常分数升高或近期触发规则异常的车辆采样率提高，
+ * 最高至提升采样率。采样率以每帧的采样概率表示，由调用方按车辆累加成额度，
+ * 额度满1时采样一帧，因此无需随机数且各车辆的采样间隔均匀。
+ * </p>
+ * <p>
+ * 全车队共享一个每秒帧数的推理预算(令牌桶，最多累积1秒)。桶中保留一部分令牌只给提升采样使用，
+ * 预算紧张时优先把推理能力分给可疑车辆。{@link #tryAcquire} 为同步方法，可被多个线程调用。
+ * </p>
+ */
+public class AdaptiveSampler {
+
+    private final double baseRate;
+    private final double boostedRate;
+    private final double scoreLow;
+    private final double scoreHigh;
+    private final long ruleBoostMillis;
+
+    private final double tokensPerNano;
+    private final double capacity;
+    private final double reserved;
+
+    private double tokens;
+    private long lastRefillNanos;
+
+    private long sampledBase;
+    private long sampledBoosted;
+    private long rejected;
+
+    /**
+     * @param baseRate        基础采样率(每帧采样概率)
+     * @param boostedRate     提升采样率上限
+     * @param scoreLow        统计异常分数不高于该值时使用基础采样率
+     * @param scoreHigh       统计异常分数不低于该值时使用提升采样率，区间内线性插值
+     * @param ruleBoostMillis 触发规则异常后保持提升采样率的时间(毫秒)
+     * @param budgetPerSecond 全车队每秒最多送去推理的帧数
+     * @param reserveFraction 只给提升采样使用的预算比例
+     */
+    public AdaptiveSampler(double baseRate, double boostedRate, double scoreLow, double scoreHigh,
+                           long ruleBoostMillis, double budgetPerSecond, double reserveFraction) {
+        this.baseRate = clamp(baseRate);
+        this.boostedRate = Math.max(this.baseRate, clamp(boostedRate));
+        this.scoreLow = scoreLow;
+        this.scoreHigh = Math.max(scoreLow, scoreHigh);
+        this.ruleBoostMillis = ruleBoostMillis;
+        this.tokensPerNano = budgetPerSecond / 1e9;
+        this.capacity = Math.max(1, budgetPerSecond);
+        this.reserved = capacity * clamp(reserveFraction);
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * 计算车辆当前的采样率
+     * @param score              最近一帧的统计异常分数
+     * @param millisSinceRuleHit 距最近一次规则异常的时间(毫秒)
+     * @return 每帧采样概率
+     */
+    public double rate(double score, long millisSinceRuleHit) {
+        if (millisSinceRuleHit >= 0 && millisSinceRuleHit < ruleBoostMillis) {
+            return boostedRate;
+        }
+        if (score <= scoreLow) {
+            return baseRate;
+        }
+        if (score >= scoreHigh) {
+            return boostedRate;
+        }
+        return baseRate + (boostedRate - baseRate) * (score - scoreLow) / (scoreHigh - scoreLow);
+    }
+
+    /**
+     * @param rate 采样率
+     * @return 该采样率是否高于基础采样率
+     */
+    public boolean isBoosted(double rate) {
+        return rate > baseRate;
+    }
+
+    /**
+     * 从全车队预算中申请一帧
+     * @param boosted  是否为提升采样，基础采样不能使用保留部分
+     * @param nowNanos 当前时间(System.nanoTime)
+     * @return 申请成功返回true
+     */
+    public synchronized boolean tryAcquire(boolean boosted, long nowNanos) {
+        tokens = Math.min(capacity, tokens + (nowNanos - lastRefillNanos) * tokensPerNano);
+        lastRefillNanos = nowNanos;
+        double floor = boosted ? 0 : reserved;
+        if (tokens - 1 < floor) {
+            rejected++;
+            return false;
+        }
+        tokens -= 1;
+        if (boosted) {
+            sampledBoosted++;
+        } else {
+            sampledBase++;
+        }
+        return true;
+    }
+
+    public synchronized long getSampledBase() {
+        return sampledBase;
+    }
+
+    public synchronized long getSampledBoosted() {
+        return sampledBoosted;
+    }
+
+    public synchronized long getRejected() {
+        return rejected;
+    }
+
+    private static double clamp(double value) {
+        return Math.max(0, Math.min(1, value));
+    }
+}
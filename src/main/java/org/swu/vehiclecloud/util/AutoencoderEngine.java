@@ -0,0 +1,212 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * JVM内的Transformer自编码器推理后端
+ * <p>
+ * 与 pythonMLAnomaly/main.py 的前向计算一致(推理模式，无dropout)：
+ * 标准化 → LayerNorm → linear_in + 位置编码 → N × [DyT → out_proj(V) 残差 → DyT → FFN 残差] → decoder，
+ * 输出与标准化输入之间的均方误差。
+ * 一个批次内所有车辆的样本逐层整体计算，权重在批内复用；多个批次在线程池中并行。
+ * 每个线程复用自己的中间缓冲区，稳定运行后不再分配。
+ * </p>
+ */
+public class AutoencoderEngine implements InferenceBackend {
+
+    // LayerNorm 默认 eps
+    private static final float LAYER_NORM_EPS = 1e-5f;
+
+    private final AutoencoderWeights weights;
+    private final MatMulKernel kernel;
+    private final ExecutorService executor;
+
+    private final ThreadLocal<Workspace> workspaces = ThreadLocal.withInitial(Workspace::new);
+
+    /**
+     * @param weights 模型权重
+     * @param kernel  仿射变换内核
+     * @param threads 推理线程数
+     */
+    public AutoencoderEngine(AutoencoderWeights weights, MatMulKernel kernel, int threads) {
+        this.weights = weights;
+        this.kernel = kernel;
+        AtomicInteger index = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(threads, r -> {
+            Thread t = new Thread(r, "ml-java-inference-" + index.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    @Override
+    public CompletableFuture<float[]> score(double[] features, int count, int dim) {
+        if (dim != weights.inputDim) {
+            return CompletableFuture.failedFuture(
+                    new IllegalArgumentException("特征维度 " + dim + " 与模型输入维度 " + weights.inputDim + " 不一致"));
+        }
+        return CompletableFuture.supplyAsync(() -> forward(features, count), executor);
+    }
+
+    @Override
+    public String name() {
+        return "java(" + kernel.name() + ", layers=" + weights.layers.length + ")";
+    }
+
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * 用导出时附带的参考样本校验前向计算结果
+     * @return 与Python计算的MSE之间的最大相对误差，无参考样本时返回0
+     */
+    public double verify() {
+        if (weights.referenceCount == 0) {
+            return 0;
+        }
+        float[] mse = forward(weights.referenceFeatures, weights.referenceCount);
+        double maxError = 0;
+        for (int i = 0; i < weights.referenceCount; i++) {
+            double expected = weights.referenceMse[i];
+            double error = Math.abs(mse[i] - expected) / Math.max(1e-6, Math.abs(expected));
+            maxError = Math.max(maxError, error);
+        }
+        return maxError;
+    }
+
+    /**
+     * 对一批原始特征执行前向计算
+     * @param features 按行排列的原始特征
+     * @param count    行数
+     * @return 每行的重构误差
+     */
+    public float[] forward(double[] features, int count) {
+        AutoencoderWeights w = weights;
+        int in = w.inputDim;
+        int hidden = w.hiddenDim;
+        int ffn = w.ffnDim;
+        Workspace ws = workspaces.get();
+        ws.ensure(count, in, hidden, ffn);
+        float[] x = ws.x;
+        float[] xn = ws.xn;
+        float[] h = ws.h;
+        float[] t = ws.t;
+        float[] v = ws.v;
+        float[] f = ws.f;
+
+        // 标准化在双精度下进行，时间戳等大数值特征不丢失精度
+        for (int r = 0; r < count; r++) {
+            for (int c = 0; c < in; c++) {
+                x[r * in + c] = (float) ((features[r * in + c] - w.scalerMean[c]) / w.scalerStd[c]);
+            }
+        }
+        layerNorm(x, xn, count, in, w.inputNormWeight, w.inputNormBias);
+
+        kernel.affine(xn, count, in, w.linearInWeight, w.linearInBias, h, hidden);
+        for (int r = 0; r < count; r++) {
+            for (int c = 0; c < hidden; c++) {
+                h[r * hidden + c] += w.posEmbedding[c];
+            }
+        }
+
+        for (AutoencoderWeights.Layer layer : w.layers) {
+            // 注意力子层：序列长度为1时注意力输出等于 out_proj(V)
+            dyt(h, t, count, hidden, layer.dytAttnAlpha, layer.dytAttnGamma, layer.dytAttnBeta);
+            kernel.affine(t, count, hidden, layer.valueWeight, layer.valueBias, v, hidden);
+            kernel.affine(v, count, hidden, layer.outWeight, layer.outBias, t, hidden);
+            addInPlace(h, t, count * hidden);
+
+            // 前馈子层
+            dyt(h, t, count, hidden, layer.dytFfnAlpha, layer.dytFfnGamma, layer.dytFfnBeta);
+            kernel.affine(t, count, hidden, layer.ffn1Weight, layer.ffn1Bias, f, ffn);
+            for (int i = 0, n = count * ffn; i < n; i++) {
+                if (f[i] < 0) {
+                    f[i] = 0;
+                }
+            }
+            kernel.affine(f, count, ffn, layer.ffn2Weight, layer.ffn2Bias, t, hidden);
+            addInPlace(h, t, count * hidden);
+        }
+
+        // 解码并与标准化后的输入比较
+        kernel.affine(h, count, hidden, w.decoderWeight, w.decoderBias, xn, in);
+        float[] mse = new float[count];
+        for (int r = 0; r < count; r++) {
+            float sum = 0;
+            for (int c = 0; c < in; c++) {
+                float d = xn[r * in + c] - x[r * in + c];
+                sum += d * d;
+            }
+            mse[r] = sum / in;
+        }
+        return mse;
+    }
+
+    private static void layerNorm(float[] src, float[] dst, int rows, int dim, float[] weight, float[] bias) {
+        for (int r = 0; r < rows; r++) {
+            int base = r * dim;
+            float mean = 0;
+            for (int c = 0; c < dim; c++) {
+                mean += src[base + c];
+            }
+            mean /= dim;
+            float var = 0;
+            for (int c = 0; c < dim; c++) {
+                float d = src[base + c] - mean;
+                var += d * d;
+            }
+            float inv = (float) (1.0 / Math.sqrt(var / dim + LAYER_NORM_EPS));
+            for (int c = 0; c < dim; c++) {
+                dst[base + c] = (src[base + c] - mean) * inv * weight[c] + bias[c];
+            }
+        }
+    }
+
+    // DyT: gamma · tanh(alpha · x) + beta
+    private static void dyt(float[] src, float[] dst, int rows, int dim,
+                            float[] alpha, float[] gamma, float[] beta) {
+        for (int r = 0; r < rows; r++) {
+            int base = r * dim;
+            for (int c = 0; c < dim; c++) {
+                dst[base + c] = gamma[c] * (float) Math.tanh(alpha[c] * src[base + c]) + beta[c];
+            }
+        }
+    }
+
+    private static void addInPlace(float[] target, float[] delta, int n) {
+        for (int i = 0; i < n; i++) {
+            target[i] += delta[i];
+        }
+    }
+
+    /**
+     * 单个推理线程的中间缓冲区，按最大批量增长
+     */
+    private static class Workspace {
+        private int capacity = 0;
+        private float[] x;
+        private float[] xn;
+        private float[] h;
+        private float[] t;
+        private float[] v;
+        private float[] f;
+
+        void ensure(int rows, int in, int hidden, int ffn) {
+            if (rows <= capacity) {
+                return;
+            }
+            capacity = Math.max(rows, capacity * 2);
+            x = new float[capacity * in];
+            xn = new float[capacity * in];
+            h = new float[capacity * hidden];
+            t = new float[capacity * hidden];
+            v = new float[capacity * hidden];
+            f = new float[capacity * ffn];
+        }
+    }
+}
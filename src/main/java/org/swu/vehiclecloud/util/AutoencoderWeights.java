@@ -0,0 +1,149 @@
+package org.swu.vehiclecloud.util;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Transformer自编码器的权重与缩放器参数
+ * <p>
+ * 由 pythonMLAnomaly/export_weights.py 导出的二进制文件加载，文件格式见该脚本说明。
+ * 推理时每条记录是长度为1的序列，注意力输出等于 out_proj(V)，只保存V投影。
+ * 矩阵均为行主序 [输出维度, 输入维度]。
+ * </p>
+ */
+public class AutoencoderWeights {
+
+    private static final String MAGIC = "VCAE";
+    private static final int VERSION = 1;
+
+    public final int inputDim;
+    public final int hiddenDim;
+    public final int ffnDim;
+
+    public final double[] scalerMean;
+    public final double[] scalerStd;
+
+    public final float[] inputNormWeight;
+    public final float[] inputNormBias;
+    public final float[] linearInWeight;
+    public final float[] linearInBias;
+    public final float[] posEmbedding;
+    public final Layer[] layers;
+    public final float[] decoderWeight;
+    public final float[] decoderBias;
+
+    // 导出时由Python计算的参考样本及其MSE，用于校验
+    public final int referenceCount;
+    public final double[] referenceFeatures;
+    public final float[] referenceMse;
+
+    /**
+     * 单个编码器层的权重
+     */
+    public static class Layer {
+        public final float[] dytAttnAlpha;
+        public final float[] dytAttnGamma;
+        public final float[] dytAttnBeta;
+        public final float[] valueWeight;
+        public final float[] valueBias;
+        public final float[] outWeight;
+        public final float[] outBias;
+        public final float[] dytFfnAlpha;
+        public final float[] dytFfnGamma;
+        public final float[] dytFfnBeta;
+        public final float[] ffn1Weight;
+        public final float[] ffn1Bias;
+        public final float[] ffn2Weight;
+        public final float[] ffn2Bias;
+
+        private Layer(ByteBuffer buf, int hidden, int ffn) {
+            dytAttnAlpha = floats(buf, hidden);
+            dytAttnGamma = floats(buf, hidden);
+            dytAttnBeta = floats(buf, hidden);
+            valueWeight = floats(buf, hidden * hidden);
+            valueBias = floats(buf, hidden);
+            outWeight = floats(buf, hidden * hidden);
+            outBias = floats(buf, hidden);
+            dytFfnAlpha = floats(buf, hidden);
+            dytFfnGamma = floats(buf, hidden);
+            dytFfnBeta = floats(buf, hidden);
+            ffn1Weight = floats(buf, ffn * hidden);
+            ffn1Bias = floats(buf, ffn);
+            ffn2Weight = floats(buf, hidden * ffn);
+            ffn2Bias = floats(buf, hidden);
+        }
+    }
+
+    private AutoencoderWeights(ByteBuffer buf) {
+        byte[] magic = new byte[4];
+        buf.get(magic);
+        if (!MAGIC.equals(new String(magic, StandardCharsets.US_ASCII))) {
+            throw new IllegalArgumentException("不是有效的自编码器权重文件");
+        }
+        int version = buf.getInt();
+        if (version != VERSION) {
+            throw new IllegalArgumentException("不支持的权重文件版本: " + version);
+        }
+        inputDim = buf.getInt();
+        hiddenDim = buf.getInt();
+        int nLayers = buf.getInt();
+        ffnDim = buf.getInt();
+
+        scalerMean = doubles(buf, inputDim);
+        scalerStd = doubles(buf, inputDim);
+        inputNormWeight = floats(buf, inputDim);
+        inputNormBias = floats(buf, inputDim);
+        linearInWeight = floats(buf, hiddenDim * inputDim);
+        linearInBias = floats(buf, hiddenDim);
+        posEmbedding = floats(buf, hiddenDim);
+        layers = new Layer[nLayers];
+        for (int i = 0; i < nLayers; i++) {
+            layers[i] = new Layer(buf, hiddenDim, ffnDim);
+        }
+        decoderWeight = floats(buf, inputDim * hiddenDim);
+        decoderBias = floats(buf, inputDim);
+
+        if (buf.remaining() >= Integer.BYTES) {
+            referenceCount = buf.getInt();
+            referenceFeatures = doubles(buf, referenceCount * inputDim);
+            referenceMse = floats(buf, referenceCount);
+        } else {
+            referenceCount = 0;
+            referenceFeatures = new double[0];
+            referenceMse = new float[0];
+        }
+    }
+
+    /**
+     * 从文件加载权重
+     * @param path 权重文件路径
+     * @return 权重
+     * @throws IOException 文件读取失败
+     */
+    public static AutoencoderWeights load(Path path) throws IOException {
+        ByteBuffer buf = ByteBuffer.wrap(Files.readAllBytes(path)).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            return new AutoencoderWeights(buf);
+        } catch (java.nio.BufferUnderflowException e) {
+            throw new IOException("权重文件不完整: " + path, e);
+        }
+    }
+
+    private static float[] floats(ByteBuffer buf, int n) {
+        float[] out = new float[n];
+        buf.asFloatBuffer().get(out);
+        buf.position(buf.position() + n * Float.BYTES);
+        return out;
+    }
+
+    private static double[] doubles(ByteBuffer buf, int n) {
+        double[] out = new double[n];
+        buf.asDoubleBuffer().get(out);
+        buf.position(buf.position() + n * Double.BYTES);
+        return out;
+    }
+}
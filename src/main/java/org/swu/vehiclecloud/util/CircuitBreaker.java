@@ -0,0 +1,76 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 简单熔断器
+ * <p>
+ * 连续失败达到阈值后进入打开状态，拒绝所有请求；
+ * 打开超过指定时间后进入半开状态，只放行一个探测请求，成功则关闭，失败则重新打开。
+ * 方法均为同步方法，可被多个线程调用。
+ * </p>
+ */
+public class CircuitBreaker {
+
+    public enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private final int failureThreshold;
+    private final long openMillis;
+
+    private State state = State.CLOSED;
+    private int consecutiveFailures = 0;
+    private long openedAt;
+    private boolean probeInFlight = false;
+
+    /**
+     * @param failureThreshold 连续失败多少次后熔断
+     * @param openMillis       熔断持续时间(毫秒)
+     */
+    public CircuitBreaker(int failureThreshold, long openMillis) {
+        this.failureThreshold = failureThreshold;
+        this.openMillis = openMillis;
+    }
+
+    /**
+     * 判断当前是否允许发出请求
+     * @param nowMillis 当前时间(毫秒)
+     * @return 允许时返回true，调用方随后必须调用onSuccess或onFailure
+     */
+    public synchronized boolean allowRequest(long nowMillis) {
+        switch (state) {
+            case CLOSED:
+                return true;
+            case OPEN:
+                if (nowMillis - openedAt < openMillis) {
+                    return false;
+                }
+                state = State.HALF_OPEN;
+                probeInFlight = true;
+                return true;
+            default:
+                // 半开状态下只放行一个探测请求
+                if (probeInFlight) {
+                    return false;
+                }
+                probeInFlight = true;
+                return true;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        probeInFlight = false;
+    }
+
+    public synchronized void onFailure(long nowMillis) {
+        consecutiveFailures++;
+        probeInFlight = false;
+        if (state == State.HALF_OPEN || consecutiveFailures >= failureThreshold) {
+            state = State.OPEN;
+            openedAt = nowMillis;
+        }
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+}
@@ -0,0 +1,101 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 单辆车的时钟偏差在线估计器
+ * <p>
+ * 对每帧的 timestampGNSS - header.timestamp 做指数加权(EWMA)的均值和方差估计，
+ * 学习该车OBU稳定的时钟偏差，只有偏离已学习偏差超过 max(k·σ, 最小偏差) 时才判定异常。
+ * 判定异常的样本按阈值截断后再参与更新，单个离群点不会拉偏估计，
+ * 持续的偏差跳变仍会被逐步学习。
+ * </p>
+ */
+public class ClockSkewEstimator {
+
+    // EWMA平滑系数
+    private final double alpha;
+
+    // 判定异常的标准差倍数
+    private final double k;
+
+    // 判定异常的最小偏差(毫秒)，避免方差很小时过于敏感
+    private final double minDeviationMs;
+
+    // 预热样本数，预热期间只按硬上限判定
+    private final int warmupSamples;
+
+    // 预热期间的硬上限(毫秒)
+    private final double hardLimitMs;
+
+    private long samples;
+    private long anomalies;
+    private double mean;
+    private double variance;
+    private long lastOffsetMs;
+
+    public ClockSkewEstimator(double alpha, double k, double minDeviationMs,
+                              int warmupSamples, double hardLimitMs) {
+        this.alpha = alpha;
+        this.k = k;
+        this.minDeviationMs = minDeviationMs;
+        this.warmupSamples = warmupSamples;
+        this.hardLimitMs = hardLimitMs;
+    }
+
+    /**
+     * 输入一帧的时钟偏差并判断是否异常
+     * @param offsetMs timestampGNSS - header.timestamp (毫秒)
+     * @return 偏离已学习偏差过大时返回true
+     */
+    public synchronized boolean observe(long offsetMs) {
+        lastOffsetMs = offsetMs;
+        samples++;
+
+        if (samples <= warmupSamples) {
+            // 预热期用普通均值/方差快速收敛
+            double delta = offsetMs - mean;
+            mean += delta / samples;
+            variance += (delta * (offsetMs - mean) - variance) / samples;
+            boolean anomalous = Math.abs(offsetMs) > hardLimitMs;
+            if (anomalous) {
+                anomalies++;
+            }
+            return anomalous;
+        }
+
+        double threshold = Math.max(k * Math.sqrt(variance), minDeviationMs);
+        double deviation = offsetMs - mean;
+        boolean anomalous = Math.abs(deviation) > threshold;
+        if (anomalous) {
+            anomalies++;
+            deviation = Math.copySign(threshold, deviation);
+        }
+        mean += alpha * deviation;
+        variance = (1 - alpha) * (variance + alpha * deviation * deviation);
+        return anomalous;
+    }
+
+    /**
+     * 将当前估计值写入快照
+     * @param snapshot 快照
+     */
+    public synchronized void snapshot(Snapshot snapshot) {
+        snapshot.samples = samples;
+        snapshot.anomalies = anomalies;
+        snapshot.offsetMs = mean;
+        snapshot.stdDevMs = Math.sqrt(variance);
+        snapshot.lastOffsetMs = lastOffsetMs;
+        snapshot.warmedUp = samples > warmupSamples;
+    }
+
+    /**
+     * 估计值快照
+     */
+    public static class Snapshot {
+        public long samples;
+        public long anomalies;
+        public double offsetMs;
+        public double stdDevMs;
+        public long lastOffsetMs;
+        public boolean warmedUp;
+    }
+}
@@ -0,0 +1,158 @@
+package org.swu.vehiclecloud.util;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * 车辆位置帧的紧凑二进制编码器，每个连接一个实例
+ * <p>
+ * 坐标以1e-6度、速度以0.01米/秒、航向以0.01度定点整数表示，
+ * 车辆ID只在该连接第一次出现时随帧发送一次，之后用整数编号代替；
+ * 经度、纬度、GNSS时间戳、速度和航向相对该连接上一次收到的同一车辆的值做差分。
+ * 整数均为LEB128变长编码，差分值先做zigzag变换。帧格式：
+ * <pre>
+ * u8     flags          bit0=1 表示解码端应清空状态(本编码器的第一帧或 reset 之后的第一帧)
+ * varint t              推送时间(毫秒)
+ * varint dictCount      新车辆数
+ *   { varint index, varint idLength, UTF-8 id } * dictCount
+ * varint count          位置数
+ *   { varint index, zigzag dLon, zigzag dLat, zigzag dTimestamp, zigzag dSpeed, zigzag dHeading } * count
+ * </pre>
+ * 差分依赖连接上的帧按序且不丢失，调用方必须把编码出的每一帧都发送出去。非线程安全。
+ * </p>
+ */
+public class CompactLocationEncoder {
+
+    public static final double SCALE = 1e6;
+
+    public static final double MOTION_SCALE = 100;
+
+    public static final int FLAG_RESET = 1;
+
+    // 车辆编号 -> 该连接上一次收到的 {经度, 纬度, 时间戳, 速度, 航向}
+    private final Map<Integer, long[]> last = new HashMap<>();
+
+    private boolean first = true;
+
+    private byte[] dict = new byte[256];
+    private int dictLength;
+    private int dictCount;
+
+    private byte[] body = new byte[1024];
+    private int bodyLength;
+    private int bodyCount;
+
+    /**
+     * 追加一辆车的位置
+     * @param index         车辆编号，同一车辆在连接的生命周期内不变
+     * @param vehicleId     车辆ID，第一次出现时写入帧
+     * @param longitude     经度
+     * @param latitude      纬度
+     * @param timestampGNSS GNSS时间戳(毫秒)
+     * @param speed         速度(米/秒)
+     * @param heading       航向(度)
+     */
+    public void add(int index, String vehicleId, double longitude, double latitude, long timestampGNSS,
+                    double speed, double heading) {
+        long lon = Math.round(longitude * SCALE);
+        long lat = Math.round(latitude * SCALE);
+        long spd = Math.round(speed * MOTION_SCALE);
+        long hdg = Math.round(heading * MOTION_SCALE);
+        long[] prev = last.get(index);
+        if (prev == null) {
+            prev = new long[5];
+            last.put(index, prev);
+            byte[] id = vehicleId.getBytes(StandardCharsets.UTF_8);
+            ensureDict(10 + 5 + id.length);
+            dictLength = writeVarint(dict, dictLength, index);
+            dictLength = writeVarint(dict, dictLength, id.length);
+            System.arraycopy(id, 0, dict, dictLength, id.length);
+            dictLength += id.length;
+            dictCount++;
+        }
+        ensureBody(5 + 5 * 10);
+        bodyLength = writeVarint(body, bodyLength, index);
+        bodyLength = writeVarint(body, bodyLength, zigzag(lon - prev[0]));
+        bodyLength = writeVarint(body, bodyLength, zigzag(lat - prev[1]));
+        bodyLength = writeVarint(body, bodyLength, zigzag(timestampGNSS - prev[2]));
+        bodyLength = writeVarint(body, bodyLength, zigzag(spd - prev[3]));
+        bodyLength = writeVarint(body, bodyLength, zigzag(hdg - prev[4]));
+        bodyCount++;
+        prev[0] = lon;
+        prev[1] = lat;
+        prev[2] = timestampGNSS;
+        prev[3] = spd;
+        prev[4] = hdg;
+    }
+
+    /**
+     * 清空差分状态和车辆字典，下一帧带清空标记，之后出现的车辆重新发送ID
+     * <p>须在两帧之间调用，用于释放已被清理的车辆编号</p>
+     */
+    public void reset() {
+        last.clear();
+        first = true;
+    }
+
+    /**
+     * @return 当前保留差分状态的车辆数
+     */
+    public int size() {
+        return last.size();
+    }
+
+    /**
+     * 结束当前帧并返回编码结果，之后可继续追加下一帧
+     * @param t 推送时间(毫秒)
+     * @return 可直接发送的缓冲区
+     */
+    public ByteBuffer finish(long t) {
+        byte[] header = new byte[1 + 10 + 5];
+        header[0] = (byte) (first ? FLAG_RESET : 0);
+        int headerLength = writeVarint(header, 1, t);
+        headerLength = writeVarint(header, headerLength, dictCount);
+        byte[] countBytes = new byte[5];
+        int countLength = writeVarint(countBytes, 0, bodyCount);
+
+        ByteBuffer frame = ByteBuffer.allocate(headerLength + dictLength + countLength + bodyLength);
+        frame.put(header, 0, headerLength)
+                .put(dict, 0, dictLength)
+                .put(countBytes, 0, countLength)
+                .put(body, 0, bodyLength)
+                .flip();
+        first = false;
+        dictLength = 0;
+        dictCount = 0;
+        bodyLength = 0;
+        bodyCount = 0;
+        return frame;
+    }
+
+    private void ensureDict(int extra) {
+        if (dictLength + extra > dict.length) {
+            dict = Arrays.copyOf(dict, Math.max(dict.length * 2, dictLength + extra));
+        }
+    }
+
+    private void ensureBody(int extra) {
+        if (bodyLength + extra > body.length) {
+            body = Arrays.copyOf(body, Math.max(body.length * 2, bodyLength + extra));
+        }
+    }
+
+    private static long zigzag(long value) {
+        return (value << 1) ^ (value >> 63);
+    }
+
+    private static int writeVarint(byte[] buf, int pos, long value) {
+        while ((value & ~0x7FL) != 0) {
+            buf[pos++] = (byte) ((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        buf[pos++] = (byte) value;
+        return pos;
+    }
+}
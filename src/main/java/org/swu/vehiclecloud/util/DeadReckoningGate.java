@@ -0,0 +1,111 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 单辆车的航位推算推送门限
+ * <p>
+ * 记录最近一次推送给前端的位置、速度和航向(锚点)，前端按同一公式从锚点外推车辆当前位置：
+ * 外推时间 dt = min(max(当前时间 - 锚点GNSS时间, 0), 最长外推时间)，
+ * 沿航向(正北为0度，顺时针)前进 速度 × dt，经纬度按锚点纬度做局部平面换算。
+ * 新一帧的真实位置与外推位置的偏差超过容差，或距上次推送超过心跳间隔时才再次推送并更新锚点，
+ * 平稳行驶的车辆因此只在转弯、变速时推送。
+ * </p>
+ * <p>
+ * 该类非线程安全，调用方需在车辆锁内访问。
+ * </p>
+ */
+public class DeadReckoningGate {
+
+    /**
+     * 门限判定结果
+     */
+    public enum Decision {
+        // 外推位置在容差内，不推送
+        SUPPRESS,
+        // 该车第一帧
+        INITIAL,
+        // 外推偏差超过容差
+        DEVIATION,
+        // 超过心跳间隔未推送
+        HEARTBEAT
+    }
+
+    // 外推偏差容差(米)
+    private final double toleranceMeters;
+
+    // 最长推送间隔(毫秒)，车辆静止或匀速时也按该间隔推送一次
+    private final long heartbeatMillis;
+
+    // 前端最长外推时间(毫秒)，超过后前端停在外推终点
+    private final long maxExtrapolateMillis;
+
+    private boolean hasAnchor = false;
+    private double anchorLatitude;
+    private double anchorLongitude;
+    private long anchorTimeMillis;
+    // 锚点速度在正北、正东方向的分量(米/秒)
+    private double anchorNorthMps;
+    private double anchorEastMps;
+
+    private double lastErrorMeters;
+
+    /**
+     * @param toleranceMeters      外推偏差容差(米)，不大于0时每帧都推送
+     * @param heartbeatMillis      最长推送间隔(毫秒)
+     * @param maxExtrapolateMillis 前端最长外推时间(毫秒)
+     */
+    public DeadReckoningGate(double toleranceMeters, long heartbeatMillis, long maxExtrapolateMillis) {
+        this.toleranceMeters = toleranceMeters;
+        this.heartbeatMillis = heartbeatMillis;
+        this.maxExtrapolateMillis = Math.max(0, maxExtrapolateMillis);
+    }
+
+    /**
+     * 输入一帧位置，判断是否需要推送；需要推送时以该帧为新的锚点
+     * @param longitude  经度(度)
+     * @param latitude   纬度(度)
+     * @param timeMillis GNSS时间戳(毫秒)
+     * @param speedMps   速度(米/秒)
+     * @param headingDeg 航向(度，正北为0，顺时针)
+     * @return 判定结果，除 SUPPRESS 外均需推送
+     */
+    public Decision offer(double longitude, double latitude, long timeMillis, double speedMps, double headingDeg) {
+        Decision decision;
+        if (!hasAnchor) {
+            lastErrorMeters = 0;
+            decision = Decision.INITIAL;
+        } else {
+            lastErrorMeters = errorMeters(longitude, latitude, timeMillis);
+            if (toleranceMeters <= 0 || lastErrorMeters > toleranceMeters) {
+                decision = Decision.DEVIATION;
+            } else if (timeMillis - anchorTimeMillis >= heartbeatMillis) {
+                decision = Decision.HEARTBEAT;
+            } else {
+                return Decision.SUPPRESS;
+            }
+        }
+        double heading = Math.toRadians(headingDeg);
+        hasAnchor = true;
+        anchorLatitude = latitude;
+        anchorLongitude = longitude;
+        anchorTimeMillis = timeMillis;
+        anchorNorthMps = speedMps * Math.cos(heading);
+        anchorEastMps = speedMps * Math.sin(heading);
+        return decision;
+    }
+
+    /**
+     * @return 最近一帧与外推位置的偏差(米)
+     */
+    public double getLastErrorMeters() {
+        return lastErrorMeters;
+    }
+
+    // 真实位置与锚点外推位置的偏差，在锚点处的局部平面内计算
+    private double errorMeters(double longitude, double latitude, long timeMillis) {
+        double seconds = Math.min(Math.max(timeMillis - anchorTimeMillis, 0), maxExtrapolateMillis) / 1000.0;
+        double north = Math.toRadians(latitude - anchorLatitude) * GeoMath.EARTH_RADIUS_METERS;
+        double east = Math.toRadians(longitude - anchorLongitude) * GeoMath.EARTH_RADIUS_METERS
+                * Math.cos(Math.toRadians(anchorLatitude));
+        return Math.hypot(north - anchorNorthMps * seconds, east - anchorEastMps * seconds);
+    }
+}
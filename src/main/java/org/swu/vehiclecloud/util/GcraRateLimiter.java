@@ -0,0 +1,67 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 无锁令牌桶限流器(GCRA，通用信元速率算法)
+ * <p>
+ * 只维护一个"理论到达时间"(TAT)：每放行一次TAT向后推一个发放间隔，
+ * TAT超前当前时间不超过 (burst-1) 个间隔时允许放行，等价于容量为burst、速率为rate的令牌桶。
+ * 状态是单个AtomicLong，通过CAS更新，多个线程并发调用不会在监视器上排队。
+ * </p>
+ */
+public class GcraRateLimiter {
+
+    private final double ratePerSecond;
+    private final int burst;
+
+    // 发放间隔(纳秒)
+    private final long emissionIntervalNanos;
+
+    // 允许TAT超前当前时间的最大值(纳秒)
+    private final long toleranceNanos;
+
+    private final AtomicLong theoreticalArrival;
+
+    /**
+     * @param ratePerSecond 每秒放行次数，不大于0表示不限流
+     * @param burst         突发容量，至少为1
+     */
+    public GcraRateLimiter(double ratePerSecond, int burst) {
+        this.ratePerSecond = ratePerSecond;
+        this.burst = Math.max(1, burst);
+        this.emissionIntervalNanos = ratePerSecond > 0 ? Math.max(1, (long) (1e9 / ratePerSecond)) : 0;
+        this.toleranceNanos = emissionIntervalNanos * (this.burst - 1);
+        this.theoreticalArrival = new AtomicLong(System.nanoTime());
+    }
+
+    /**
+     * 尝试放行一次
+     * @param nowNanos 当前时间(System.nanoTime)
+     * @return 允许放行返回true
+     */
+    public boolean tryAcquire(long nowNanos) {
+        if (emissionIntervalNanos == 0) {
+            return true;
+        }
+        while (true) {
+            long tat = theoreticalArrival.get();
+            // nanoTime可能回绕，只比较差值
+            long base = tat - nowNanos > 0 ? tat : nowNanos;
+            if (base - nowNanos > toleranceNanos) {
+                return false;
+            }
+            if (theoreticalArrival.compareAndSet(tat, base + emissionIntervalNanos)) {
+                return true;
+            }
+        }
+    }
+
+    public double getRatePerSecond() {
+        return ratePerSecond;
+    }
+
+    public int getBurst() {
+        return burst;
+    }
+}
@@ -0,0 +1,137 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 单辆车的地理位置跳变检测器
+ * <p>
+ * 用相邻两帧的大圆距离和GNSS时间差计算隐含速度，
+ * 位移超过最小跳变距离且隐含速度超过物理上限时判定为位置跳变。
+ * 判定为跳变的帧不会成为新的锚点，后续帧仍与最后一个可信位置比较，
+ * 避免一次跳变后“跳回”的正常位置也被误判。
+ * 若锚点本身不可信(首帧定位错误、离线期间车辆被移动)，后续正常帧会持续被判定为跳变；
+ * 因此连续 reanchorFrames 帧被判定为跳变、且彼此之间没有跳变时，以最后一帧为新的锚点，该帧不再判定为跳变。
+ * GNSS时间不前进(乱序或重复时间戳)的帧无法计算速度，直接跳过且不更新锚点。
+ * 检测过程不分配对象。
+ * </p>
+ * <p>
+ * 该类非线程安全，调用方需在车辆锁内访问。
+ * </p>
+ */
+public class GeoJumpDetector {
+
+    // 隐含速度上限(米/秒)
+    private final double maxSpeedMps;
+
+    // 最小跳变距离(米)，低于该值的位移视为定位抖动
+    private final double minJumpMeters;
+
+    // 连续多少帧彼此一致的跳变帧后重新选定锚点，不大于0时不重新选定
+    private final int reanchorFrames;
+
+    private boolean hasPrevious = false;
+    private double previousLatitude;
+    private double previousLongitude;
+    private long previousTimeMillis;
+
+    // 最近一个被判定为跳变的帧，及与其一致的连续跳变帧数
+    private int candidateCount = 0;
+    private double candidateLatitude;
+    private double candidateLongitude;
+    private long candidateTimeMillis;
+
+    private double lastDistanceMeters;
+    private double lastImpliedSpeedMps;
+
+    /**
+     * @param maxSpeedMps    隐含速度上限(米/秒)
+     * @param minJumpMeters  最小跳变距离(米)
+     * @param reanchorFrames 连续多少帧彼此一致的跳变帧后重新选定锚点，不大于0时不重新选定
+     */
+    public GeoJumpDetector(double maxSpeedMps, double minJumpMeters, int reanchorFrames) {
+        this.maxSpeedMps = maxSpeedMps;
+        this.minJumpMeters = minJumpMeters;
+        this.reanchorFrames = reanchorFrames;
+    }
+
+    /**
+     * 输入一帧位置并判断相对上一帧是否发生不可能的跳变
+     * @param latitude   纬度(度)
+     * @param longitude  经度(度)
+     * @param timeMillis GNSS时间戳(毫秒)
+     * @return 发生位置跳变时返回true
+     */
+    public boolean check(double latitude, double longitude, long timeMillis) {
+        if (!hasPrevious) {
+            update(latitude, longitude, timeMillis);
+            hasPrevious = true;
+            lastDistanceMeters = 0;
+            lastImpliedSpeedMps = 0;
+            return false;
+        }
+
+        long elapsedMillis = timeMillis - previousTimeMillis;
+        if (elapsedMillis <= 0) {
+            // 时间不前进时无法计算隐含速度，跳过该帧
+            lastDistanceMeters = 0;
+            lastImpliedSpeedMps = 0;
+            return false;
+        }
+
+        double distance = GeoMath.haversineMeters(previousLatitude, previousLongitude, latitude, longitude);
+        lastDistanceMeters = distance;
+        lastImpliedSpeedMps = distance * 1000.0 / elapsedMillis;
+        boolean jump = distance > minJumpMeters && lastImpliedSpeedMps > maxSpeedMps;
+        if (!jump) {
+            update(latitude, longitude, timeMillis);
+            candidateCount = 0;
+            return false;
+        }
+
+        // 与上一个跳变帧之间也没有跳变时累计，否则从该帧重新计数
+        if (candidateCount > 0 && !isJump(candidateLatitude, candidateLongitude, candidateTimeMillis,
+                latitude, longitude, timeMillis)) {
+            candidateCount++;
+        } else {
+            candidateCount = 1;
+        }
+        candidateLatitude = latitude;
+        candidateLongitude = longitude;
+        candidateTimeMillis = timeMillis;
+        if (reanchorFrames > 0 && candidateCount >= reanchorFrames) {
+            // 原锚点不可信，以一致的跳变帧为新锚点
+            update(latitude, longitude, timeMillis);
+            candidateCount = 0;
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * @return 最近一帧与上一帧的距离(米)
+     */
+    public double getLastDistanceMeters() {
+        return lastDistanceMeters;
+    }
+
+    /**
+     * @return 最近一帧的隐含速度(米/秒)
+     */
+    public double getLastImpliedSpeedMps() {
+        return lastImpliedSpeedMps;
+    }
+
+    private boolean isJump(double fromLatitude, double fromLongitude, long fromTimeMillis,
+                           double latitude, double longitude, long timeMillis) {
+        double distance = GeoMath.haversineMeters(fromLatitude, fromLongitude, latitude, longitude);
+        if (distance <= minJumpMeters) {
+            return false;
+        }
+        long elapsedMillis = timeMillis - fromTimeMillis;
+        return elapsedMillis <= 0 || distance * 1000.0 / elapsedMillis > maxSpeedMps;
+    }
+
+    private void update(double latitude, double longitude, long timeMillis) {
+        previousLatitude = latitude;
+        previousLongitude = longitude;
+        previousTimeMillis = timeMillis;
+    }
+}
@@ -0,0 +1,33 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 地理坐标计算工具类
+ */
+public final class GeoMath {
+
+    /**
+     * 地球平均半径(米)
+     */
+    public static final double EARTH_RADIUS_METERS = 6_371_008.8;
+
+    private GeoMath() {
+    }
+
+    /**
+     * 使用haversine公式计算两点间的大圆距离
+     * @param lat1 起点纬度(度)
+     * @param lon1 起点经度(度)
+     * @param lat2 终点纬度(度)
+     * @param lon2 终点经度(度)
+     * @return 距离(米)
+     */
+    public static double haversineMeters(double lat1, double lon1, double lat2, double lon2) {
+        double phi1 = Math.toRadians(lat1);
+        double phi2 = Math.toRadians(lat2);
+        double sinDPhi = Math.sin((phi2 - phi1) * 0.5);
+        double sinDLambda = Math.sin(Math.toRadians(lon2 - lon1) * 0.5);
+        double h = sinDPhi * sinDPhi + Math.cos(phi1) * Math.cos(phi2) * sinDLambda * sinDLambda;
+        // 舍入误差可能使h略大于1
+        return 2 * EARTH_RADIUS_METERS * Math.asin(Math.sqrt(Math.min(1.0, h)));
+    }
+}
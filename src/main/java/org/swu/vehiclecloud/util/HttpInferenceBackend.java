@@ -0,0 +1,99 @@
+package org.swu.vehiclecloud.util;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 基于HTTP的推理后端
+ * <p>
+ * 将一批特征POST到 pythonMLAnomaly 服务的 /detect-anomaly/batch 接口。
+ * 共用一个HttpClient，连接在请求之间保持复用(keep-alive)。
+ * </p>
+ */
+public class HttpInferenceBackend implements InferenceBackend {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final HttpClient httpClient;
+    private final URI batchUri;
+    private final Duration requestTimeout;
+
+    /**
+     * @param baseUrl          推理服务地址，如 http://127.0.0.1:8081
+     * @param connectTimeoutMs 连接超时(毫秒)
+     * @param requestTimeoutMs 请求超时(毫秒)
+     */
+    public HttpInferenceBackend(String baseUrl, long connectTimeoutMs, long requestTimeoutMs) {
+        this.httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        this.batchUri = URI.create(baseUrl.replaceAll("/+$", "") + "/detect-anomaly/batch");
+        this.requestTimeout = Duration.ofMillis(requestTimeoutMs);
+    }
+
+    @Override
+    public CompletableFuture<float[]> score(double[] features, int count, int dim) {
+        String body;
+        try {
+            body = buildRequest(features, count, dim);
+        } catch (JsonProcessingException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        HttpRequest request = HttpRequest.newBuilder(batchUri)
+                .timeout(requestTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return httpClient.sendAsync(request, HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> parseResponse(response, count));
+    }
+
+    @Override
+    public String name() {
+        return "http(" + batchUri + ")";
+    }
+
+    private static String buildRequest(double[] features, int count, int dim) throws JsonProcessingException {
+        ObjectNode root = objectMapper.createObjectNode();
+        ArrayNode rows = root.putArray("features");
+        for (int r = 0; r < count; r++) {
+            ArrayNode row = rows.addArray();
+            for (int c = 0; c < dim; c++) {
+                row.add(features[r * dim + c]);
+            }
+        }
+        return objectMapper.writeValueAsString(root);
+    }
+
+    private static float[] parseResponse(HttpResponse<byte[]> response, int count) {
+        if (response.statusCode() != 200) {
+            throw new IllegalStateException("推理服务返回状态码 " + response.statusCode());
+        }
+        JsonNode mseNode;
+        try {
+            mseNode = objectMapper.readTree(response.body()).get("mse");
+        } catch (IOException e) {
+            throw new IllegalStateException("推理服务响应解析失败: " + e.getMessage(), e);
+        }
+        if (mseNode == null || !mseNode.isArray() || mseNode.size() != count) {
+            throw new IllegalStateException("推理服务响应的mse数量与请求不一致");
+        }
+        float[] mse = new float[count];
+        for (int i = 0; i < count; i++) {
+            mse[i] = (float) mseNode.get(i).asDouble();
+        }
+        return mse;
+    }
+}
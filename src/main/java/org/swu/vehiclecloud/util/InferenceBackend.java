@@ -0,0 +1,28 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 自编码器推理后端接口
+ * <p>输入按行排列的批量特征，返回每行的重构误差(MSE)</p>
+ */
+public interface InferenceBackend extends AutoCloseable {
+
+    /**
+     * 对一批特征进行推理
+     * @param features 按行排列的原始(未标准化)特征，长度至少为 count * dim
+     * @param count    行数
+     * @param dim      每行特征维度
+     * @return 每行的重构误差，推理失败时以异常完成
+     */
+    CompletableFuture<float[]> score(double[] features, int count, int dim);
+
+    /**
+     * @return 后端名称，用于日志
+     */
+    String name();
+
+    @Override
+    default void close() {
+    }
+}
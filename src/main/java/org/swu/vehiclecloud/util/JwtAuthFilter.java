@@ -8,6 +8,7 @@ import org.springframework.security.web.authentication.WebAuthenticationDetailsS
 import jakarta.servlet.annotation.WebFilter;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
+import org.swu.vehiclecloud.controller.TelemetryFeedEndpoint;
 import org.swu.vehiclecloud.exception.JwtIsExpiredException;
 import org.swu.vehiclecloud.exception.JwtParseFailedException;
 
@@ -32,9 +33,10 @@ public class JwtAuthFilter implements Filter{
             // 获取请求路径
             String requestURI = httpRequest.getRequestURI();
 
-            // 排除登录和注册接口，登录不需要进行JWT认证
+            // 排除登录和注册接口，登录不需要进行JWT认证；WebSocket位置订阅在端点内校验token参数
             if (requestURI.equals("/api/usermanage/public/login")
-                    || requestURI.equals("/api/usermanage/public/register")) {
+                    || requestURI.equals("/api/usermanage/public/register")
+                    || requestURI.equals(TelemetryFeedEndpoint.PATH)) {
                 // 不进行拦截，直接传递请求
                 chain.doFilter(request, response);
                 return;
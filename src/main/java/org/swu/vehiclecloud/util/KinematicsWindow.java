@@ -0,0 +1,105 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 单辆车的运动学滑动窗口
+ * <p>
+ * 以环形数组保存最近若干帧的GNSS时间、速度和航向，
+ * 用窗口首尾两帧的差分估计纵向加速度，用航向变化率与平均速度估计横向加速度。
+ * 时间跨度不足最小跨度时不给出估计，避免相邻帧差分放大噪声。添加样本不分配对象。
+ * </p>
+ * <p>
+ * 该类非线程安全，调用方需在车辆锁内访问。
+ * </p>
+ */
+public class KinematicsWindow {
+
+    // 环形数组容量（2的幂）
+    private static final int CAPACITY = 32;
+    private static final int MASK = CAPACITY - 1;
+
+    private final long[] times = new long[CAPACITY];
+    private final double[] speeds = new double[CAPACITY];
+    private final double[] headings = new double[CAPACITY];
+
+    // 差分窗口最大时间跨度(毫秒)
+    private final long windowMillis;
+
+    // 差分窗口最小时间跨度(毫秒)
+    private final long minSpanMillis;
+
+    // 下一个写入位置与样本数
+    private int next = 0;
+    private int size = 0;
+
+    private double accelerationLon;
+    private double accelerationLat;
+
+    /**
+     * @param windowMillis  差分窗口最大时间跨度(毫秒)
+     * @param minSpanMillis 差分窗口最小时间跨度(毫秒)
+     */
+    public KinematicsWindow(long windowMillis, long minSpanMillis) {
+        this.windowMillis = windowMillis;
+        this.minSpanMillis = minSpanMillis;
+    }
+
+    /**
+     * 添加一帧并更新加速度估计
+     * @param timeMillis GNSS时间戳(毫秒)
+     * @param speedMps   速度(米/秒)
+     * @param headingDeg 航向(度)
+     * @return 本帧得到有效的加速度估计时返回true
+     */
+    public boolean add(long timeMillis, double speedMps, double headingDeg) {
+        if (size > 0 && timeMillis <= times[(next - 1) & MASK]) {
+            // 时间不前进的帧不参与差分
+            return false;
+        }
+        times[next] = timeMillis;
+        speeds[next] = speedMps;
+        headings[next] = headingDeg;
+        next = (next + 1) & MASK;
+        if (size < CAPACITY) {
+            size++;
+        }
+
+        // 从最早的样本开始，找到第一个落在窗口内的样本作为差分起点
+        for (int i = size - 1; i >= 1; i--) {
+            int idx = (next - 1 - i) & MASK;
+            long span = timeMillis - times[idx];
+            if (span > windowMillis) {
+                continue;
+            }
+            if (span < minSpanMillis) {
+                return false;
+            }
+            double seconds = span / 1000.0;
+            accelerationLon = (speedMps - speeds[idx]) / seconds;
+
+            double headingDelta = headingDeg - headings[idx];
+            if (headingDelta > 180) {
+                headingDelta -= 360;
+            } else if (headingDelta < -180) {
+                headingDelta += 360;
+            }
+            double yawRate = Math.toRadians(headingDelta) / seconds;
+            accelerationLat = (speedMps + speeds[idx]) * 0.5 * yawRate;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * @return 最近一次估计的纵向加速度(米/秒²)，加速为正
+     */
+    public double getAccelerationLon() {
+        return accelerationLon;
+    }
+
+    /**
+     * @return 最近一次估计的横向加速度(米/秒²)，右转为正
+     */
+    public double getAccelerationLat() {
+        return accelerationLat;
+    }
+}
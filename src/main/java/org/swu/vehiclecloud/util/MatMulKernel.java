@@ -0,0 +1,35 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 自编码器前向计算使用的仿射变换内核
+ * <p>
+ * 目前只提供标量实现；Vector API 仍处于孵化阶段，需要编译和运行时都额外添加模块，暂不引入。
+ * </p>
+ */
+public interface MatMulKernel {
+
+    /**
+     * out[r, o] = bias[o] + Σk in[r, k] · weight[o, k]
+     * @param in     输入，行主序 [rows, inDim]
+     * @param rows   行数
+     * @param inDim  输入维度
+     * @param weight 权重，行主序 [outDim, inDim]
+     * @param bias   偏置 [outDim]
+     * @param out    输出，行主序 [rows, outDim]
+     * @param outDim 输出维度
+     */
+    void affine(float[] in, int rows, int inDim, float[] weight, float[] bias, float[] out, int outDim);
+
+    /**
+     * @return 内核名称，用于日志
+     */
+    String name();
+
+    /**
+     * 选择当前运行时可用的最快实现
+     * @return 内核实例
+     */
+    static MatMulKernel best() {
+        return new ScalarMatMulKernel();
+    }
+}
@@ -0,0 +1,56 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.Map;
+
+/**
+ * 机器学习异常检测的特征提取工具类
+ * <p>
+ * 特征顺序与 pythonMLAnomaly/main.py 中 parse_record_from_model 保持一致：
+ * header.timestamp, velocityGNSS, longitude, latitude, elevation, heading,
+ * tapPos, steeringAngle, engineTorque, timestampGNSS, messageId, passPointsNum
+ * </p>
+ */
+public final class MlFeatureExtractor {
+
+    /**
+     * 特征维度
+     */
+    public static final int FEATURE_DIM = 12;
+
+    private MlFeatureExtractor() {
+    }
+
+    /**
+     * 从解析后的MQTT数据中提取特征
+     * @param payload 包含header和body的数据帧
+     * @param out     输出数组，使用双精度以保留时间戳、消息编号等大数值特征的精度
+     * @param offset  写入起始位置
+     * @return 必需字段齐全并写入成功时返回true
+     */
+    @SuppressWarnings("unchecked")
+    public static boolean extract(Map<String, Object> payload, double[] out, int offset) {
+        Map<String, Object> header = (Map<String, Object>) payload.get("header");
+        Map<String, Object> body = (Map<String, Object>) payload.get("body");
+        if (header == null || body == null) {
+            return false;
+        }
+        Map<String, Object> position = (Map<String, Object>) body.get("position");
+        if (position == null) {
+            return false;
+        }
+        Object[] values = {
+                header.get("timestamp"), body.get("velocityGNSS"),
+                position.get("longitude"), position.get("latitude"), position.get("elevation"),
+                body.get("heading"), body.get("tapPos"), body.get("steeringAngle"),
+                body.get("engineTorque"), body.get("timestampGNSS"), body.get("messageId"),
+                body.get("passPointsNum")
+        };
+        for (int i = 0; i < FEATURE_DIM; i++) {
+            if (!(values[i] instanceof Number)) {
+                return false;
+            }
+            out[offset + i] = ((Number) values[i]).doubleValue();
+        }
+        return true;
+    }
+}
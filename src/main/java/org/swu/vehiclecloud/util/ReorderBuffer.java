@@ -0,0 +1,300 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * 按消息编号(messageId)排序的有界重排缓冲区
+ * <p>
+ * 用于单辆车的数据帧：乱序到达的帧在缓冲区内最多等待一个时间预算，
+ * 缺失的帧补齐后按编号顺序释放；超过预算仍未到达的编号视为丢失并跳过。
+ * 已释放编号通过滑动位图去重，重复帧和迟到帧直接丢弃。
+ * </p>
+ * <p>
+ * 该类非线程安全，调用方需保证同一车辆的缓冲区在同一把锁内访问。
+ * </p>
+ *
+ * @param <T> 数据帧类型
+ */
+public class ReorderBuffer<T> {
+
+    /**
+     * 去重位图覆盖的历史编号数量（必须为2的幂）
+     */
+    public static final int HISTORY_SIZE = 1024;
+
+    /**
+     * 去重位图，第 (seq & (HISTORY_SIZE-1)) 位表示编号seq是否已释放
+     */
+    private final long[] history = new long[HISTORY_SIZE / 64];
+
+    // 待释放帧的环形槽位，下标为 seq & mask
+    private final Object[] slots;
+    private final long[] slotSeq;
+    private final long[] slotArrival;
+    private final int mask;
+
+    // 单帧最长等待时间(纳秒)
+    private final long budgetNanos;
+
+    // 全车队共享的计数器，可为null
+    private final Counters fleetCounters;
+
+    // 下一个期望释放的编号
+    private long nextSeq;
+    private boolean started = false;
+
+    // 缓冲区中等待的帧数量
+    private int pending = 0;
+
+    // 等待帧中最早到达时间的下界，没有等待帧时为Long.MAX_VALUE
+    private long oldestArrival = Long.MAX_VALUE;
+
+    // 单车计数器
+    private long released;
+    private long late;
+    private long dropped;
+    private long duplicate;
+
+    /**
+     * @param capacity      缓冲区容量，会向上取整为2的幂
+     * @param budgetMillis  单帧最长等待时间(毫秒)
+     * @param fleetCounters 全车队共享计数器，可为null
+     */
+    public ReorderBuffer(int capacity, long budgetMillis, Counters fleetCounters) {
+        int size = Integer.highestOneBit(Math.max(2, capacity) - 1) << 1;
+        if (size > HISTORY_SIZE) {
+            throw new IllegalArgumentException("重排缓冲区容量不能超过 " + HISTORY_SIZE);
+        }
+        this.slots = new Object[size];
+        this.slotSeq = new long[size];
+        this.slotArrival = new long[size];
+        this.mask = size - 1;
+        this.budgetNanos = budgetMillis * 1_000_000L;
+        this.fleetCounters = fleetCounters;
+    }
+
+    /**
+     * 放入一帧数据，并按顺序释放所有可以释放的帧
+     *
+     * @param seq       消息编号
+     * @param frame     数据帧
+     * @param nowNanos  当前时间(System.nanoTime)
+     * @param sink      按编号顺序接收释放帧的回调
+     */
+    public void offer(long seq, T frame, long nowNanos, Consumer<T> sink) {
+        if (!started) {
+            nextSeq = seq;
+            started = true;
+        }
+
+        if (seq < nextSeq) {
+            long behind = nextSeq - seq;
+            if (behind <= HISTORY_SIZE) {
+                if (isReleased(seq)) {
+                    // 已经释放过的编号，重复帧
+                    duplicate++;
+                    if (fleetCounters != null) fleetCounters.duplicate.increment();
+                } else {
+                    // 该编号已被判定丢失并跳过，迟到帧
+                    late++;
+                    if (fleetCounters != null) fleetCounters.late.increment();
+                }
+                return;
+            }
+            // 编号大幅回退，视为车端计数器重置
+            resync(seq, sink);
+        } else if (seq - nextSeq > HISTORY_SIZE) {
+            // 编号大幅前跳，同样视为计数器重置，不计入丢失
+            resync(seq, sink);
+        } else if (seq - nextSeq > mask) {
+            // 超出缓冲区窗口，跳过最早的缺口为新帧腾出位置
+            skipTo(seq - mask, sink);
+        }
+
+        int idx = (int) (seq & mask);
+        if (slots[idx] != null) {
+            duplicate++;
+            if (fleetCounters != null) fleetCounters.duplicate.increment();
+            return;
+        }
+        slots[idx] = frame;
+        slotSeq[idx] = seq;
+        slotArrival[idx] = nowNanos;
+        pending++;
+        oldestArrival = Math.min(oldestArrival, nowNanos);
+
+        drain(sink);
+        flushExpired(nowNanos, sink);
+    }
+
+    /**
+     * 释放等待超过时间预算的帧，其前面缺失的编号记为丢失
+     * <p>
+     * 先用最早到达时间的下界判断，下界未超时则直接返回；
+     * 下界超时后才扫描槽位求出准确值，因此每帧的开销为常数，扫描最多每个时间预算发生一次。
+     * </p>
+     *
+     * @param nowNanos 当前时间(System.nanoTime)
+     * @param sink     按编号顺序接收释放帧的回调
+     */
+    public void flushExpired(long nowNanos, Consumer<T> sink) {
+        while (pending > 0) {
+            if (nowNanos - oldestArrival < budgetNanos) {
+                return;
+            }
+            // 下界对应的帧可能已释放，重新计算
+            long earliestSeq = Long.MAX_VALUE;
+            long oldest = Long.MAX_VALUE;
+            for (int i = 0; i <= mask; i++) {
+                if (slots[i] != null) {
+                    earliestSeq = Math.min(earliestSeq, slotSeq[i]);
+                    oldest = Math.min(oldest, slotArrival[i]);
+                }
+            }
+            oldestArrival = oldest;
+            if (nowNanos - oldest < budgetNanos) {
+                return;
+            }
+            skipTo(earliestSeq, sink);
+        }
+    }
+
+    /**
+     * 按顺序释放缓冲区中的全部帧，缺口记为丢失（车辆下线清理时使用）
+     *
+     * @param sink 按编号顺序接收释放帧的回调
+     */
+    public void drainAll(Consumer<T> sink) {
+        while (pending > 0) {
+            long earliestSeq = Long.MAX_VALUE;
+            for (int i = 0; i <= mask; i++) {
+                if (slots[i] != null) {
+                    earliestSeq = Math.min(earliestSeq, slotSeq[i]);
+                }
+            }
+            skipTo(earliestSeq, sink);
+        }
+    }
+
+    public int getPending() {
+        return pending;
+    }
+
+    public long getReleased() {
+        return released;
+    }
+
+    public long getLate() {
+        return late;
+    }
+
+    public long getDropped() {
+        return dropped;
+    }
+
+    public long getDuplicate() {
+        return duplicate;
+    }
+
+    // 跳过 [nextSeq, target) 之间未到达的编号，途中释放已到达的帧
+    private void skipTo(long target, Consumer<T> sink) {
+        while (nextSeq < target) {
+            int idx = (int) (nextSeq & mask);
+            if (slots[idx] != null) {
+                release(idx, sink);
+            } else {
+                markReleased(nextSeq, false);
+                nextSeq++;
+                dropped++;
+                if (fleetCounters != null) fleetCounters.dropped.increment();
+            }
+        }
+        drain(sink);
+    }
+
+    // 从nextSeq开始释放连续到达的帧
+    private void drain(Consumer<T> sink) {
+        while (pending > 0) {
+            int idx = (int) (nextSeq & mask);
+            if (slots[idx] == null) {
+                return;
+            }
+            release(idx, sink);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void release(int idx, Consumer<T> sink) {
+        T frame = (T) slots[idx];
+        slots[idx] = null;
+        if (--pending == 0) {
+            oldestArrival = Long.MAX_VALUE;
+        }
+        markReleased(nextSeq, true);
+        nextSeq++;
+        released++;
+        if (fleetCounters != null) fleetCounters.released.increment();
+        // 先更新状态再回调，回调抛出异常时缓冲区仍保持一致
+        sink.accept(frame);
+    }
+
+    // 计数器重置：释放剩余帧后从新编号重新开始
+    private void resync(long seq, Consumer<T> sink) {
+        while (pending > 0) {
+            long earliestSeq = Long.MAX_VALUE;
+            int earliestIdx = -1;
+            for (int i = 0; i <= mask; i++) {
+                if (slots[i] != null && slotSeq[i] < earliestSeq) {
+                    earliestSeq = slotSeq[i];
+                    earliestIdx = i;
+                }
+            }
+            nextSeq = earliestSeq;
+            release(earliestIdx, sink);
+        }
+        Arrays.fill(history, 0L);
+        nextSeq = seq;
+    }
+
+    private boolean isReleased(long seq) {
+        int bit = (int) (seq & (HISTORY_SIZE - 1));
+        return (history[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private void markReleased(long seq, boolean value) {
+        int bit = (int) (seq & (HISTORY_SIZE - 1));
+        if (value) {
+            history[bit >>> 6] |= 1L << bit;
+        } else {
+            history[bit >>> 6] &= ~(1L << bit);
+        }
+    }
+
+    /**
+     * 全车队共享的重排计数器
+     */
+    public static class Counters {
+        private final LongAdder released = new LongAdder();
+        private final LongAdder late = new LongAdder();
+        private final LongAdder dropped = new LongAdder();
+        private final LongAdder duplicate = new LongAdder();
+
+        public long getReleased() {
+            return released.sum();
+        }
+
+        public long getLate() {
+            return late.sum();
+        }
+
+        public long getDropped() {
+            return dropped.sum();
+        }
+
+        public long getDuplicate() {
+            return duplicate.sum();
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 固定容量的滑动窗口统计
+ * <p>
+ * 基于环形数组维护最近 capacity 个样本的和与平方和，O(1) 计算均值和标准差。
+ * 每写满一轮按窗口内样本重新求和，消除浮点累计误差。添加样本不分配对象。
+ * </p>
+ * <p>
+ * 该类非线程安全，调用方需在车辆锁内访问。
+ * </p>
+ */
+public class RollingWindow {
+
+    private final double[] values;
+
+    private int next = 0;
+    private int size = 0;
+    private double sum = 0;
+    private double sumSq = 0;
+
+    /**
+     * @param capacity 窗口容量(样本数)
+     */
+    public RollingWindow(int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("窗口容量必须大于0");
+        }
+        this.values = new double[capacity];
+    }
+
+    /**
+     * 添加一个样本，窗口已满时替换最早的样本
+     * @param value 样本值
+     */
+    public void add(double value) {
+        if (size == values.length) {
+            double old = values[next];
+            sum -= old;
+            sumSq -= old * old;
+        } else {
+            size++;
+        }
+        values[next] = value;
+        sum += value;
+        sumSq += value * value;
+        next++;
+        if (next == values.length) {
+            next = 0;
+            recompute();
+        }
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public double mean() {
+        return size == 0 ? 0 : sum / size;
+    }
+
+    /**
+     * @return 窗口内样本的总体标准差
+     */
+    public double stdDev() {
+        if (size == 0) {
+            return 0;
+        }
+        double mean = sum / size;
+        return Math.sqrt(Math.max(0, sumSq / size - mean * mean));
+    }
+
+    private void recompute() {
+        double s = 0;
+        double sq = 0;
+        for (int i = 0; i < size; i++) {
+            s += values[i];
+            sq += values[i] * values[i];
+        }
+        sum = s;
+        sumSq = sq;
+    }
+}
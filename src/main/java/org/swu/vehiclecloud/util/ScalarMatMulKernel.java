@@ -0,0 +1,37 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 标量仿射变换内核
+ * <p>内层按权重行连续访问，使用四路独立累加器减少浮点加法的依赖链</p>
+ */
+public class ScalarMatMulKernel implements MatMulKernel {
+
+    @Override
+    public void affine(float[] in, int rows, int inDim, float[] weight, float[] bias, float[] out, int outDim) {
+        int upper = inDim & ~3;
+        for (int r = 0; r < rows; r++) {
+            int inBase = r * inDim;
+            int outBase = r * outDim;
+            for (int o = 0; o < outDim; o++) {
+                int wBase = o * inDim;
+                float s0 = 0, s1 = 0, s2 = 0, s3 = 0;
+                int k = 0;
+                for (; k < upper; k += 4) {
+                    s0 += in[inBase + k] * weight[wBase + k];
+                    s1 += in[inBase + k + 1] * weight[wBase + k + 1];
+                    s2 += in[inBase + k + 2] * weight[wBase + k + 2];
+                    s3 += in[inBase + k + 3] * weight[wBase + k + 3];
+                }
+                for (; k < inDim; k++) {
+                    s0 += in[inBase + k] * weight[wBase + k];
+                }
+                out[outBase + o] = bias[o] + (s0 + s1) + (s2 + s3);
+            }
+        }
+    }
+
+    @Override
+    public String name() {
+        return "scalar";
+    }
+}
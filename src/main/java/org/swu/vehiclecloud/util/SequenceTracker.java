@@ -0,0 +1,220 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.Arrays;
+
+/**
+ * 单辆车消息编号(messageId)连续性跟踪器
+ * <p>
+ * 使用以最大编号为右端的滑动位图记录最近 WINDOW_SIZE 个编号的到达情况：
+ * <ul>
+ *   <li>编号滑出窗口时仍未到达，计为丢失，并按连续丢失长度统计缺口直方图</li>
+ *   <li>比当前最大编号小的帧补齐空位，计为乱序，并统计乱序深度直方图</li>
+ *   <li>位图中已置位的编号再次到达，计为重复</li>
+ * </ul>
+ * 记录的是原始到达顺序，不受重排缓冲区影响。方法均为同步方法，可被多个线程调用。
+ * </p>
+ */
+public class SequenceTracker {
+
+    /**
+     * 滑动位图窗口大小（必须为2的幂）
+     */
+    public static final int WINDOW_SIZE = 1024;
+
+    /**
+     * 直方图分桶上界：1, 2, 3-4, 5-8, 9-16, 17-32, 33-64, >64
+     */
+    public static final String[] HISTOGRAM_LABELS = {"1", "2", "3-4", "5-8", "9-16", "17-32", "33-64", ">64"};
+
+    // 编号大幅跳变时视为车端计数器重置
+    private static final long RESET_DISTANCE = WINDOW_SIZE * 16L;
+
+    private final long[] window = new long[WINDOW_SIZE / 64];
+
+    private boolean started = false;
+    private long first;
+    private long highest;
+
+    // 正在滑出窗口的连续丢失长度
+    private long currentRun = 0;
+
+    private long received;
+    private long duplicates;
+    private long reordered;
+    private long lost;
+    private long lateBeyondWindow;
+    private long resets;
+    private long lastReorderDepth;
+    private long maxReorderDepth;
+    private final long[] gapHistogram = new long[HISTOGRAM_LABELS.length];
+    private final long[] reorderHistogram = new long[HISTOGRAM_LABELS.length];
+
+    // 最近一次到达时间(毫秒)
+    private volatile long lastSeenMillis = System.currentTimeMillis();
+
+    /**
+     * 记录一个到达的消息编号
+     * @param seq 消息编号
+     */
+    public synchronized void record(long seq) {
+        lastSeenMillis = System.currentTimeMillis();
+        if (!started || seq - highest > RESET_DISTANCE || highest - seq > RESET_DISTANCE) {
+            if (started) {
+                resets++;
+            }
+            restart(seq);
+            return;
+        }
+
+        if (seq > highest) {
+            advance(seq);
+            setBit(seq);
+            received++;
+            return;
+        }
+
+        long depth = highest - seq;
+        if (depth >= WINDOW_SIZE || seq < first) {
+            // 已经滑出窗口并计为丢失的编号
+            lateBeyondWindow++;
+            return;
+        }
+        if (getBit(seq)) {
+            duplicates++;
+            return;
+        }
+        setBit(seq);
+        received++;
+        reordered++;
+        lastReorderDepth = depth;
+        maxReorderDepth = Math.max(maxReorderDepth, depth);
+        reorderHistogram[bucket(depth)]++;
+    }
+
+    /**
+     * @return 窗口内尚未到达的编号数
+     */
+    public synchronized long getWindowHoles() {
+        long span = getWindowSpan();
+        long set = 0;
+        for (long word : window) {
+            set += Long.bitCount(word);
+        }
+        // 窗口中first之前的位在初始化时全部置位，不计入空位
+        return span - (set - (WINDOW_SIZE - span));
+    }
+
+    /**
+     * @return 窗口覆盖的有效编号数
+     */
+    public synchronized long getWindowSpan() {
+        return started ? Math.min(WINDOW_SIZE, highest - first + 1) : 0;
+    }
+
+    public long getLastSeenMillis() {
+        return lastSeenMillis;
+    }
+
+    /**
+     * 将当前统计写入快照对象
+     * @param snapshot 快照
+     */
+    public synchronized void snapshot(Snapshot snapshot) {
+        snapshot.received = received;
+        snapshot.duplicates = duplicates;
+        snapshot.reordered = reordered;
+        snapshot.lost = lost;
+        snapshot.lateBeyondWindow = lateBeyondWindow;
+        snapshot.resets = resets;
+        snapshot.highest = highest;
+        snapshot.lastReorderDepth = lastReorderDepth;
+        snapshot.maxReorderDepth = maxReorderDepth;
+        snapshot.windowSpan = getWindowSpan();
+        snapshot.windowHoles = getWindowHoles();
+        System.arraycopy(gapHistogram, 0, snapshot.gapHistogram, 0, gapHistogram.length);
+        System.arraycopy(reorderHistogram, 0, snapshot.reorderHistogram, 0, reorderHistogram.length);
+    }
+
+    // 最大编号前移，滑出窗口的位置若未到达则计为丢失
+    private void advance(long seq) {
+        long distance = seq - highest;
+        long steps = Math.min(distance, WINDOW_SIZE);
+        for (long s = highest + 1; s < highest + 1 + steps; s++) {
+            // 编号s与s-WINDOW_SIZE共用同一位，先结算被挤出的旧编号
+            evict(getBit(s));
+            clearBit(s);
+        }
+        if (distance > WINDOW_SIZE) {
+            // 从未进入窗口就被跳过的编号
+            long skipped = distance - WINDOW_SIZE;
+            lost += skipped;
+            currentRun += skipped;
+        }
+        highest = seq;
+    }
+
+    private void evict(boolean arrived) {
+        if (arrived) {
+            if (currentRun > 0) {
+                gapHistogram[bucket(currentRun)]++;
+                currentRun = 0;
+            }
+        } else {
+            lost++;
+            currentRun++;
+        }
+    }
+
+    private void restart(long seq) {
+        // first之前的位置视为已到达，避免滑出时被计为丢失
+        Arrays.fill(window, -1L);
+        started = true;
+        first = seq;
+        highest = seq;
+        currentRun = 0;
+        received++;
+    }
+
+    private boolean getBit(long seq) {
+        int bit = (int) (seq & (WINDOW_SIZE - 1));
+        return (window[bit >>> 6] & (1L << bit)) != 0;
+    }
+
+    private void setBit(long seq) {
+        int bit = (int) (seq & (WINDOW_SIZE - 1));
+        window[bit >>> 6] |= 1L << bit;
+    }
+
+    private void clearBit(long seq) {
+        int bit = (int) (seq & (WINDOW_SIZE - 1));
+        window[bit >>> 6] &= ~(1L << bit);
+    }
+
+    // 按2的幂分桶：1, 2, 3-4, 5-8, ..., >64
+    private static int bucket(long value) {
+        if (value <= 1) {
+            return 0;
+        }
+        int b = 64 - Long.numberOfLeadingZeros(value - 1);
+        return Math.min(b, HISTOGRAM_LABELS.length - 1);
+    }
+
+    /**
+     * 统计快照，可复用以避免分配
+     */
+    public static class Snapshot {
+        public long received;
+        public long duplicates;
+        public long reordered;
+        public long lost;
+        public long lateBeyondWindow;
+        public long resets;
+        public long highest;
+        public long lastReorderDepth;
+        public long maxReorderDepth;
+        public long windowSpan;
+        public long windowHoles;
+        public final long[] gapHistogram = new long[HISTOGRAM_LABELS.length];
+        public final long[] reorderHistogram = new long[HISTOGRAM_LABELS.length];
+    }
+}
@@ -0,0 +1,169 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+
+/**
+ * 经纬度矩形的均匀网格索引
+ * <p>
+ * 把每个矩形登记到它覆盖的所有网格单元，查询一个点时只检查该点所在单元中的矩形，
+ * 代价与矩形总数无关。覆盖单元数超过上限的大矩形不拆分，放入单独的列表逐个检查。
+ * 不处理跨越180度经线的矩形。方法均为同步方法，可被多个线程调用。
+ * </p>
+ *
+ * @param <K> 矩形所属对象的类型，同一对象只保留最后一次登记的矩形
+ */
+public class SpatialGridIndex<K> {
+
+    private final double cellDegrees;
+
+    private final int maxCellsPerEntry;
+
+    // 网格单元 -> 覆盖该单元的矩形
+    private final Map<Long, List<Entry<K>>> cells = new HashMap<>();
+
+    // 覆盖单元数超过上限的矩形
+    private final List<Entry<K>> wide = new ArrayList<>();
+
+    private final Map<K, Entry<K>> entries = new HashMap<>();
+
+    /**
+     * @param cellDegrees      网格单元边长(度)
+     * @param maxCellsPerEntry 单个矩形最多登记的单元数
+     */
+    public SpatialGridIndex(double cellDegrees, int maxCellsPerEntry) {
+        if (!(cellDegrees > 0)) {
+            throw new IllegalArgumentException("网格单元边长必须大于0");
+        }
+        this.cellDegrees = cellDegrees;
+        this.maxCellsPerEntry = Math.max(1, maxCellsPerEntry);
+    }
+
+    /**
+     * 登记或替换对象的矩形
+     * @param key    所属对象
+     * @param minLon 最小经度
+     * @param minLat 最小纬度
+     * @param maxLon 最大经度
+     * @param maxLat 最大纬度
+     */
+    public synchronized void put(K key, double minLon, double minLat, double maxLon, double maxLat) {
+        if (!(minLon <= maxLon && minLat <= maxLat)
+                || minLon < -180 || maxLon > 180 || minLat < -90 || maxLat > 90) {
+            throw new IllegalArgumentException("经纬度范围非法");
+        }
+        remove(key);
+        Entry<K> entry = new Entry<>(key, minLon, minLat, maxLon, maxLat);
+        int x0 = cell(minLon);
+        int x1 = cell(maxLon);
+        int y0 = cell(minLat);
+        int y1 = cell(maxLat);
+        if ((long) (x1 - x0 + 1) * (y1 - y0 + 1) > maxCellsPerEntry) {
+            wide.add(entry);
+        } else {
+            entry.cellKeys = new long[(x1 - x0 + 1) * (y1 - y0 + 1)];
+            int i = 0;
+            for (int x = x0; x <= x1; x++) {
+                for (int y = y0; y <= y1; y++) {
+                    long cellKey = cellKey(x, y);
+                    entry.cellKeys[i++] = cellKey;
+                    cells.computeIfAbsent(cellKey, k -> new ArrayList<>(2)).add(entry);
+                }
+            }
+        }
+        entries.put(key, entry);
+    }
+
+    /**
+     * 移除对象的矩形
+     * @param key 所属对象
+     */
+    public synchronized void remove(K key) {
+        Entry<K> entry = entries.remove(key);
+        if (entry == null) {
+            return;
+        }
+        if (entry.cellKeys == null) {
+            wide.remove(entry);
+            return;
+        }
+        for (long cellKey : entry.cellKeys) {
+            List<Entry<K>> list = cells.get(cellKey);
+            list.remove(entry);
+            if (list.isEmpty()) {
+                cells.remove(cellKey);
+            }
+        }
+    }
+
+    /**
+     * 找出包含给定点的全部矩形
+     * @param lon      经度
+     * @param lat      纬度
+     * @param consumer 对每个包含该点的矩形的所属对象调用一次
+     */
+    public synchronized void query(double lon, double lat, Consumer<K> consumer) {
+        List<Entry<K>> list = cells.get(cellKey(cell(lon), cell(lat)));
+        if (list != null) {
+            for (Entry<K> entry : list) {
+                if (entry.contains(lon, lat)) {
+                    consumer.accept(entry.key);
+                }
+            }
+        }
+        for (Entry<K> entry : wide) {
+            if (entry.contains(lon, lat)) {
+                consumer.accept(entry.key);
+            }
+        }
+    }
+
+    /**
+     * 判断给定点是否在对象登记的矩形内
+     * @param key 所属对象
+     * @param lon 经度
+     * @param lat 纬度
+     * @return 对象未登记时返回false
+     */
+    public synchronized boolean contains(K key, double lon, double lat) {
+        Entry<K> entry = entries.get(key);
+        return entry != null && entry.contains(lon, lat);
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private int cell(double degrees) {
+        return (int) Math.floor(degrees / cellDegrees);
+    }
+
+    private static long cellKey(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static final class Entry<K> {
+        final K key;
+        final double minLon;
+        final double minLat;
+        final double maxLon;
+        final double maxLat;
+        // 登记的网格单元，大矩形为null
+        long[] cellKeys;
+
+        Entry(K key, double minLon, double minLat, double maxLon, double maxLat) {
+            this.key = key;
+            this.minLon = minLon;
+            this.minLat = minLat;
+            this.maxLon = maxLon;
+            this.maxLat = maxLat;
+        }
+
+        boolean contains(double lon, double lat) {
+            return lon >= minLon && lon <= maxLon && lat >= minLat && lat <= maxLat;
+        }
+    }
+}
@@ -0,0 +1,104 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * 单个SSE数据流的有界重放环
+ * <p>
+ * 按事件ID递增顺序保存最近 capacity 条事件，满后覆盖最早的事件。
+ * 客户端断线重连时按 Last-Event-ID 二分查找，取回其后的全部事件；
+ * 若其后有事件已被覆盖(或ID来自重启之前)，返回null，由调用方通知客户端重新拉取全量数据。
+ * 方法均为同步方法，可被多个线程调用。
+ * </p>
+ */
+public class SseReplayBuffer {
+
+    private final Event[] ring;
+
+    // 最早一条事件在环中的位置
+    private int start = 0;
+    private int size = 0;
+
+    // 已被覆盖的最大事件ID，初始为本进程第一个事件ID之前的值
+    private long evictedUpTo;
+
+    /**
+     * @param capacity 保存的事件数量
+     * @param floorId  本进程事件ID的起点，不大于该值的ID视为已丢失
+     */
+    public SseReplayBuffer(int capacity, long floorId) {
+        this.ring = new Event[Math.max(1, capacity)];
+        this.evictedUpTo = floorId;
+    }
+
+    /**
+     * 追加一条事件，ID必须大于已追加的全部事件
+     * @param event 事件
+     */
+    public synchronized void append(Event event) {
+        if (size == ring.length) {
+            evictedUpTo = ring[start].id;
+            ring[start] = event;
+            start = (start + 1) % ring.length;
+        } else {
+            ring[(start + size) % ring.length] = event;
+            size++;
+        }
+    }
+
+    /**
+     * 取回ID大于 lastEventId 的全部事件
+     * @param lastEventId 客户端最后收到的事件ID
+     * @return 按ID递增排列的事件；其后有事件已丢失时返回null
+     */
+    public synchronized List<Event> after(long lastEventId) {
+        if (lastEventId < evictedUpTo) {
+            return null;
+        }
+        // 二分查找第一个ID大于lastEventId的逻辑位置
+        int lo = 0;
+        int hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (ring[(start + mid) % ring.length].id <= lastEventId) {
+                lo = mid + 1;
+            } else {
+                hi = mid;
+            }
+        }
+        if (lo == size) {
+            return Collections.emptyList();
+        }
+        List<Event> result = new ArrayList<>(size - lo);
+        for (int i = lo; i < size; i++) {
+            result.add(ring[(start + i) % ring.length]);
+        }
+        return result;
+    }
+
+    /**
+     * @return 最后追加的事件ID，尚未追加过事件时返回起点ID
+     */
+    public synchronized long lastId() {
+        return size == 0 ? evictedUpTo : ring[(start + size - 1) % ring.length].id;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * 带ID的推送事件
+     */
+    public static final class Event {
+        public final long id;
+        public final String content;
+
+        public Event(long id, String content) {
+            this.id = id;
+            this.content = content;
+        }
+    }
+}
@@ -0,0 +1,132 @@
+package org.swu.vehiclecloud.util;
+
+/**
+ * 单辆车的流式统计异常评分器
+ * <p>
+ * 对速度、航向变化率、方向盘转角和发动机扭矩四个特征分别维护指数加权(EWMA)的均值和方差，
+ * 每帧计算各特征的z分数，以z²的平均值作为综合异常分数。
+ * 预热期间只学习不评分，预热结束后每帧仍会先评分再更新估计以跟随工况缓慢变化；
+ * 参与更新的z分数按上限截断，单个离群帧不会拉偏估计。
+ * 评分过程不分配对象。
+ * </p>
+ * <p>
+ * 该类非线程安全，调用方需在车辆锁内调用 {@link #score}；最近分数可在锁外读取。
+ * </p>
+ */
+public class StreamingAnomalyScorer {
+
+    /**
+     * 特征名称，顺序与内部数组一致
+     */
+    public static final String[] FEATURES = {"speed", "headingRate", "steeringAngle", "engineTorque"};
+
+    // 各特征标准差下限：米/秒、度/秒、度、牛·米，避免特征长期不变时过于敏感
+    private static final double[] MIN_STD_DEV = {0.5, 2.0, 1.0, 5.0};
+
+    private static final int N = FEATURES.length;
+
+    private final double alpha;
+    private final int warmupSamples;
+    private final double zClip;
+
+    private final double[] mean = new double[N];
+    private final double[] variance = new double[N];
+    private final double[] current = new double[N];
+
+    private boolean hasPrevious = false;
+    private double previousHeading;
+    private long previousTimeMillis;
+
+    // 样本数，锁内写入，可在锁外读取
+    private volatile long samples;
+
+    // 最近一帧的综合异常分数
+    private volatile double lastScore;
+
+    /**
+     * @param alpha         EWMA平滑系数
+     * @param warmupSamples 预热样本数
+     * @param zClip         参与更新的z分数上限
+     */
+    public StreamingAnomalyScorer(double alpha, int warmupSamples, double zClip) {
+        this.alpha = alpha;
+        this.warmupSamples = warmupSamples;
+        this.zClip = zClip;
+    }
+
+    /**
+     * 输入一帧并计算综合异常分数
+     * @param timeMillis    GNSS时间戳(毫秒)
+     * @param speedMps      速度(米/秒)
+     * @param headingDeg    航向(度)
+     * @param steeringAngle 方向盘转角(度)
+     * @param engineTorque  发动机扭矩(牛·米)
+     * @return 综合异常分数，无法评分(首帧、时间不前进或预热期)时返回0
+     */
+    public double score(long timeMillis, double speedMps, double headingDeg,
+                        double steeringAngle, double engineTorque) {
+        if (!hasPrevious || timeMillis <= previousTimeMillis) {
+            if (!hasPrevious) {
+                hasPrevious = true;
+                previousHeading = headingDeg;
+                previousTimeMillis = timeMillis;
+            }
+            lastScore = 0;
+            return 0;
+        }
+
+        double headingDelta = headingDeg - previousHeading;
+        if (headingDelta > 180) {
+            headingDelta -= 360;
+        } else if (headingDelta < -180) {
+            headingDelta += 360;
+        }
+        current[0] = speedMps;
+        current[1] = headingDelta * 1000.0 / (timeMillis - previousTimeMillis);
+        current[2] = steeringAngle;
+        current[3] = engineTorque;
+        previousHeading = headingDeg;
+        previousTimeMillis = timeMillis;
+
+        samples++;
+        if (samples <= warmupSamples) {
+            // 预热期用普通均值/方差快速收敛
+            for (int i = 0; i < N; i++) {
+                double delta = current[i] - mean[i];
+                mean[i] += delta / samples;
+                variance[i] += (delta * (current[i] - mean[i]) - variance[i]) / samples;
+            }
+            lastScore = 0;
+            return 0;
+        }
+
+        double sumSq = 0;
+        for (int i = 0; i < N; i++) {
+            double stdDev = Math.max(Math.sqrt(variance[i]), MIN_STD_DEV[i]);
+            double z = (current[i] - mean[i]) / stdDev;
+            sumSq += z * z;
+
+            // 截断后更新，单个离群帧最多移动 alpha·zClip 个标准差
+            double deviation = Math.max(-zClip, Math.min(zClip, z)) * stdDev;
+            mean[i] += alpha * deviation;
+            variance[i] = (1 - alpha) * (variance[i] + alpha * deviation * deviation);
+        }
+        double score = sumSq / N;
+        lastScore = score;
+        return score;
+    }
+
+    /**
+     * @return 最近一帧的综合异常分数
+     */
+    public double getLastScore() {
+        return lastScore;
+    }
+
+    /**
+     * @return 是否已完成预热
+     */
+    public boolean isWarmedUp() {
+        return samples > warmupSamples;
+    }
+}
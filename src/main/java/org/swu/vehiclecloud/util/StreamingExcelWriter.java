@@ -0,0 +1,143 @@
+package org.swu.vehiclecloud.util;
+
+import org.apache.poi.ss.SpreadsheetVersion;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.List;
+
+/**
+ * 流式Excel(.xlsx)写入器
+ * <p>
+ * 基于 SXSSFWorkbook，内存中只保留最近 rowWindow 行，更早的行压缩写入临时文件，
+ * 内存占用与导出行数无关。列宽按写入内容的字符数计算(中文等全角字符按两个字符计)，
+ * 在输出前一次设置，不使用逐行测量字体的 autoSizeColumn。
+ * 单个工作表写满Excel行数上限后自动新建工作表并重复表头。
+ * </p>
+ * <p>
+ * 该类非线程安全；用完必须调用 {@link #close()} 删除临时文件。
+ * </p>
+ */
+public class StreamingExcelWriter implements Closeable {
+
+    /**
+     * 默认在内存中保留的行数
+     */
+    public static final int DEFAULT_ROW_WINDOW = 500;
+
+    // 列宽上限(字符)
+    private static final int MAX_COLUMN_CHARS = 60;
+
+    private static final int MAX_ROWS_PER_SHEET = SpreadsheetVersion.EXCEL2007.getMaxRows();
+
+    private final SXSSFWorkbook workbook;
+
+    private final String sheetName;
+
+    private final List<String> headers;
+
+    // 每列出现过的最大显示宽度(字符)
+    private final int[] widths;
+
+    private SXSSFSheet sheet;
+    private int sheetCount = 0;
+    private int rowNum;
+    private long totalRows = 0;
+
+    /**
+     * @param sheetName 工作表名称，超过行数上限时后续工作表名加序号
+     * @param headers   表头
+     * @param rowWindow 内存中保留的行数
+     */
+    public StreamingExcelWriter(String sheetName, List<String> headers, int rowWindow) {
+        this.workbook = new SXSSFWorkbook(rowWindow);
+        this.workbook.setCompressTempFiles(true);
+        this.sheetName = sheetName;
+        this.headers = headers;
+        this.widths = new int[headers.size()];
+        newSheet();
+    }
+
+    /**
+     * 写入一行；值为null的列不创建单元格，数值写为数字单元格，其余写为字符串
+     * @param values 按表头顺序排列的值，长度不超过表头列数
+     */
+    public void writeRow(Object[] values) {
+        if (rowNum >= MAX_ROWS_PER_SHEET) {
+            newSheet();
+        }
+        Row row = sheet.createRow(rowNum++);
+        for (int i = 0; i < values.length; i++) {
+            Object value = values[i];
+            if (value == null) {
+                continue;
+            }
+            if (value instanceof Number) {
+                double number = ((Number) value).doubleValue();
+                row.createCell(i).setCellValue(number);
+                track(i, value.toString());
+            } else {
+                String text = value.toString();
+                row.createCell(i).setCellValue(text);
+                track(i, text);
+            }
+        }
+        totalRows++;
+    }
+
+    /**
+     * 设置列宽并把工作簿写入输出流，不关闭输出流
+     * @param out 输出流
+     */
+    public void writeTo(OutputStream out) throws IOException {
+        for (int s = 0; s < workbook.getNumberOfSheets(); s++) {
+            SXSSFSheet target = workbook.getSheetAt(s);
+            for (int i = 0; i < widths.length; i++) {
+                target.setColumnWidth(i, (Math.min(widths[i], MAX_COLUMN_CHARS) + 2) * 256);
+            }
+        }
+        workbook.write(out);
+    }
+
+    /**
+     * @return 已写入的数据行数，不含表头
+     */
+    public long getTotalRows() {
+        return totalRows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        // 删除临时文件
+        workbook.dispose();
+        workbook.close();
+    }
+
+    private void newSheet() {
+        sheetCount++;
+        sheet = workbook.createSheet(sheetCount == 1 ? sheetName : sheetName + "_" + sheetCount);
+        Row headerRow = sheet.createRow(0);
+        for (int i = 0; i < headers.size(); i++) {
+            headerRow.createCell(i).setCellValue(headers.get(i));
+            track(i, headers.get(i));
+        }
+        rowNum = 1;
+    }
+
+    private void track(int column, String text) {
+        if (text.length() * 2 <= widths[column]) {
+            return;
+        }
+        int width = 0;
+        for (int i = 0; i < text.length() && width <= MAX_COLUMN_CHARS; i++) {
+            width += text.charAt(i) < 0x2E80 ? 1 : 2;
+        }
+        if (width > widths[column]) {
+            widths[column] = width;
+        }
+    }
+}
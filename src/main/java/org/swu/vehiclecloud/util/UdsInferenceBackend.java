@@ -0,0 +1,237 @@
+package org.swu.vehiclecloud.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 基于Unix域套接字的二进制推理后端
+ * <p>
+ * 与 pythonMLAnomaly/main.py 中的UDS服务通过长度前缀帧通信(小端)：
+ * <pre>
+ * 请求: int32 len | int64 requestId | int32 count | int32 dim | float64[count*dim] 原始特征
+ * 响应: int32 len | int64 requestId | int32 status | status=0 时 int32 count | float32[count] MSE
+ *                                                  | status!=0 时 UTF-8 错误信息
+ * </pre>
+ * len 为其后的字节数。响应的 count 必须等于请求的样本数，否则该请求以异常完成。
+ * 请求按编号流水线发送，不等待前一个响应；
+ * 独立的读线程按编号完成对应的Future，因此允许多个批请求同时在途、响应乱序返回。
+ * 连接断开时所有在途请求以异常完成，下一次请求时自动重连。
+ * </p>
+ */
+public class UdsInferenceBackend implements InferenceBackend {
+
+    private static final Logger log = LoggerFactory.getLogger(UdsInferenceBackend.class);
+
+    // 单帧最大长度，防止读到损坏的长度字段时分配过大内存
+    private static final int MAX_FRAME_BYTES = 64 * 1024 * 1024;
+
+    private static final int REQUEST_HEADER_BYTES = 8 + 4 + 4;
+
+    private final UnixDomainSocketAddress address;
+
+    private final AtomicLong nextRequestId = new AtomicLong();
+
+    // 请求编号 -> 等待响应的请求
+    private final Map<Long, Pending> pending = new ConcurrentHashMap<>();
+
+    // 当前连接，断开后置为null；连接建立和写入均在 this 锁内进行
+    private SocketChannel channel;
+
+    // 复用的写缓冲区，仅在 this 锁内使用
+    private ByteBuffer writeBuffer = ByteBuffer.allocateDirect(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+
+    private volatile boolean closed = false;
+
+    /**
+     * @param socketPath 推理服务监听的套接字文件路径
+     */
+    public UdsInferenceBackend(String socketPath) {
+        this.address = UnixDomainSocketAddress.of(Path.of(socketPath));
+    }
+
+    @Override
+    public CompletableFuture<float[]> score(double[] features, int count, int dim) {
+        long requestId = nextRequestId.incrementAndGet();
+        CompletableFuture<float[]> future = new CompletableFuture<>();
+        pending.put(requestId, new Pending(future, count));
+        // 响应到达或连接断开时移除；调用方对结果的超时不会结束在途请求
+        future.whenComplete((mse, ex) -> pending.remove(requestId));
+        try {
+            send(requestId, features, count, dim);
+        } catch (IOException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @Override
+    public String name() {
+        return "uds(" + address.getPath() + ")";
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        disconnect(channel, new IOException("推理后端已关闭"));
+    }
+
+    private synchronized void send(long requestId, double[] features, int count, int dim) throws IOException {
+        if (closed) {
+            throw new IOException("推理后端已关闭");
+        }
+        SocketChannel ch = connect();
+        int payload = REQUEST_HEADER_BYTES + count * dim * Double.BYTES;
+        ByteBuffer buf = writeBuffer(4 + payload);
+        buf.putInt(payload).putLong(requestId).putInt(count).putInt(dim);
+        for (int i = 0, n = count * dim; i < n; i++) {
+            buf.putDouble(features[i]);
+        }
+        buf.flip();
+        try {
+            while (buf.hasRemaining()) {
+                ch.write(buf);
+            }
+        } catch (IOException e) {
+            disconnect(ch, e);
+            throw e;
+        }
+    }
+
+    private SocketChannel connect() throws IOException {
+        if (channel != null) {
+            return channel;
+        }
+        SocketChannel ch = SocketChannel.open(StandardProtocolFamily.UNIX);
+        try {
+            ch.connect(address);
+        } catch (IOException e) {
+            ch.close();
+            throw e;
+        }
+        channel = ch;
+        Thread reader = new Thread(() -> readLoop(ch), "ml-uds-reader");
+        reader.setDaemon(true);
+        reader.start();
+        log.info("已连接推理服务套接字 {}", address.getPath());
+        return ch;
+    }
+
+    private ByteBuffer writeBuffer(int size) {
+        if (writeBuffer.capacity() < size) {
+            writeBuffer = ByteBuffer.allocateDirect(Integer.highestOneBit(size - 1) << 1).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        writeBuffer.clear();
+        return writeBuffer;
+    }
+
+    // 读线程：逐帧读取响应并完成对应的Future，连接断开后退出
+    private void readLoop(SocketChannel ch) {
+        ByteBuffer lengthBuf = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+        ByteBuffer frame = ByteBuffer.allocate(64 * 1024).order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            while (true) {
+                lengthBuf.clear();
+                readFully(ch, lengthBuf);
+                int length = lengthBuf.getInt(0);
+                if (length < 12 || length > MAX_FRAME_BYTES) {
+                    throw new IOException("推理服务响应帧长度非法: " + length);
+                }
+                if (frame.capacity() < length) {
+                    frame = ByteBuffer.allocate(Integer.highestOneBit(length - 1) << 1).order(ByteOrder.LITTLE_ENDIAN);
+                }
+                frame.clear().limit(length);
+                readFully(ch, frame);
+                frame.flip();
+                complete(frame);
+            }
+        } catch (IOException e) {
+            synchronized (this) {
+                disconnect(ch, e);
+            }
+        }
+    }
+
+    private void complete(ByteBuffer frame) throws IOException {
+        long requestId = frame.getLong();
+        int status = frame.getInt();
+        Pending request = pending.get(requestId);
+        if (status != 0) {
+            byte[] message = new byte[frame.remaining()];
+            frame.get(message);
+            if (request != null) {
+                request.future.completeExceptionally(new IllegalStateException(
+                        "推理服务返回错误: " + new String(message, StandardCharsets.UTF_8)));
+            }
+            return;
+        }
+        int count = frame.getInt();
+        if (count < 0 || frame.remaining() != count * Float.BYTES) {
+            throw new IOException("推理服务响应的mse数量与帧长度不一致");
+        }
+        if (request == null) {
+            return;
+        }
+        if (count != request.count) {
+            // 帧本身完整，只让该请求失败，由调用方计入熔断失败
+            request.future.completeExceptionally(new IllegalStateException(
+                    "推理服务返回 " + count + " 个mse, 请求样本数为 " + request.count));
+            return;
+        }
+        float[] mse = new float[count];
+        frame.asFloatBuffer().get(mse);
+        request.future.complete(mse);
+    }
+
+    private static void readFully(SocketChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) {
+                throw new EOFException("推理服务关闭了连接");
+            }
+        }
+    }
+
+    // 关闭连接并让所有在途请求失败，调用方需持有 this 锁
+    private void disconnect(SocketChannel ch, IOException cause) {
+        if (ch == null || ch != channel) {
+            return;
+        }
+        channel = null;
+        try {
+            ch.close();
+        } catch (IOException ignored) {
+        }
+        if (!closed) {
+            log.warn("推理服务套接字连接断开: {}", cause.getMessage());
+        }
+        for (Pending request : pending.values()) {
+            request.future.completeExceptionally(cause);
+        }
+    }
+
+    /**
+     * 在途请求及其样本数
+     */
+    private static final class Pending {
+        final CompletableFuture<float[]> future;
+        final int count;
+
+        Pending(CompletableFuture<float[]> future, int count) {
+            this.future = future;
+            this.count = count;
+        }
+    }
+}
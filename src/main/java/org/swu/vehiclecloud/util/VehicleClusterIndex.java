@@ -0,0 +1,295 @@
+package org.swu.vehiclecloud.util;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * 多缩放级别的车辆位置网格聚类索引
+ * <p>
+ * 每个缩放级别一张网格，单元边长对应地图上固定的像素数(按256像素瓦片换算为经纬度)。
+ * 车辆位置更新时只调整它在各级别所在的单元：单元不变时更新坐标和，变化时从旧单元移到新单元，
+ * 因此维护代价与级别数成正比，与车辆总数无关。查询只返回视野内的非空单元，结果数量由视野像素大小决定；
+ * 超过上限时自动退到更粗的级别。方法均为同步方法，可被多个线程调用。
+ * </p>
+ */
+public class VehicleClusterIndex {
+
+    private final int minZoom;
+
+    private final int maxZoom;
+
+    // 各级别单元边长(度)，下标为 zoom - minZoom
+    private final double[] cellDegrees;
+
+    // 各级别的非空单元
+    private final List<Map<Long, Cell>> levels;
+
+    // 车辆ID -> 当前位置和所在单元
+    private final Map<String, Position> positions = new HashMap<>();
+
+    // 每次修改递增，调用方可据此判断聚类结果是否可能变化
+    private long version;
+
+    /**
+     * @param minZoom    最小缩放级别
+     * @param maxZoom    最大缩放级别
+     * @param cellPixels 单元边长对应的像素数
+     */
+    public VehicleClusterIndex(int minZoom, int maxZoom, int cellPixels) {
+        if (minZoom < 0 || maxZoom < minZoom || maxZoom > 24 || cellPixels <= 0) {
+            throw new IllegalArgumentException("缩放级别或单元像素数非法");
+        }
+        this.minZoom = minZoom;
+        this.maxZoom = maxZoom;
+        int count = maxZoom - minZoom + 1;
+        this.cellDegrees = new double[count];
+        this.levels = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            cellDegrees[i] = 360.0 * cellPixels / (256.0 * (1L << (minZoom + i)));
+            levels.add(new HashMap<>());
+        }
+    }
+
+    /**
+     * 更新车辆位置
+     * @param vehicleId     车辆ID
+     * @param lon           经度
+     * @param lat           纬度
+     * @param updatedMillis 更新时间，用于清理长时间未更新的车辆
+     */
+    public synchronized void update(String vehicleId, double lon, double lat, long updatedMillis) {
+        Position position = positions.get(vehicleId);
+        if (position == null) {
+            position = new Position(levels.size());
+            positions.put(vehicleId, position);
+            for (int i = 0; i < levels.size(); i++) {
+                long key = cellKey(i, lon, lat);
+                Cell c = levels.get(i).computeIfAbsent(key, k -> new Cell());
+                c.add(vehicleId, lon, lat);
+                position.cellKeys[i] = key;
+                position.cells[i] = c;
+            }
+        } else {
+            // 单元逐级减半，细级别单元不变时更粗的级别也不变，只需调整坐标和
+            int i = levels.size() - 1;
+            for (; i >= 0; i--) {
+                long key = cellKey(i, lon, lat);
+                if (key == position.cellKeys[i]) {
+                    break;
+                }
+                Map<Long, Cell> level = levels.get(i);
+                if (position.cells[i].remove(vehicleId, position.lon, position.lat)) {
+                    level.remove(position.cellKeys[i]);
+                }
+                Cell c = level.computeIfAbsent(key, k -> new Cell());
+                c.add(vehicleId, lon, lat);
+                position.cellKeys[i] = key;
+                position.cells[i] = c;
+            }
+            for (; i >= 0; i--) {
+                position.cells[i].move(position.lon, position.lat, lon, lat);
+            }
+        }
+        position.lon = lon;
+        position.lat = lat;
+        position.updatedMillis = updatedMillis;
+        version++;
+    }
+
+    /**
+     * 移除更新时间早于给定时间的车辆
+     * @param cutoffMillis 截止时间
+     * @return 移除的车辆数
+     */
+    public synchronized int removeOlderThan(long cutoffMillis) {
+        int removed = 0;
+        Iterator<Map.Entry<String, Position>> it = positions.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<String, Position> entry = it.next();
+            Position position = entry.getValue();
+            if (position.updatedMillis >= cutoffMillis) {
+                continue;
+            }
+            for (int i = 0; i < levels.size(); i++) {
+                if (position.cells[i].remove(entry.getKey(), position.lon, position.lat)) {
+                    levels.get(i).remove(position.cellKeys[i]);
+                }
+            }
+            it.remove();
+            removed++;
+        }
+        if (removed > 0) {
+            version++;
+        }
+        return removed;
+    }
+
+    /**
+     * 查询视野内的聚类
+     * @param zoom        地图缩放级别，超出范围时取最近的级别
+     * @param minLon      最小经度
+     * @param minLat      最小纬度
+     * @param maxLon      最大经度
+     * @param maxLat      最大纬度
+     * @param maxClusters 聚类数上限，超过时退到更粗的级别
+     * @return 查询结果
+     */
+    public synchronized Result query(int zoom, double minLon, double minLat, double maxLon, double maxLat, int maxClusters) {
+        int i = Math.max(minZoom, Math.min(maxZoom, zoom)) - minZoom;
+        while (true) {
+            List<Cluster> clusters = collect(i, minLon, minLat, maxLon, maxLat, i > 0 ? maxClusters : Integer.MAX_VALUE);
+            if (clusters != null) {
+                int vehicles = 0;
+                for (Cluster cluster : clusters) {
+                    vehicles += cluster.count;
+                }
+                return new Result(minZoom + i, vehicles, clusters);
+            }
+            i--;
+        }
+    }
+
+    public synchronized int size() {
+        return positions.size();
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    // 收集级别i中视野内的非空单元，超过上限时返回null
+    private List<Cluster> collect(int i, double minLon, double minLat, double maxLon, double maxLat, int limit) {
+        Map<Long, Cell> level = levels.get(i);
+        int x0 = cell(i, minLon);
+        int x1 = cell(i, maxLon);
+        int y0 = cell(i, minLat);
+        int y1 = cell(i, maxLat);
+        List<Cluster> clusters = new ArrayList<>();
+        long span = (long) (x1 - x0 + 1) * (y1 - y0 + 1);
+        if (span <= level.size()) {
+            // 视野内单元数少于非空单元数时按坐标逐个查找
+            for (int x = x0; x <= x1; x++) {
+                for (int y = y0; y <= y1; y++) {
+                    Cell c = level.get(key(x, y));
+                    if (c != null) {
+                        if (clusters.size() >= limit) {
+                            return null;
+                        }
+                        clusters.add(c.toCluster());
+                    }
+                }
+            }
+        } else {
+            for (Map.Entry<Long, Cell> entry : level.entrySet()) {
+                long key = entry.getKey();
+                int x = (int) (key >> 32);
+                int y = (int) key;
+                if (x >= x0 && x <= x1 && y >= y0 && y <= y1) {
+                    if (clusters.size() >= limit) {
+                        return null;
+                    }
+                    clusters.add(entry.getValue().toCluster());
+                }
+            }
+        }
+        return clusters;
+    }
+
+    private int cell(int i, double degrees) {
+        return (int) Math.floor(degrees / cellDegrees[i]);
+    }
+
+    private long cellKey(int i, double lon, double lat) {
+        return key(cell(i, lon), cell(i, lat));
+    }
+
+    private static long key(int x, int y) {
+        return ((long) x << 32) | (y & 0xffffffffL);
+    }
+
+    private static final class Position {
+        // 各级别所在单元及其坐标
+        final long[] cellKeys;
+        final Cell[] cells;
+        double lon;
+        double lat;
+        long updatedMillis;
+
+        Position(int levels) {
+            this.cellKeys = new long[levels];
+            this.cells = new Cell[levels];
+        }
+    }
+
+    // 网格单元：成员及坐标和，聚类中心为坐标平均值
+    private static final class Cell {
+        final Set<String> members = new HashSet<>(4);
+        double sumLon;
+        double sumLat;
+
+        void add(String vehicleId, double lon, double lat) {
+            members.add(vehicleId);
+            sumLon += lon;
+            sumLat += lat;
+        }
+
+        void move(double oldLon, double oldLat, double lon, double lat) {
+            sumLon += lon - oldLon;
+            sumLat += lat - oldLat;
+        }
+
+        // 返回单元是否已空
+        boolean remove(String vehicleId, double lon, double lat) {
+            members.remove(vehicleId);
+            if (members.isEmpty()) {
+                return true;
+            }
+            sumLon -= lon;
+            sumLat -= lat;
+            return false;
+        }
+
+        Cluster toCluster() {
+            int count = members.size();
+            return new Cluster(sumLon / count, sumLat / count, count,
+                    count == 1 ? members.iterator().next() : null);
+        }
+    }
+
+    /**
+     * 一个聚类：中心坐标、车辆数，只有一辆车时带车辆ID
+     */
+    public static final class Cluster {
+        public final double longitude;
+        public final double latitude;
+        public final int count;
+        public final String vehicleId;
+
+        Cluster(double longitude, double latitude, int count, String vehicleId) {
+            this.longitude = longitude;
+            this.latitude = latitude;
+            this.count = count;
+            this.vehicleId = vehicleId;
+        }
+    }
+
+    /**
+     * 查询结果：实际使用的缩放级别、视野内车辆数和聚类
+     */
+    public static final class Result {
+        public final int zoom;
+        public final int vehicles;
+        public final List<Cluster> clusters;
+
+        Result(int zoom, int vehicles, List<Cluster> clusters) {
+            this.zoom = zoom;
+            this.vehicles = vehicles;
+            this.clusters = clusters;
+        }
+    }
+}
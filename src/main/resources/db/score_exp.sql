@@ -0,0 +1,11 @@
+-- 统计异常评分表，由流式评分器写入，与ml_exp的mse量纲不同，单独存放
+-- 启动时执行，表已存在时不做修改
+CREATE TABLE IF NOT EXISTS score_exp (
+    id        INT          NOT NULL AUTO_INCREMENT,
+    vehicleId VARCHAR(64)  NOT NULL,
+    timestamp DATETIME(3)  NOT NULL,
+    score     DOUBLE       NOT NULL,
+    PRIMARY KEY (id),
+    KEY idx_score_exp_vehicle_time (vehicleId, timestamp),
+    KEY idx_score_exp_time (timestamp)
+);
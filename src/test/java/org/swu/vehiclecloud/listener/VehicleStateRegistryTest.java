@@ -0,0 +1,54 @@
+package org.swu.vehiclecloud.listener;
+
+import org.junit.jupiter.api.Test;
+import org.swu.vehiclecloud.config.DeadReckoningConfig;
+import org.swu.vehiclecloud.config.DetectRulesConfig;
+import org.swu.vehiclecloud.config.ReorderConfig;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleStateRegistryTest {
+
+    private final ReorderConfig reorderConfig = new ReorderConfig();
+
+    private final VehicleStateRegistry registry =
+            new VehicleStateRegistry(reorderConfig, new DetectRulesConfig(), new DeadReckoningConfig());
+
+    @Test
+    void evictsIdleStateAndMarksIt() {
+        VehicleState state = registry.getOrCreate("V1");
+        state.touch(0);
+        List<String> evicted = new ArrayList<>();
+
+        registry.evictIdle(reorderConfig.getIdleEvictSeconds() * 1000L, s -> evicted.add(s.getVehicleId()));
+
+        assertEquals(List.of("V1"), evicted);
+        assertTrue(state.isEvicted());
+        assertNull(registry.get("V1"));
+        assertNotSame(state, registry.getOrCreate("V1"));
+    }
+
+    @Test
+    void keepsStateTouchedBeforeEviction() {
+        VehicleState active = registry.getOrCreate("V1");
+        VehicleState idle = registry.getOrCreate("V2");
+        long now = reorderConfig.getIdleEvictSeconds() * 1000L + 10;
+        active.touch(now - 5);
+        idle.touch(0);
+
+        registry.evictIdle(now, s -> { });
+
+        assertFalse(active.isEvicted());
+        assertSame(active, registry.get("V1"));
+        assertTrue(idle.isEvicted());
+        assertNull(registry.get("V2"));
+    }
+}
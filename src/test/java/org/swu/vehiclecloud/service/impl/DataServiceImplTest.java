@@ -0,0 +1,299 @@
+package org.swu.vehiclecloud.service.impl;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.codec.ServerSentEvent;
+import org.reactivestreams.Subscription;
+import org.swu.vehiclecloud.config.SsePushConfig;
+import org.swu.vehiclecloud.dto.SseSubscriberStats;
+import reactor.core.publisher.BaseSubscriber;
+import reactor.core.Disposable;
+import reactor.core.publisher.Flux;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DataServiceImplTest {
+
+    private static final Duration TIMEOUT = Duration.ofSeconds(5);
+
+    private final SsePushConfig config = new SsePushConfig();
+
+    private final DataServiceImpl service = new DataServiceImpl();
+
+    @BeforeEach
+    void setUp() throws ReflectiveOperationException {
+        config.setDefaultRatePerSecond(0);
+        Field field = DataServiceImpl.class.getDeclaredField("ssePushConfig");
+        field.setAccessible(true);
+        field.set(service, config);
+    }
+
+    private long currentEventId() throws ReflectiveOperationException {
+        Field field = DataServiceImpl.class.getDeclaredField("eventIdCounter");
+        field.setAccessible(true);
+        return ((AtomicLong) field.get(service)).get();
+    }
+
+    // 跳过连接建立时的注释行，取其后的 n 个事件
+    private List<ServerSentEvent<String>> take(Flux<ServerSentEvent<String>> flux, int n) {
+        return flux.skip(1).take(n).collectList().block(TIMEOUT);
+    }
+
+    @Test
+    void multiplexedReplayIsMergedByEventId() throws ReflectiveOperationException {
+        long before = currentEventId();
+        service.setPushContent("a", "a1");
+        service.setPushContent("b", "b1");
+        service.setPushContent("a", "a2");
+        service.setPushContent("b", "b2");
+
+        List<ServerSentEvent<String>> events =
+                take(service.streamMultiplexed(List.of("a", "b"), String.valueOf(before)), 4);
+
+        List<String> data = new ArrayList<>();
+        long previousId = before;
+        for (ServerSentEvent<String> event : events) {
+            data.add(event.event() + ":" + event.data());
+            long id = Long.parseLong(event.id());
+            assertTrue(id > previousId);
+            previousId = id;
+        }
+        assertEquals(List.of("a:a1", "b:b1", "a:a2", "b:b2"), data);
+    }
+
+    @Test
+    void liveEventsFollowReplayInIdOrder() throws ReflectiveOperationException {
+        long before = currentEventId();
+        service.setPushContent("a", "a1");
+        List<ServerSentEvent<String>> received = new ArrayList<>();
+        Disposable subscription = service.streamMultiplexed(List.of("a", "b"), String.valueOf(before))
+                .skip(1)
+                .subscribe(received::add);
+        service.setPushContent("b", "b1");
+        service.setPushContent("a", "a2");
+
+        long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        while (received.size() < 3 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        subscription.dispose();
+        assertEquals(3, received.size());
+        assertEquals("a1", received.get(0).data());
+        assertEquals("b1", received.get(1).data());
+        assertEquals("a2", received.get(2).data());
+    }
+
+    @Test
+    void concurrentPushesOnDifferentStreamsArriveInIdOrder() throws InterruptedException {
+        int threads = 4;
+        int perThread = 5_000;
+        config.setSubscriberBuffer(threads * perThread);
+        config.setLagWatermark(threads * perThread);
+        List<String> ids = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            ids.add("s" + t);
+        }
+        List<ServerSentEvent<String>> received = Collections.synchronizedList(new ArrayList<>());
+        Disposable subscription = service.streamMultiplexed(ids, null).skip(1).subscribe(received::add);
+
+        List<Thread> pushers = new ArrayList<>();
+        for (String id : ids) {
+            Thread pusher = new Thread(() -> {
+                for (int i = 0; i < perThread; i++) {
+                    service.setPushContent(id, id + ":" + i);
+                }
+            });
+            pushers.add(pusher);
+            pusher.start();
+        }
+        for (Thread pusher : pushers) {
+            pusher.join();
+        }
+
+        long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        while (received.size() < threads * perThread && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        subscription.dispose();
+        assertEquals(threads * perThread, received.size());
+        long previousId = Long.MIN_VALUE;
+        Map<String, Integer> next = new HashMap<>();
+        for (ServerSentEvent<String> event : received) {
+            long id = Long.parseLong(event.id());
+            assertTrue(id > previousId, "事件ID未严格递增");
+            previousId = id;
+            // 同一数据流内保持推送顺序
+            int expected = next.merge(event.event(), 1, Integer::sum) - 1;
+            assertEquals(event.event() + ":" + expected, event.data());
+        }
+    }
+
+    // 不主动请求的订阅者，模拟读取很慢的连接
+    private static final class SlowSubscriber extends BaseSubscriber<ServerSentEvent<String>> {
+        private final List<String> received = Collections.synchronizedList(new ArrayList<>());
+        private volatile boolean completed;
+
+        @Override
+        protected void hookOnSubscribe(Subscription subscription) {
+            // 只取连接建立时的注释行，之后不再请求
+            subscription.request(1);
+        }
+
+        @Override
+        protected void hookOnNext(ServerSentEvent<String> event) {
+            if (event.data() != null) {
+                received.add(event.data());
+            }
+        }
+
+        @Override
+        protected void hookOnComplete() {
+            completed = true;
+        }
+    }
+
+    private static void awaitTrue(java.util.function.BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TIMEOUT.toMillis();
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertTrue(condition.getAsBoolean());
+    }
+
+    @Test
+    void slowSubscriberDropsOldestQueuedEvents() throws InterruptedException {
+        config.setSubscriberBuffer(4);
+        SlowSubscriber slow = new SlowSubscriber();
+        service.streamData("a", null).subscribe(slow);
+        awaitTrue(() -> service.getSubscriberStats().size() == 1);
+
+        for (int i = 0; i < 40; i++) {
+            service.setPushContent("a", "e" + i);
+        }
+        SseSubscriberStats stats = service.getSubscriberStats().get(0);
+        assertEquals(4, stats.getQueued());
+        long delivered = stats.getDelivered();
+        assertEquals(40 - 4 - delivered, stats.getDropped());
+        assertEquals(stats.getDropped(), service.getPushStats().get(0).getSubscriberDropped());
+
+        // 下游预取的事件之后只剩最新的4条
+        slow.request(Long.MAX_VALUE);
+        awaitTrue(() -> slow.received.size() == delivered + 4);
+        List<String> tail = slow.received.subList((int) delivered, (int) delivered + 4);
+        assertEquals(List.of("e36", "e37", "e38", "e39"), new ArrayList<>(tail));
+        assertFalse(slow.completed);
+        slow.dispose();
+    }
+
+    @Test
+    void disconnectPolicyEvictsOnOverflow() throws InterruptedException {
+        config.setSubscriberBuffer(4);
+        config.setOverflowPolicy("disconnect");
+        SlowSubscriber slow = new SlowSubscriber();
+        service.streamData("a", null).subscribe(slow);
+        awaitTrue(() -> service.getSubscriberStats().size() == 1);
+
+        for (int i = 0; i < 40; i++) {
+            service.setPushContent("a", "e" + i);
+        }
+        slow.request(Long.MAX_VALUE);
+        // 慢连接正常结束，客户端可携带Last-Event-ID重连
+        awaitTrue(() -> slow.completed);
+        assertEquals(1, service.getPushStats().get(0).getEvicted());
+        assertTrue(service.getSubscriberStats().isEmpty());
+        assertFalse(service.hasSubscribers("a"));
+    }
+
+    @Test
+    void persistentLagIsEvicted() throws InterruptedException {
+        config.setSubscriberBuffer(64);
+        config.setLagWatermark(2);
+        config.setLagEvictMs(50);
+        SlowSubscriber slow = new SlowSubscriber();
+        service.streamData("a", null).subscribe(slow);
+        awaitTrue(() -> service.getSubscriberStats().size() == 1);
+
+        for (int i = 0; i < 20; i++) {
+            service.setPushContent("a", "e" + i);
+        }
+        assertTrue(service.getSubscriberStats().get(0).getBehindMillis() >= 0);
+        assertEquals(0, service.getPushStats().get(0).getEvicted());
+
+        Thread.sleep(100);
+        service.setPushContent("a", "late");
+        slow.request(Long.MAX_VALUE);
+        awaitTrue(() -> slow.completed);
+        assertEquals(1, service.getPushStats().get(0).getEvicted());
+        assertFalse(slow.received.contains("late"));
+    }
+
+    @Test
+    void subscriberThatKeepsUpIsNeverEvicted() throws InterruptedException {
+        config.setSubscriberBuffer(4);
+        config.setLagWatermark(2);
+        config.setLagEvictMs(0);
+        config.setOverflowPolicy("disconnect");
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+        Disposable subscription = service.streamData("a", null).skip(1).subscribe(event -> received.add(event.data()));
+        awaitTrue(() -> service.getSubscriberStats().size() == 1);
+
+        for (int i = 0; i < 200; i++) {
+            service.setPushContent("a", "e" + i);
+            int expected = i + 1;
+            awaitTrue(() -> received.size() == expected);
+        }
+        assertEquals(0, service.getPushStats().get(0).getEvicted());
+        assertEquals(0, service.getSubscriberStats().get(0).getDropped());
+        subscription.dispose();
+    }
+
+    @Test
+    void clientStreamCapDoesNotBlockServerPushes() {
+        List<Disposable> clients = new ArrayList<>();
+        for (int i = 0; i < 256; i++) {
+            clients.add(service.streamData("made-up-" + i, null).subscribe());
+        }
+        assertThrows(IllegalStateException.class,
+                () -> service.streamData("one-too-many", null).skip(1).blockFirst(TIMEOUT));
+
+        // 服务端推送的数据流不受客户端上限影响
+        assertDoesNotThrow(() -> service.setPushContent("13", "{}"));
+        clients.forEach(Disposable::dispose);
+    }
+
+    @Test
+    void idleStreamsAreSweptAndReconnectGetsReset() throws ReflectiveOperationException {
+        config.setIdleStreamTtlMs(0);
+        long before = currentEventId();
+        service.setPushContent("a", "a1");
+        Disposable client = service.streamData("made-up", null).subscribe();
+        service.sweepIdleStreams();
+        assertTrue(service.getPushStats().stream().anyMatch(s -> s.getStreamId().equals("made-up")));
+
+        client.dispose();
+        service.sweepIdleStreams();
+        assertTrue(service.getPushStats().isEmpty());
+        assertFalse(service.hasSubscribers("made-up"));
+
+        // 重放环已随数据流丢弃，携带旧ID重连时要求客户端重新拉取
+        ServerSentEvent<String> first = take(service.streamData("a", String.valueOf(before)), 1).get(0);
+        assertEquals("reset", first.event());
+        // 新建的数据流不影响已收到最新事件的客户端
+        long latest = currentEventId();
+        service.setPushContent("new", "n1");
+        assertEquals("n1", take(service.streamData("new", String.valueOf(latest)), 1).get(0).data());
+    }
+}
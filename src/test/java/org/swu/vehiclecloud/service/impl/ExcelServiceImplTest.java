@@ -0,0 +1,196 @@
+package org.swu.vehiclecloud.service.impl;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.swu.vehiclecloud.mapper.ExcelMapper;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用内存中的表模拟 ExcelMapper 的键集分页，验证合并导出不重不漏
+ */
+class ExcelServiceImplTest {
+
+    private static final LocalDateTime BASE = LocalDateTime.of(2026, 1, 1, 0, 0);
+
+    private final ExcelServiceImpl service = new ExcelServiceImpl();
+
+    // 表名 -> 行
+    private final Map<String, List<Map<String, Object>>> tables = new HashMap<>();
+
+    // 表名 + 车辆ID -> 已返回过的行ID，用于检查分页是否重复
+    private final Map<String, Set<Long>> returned = new HashMap<>();
+
+    private int pageQueries;
+
+    @BeforeEach
+    void setUp() throws ReflectiveOperationException {
+        ExcelMapper mapper = (ExcelMapper) Proxy.newProxyInstance(ExcelMapper.class.getClassLoader(),
+                new Class<?>[]{ExcelMapper.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "selectPage":
+                            return selectPage((String) args[0], (String) args[1], (LocalDateTime) args[2],
+                                    (LocalDateTime) args[3], (LocalDateTime) args[4], (Long) args[5], (Integer) args[6]);
+                        case "selectDistinctVehicleIds":
+                            return selectDistinctVehicleIds((List<?>) args[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        inject("excelMapper", mapper);
+        inject("transactionManager", new PlatformTransactionManager() {
+            @Override
+            public TransactionStatus getTransaction(TransactionDefinition definition) {
+                return new SimpleTransactionStatus();
+            }
+
+            @Override
+            public void commit(TransactionStatus status) {
+            }
+
+            @Override
+            public void rollback(TransactionStatus status) {
+            }
+        });
+
+        // speed_exp: V1 每秒两条(同一时间戳)，跨越多个分页
+        List<Map<String, Object>> speed = new ArrayList<>();
+        for (long id = 1; id <= 12000; id++) {
+            speed.add(row(id, "V1", (id - 1) / 2, "velocityGNSS", (double) id));
+        }
+        tables.put("speed_exp", speed);
+        // steering_exp: V1 每3秒一条，V2 10条
+        List<Map<String, Object>> steering = new ArrayList<>();
+        long id = 1;
+        for (long second = 0; second < 6000; second += 3) {
+            steering.add(row(id++, "V1", second, "steeringAngle", 1.5));
+        }
+        for (long second = 0; second < 10; second++) {
+            steering.add(row(id++, "V2", second, "steeringAngle", 2.5));
+        }
+        tables.put("steering_exp", steering);
+    }
+
+    @Test
+    void allVehiclesExportMergesPagedTablesWithoutDuplicates() throws Exception {
+        AtomicLong rows = new AtomicLong();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        service.prepareAllVehiclesExceptions(BASE, BASE.plusDays(1), List.of("speed_exp", "steering_exp"),
+                Map.of("speed_exp", List.of("velocityGNSS"))).writeTo(out, rows);
+
+        // V1 6000个时间点，V2 10个
+        assertEquals(6010, rows.get());
+        // 每个表每辆车的每一行只被读取一次
+        assertEquals(12000, returned.get("speed_exp/V1").size());
+        assertEquals(2000, returned.get("steering_exp/V1").size());
+        assertTrue(pageQueries < 20, "queries " + pageQueries);
+
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheetAt(0);
+            Row header = sheet.getRow(0);
+            assertEquals("speed_exp_velocityGNSS", header.getCell(2).getStringCellValue());
+            assertEquals("steering_exp", header.getCell(3).getStringCellValue());
+            // 第一行：V1 第0秒，取该时间戳的第一条记录，两表均有记录
+            Row first = sheet.getRow(1);
+            assertEquals("V1", first.getCell(0).getStringCellValue());
+            assertEquals("1.0", first.getCell(2).getStringCellValue());
+            assertEquals(1, (int) first.getCell(3).getNumericCellValue());
+            // 第1秒只有 speed_exp 有记录
+            assertEquals(0, (int) sheet.getRow(2).getCell(3).getNumericCellValue());
+            // V2 只在 steering_exp 中出现
+            Row v2 = sheet.getRow(6001);
+            assertEquals("V2", v2.getCell(0).getStringCellValue());
+            assertNull(v2.getCell(2));
+            assertEquals(1, (int) v2.getCell(3).getNumericCellValue());
+        }
+    }
+
+    @Test
+    void combinedExportPagesAcrossDuplicateTimestamps() throws Exception {
+        AtomicLong rows = new AtomicLong();
+        service.prepareCombinedExcel("V1", BASE, BASE.plusDays(1), List.of("speed_exp", "steering_exp"),
+                Map.of()).writeTo(new ByteArrayOutputStream(), rows);
+
+        assertEquals(6000, rows.get());
+        assertEquals(12000, returned.get("speed_exp/V1").size());
+    }
+
+    private void inject(String name, Object value) throws ReflectiveOperationException {
+        Field field = ExcelServiceImpl.class.getDeclaredField(name);
+        field.setAccessible(true);
+        field.set(service, value);
+    }
+
+    private static Map<String, Object> row(long id, String vehicleId, long second, String column, Object value) {
+        Map<String, Object> row = new HashMap<>();
+        row.put("id", id);
+        row.put("vehicleId", vehicleId);
+        row.put("timestamp", BASE.plusSeconds(second));
+        row.put(column, value);
+        return row;
+    }
+
+    // 与 ExcelMapper.selectPage 的SQL语义一致：按 (timestamp, id) 升序，从上一页最后一行之后开始
+    private List<Map<String, Object>> selectPage(String table, String vehicleId, LocalDateTime startTime,
+                                                 LocalDateTime endTime, LocalDateTime afterTimestamp, Long afterId,
+                                                 int limit) {
+        pageQueries++;
+        Comparator<Map<String, Object>> order = Comparator
+                .comparing((Map<String, Object> r) -> (LocalDateTime) r.get("timestamp"))
+                .thenComparing(r -> (Long) r.get("id"));
+        List<Map<String, Object>> page = tables.get(table).stream()
+                .filter(r -> vehicleId == null || vehicleId.equals(r.get("vehicleId")))
+                .filter(r -> startTime == null || !((LocalDateTime) r.get("timestamp")).isBefore(startTime))
+                .filter(r -> endTime == null || !((LocalDateTime) r.get("timestamp")).isAfter(endTime))
+                .filter(r -> {
+                    if (afterTimestamp == null) {
+                        return true;
+                    }
+                    int c = ((LocalDateTime) r.get("timestamp")).compareTo(afterTimestamp);
+                    return c > 0 || (c == 0 && (Long) r.get("id") > afterId);
+                })
+                .sorted(order)
+                .limit(limit)
+                .collect(Collectors.toList());
+        Set<Long> seen = returned.computeIfAbsent(table + "/" + vehicleId, k -> new HashSet<>());
+        for (Map<String, Object> r : page) {
+            assertTrue(seen.add((Long) r.get("id")), "row " + r.get("id") + " of " + table + " returned twice");
+        }
+        return page;
+    }
+
+    private List<String> selectDistinctVehicleIds(List<?> names) {
+        Set<String> ids = new TreeSet<>();
+        for (Object name : names) {
+            for (Map<String, Object> r : tables.get((String) name)) {
+                ids.add((String) r.get("vehicleId"));
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+}
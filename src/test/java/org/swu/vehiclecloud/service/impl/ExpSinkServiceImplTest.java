@@ -0,0 +1,99 @@
+package org.swu.vehiclecloud.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.swu.vehiclecloud.config.ExpSinkConfig;
+import org.swu.vehiclecloud.entity.SpeedExp;
+import org.swu.vehiclecloud.mapper.VehicleExpMapper;
+
+import java.lang.reflect.Proxy;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证批量写入在独立的写入线程中执行，写入失败不影响后续批次
+ */
+class ExpSinkServiceImplTest {
+
+    // 每次批量插入的 {线程名, 记录数}
+    private final List<Object[]> inserts = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile boolean failNext;
+
+    private ExpSinkServiceImpl sink;
+
+    private ExpSinkServiceImpl start(int batchSize) {
+        ExpSinkConfig config = new ExpSinkConfig();
+        config.setBatchSize(batchSize);
+        config.setFlushIntervalMs(10);
+        VehicleExpMapper mapper = (VehicleExpMapper) Proxy.newProxyInstance(VehicleExpMapper.class.getClassLoader(),
+                new Class<?>[]{VehicleExpMapper.class}, (proxy, method, args) -> {
+                    if (failNext) {
+                        failNext = false;
+                        throw new DataAccessResourceFailureException("数据库不可用");
+                    }
+                    inserts.add(new Object[]{Thread.currentThread().getName(), ((List<?>) args[0]).size()});
+                    return null;
+                });
+        sink = new ExpSinkServiceImpl(mapper, config);
+        sink.start();
+        return sink;
+    }
+
+    @AfterEach
+    void tearDown() {
+        sink.shutdown();
+    }
+
+    private int inserted() {
+        synchronized (inserts) {
+            return inserts.stream().mapToInt(insert -> (Integer) insert[1]).sum();
+        }
+    }
+
+    private void awaitInserted(int expected) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (inserted() < expected && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(expected, inserted());
+    }
+
+    private static SpeedExp speed(int i) {
+        return new SpeedExp("v" + i, 50, new Timestamp(i));
+    }
+
+    @Test
+    void flushesInBatchesOnItsOwnThread() throws InterruptedException {
+        start(4);
+        for (int i = 0; i < 10; i++) {
+            sink.submit(speed(i));
+        }
+        awaitInserted(10);
+        synchronized (inserts) {
+            for (Object[] insert : inserts) {
+                assertEquals("exp-sink-flush", insert[0]);
+                assertTrue((Integer) insert[1] <= 4);
+            }
+        }
+    }
+
+    @Test
+    void failedBatchIsDroppedAndFlushingContinues() throws InterruptedException {
+        start(100);
+        failNext = true;
+        sink.submit(speed(1));
+        long deadline = System.currentTimeMillis() + 5000;
+        while (failNext && System.currentTimeMillis() < deadline) {
+            Thread.sleep(5);
+        }
+        sink.submit(speed(2));
+        awaitInserted(1);
+    }
+}
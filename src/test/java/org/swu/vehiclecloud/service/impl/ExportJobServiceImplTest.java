@@ -0,0 +1,187 @@
+package org.swu.vehiclecloud.service.impl;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.Resource;
+import org.springframework.http.ResponseEntity;
+import org.swu.vehiclecloud.config.ExportJobConfig;
+import org.swu.vehiclecloud.dto.ExcelExportAllVehiclesRequest;
+import org.swu.vehiclecloud.dto.ExportJobStatus;
+import org.swu.vehiclecloud.exception.BusinessException;
+import org.swu.vehiclecloud.service.ExcelExportTask;
+import org.swu.vehiclecloud.service.ExcelService;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 用阻塞的假导出任务验证任务去重、结果复用和队列满时的拒绝
+ */
+class ExportJobServiceImplTest {
+
+    @TempDir
+    Path directory;
+
+    // 放行所有导出任务
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private ExportJobServiceImpl service;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        ExportJobConfig config = new ExportJobConfig();
+        config.setWorkerThreads(1);
+        config.setQueueCapacity(1);
+        config.setDirectory(directory.toString());
+        config.setProgressIntervalMs(10);
+        ExcelService excelService = (ExcelService) Proxy.newProxyInstance(ExcelService.class.getClassLoader(),
+                new Class<?>[]{ExcelService.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "prepareExcel":
+                            return task("table:" + args[0]);
+                        case "prepareAllVehiclesExceptions":
+                            return task("all:" + args[0] + "-" + args[1]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+        service = new ExportJobServiceImpl(config, excelService);
+        service.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        service.stop();
+    }
+
+    private ExcelExportTask task(String content) {
+        if (content.startsWith("table:broken")) {
+            return (out, rows) -> {
+                throw new IOException("写入失败");
+            };
+        }
+        return (out, rows) -> {
+            try {
+                if (!release.await(10, TimeUnit.SECONDS)) {
+                    throw new IOException("等待放行超时");
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+            out.write(content.getBytes(StandardCharsets.UTF_8));
+            rows.incrementAndGet();
+        };
+    }
+
+    private ExportJobStatus await(String jobId) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < deadline) {
+            ExportJobStatus status = service.getStatus(jobId);
+            if (status.getFinishedAt() != null) {
+                return status;
+            }
+            Thread.sleep(5);
+        }
+        fail("导出任务未结束: " + jobId);
+        return null;
+    }
+
+    private static ExcelExportAllVehiclesRequest allVehicles(LocalDateTime start, LocalDateTime end) {
+        ExcelExportAllVehiclesRequest request = new ExcelExportAllVehiclesRequest();
+        request.setStartTime(start);
+        request.setEndTime(end);
+        request.setSelectedTables(List.of("speed_exp"));
+        request.setSelectedColumns(Map.of("speed_exp", List.of("vehicleId")));
+        return request;
+    }
+
+    @Test
+    void runningJobIsReusedUntilItFinishes() throws InterruptedException {
+        ExportJobStatus first = service.submitTableExport("car");
+        assertEquals(first.getJobId(), service.submitTableExport("car").getJobId());
+
+        release.countDown();
+        ExportJobStatus done = await(first.getJobId());
+        assertEquals("DONE", done.getState());
+        assertEquals(1, done.getRowsWritten());
+
+        // 整表导出完成后不再复用
+        assertNotEquals(first.getJobId(), service.submitTableExport("car").getJobId());
+    }
+
+    @Test
+    void rejectsWhenQueueIsFull() throws InterruptedException {
+        // 第一个任务占用唯一的工作线程，第二个进入队列
+        String running = service.submitTableExport("a").getJobId();
+        String queued = service.submitTableExport("b").getJobId();
+        assertEquals("QUEUED", service.getStatus(queued).getState());
+
+        BusinessException e = assertThrows(BusinessException.class, () -> service.submitTableExport("c"));
+        assertEquals(503, e.getCode());
+        // 被拒绝的请求不登记，同键请求可以再次提交
+        assertEquals(queued, service.submitTableExport("b").getJobId());
+
+        release.countDown();
+        assertEquals("DONE", await(running).getState());
+        assertEquals("DONE", await(queued).getState());
+        assertEquals("DONE", await(service.submitTableExport("c").getJobId()).getState());
+    }
+
+    @Test
+    void closedRangeResultIsReusedAndDownloadable() throws Exception {
+        LocalDateTime end = LocalDateTime.now().minusDays(1);
+        ExportJobStatus first = service.submitAllVehiclesExport(allVehicles(end.minusHours(1), end));
+        assertTrue(first.isCacheable());
+        release.countDown();
+        assertEquals("DONE", await(first.getJobId()).getState());
+
+        assertEquals(first.getJobId(), service.submitAllVehiclesExport(allVehicles(end.minusHours(1), end)).getJobId());
+        ResponseEntity<Resource> response = service.download(first.getJobId());
+        try (InputStream in = response.getBody().getInputStream()) {
+            assertEquals("all:" + end.minusHours(1) + "-" + end, new String(in.readAllBytes(), StandardCharsets.UTF_8));
+        }
+
+        // 结果文件被删除后重新导出
+        Files.delete(directory.resolve(first.getJobId() + ".xlsx"));
+        assertNotEquals(first.getJobId(),
+                service.submitAllVehiclesExport(allVehicles(end.minusHours(1), end)).getJobId());
+    }
+
+    @Test
+    void openRangeAndFailedJobsAreNotReused() throws InterruptedException {
+        ExportJobStatus failed = await(service.submitTableExport("broken").getJobId());
+        assertEquals("FAILED", failed.getState());
+        assertEquals("写入失败", failed.getError());
+        BusinessException e = assertThrows(BusinessException.class, () -> service.download(failed.getJobId()));
+        assertEquals(409, e.getCode());
+        assertTrue(Files.notExists(directory.resolve(failed.getJobId() + ".xlsx.part")));
+        assertNotEquals(failed.getJobId(), service.submitTableExport("broken").getJobId());
+
+        LocalDateTime end = LocalDateTime.now().plusHours(1);
+        ExportJobStatus open = service.submitAllVehiclesExport(allVehicles(end.minusHours(2), end));
+        assertFalse(open.isCacheable());
+
+        release.countDown();
+        assertEquals("DONE", await(open.getJobId()).getState());
+        assertNotEquals(open.getJobId(), service.submitAllVehiclesExport(allVehicles(end.minusHours(2), end)).getJobId());
+    }
+}
@@ -0,0 +1,197 @@
+package org.swu.vehiclecloud.service.impl;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.swu.vehiclecloud.config.MlInferenceConfig;
+import org.swu.vehiclecloud.dto.MlInferenceStats;
+import org.swu.vehiclecloud.service.DataService;
+import org.swu.vehiclecloud.service.ExpSinkService;
+import org.swu.vehiclecloud.service.MlSidecarService;
+import org.swu.vehiclecloud.util.InferenceBackend;
+import org.swu.vehiclecloud.util.MlFeatureExtractor;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 验证凑批、熔断以及超时后在途名额的释放时机
+ */
+class MlInferenceServiceImplTest {
+
+    private static final ObjectMapper objectMapper = new ObjectMapper();
+
+    // 推理服务收到的每个批请求的样本数
+    private final List<Integer> requestSizes = Collections.synchronizedList(new ArrayList<>());
+
+    private volatile int responseStatus = 200;
+
+    private HttpServer server;
+
+    private MlInferenceServiceImpl service;
+
+    @AfterEach
+    void tearDown() {
+        if (service != null) {
+            service.stop();
+        }
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private MlInferenceConfig config() {
+        MlInferenceConfig config = new MlInferenceConfig();
+        config.setEnabled(true);
+        config.setBatchSize(4);
+        config.setLingerMs(200);
+        config.setMaxInflight(1);
+        config.setRequestTimeoutMs(2000);
+        config.setThreshold(0.5);
+        return config;
+    }
+
+    private MlInferenceServiceImpl create(MlInferenceConfig config) {
+        ExpSinkService expSinkService = proxy(ExpSinkService.class);
+        DataService dataService = proxy(DataService.class);
+        MlSidecarService sidecar = (MlSidecarService) Proxy.newProxyInstance(MlSidecarService.class.getClassLoader(),
+                new Class<?>[]{MlSidecarService.class},
+                (proxy, method, args) -> "isReady".equals(method.getName()) ? Boolean.TRUE : null);
+        service = new MlInferenceServiceImpl(config, expSinkService, dataService, sidecar);
+        return service;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, (proxy, method, args) -> null);
+    }
+
+    // 本地HTTP推理服务：返回与请求行数相同的mse，第一行为异常值
+    private String startServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 0);
+        server.createContext("/detect-anomaly/batch", exchange -> {
+            JsonNode rows = objectMapper.readTree(exchange.getRequestBody()).get("features");
+            requestSizes.add(rows.size());
+            StringBuilder body = new StringBuilder("{\"mse\":[");
+            for (int i = 0; i < rows.size(); i++) {
+                body.append(i == 0 ? "" : ",").append(i == 0 ? "0.9" : "0.01");
+            }
+            byte[] bytes = body.append("]}").toString().getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(responseStatus, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        server.start();
+        return "http://127.0.0.1:" + server.getAddress().getPort();
+    }
+
+    private static void submit(MlInferenceServiceImpl service, int n) {
+        for (int i = 0; i < n; i++) {
+            assertTrue(service.submit("v" + i, new Timestamp(i), new double[MlFeatureExtractor.FEATURE_DIM]));
+        }
+    }
+
+    private static void await(BooleanSupplier condition) throws InterruptedException {
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean()) {
+            assertTrue(System.currentTimeMillis() < deadline, "等待超时");
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    void samplesAreBatchedUpToBatchSize() throws Exception {
+        MlInferenceConfig config = config();
+        config.setBaseUrl(startServer());
+        MlInferenceServiceImpl service = create(config);
+        service.start();
+
+        submit(service, 10);
+        await(() -> service.getStats().getScored() == 10);
+
+        MlInferenceStats stats = service.getStats();
+        assertEquals(List.of(4, 4, 2), requestSizes);
+        assertEquals(3, stats.getBatches());
+        assertEquals(3, stats.getAnomalies());
+        assertEquals(0, stats.getFailedBatches());
+        assertEquals(0, stats.getInflight());
+    }
+
+    @Test
+    void breakerOpensAfterConsecutiveFailures() throws Exception {
+        responseStatus = 500;
+        MlInferenceConfig config = config();
+        config.setBaseUrl(startServer());
+        config.setBatchSize(1);
+        config.setBreakerFailureThreshold(2);
+        config.setBreakerOpenMs(60000);
+        MlInferenceServiceImpl service = create(config);
+        service.start();
+
+        submit(service, 5);
+        await(() -> service.getStats().getDropped() == 3);
+
+        MlInferenceStats stats = service.getStats();
+        assertEquals("OPEN", stats.getBreakerState());
+        assertEquals(2, requestSizes.size());
+        assertEquals(2, stats.getFailedBatches());
+        assertEquals(3, stats.getDropped());
+        assertEquals(0, stats.getScored());
+    }
+
+    @Test
+    void timeoutFailsTheBatchButKeepsThePermitUntilTheBackendCompletes() throws Exception {
+        List<CompletableFuture<float[]>> requests = Collections.synchronizedList(new ArrayList<>());
+        InferenceBackend backend = new InferenceBackend() {
+            @Override
+            public CompletableFuture<float[]> score(double[] features, int count, int dim) {
+                CompletableFuture<float[]> request = new CompletableFuture<>();
+                requests.add(request);
+                return request;
+            }
+
+            @Override
+            public String name() {
+                return "fake";
+            }
+        };
+        MlInferenceConfig config = config();
+        config.setBatchSize(1);
+        config.setLingerMs(0);
+        config.setRequestTimeoutMs(50);
+        MlInferenceServiceImpl service = create(config);
+        service.start(backend);
+
+        submit(service, 2);
+        await(() -> service.getStats().getFailedBatches() == 1);
+        Thread.sleep(100);
+
+        // 第一个请求已超时，但后端尚未返回，第二批不能发出
+        assertEquals(1, requests.size());
+        assertEquals(1, service.getStats().getInflight());
+
+        requests.get(0).complete(new float[]{0.9f});
+        await(() -> requests.size() == 2);
+        // 超时的批次即使后端随后返回也不再计入结果
+        assertEquals(0, service.getStats().getScored());
+
+        requests.get(1).complete(new float[]{0.01f});
+        await(() -> service.getStats().getScored() == 1);
+        assertEquals(0, service.getStats().getInflight());
+    }
+}
@@ -0,0 +1,60 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClockSkewEstimatorTest {
+
+    private final ClockSkewEstimator estimator = new ClockSkewEstimator(0.05, 4, 50, 10, 1000);
+
+    private ClockSkewEstimator.Snapshot snapshot() {
+        ClockSkewEstimator.Snapshot snapshot = new ClockSkewEstimator.Snapshot();
+        estimator.snapshot(snapshot);
+        return snapshot;
+    }
+
+    @Test
+    void warmupOnlyAppliesHardLimit() {
+        for (int i = 0; i < 9; i++) {
+            assertFalse(estimator.observe(500 + (i % 2) * 10));
+        }
+        assertTrue(estimator.observe(-2000));
+        ClockSkewEstimator.Snapshot s = snapshot();
+        assertEquals(10, s.samples);
+        assertEquals(1, s.anomalies);
+        assertFalse(s.warmedUp);
+        assertEquals(-2000, s.lastOffsetMs);
+
+        estimator.observe(500);
+        assertTrue(snapshot().warmedUp);
+    }
+
+    @Test
+    void learnsStableOffsetAndFlagsDeviations() {
+        for (int i = 0; i < 200; i++) {
+            assertFalse(estimator.observe(300 + (i % 3)));
+        }
+        assertEquals(301, snapshot().offsetMs, 5);
+
+        // 低于最小偏差不报
+        assertFalse(estimator.observe(340));
+        assertTrue(estimator.observe(800));
+
+        // 单个异常值被限幅，估计值几乎不动
+        assertEquals(301, snapshot().offsetMs, 10);
+        assertEquals(1, snapshot().anomalies);
+    }
+
+    @Test
+    void followsGradualDrift() {
+        long offset = 0;
+        for (int i = 0; i < 2000; i++) {
+            offset = i / 10;
+            assertFalse(estimator.observe(offset), "drift at " + i);
+        }
+        assertEquals(offset, snapshot().offsetMs, 30);
+    }
+}
@@ -0,0 +1,171 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CompactLocationEncoderTest {
+
+    private final CompactLocationEncoder encoder = new CompactLocationEncoder();
+
+    private final Decoder decoder = new Decoder();
+
+    // 按类注释中的帧格式实现的解码端，与前端逻辑一致
+    private static final class Decoder {
+        final Map<Integer, String> ids = new HashMap<>();
+        final Map<Integer, long[]> last = new HashMap<>();
+        boolean reset;
+        long t;
+
+        List<Object[]> decode(ByteBuffer frame) {
+            int flags = frame.get() & 0xFF;
+            reset = (flags & CompactLocationEncoder.FLAG_RESET) != 0;
+            if (reset) {
+                ids.clear();
+                last.clear();
+            }
+            t = readVarint(frame);
+            long dictCount = readVarint(frame);
+            for (long i = 0; i < dictCount; i++) {
+                int index = (int) readVarint(frame);
+                byte[] id = new byte[(int) readVarint(frame)];
+                frame.get(id);
+                ids.put(index, new String(id, StandardCharsets.UTF_8));
+                last.put(index, new long[5]);
+            }
+            long count = readVarint(frame);
+            List<Object[]> rows = new ArrayList<>();
+            for (long i = 0; i < count; i++) {
+                int index = (int) readVarint(frame);
+                long[] prev = last.get(index);
+                for (int k = 0; k < 5; k++) {
+                    prev[k] += unzigzag(readVarint(frame));
+                }
+                rows.add(new Object[]{ids.get(index), prev[0] / CompactLocationEncoder.SCALE,
+                        prev[1] / CompactLocationEncoder.SCALE, prev[2],
+                        prev[3] / CompactLocationEncoder.MOTION_SCALE, prev[4] / CompactLocationEncoder.MOTION_SCALE});
+            }
+            assertFalse(frame.hasRemaining());
+            return rows;
+        }
+
+        private static long readVarint(ByteBuffer buf) {
+            long value = 0;
+            int shift = 0;
+            while (true) {
+                byte b = buf.get();
+                value |= (long) (b & 0x7F) << shift;
+                if ((b & 0x80) == 0) {
+                    return value;
+                }
+                shift += 7;
+            }
+        }
+
+        private static long unzigzag(long value) {
+            return (value >>> 1) ^ -(value & 1);
+        }
+    }
+
+    private static void assertRow(Object[] row, String id, double lon, double lat, long ts, double speed, double heading) {
+        assertEquals(id, row[0]);
+        assertEquals(lon, (double) row[1], 1e-6);
+        assertEquals(lat, (double) row[2], 1e-6);
+        assertEquals(ts, (long) row[3]);
+        assertEquals(speed, (double) row[4], 0.01);
+        assertEquals(heading, (double) row[5], 0.01);
+    }
+
+    @Test
+    void roundTripsAcrossFrames() {
+        encoder.add(0, "渝A12345", 106.551234, 29.561234, 1_700_000_000_000L, 12.34, 359.99);
+        encoder.add(1, "veh-2", -73.985, -40.75, 1_700_000_000_100L, 0, 0);
+        List<Object[]> rows = decoder.decode(encoder.finish(1_700_000_000_200L));
+        assertTrue(decoder.reset);
+        assertEquals(1_700_000_000_200L, decoder.t);
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), "渝A12345", 106.551234, 29.561234, 1_700_000_000_000L, 12.34, 359.99);
+        assertRow(rows.get(1), "veh-2", -73.985, -40.75, 1_700_000_000_100L, 0, 0);
+
+        // 第二帧只带差分，不再发送车辆ID
+        encoder.add(0, "渝A12345", 106.551300, 29.561100, 1_700_000_001_000L, 11.5, 0.5);
+        encoder.add(2, "veh-3", 180, 90, 1_700_000_001_000L, 3, 90);
+        ByteBuffer frame = encoder.finish(1_700_000_001_200L);
+        int size = frame.remaining();
+        rows = decoder.decode(frame);
+        assertFalse(decoder.reset);
+        assertRow(rows.get(0), "渝A12345", 106.551300, 29.561100, 1_700_000_001_000L, 11.5, 0.5);
+        assertRow(rows.get(1), "veh-3", 180, 90, 1_700_000_001_000L, 3, 90);
+        assertTrue(size < 60, "差分帧应远小于首帧: " + size);
+
+        rows = decoder.decode(encoder.finish(1_700_000_002_000L));
+        assertEquals(0, rows.size());
+    }
+
+    @Test
+    void resetDropsStateAndFlagsTheNextFrame() {
+        encoder.add(0, "veh-1", 106.5, 29.5, 1_000L, 10, 90);
+        encoder.add(1, "veh-2", 106.6, 29.6, 1_000L, 5, 180);
+        decoder.decode(encoder.finish(1_000L));
+        assertEquals(2, encoder.size());
+
+        // 编号0、1已被清理，车辆1以新编号2重新出现
+        encoder.reset();
+        assertEquals(0, encoder.size());
+        encoder.add(2, "veh-2", 106.7, 29.7, 2_000L, 6, 170);
+        List<Object[]> rows = decoder.decode(encoder.finish(2_000L));
+        assertTrue(decoder.reset);
+        assertEquals(1, rows.size());
+        assertRow(rows.get(0), "veh-2", 106.7, 29.7, 2_000L, 6, 170);
+        assertEquals(1, decoder.ids.size());
+        assertEquals(1, encoder.size());
+
+        encoder.add(2, "veh-2", 106.71, 29.71, 3_000L, 6, 170);
+        rows = decoder.decode(encoder.finish(3_000L));
+        assertFalse(decoder.reset);
+        assertRow(rows.get(0), "veh-2", 106.71, 29.71, 3_000L, 6, 170);
+    }
+
+    @Test
+    void randomWalkRoundTrips() {
+        Random random = new Random(11);
+        int vehicles = 300;
+        double[][] state = new double[vehicles][];
+        long[] ts = new long[vehicles];
+        for (int frame = 0; frame < 50; frame++) {
+            List<double[]> expected = new ArrayList<>();
+            for (int i = 0; i < vehicles; i++) {
+                if (frame > 0 && random.nextInt(4) == 0) {
+                    continue;
+                }
+                if (state[i] == null) {
+                    state[i] = new double[]{106 + random.nextDouble(), 29 + random.nextDouble(), 0, 0};
+                    ts[i] = 1_700_000_000_000L + random.nextInt(1000);
+                }
+                state[i][0] += (random.nextDouble() - 0.5) * 1e-3;
+                state[i][1] += (random.nextDouble() - 0.5) * 1e-3;
+                state[i][2] = random.nextDouble() * 40;
+                state[i][3] = random.nextDouble() * 360;
+                ts[i] += 100 + random.nextInt(50);
+                encoder.add(i, "v" + i, state[i][0], state[i][1], ts[i], state[i][2], state[i][3]);
+                expected.add(new double[]{i, state[i][0], state[i][1], ts[i], state[i][2], state[i][3]});
+            }
+            List<Object[]> rows = decoder.decode(encoder.finish(frame));
+            assertEquals(expected.size(), rows.size());
+            for (int r = 0; r < rows.size(); r++) {
+                double[] e = expected.get(r);
+                assertRow(rows.get(r), "v" + (int) e[0], e[1], e[2], (long) e[3], e[4], e[5]);
+            }
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DeadReckoningGateTest {
+
+    private static final double LAT = 29.5;
+
+    private final DeadReckoningGate gate = new DeadReckoningGate(5, 10_000, 3_000);
+
+    // 从(106.5, LAT)出发向北行驶meters米后的纬度
+    private static double north(double meters) {
+        return LAT + Math.toDegrees(meters / GeoMath.EARTH_RADIUS_METERS);
+    }
+
+    // 向东行驶meters米后的经度
+    private static double east(double meters) {
+        return 106.5 + Math.toDegrees(meters / GeoMath.EARTH_RADIUS_METERS) / Math.cos(Math.toRadians(LAT));
+    }
+
+    @Test
+    void suppressesSteadyMotionUntilHeartbeat() {
+        assertEquals(DeadReckoningGate.Decision.INITIAL, gate.offer(106.5, LAT, 0, 10, 0));
+        // 以10米/秒匀速向北，外推时间不超过3秒
+        for (long t = 100; t <= 3_000; t += 100) {
+            assertEquals(DeadReckoningGate.Decision.SUPPRESS, gate.offer(106.5, north(t / 100.0), t, 10, 0));
+            assertTrue(gate.getLastErrorMeters() < 1e-3);
+        }
+        assertEquals(DeadReckoningGate.Decision.DEVIATION, gate.offer(106.5, north(40), 4_000, 10, 0));
+    }
+
+    @Test
+    void heartbeatFiresForStationaryVehicle() {
+        assertEquals(DeadReckoningGate.Decision.INITIAL, gate.offer(106.5, LAT, 0, 0, 0));
+        assertEquals(DeadReckoningGate.Decision.SUPPRESS, gate.offer(106.5, north(1), 5_000, 0, 0));
+        assertEquals(DeadReckoningGate.Decision.HEARTBEAT, gate.offer(106.5, LAT, 10_000, 0, 0));
+        assertEquals(DeadReckoningGate.Decision.SUPPRESS, gate.offer(106.5, LAT, 19_999, 0, 0));
+    }
+
+    @Test
+    void turnIsReportedAsDeviation() {
+        gate.offer(106.5, LAT, 0, 10, 0);
+        // 改为向东行驶，1秒后与向北的外推位置相差约14米
+        assertEquals(DeadReckoningGate.Decision.DEVIATION, gate.offer(east(10), LAT, 1_000, 10, 90));
+        assertEquals(Math.sqrt(200), gate.getLastErrorMeters(), 0.1);
+        // 新锚点按向东外推
+        assertEquals(DeadReckoningGate.Decision.SUPPRESS, gate.offer(east(20), LAT, 2_000, 10, 90));
+    }
+
+    @Test
+    void nonPositiveToleranceSendsEveryFrame() {
+        DeadReckoningGate always = new DeadReckoningGate(0, 10_000, 3_000);
+        assertEquals(DeadReckoningGate.Decision.INITIAL, always.offer(106.5, LAT, 0, 0, 0));
+        assertEquals(DeadReckoningGate.Decision.DEVIATION, always.offer(106.5, LAT, 100, 0, 0));
+    }
+}
@@ -0,0 +1,77 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GcraRateLimiterTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    @Test
+    void allowsBurstThenRejects() {
+        GcraRateLimiter limiter = new GcraRateLimiter(4, 3);
+        long now = System.nanoTime();
+        assertTrue(limiter.tryAcquire(now));
+        assertTrue(limiter.tryAcquire(now));
+        assertTrue(limiter.tryAcquire(now));
+        assertFalse(limiter.tryAcquire(now));
+    }
+
+    @Test
+    void refillsAtConfiguredRate() {
+        GcraRateLimiter limiter = new GcraRateLimiter(4, 1);
+        long now = System.nanoTime();
+        assertTrue(limiter.tryAcquire(now));
+        assertFalse(limiter.tryAcquire(now + SECOND / 8));
+        assertTrue(limiter.tryAcquire(now + SECOND / 4));
+
+        // 空闲一段时间后最多只能突发burst次
+        long later = now + 10 * SECOND;
+        assertTrue(limiter.tryAcquire(later));
+        assertFalse(limiter.tryAcquire(later));
+    }
+
+    @Test
+    void nonPositiveRateIsUnlimited() {
+        GcraRateLimiter limiter = new GcraRateLimiter(0, 1);
+        long now = System.nanoTime();
+        for (int i = 0; i < 1000; i++) {
+            assertTrue(limiter.tryAcquire(now));
+        }
+    }
+
+    @Test
+    void concurrentCallersNeverExceedBurst() throws InterruptedException {
+        GcraRateLimiter limiter = new GcraRateLimiter(1, 5);
+        long now = System.nanoTime();
+        AtomicInteger granted = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        Thread[] threads = new Thread[8];
+        for (int t = 0; t < threads.length; t++) {
+            threads[t] = new Thread(() -> {
+                try {
+                    start.await();
+                } catch (InterruptedException e) {
+                    return;
+                }
+                for (int i = 0; i < 100; i++) {
+                    if (limiter.tryAcquire(now)) {
+                        granted.incrementAndGet();
+                    }
+                }
+            });
+            threads[t].start();
+        }
+        start.countDown();
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        assertEquals(5, granted.get());
+    }
+}
@@ -0,0 +1,110 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class GeoJumpDetectorTest {
+
+    // 纬度方向每0.001度约111米
+    private static final double LAT = 29.5;
+    private static final double LON = 106.5;
+
+    private final GeoJumpDetector detector = new GeoJumpDetector(70, 30, 3);
+
+    @Test
+    void normalDrivingIsNotFlagged() {
+        assertFalse(detector.check(LAT, LON, 0));
+        for (int i = 1; i <= 10; i++) {
+            // 每秒约22米
+            assertFalse(detector.check(LAT + i * 0.0002, LON, i * 1000L));
+        }
+        assertEquals(22.2, detector.getLastImpliedSpeedMps(), 0.5);
+    }
+
+    @Test
+    void jitterBelowMinDistanceIsIgnored() {
+        detector.check(LAT, LON, 0);
+        // 约11米、10毫秒，速度很高但在抖动范围内
+        assertFalse(detector.check(LAT + 0.0001, LON, 10));
+    }
+
+    @Test
+    void jumpDoesNotMoveAnchor() {
+        detector.check(LAT, LON, 0);
+        // 1秒跳出约11公里
+        assertTrue(detector.check(LAT + 0.1, LON, 1000));
+        // 回到原位附近的正常帧仍与跳变前的位置比较
+        assertFalse(detector.check(LAT + 0.0002, LON, 2000));
+        assertEquals(22.2, detector.getLastDistanceMeters(), 0.5);
+    }
+
+    @Test
+    void anchorRecoversOnceImpliedSpeedIsPlausible() {
+        detector.check(LAT, LON, 0);
+        assertTrue(detector.check(LAT + 0.01, LON, 1000));
+        // 约1.1公里，60秒后隐含速度约18.5米/秒，视为真实移动
+        assertFalse(detector.check(LAT + 0.01, LON, 60_000));
+        assertFalse(detector.check(LAT + 0.0102, LON, 61_000));
+    }
+
+    @Test
+    void nonAdvancingTimeIsSkipped() {
+        detector.check(LAT, LON, 1000);
+        assertFalse(detector.check(LAT + 0.1, LON, 1000));
+        assertFalse(detector.check(LAT + 0.1, LON, 500));
+        assertEquals(0, detector.getLastImpliedSpeedMps(), 0);
+        // 锚点未被跳过的帧改变
+        assertTrue(detector.check(LAT + 0.1, LON, 2000));
+    }
+
+    @Test
+    void badFirstFixIsReplacedByConsistentFrames() {
+        // 冷启动时报告(0, 0)
+        assertFalse(detector.check(0, 0, 0));
+        assertTrue(detector.check(LAT, LON, 1000));
+        assertTrue(detector.check(LAT + 0.0002, LON, 2000));
+        // 第三个彼此一致的跳变帧成为新锚点
+        assertFalse(detector.check(LAT + 0.0004, LON, 3000));
+        for (int i = 1; i <= 10; i++) {
+            assertFalse(detector.check(LAT + 0.0004 + i * 0.0002, LON, 3000 + i * 1000L));
+        }
+    }
+
+    @Test
+    void permanentOffsetIsAcceptedAfterReanchorFrames() {
+        detector.check(LAT, LON, 0);
+        detector.check(LAT + 0.0002, LON, 1000);
+        // 车辆离线期间被拖走约11公里，之后持续从新位置上报
+        int flagged = 0;
+        for (int i = 0; i < 20; i++) {
+            if (detector.check(LAT + 0.1 + i * 0.0002, LON, 2000 + i * 1000L)) {
+                flagged++;
+            }
+        }
+        assertEquals(2, flagged);
+    }
+
+    @Test
+    void scatteredBadFixesNeverBecomeAnchor() {
+        detector.check(LAT, LON, 0);
+        for (int i = 1; i <= 20; i++) {
+            // 交替跳到两处相距很远的错误位置，彼此也不一致
+            double bad = i % 2 == 0 ? 0.1 : -0.1;
+            assertTrue(detector.check(LAT + bad, LON, i * 1000L));
+            // 锚点始终是原位置
+            assertEquals(11_100, detector.getLastDistanceMeters(), 200);
+        }
+    }
+
+    @Test
+    void reanchorCanBeDisabled() {
+        GeoJumpDetector strict = new GeoJumpDetector(70, 30, 0);
+        strict.check(0, 0, 0);
+        for (int i = 1; i <= 10; i++) {
+            assertTrue(strict.check(LAT + i * 0.0002, LON, i * 1000L));
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ReorderBufferTest {
+
+    private static final long MS = 1_000_000L;
+
+    private final List<Long> released = new ArrayList<>();
+
+    private final ReorderBuffer<Long> buffer = new ReorderBuffer<>(8, 100, new ReorderBuffer.Counters());
+
+    private void offer(long seq, long nowMillis) {
+        buffer.offer(seq, seq, nowMillis * MS, released::add);
+    }
+
+    @Test
+    void releasesInOrderOnceGapIsFilled() {
+        offer(1, 0);
+        offer(3, 1);
+        offer(4, 2);
+        assertEquals(List.of(1L), released);
+
+        offer(2, 3);
+        assertEquals(List.of(1L, 2L, 3L, 4L), released);
+        assertEquals(0, buffer.getPending());
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    void dropsDuplicatesAndLateFrames() {
+        offer(1, 0);
+        offer(2, 1);
+        offer(2, 2);
+        assertEquals(1, buffer.getDuplicate());
+
+        offer(4, 3);
+        buffer.flushExpired(200 * MS, released::add);
+        assertEquals(List.of(1L, 2L, 4L), released);
+        assertEquals(1, buffer.getDropped());
+
+        // 3 已被判定丢失
+        offer(3, 201);
+        assertEquals(1, buffer.getLate());
+        assertEquals(List.of(1L, 2L, 4L), released);
+    }
+
+    @Test
+    void flushWaitsForBudgetOfOldestPendingFrame() {
+        offer(1, 0);
+        offer(3, 10);
+        offer(5, 50);
+
+        buffer.flushExpired(109 * MS, released::add);
+        assertEquals(List.of(1L), released);
+
+        // 3 超时后释放，5 仍在等待 4
+        buffer.flushExpired(110 * MS, released::add);
+        assertEquals(List.of(1L, 3L), released);
+        assertEquals(1, buffer.getPending());
+
+        buffer.flushExpired(150 * MS, released::add);
+        assertEquals(List.of(1L, 3L, 5L), released);
+        assertEquals(2, buffer.getDropped());
+    }
+
+    @Test
+    void staleArrivalBoundIsRecomputed() {
+        // 最早到达的帧 3 已释放，剩余的 5 从自己的到达时间开始计算等待时间
+        offer(1, 0);
+        offer(3, 0);
+        offer(5, 80);
+        offer(2, 90);
+        assertEquals(List.of(1L, 2L, 3L), released);
+
+        buffer.flushExpired(120 * MS, released::add);
+        assertEquals(1, buffer.getPending());
+
+        buffer.flushExpired(180 * MS, released::add);
+        assertEquals(List.of(1L, 2L, 3L, 5L), released);
+    }
+
+    @Test
+    void windowOverflowSkipsOldestGap() {
+        offer(1, 0);
+        offer(12, 1);
+        assertEquals(List.of(1L), released);
+        assertTrue(buffer.getDropped() > 0);
+        assertEquals(1, buffer.getPending());
+    }
+
+    @Test
+    void largeJumpResynchronizes() {
+        offer(100, 0);
+        offer(5000, 1);
+        offer(5001, 2);
+        assertEquals(List.of(100L, 5000L, 5001L), released);
+        assertEquals(0, buffer.getDropped());
+    }
+
+    @Test
+    void drainAllReleasesEverythingPending() {
+        offer(1, 0);
+        offer(4, 1);
+        offer(6, 2);
+        buffer.drainAll(released::add);
+        assertEquals(List.of(1L, 4L, 6L), released);
+        assertEquals(0, buffer.getPending());
+        assertEquals(3, buffer.getDropped());
+    }
+}
@@ -0,0 +1,71 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class SequenceTrackerTest {
+
+    private final SequenceTracker tracker = new SequenceTracker();
+
+    private SequenceTracker.Snapshot snapshot() {
+        SequenceTracker.Snapshot snapshot = new SequenceTracker.Snapshot();
+        tracker.snapshot(snapshot);
+        return snapshot;
+    }
+
+    @Test
+    void countsDuplicatesAndReordering() {
+        tracker.record(1);
+        tracker.record(2);
+        tracker.record(4);
+        tracker.record(3);
+        tracker.record(3);
+
+        SequenceTracker.Snapshot s = snapshot();
+        assertEquals(4, s.received);
+        assertEquals(1, s.duplicates);
+        assertEquals(1, s.reordered);
+        assertEquals(1, s.lastReorderDepth);
+        assertEquals(1, s.reorderHistogram[0]);
+        assertEquals(4, s.highest);
+        assertEquals(0, s.windowHoles);
+    }
+
+    @Test
+    void holesBecomeLostOnlyWhenTheySlideOutOfTheWindow() {
+        tracker.record(0);
+        tracker.record(5);
+        assertEquals(4, snapshot().windowHoles);
+        assertEquals(0, snapshot().lost);
+
+        // 1..4 滑出窗口后计为一段长度为4的丢失
+        tracker.record(5 + SequenceTracker.WINDOW_SIZE);
+        SequenceTracker.Snapshot s = snapshot();
+        assertEquals(4, s.lost);
+        assertEquals(1, s.gapHistogram[2]);
+        assertEquals(SequenceTracker.WINDOW_SIZE, s.windowSpan);
+        // 6..1028 仍在窗口内，只算空位
+        assertEquals(SequenceTracker.WINDOW_SIZE - 1, s.windowHoles);
+
+        // 已结算为丢失的编号迟到
+        tracker.record(3);
+        assertEquals(1, snapshot().lateBeyondWindow);
+        assertEquals(3, snapshot().received);
+    }
+
+    @Test
+    void largeJumpIsTreatedAsCounterReset() {
+        tracker.record(1_000_000);
+        tracker.record(1_000_001);
+        tracker.record(0);
+        tracker.record(1);
+
+        SequenceTracker.Snapshot s = snapshot();
+        assertEquals(1, s.resets);
+        assertEquals(1, s.highest);
+        assertEquals(0, s.lost);
+        assertEquals(4, s.received);
+        assertEquals(2, s.windowSpan);
+    }
+}
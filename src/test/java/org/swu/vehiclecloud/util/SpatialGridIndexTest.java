@@ -0,0 +1,86 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpatialGridIndexTest {
+
+    private final SpatialGridIndex<String> index = new SpatialGridIndex<>(0.1, 16);
+
+    private Set<String> query(double lon, double lat) {
+        Set<String> result = new HashSet<>();
+        index.query(lon, lat, result::add);
+        return result;
+    }
+
+    @Test
+    void findsRectanglesAcrossCellsAndWideList() {
+        index.put("small", 106.50, 29.50, 106.55, 29.55);
+        index.put("span", 106.45, 29.45, 106.65, 29.65);
+        // 覆盖单元数超过上限，进入大矩形列表
+        index.put("wide", 100, 20, 110, 30);
+
+        assertEquals(Set.of("small", "span", "wide"), query(106.52, 29.52));
+        assertEquals(Set.of("span", "wide"), query(106.62, 29.62));
+        assertEquals(Set.of("wide"), query(101, 21));
+        assertEquals(Set.of(), query(111, 21));
+        assertTrue(index.contains("wide", 105, 25));
+        assertFalse(index.contains("small", 105, 25));
+    }
+
+    @Test
+    void putReplacesAndRemoveClears() {
+        index.put("a", 106.50, 29.50, 106.55, 29.55);
+        index.put("a", 100, 20, 110, 30);
+        index.put("a", 120.00, 30.00, 120.05, 30.05);
+        assertEquals(1, index.size());
+        assertEquals(Set.of(), query(106.52, 29.52));
+        assertEquals(Set.of("a"), query(120.01, 30.01));
+
+        index.remove("a");
+        index.remove("missing");
+        assertEquals(0, index.size());
+        assertEquals(Set.of(), query(120.01, 30.01));
+        assertFalse(index.contains("a", 120.01, 30.01));
+    }
+
+    @Test
+    void rejectsInvalidRectangle() {
+        assertThrows(IllegalArgumentException.class, () -> index.put("a", 1, 1, 0, 2));
+        assertThrows(IllegalArgumentException.class, () -> index.put("a", 0, 0, 181, 1));
+        assertThrows(IllegalArgumentException.class, () -> new SpatialGridIndex<String>(0, 1));
+    }
+
+    @Test
+    void matchesBruteForce() {
+        Random random = new Random(42);
+        double[][] rects = new double[200][];
+        for (int i = 0; i < rects.length; i++) {
+            double lon = 106 + random.nextDouble();
+            double lat = 29 + random.nextDouble();
+            double size = random.nextInt(10) == 0 ? 0.8 : random.nextDouble() * 0.2;
+            rects[i] = new double[]{lon, lat, Math.min(180, lon + size), Math.min(90, lat + size)};
+            index.put("r" + i, rects[i][0], rects[i][1], rects[i][2], rects[i][3]);
+        }
+        for (int n = 0; n < 2000; n++) {
+            double lon = 106 + random.nextDouble() * 1.5;
+            double lat = 29 + random.nextDouble() * 1.5;
+            Set<String> expected = new HashSet<>();
+            for (int i = 0; i < rects.length; i++) {
+                double[] r = rects[i];
+                if (lon >= r[0] && lon <= r[2] && lat >= r[1] && lat <= r[3]) {
+                    expected.add("r" + i);
+                }
+            }
+            assertEquals(expected, query(lon, lat));
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SseReplayBufferTest {
+
+    private static final long FLOOR = 1000;
+
+    private final SseReplayBuffer buffer = new SseReplayBuffer(4, FLOOR);
+
+    private void append(long... ids) {
+        for (long id : ids) {
+            buffer.append(new SseReplayBuffer.Event(id, "e" + id));
+        }
+    }
+
+    private static List<Long> ids(List<SseReplayBuffer.Event> events) {
+        List<Long> ids = new ArrayList<>();
+        for (SseReplayBuffer.Event event : events) {
+            ids.add(event.id);
+        }
+        return ids;
+    }
+
+    @Test
+    void returnsEventsAfterLastId() {
+        append(1001, 1003, 1007);
+        assertEquals(List.of(1003L, 1007L), ids(buffer.after(1001)));
+        // 客户端收到的ID可能来自其他数据流，不一定在本环中
+        assertEquals(List.of(1007L), ids(buffer.after(1005)));
+        assertTrue(buffer.after(1007).isEmpty());
+    }
+
+    @Test
+    void floorIdReplaysEverythingAndOlderIdResets() {
+        append(1001, 1002);
+        assertEquals(List.of(1001L, 1002L), ids(buffer.after(FLOOR)));
+        // 来自重启之前或数据流重建之前
+        assertNull(buffer.after(FLOOR - 1));
+    }
+
+    @Test
+    void overwrittenEventsCauseReset() {
+        append(1001, 1002, 1003, 1004, 1005, 1006);
+        assertEquals(4, buffer.size());
+        assertNull(buffer.after(1001));
+        // 最后一个被覆盖的事件之后的都还在
+        assertEquals(List.of(1003L, 1004L, 1005L, 1006L), ids(buffer.after(1002)));
+    }
+
+    @Test
+    void emptyBufferReplaysNothing() {
+        assertTrue(buffer.after(FLOOR).isEmpty());
+        assertTrue(buffer.after(FLOOR + 50).isEmpty());
+        assertEquals(FLOOR, buffer.lastId());
+    }
+
+    @Test
+    void lastIdTracksNewestEvent() {
+        append(1001, 1002, 1003, 1004, 1005);
+        assertEquals(1005, buffer.lastId());
+    }
+}
@@ -0,0 +1,79 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingAnomalyScorerTest {
+
+    private static final int WARMUP = 20;
+
+    private final StreamingAnomalyScorer scorer = new StreamingAnomalyScorer(0.05, WARMUP, 4.0);
+
+    private long time = 0;
+
+    private double next(double speed, double heading, double steering, double torque) {
+        time += 100;
+        return scorer.score(time, speed, heading, steering, torque);
+    }
+
+    private void warmUp() {
+        for (int i = 0; i <= WARMUP; i++) {
+            next(20 + (i % 2), 90, i % 3, 100 + (i % 5));
+        }
+    }
+
+    @Test
+    void noScoreDuringWarmup() {
+        // 首帧只记录航向和时间，不计入样本
+        for (int i = 0; i <= WARMUP; i++) {
+            assertEquals(0, next(20, 90, 0, 100), 0);
+        }
+        assertFalse(scorer.isWarmedUp());
+        next(20, 90, 0, 100);
+        assertTrue(scorer.isWarmedUp());
+    }
+
+    @Test
+    void steadyFramesScoreLowAndOutlierScoresHigh() {
+        warmUp();
+        assertTrue(next(20.5, 90, 1, 102) < 1);
+        double outlier = next(45, 90, 1, 102);
+        assertTrue(outlier > 9, "score " + outlier);
+        assertEquals(outlier, scorer.getLastScore(), 0);
+    }
+
+    @Test
+    void headingWrapAroundIsNotAnomalous() {
+        // 在正北方向附近左右摆动，359 -> 1 度只转了2度
+        for (int i = 0; i <= WARMUP; i++) {
+            next(20, i % 2 == 0 ? 359 : 1, 1, 102);
+        }
+        double score = next(20, 359, 1, 102);
+        score = Math.max(score, next(20, 1, 1, 102));
+        assertTrue(score < 9, "score " + score);
+    }
+
+    @Test
+    void keepsLearningAfterWarmup() {
+        warmUp();
+        double first = next(30, 90, 1, 102);
+        double last = first;
+        for (int i = 0; i < 300; i++) {
+            last = next(30, 90, 1, 102);
+        }
+        // 新工况持续出现后估计跟随变化，分数回落
+        assertTrue(first > 9, "first " + first);
+        assertTrue(last < 1, "last " + last);
+    }
+
+    @Test
+    void nonAdvancingTimeIsNotScored() {
+        warmUp();
+        assertEquals(0, scorer.score(time, 45, 90, 1, 102), 0);
+        assertEquals(0, scorer.score(time - 50, 45, 90, 1, 102), 0);
+        assertFalse(scorer.getLastScore() > 0);
+    }
+}
@@ -0,0 +1,69 @@
+package org.swu.vehiclecloud.util;
+
+import org.apache.poi.ss.usermodel.CellType;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StreamingExcelWriterTest {
+
+    private static XSSFWorkbook readBack(StreamingExcelWriter writer) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writer.writeTo(out);
+        return new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()));
+    }
+
+    @Test
+    void writesRowsBeyondWindowInOrder() throws IOException {
+        int rows = 5_000;
+        try (StreamingExcelWriter writer = new StreamingExcelWriter("数据", List.of("ID", "车辆", "速度"), 10)) {
+            for (int i = 0; i < rows; i++) {
+                writer.writeRow(new Object[]{(long) i, "v" + (i % 7), i % 3 == 0 ? null : i * 0.5});
+            }
+            assertEquals(rows, writer.getTotalRows());
+
+            try (XSSFWorkbook workbook = readBack(writer)) {
+                assertEquals(1, workbook.getNumberOfSheets());
+                Sheet sheet = workbook.getSheet("数据");
+                assertEquals(rows, sheet.getLastRowNum());
+                assertEquals("车辆", sheet.getRow(0).getCell(1).getStringCellValue());
+                for (int i = 0; i < rows; i++) {
+                    Row row = sheet.getRow(i + 1);
+                    assertEquals(CellType.NUMERIC, row.getCell(0).getCellType());
+                    assertEquals(i, row.getCell(0).getNumericCellValue(), 0);
+                    assertEquals("v" + (i % 7), row.getCell(1).getStringCellValue());
+                    if (i % 3 == 0) {
+                        assertNull(row.getCell(2));
+                    } else {
+                        assertEquals(i * 0.5, row.getCell(2).getNumericCellValue(), 1e-9);
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    void columnWidthCountsFullWidthCharactersTwiceAndIsCapped() throws IOException {
+        try (StreamingExcelWriter writer = new StreamingExcelWriter("s", List.of("a", "b", "c"),
+                StreamingExcelWriter.DEFAULT_ROW_WINDOW)) {
+            writer.writeRow(new Object[]{"abcd", "重庆市", "x".repeat(500)});
+            try (XSSFWorkbook workbook = readBack(writer)) {
+                Sheet sheet = workbook.getSheetAt(0);
+                assertEquals((4 + 2) * 256, sheet.getColumnWidth(0));
+                assertEquals((6 + 2) * 256, sheet.getColumnWidth(1));
+                assertEquals((60 + 2) * 256, sheet.getColumnWidth(2));
+                assertTrue(sheet.getColumnWidth(2) < 255 * 256);
+            }
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.net.StandardProtocolFamily;
+import java.net.UnixDomainSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BiFunction;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 用进程内的UDS桩服务验证二进制协议
+ */
+class UdsInferenceBackendTest {
+
+    @TempDir
+    Path dir;
+
+    private ServerSocketChannel server;
+
+    private UdsInferenceBackend backend;
+
+    // 根据请求编号和样本数生成响应帧(不含长度前缀)
+    private volatile BiFunction<Long, Integer, ByteBuffer> responder;
+
+    // 最近一次请求各样本的特征和，仅桩服务线程使用
+    private float[] sums;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        Path socket = dir.resolve("ml.sock");
+        server = ServerSocketChannel.open(StandardProtocolFamily.UNIX);
+        server.bind(UnixDomainSocketAddress.of(socket));
+        Thread thread = new Thread(this::serve, "uds-stub");
+        thread.setDaemon(true);
+        thread.start();
+        backend = new UdsInferenceBackend(socket.toString());
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        backend.close();
+        server.close();
+    }
+
+    @Test
+    void returnsMsePerSample() throws Exception {
+        responder = (id, count) -> ok(id, count);
+
+        float[] mse = backend.score(new double[]{1, 2, 3, 4, 5, 6}, 3, 2).get(5, TimeUnit.SECONDS);
+
+        // 桩服务返回每个样本的特征和
+        assertArrayEquals(new float[]{3f, 7f, 11f}, mse);
+    }
+
+    @Test
+    void countMismatchFailsOnlyThatRequest() throws Exception {
+        responder = (id, count) -> count == 2 ? ok(id, 1) : ok(id, count);
+
+        CompletableFuture<float[]> bad = backend.score(new double[]{1, 1, 2, 2}, 2, 2);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> bad.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause() instanceof IllegalStateException);
+
+        // 连接未断开，后续请求正常
+        float[] mse = backend.score(new double[]{1, 1, 2, 2, 3, 3}, 3, 2).get(5, TimeUnit.SECONDS);
+        assertEquals(3, mse.length);
+    }
+
+    @Test
+    void errorStatusFailsRequest() {
+        responder = (id, count) -> {
+            byte[] message = "model not loaded".getBytes(StandardCharsets.UTF_8);
+            return ByteBuffer.allocate(12 + message.length).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(id).putInt(1).put(message).flip();
+        };
+
+        CompletableFuture<float[]> future = backend.score(new double[]{1, 2}, 1, 2);
+        ExecutionException e = assertThrows(ExecutionException.class, () -> future.get(5, TimeUnit.SECONDS));
+        assertTrue(e.getCause().getMessage().contains("model not loaded"));
+    }
+
+    private void serve() {
+        try (SocketChannel ch = server.accept()) {
+            ByteBuffer length = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+            while (true) {
+                length.clear();
+                readFully(ch, length);
+                ByteBuffer request = ByteBuffer.allocate(length.getInt(0)).order(ByteOrder.LITTLE_ENDIAN);
+                readFully(ch, request);
+                request.flip();
+                long id = request.getLong();
+                int count = request.getInt();
+                int dim = request.getInt();
+                sums = new float[count];
+                for (int i = 0; i < count * dim; i++) {
+                    sums[i / dim] += (float) request.getDouble();
+                }
+                ByteBuffer body = responder.apply(id, count);
+                ByteBuffer frame = ByteBuffer.allocate(4 + body.remaining()).order(ByteOrder.LITTLE_ENDIAN);
+                frame.putInt(body.remaining()).put(body).flip();
+                while (frame.hasRemaining()) {
+                    ch.write(frame);
+                }
+            }
+        } catch (IOException ignored) {
+            // 测试结束时关闭
+        }
+    }
+
+    private ByteBuffer ok(long id, int count) {
+        ByteBuffer body = ByteBuffer.allocate(16 + count * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        body.putLong(id).putInt(0).putInt(count);
+        for (int i = 0; i < count; i++) {
+            body.putFloat(i < sums.length ? sums[i] : 0);
+        }
+        return body.flip();
+    }
+
+    private static void readFully(SocketChannel ch, ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) {
+                throw new IOException("closed");
+            }
+        }
+    }
+}
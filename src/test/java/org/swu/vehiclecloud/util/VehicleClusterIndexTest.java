@@ -0,0 +1,141 @@
+package org.swu.vehiclecloud.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class VehicleClusterIndexTest {
+
+    private static final int MIN_ZOOM = 3;
+    private static final int MAX_ZOOM = 18;
+    private static final int CELL_PIXELS = 60;
+
+    private final VehicleClusterIndex index = new VehicleClusterIndex(MIN_ZOOM, MAX_ZOOM, CELL_PIXELS);
+
+    // 暴力计算：单元键 -> {车辆数, 经度和, 纬度和}
+    private static Map<Long, double[]> bruteForce(Map<String, double[]> vehicles, int zoom,
+                                                  double minLon, double minLat, double maxLon, double maxLat) {
+        double degrees = 360.0 * CELL_PIXELS / (256.0 * (1L << zoom));
+        long x0 = (long) Math.floor(minLon / degrees);
+        long x1 = (long) Math.floor(maxLon / degrees);
+        long y0 = (long) Math.floor(minLat / degrees);
+        long y1 = (long) Math.floor(maxLat / degrees);
+        Map<Long, double[]> cells = new HashMap<>();
+        for (double[] p : vehicles.values()) {
+            long x = (long) Math.floor(p[0] / degrees);
+            long y = (long) Math.floor(p[1] / degrees);
+            if (x < x0 || x > x1 || y < y0 || y > y1) {
+                continue;
+            }
+            double[] c = cells.computeIfAbsent(x * 1_000_000_007L + y, k -> new double[3]);
+            c[0]++;
+            c[1] += p[0];
+            c[2] += p[1];
+        }
+        return cells;
+    }
+
+    private static void assertMatches(Map<Long, double[]> expected, VehicleClusterIndex.Result result) {
+        assertEquals(expected.size(), result.clusters.size());
+        // 以聚类中心匹配期望单元
+        Map<String, Integer> expectedCounts = new HashMap<>();
+        int vehicles = 0;
+        for (double[] c : expected.values()) {
+            expectedCounts.merge(centre(c[1] / c[0], c[2] / c[0]) + "#" + (int) c[0], 1, Integer::sum);
+            vehicles += (int) c[0];
+        }
+        Map<String, Integer> actualCounts = new HashMap<>();
+        for (VehicleClusterIndex.Cluster cluster : result.clusters) {
+            actualCounts.merge(centre(cluster.longitude, cluster.latitude) + "#" + cluster.count, 1, Integer::sum);
+        }
+        assertEquals(expectedCounts, actualCounts);
+        assertEquals(vehicles, result.vehicles);
+    }
+
+    private static String centre(double lon, double lat) {
+        return Math.round(lon * 1e5) + "," + Math.round(lat * 1e5);
+    }
+
+    @Test
+    void clusterCountsMatchBruteForceAfterMoves() {
+        Random random = new Random(7);
+        Map<String, double[]> vehicles = new HashMap<>();
+        for (int i = 0; i < 500; i++) {
+            double[] p = {106 + random.nextDouble() * 2, 29 + random.nextDouble() * 2};
+            vehicles.put("v" + i, p);
+            index.update("v" + i, p[0], p[1], 0);
+        }
+        // 一部分车辆小步移动，一部分跳到别处
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 500; i += 3) {
+                double[] p = vehicles.get("v" + i);
+                if (random.nextBoolean()) {
+                    p[0] += (random.nextDouble() - 0.5) * 0.001;
+                    p[1] += (random.nextDouble() - 0.5) * 0.001;
+                } else {
+                    p[0] = 106 + random.nextDouble() * 2;
+                    p[1] = 29 + random.nextDouble() * 2;
+                }
+                index.update("v" + i, p[0], p[1], round + 1);
+            }
+        }
+        assertEquals(500, index.size());
+
+        for (int zoom : new int[]{6, 9, 12, 15}) {
+            VehicleClusterIndex.Result result = index.query(zoom, 106.3, 29.3, 107.7, 30.7, Integer.MAX_VALUE);
+            assertEquals(zoom, result.zoom);
+            assertMatches(bruteForce(vehicles, zoom, 106.3, 29.3, 107.7, 30.7), result);
+        }
+    }
+
+    @Test
+    void singleVehicleClusterCarriesId() {
+        index.update("a", 106.5, 29.5, 0);
+        index.update("b", 107.5, 29.5, 0);
+        VehicleClusterIndex.Result result = index.query(MAX_ZOOM, 106, 29, 108, 30, Integer.MAX_VALUE);
+        assertEquals(2, result.clusters.size());
+        for (VehicleClusterIndex.Cluster cluster : result.clusters) {
+            assertEquals(1, cluster.count);
+            assertEquals(cluster.longitude < 107 ? "a" : "b", cluster.vehicleId);
+        }
+
+        result = index.query(MIN_ZOOM, 106, 29, 108, 30, Integer.MAX_VALUE);
+        assertEquals(1, result.clusters.size());
+        assertEquals(2, result.clusters.get(0).count);
+        assertNull(result.clusters.get(0).vehicleId);
+        assertEquals(107, result.clusters.get(0).longitude, 1e-9);
+    }
+
+    @Test
+    void fallsBackToCoarserZoomWhenOverLimit() {
+        for (int i = 0; i < 100; i++) {
+            index.update("v" + i, 106 + i * 0.01, 29.5, 0);
+        }
+        VehicleClusterIndex.Result result = index.query(MAX_ZOOM, 105, 28, 108, 31, 10);
+        assertTrue(result.zoom < MAX_ZOOM);
+        assertTrue(result.clusters.size() <= 10);
+        assertEquals(100, result.vehicles);
+    }
+
+    @Test
+    void removesStaleVehicles() {
+        index.update("old", 106.5, 29.5, 100);
+        index.update("new", 106.5, 29.5, 200);
+        long version = index.version();
+
+        assertEquals(1, index.removeOlderThan(150));
+        assertEquals(1, index.size());
+        assertTrue(index.version() > version);
+
+        VehicleClusterIndex.Result result = index.query(MIN_ZOOM, 106, 29, 107, 30, Integer.MAX_VALUE);
+        assertEquals(1, result.vehicles);
+        assertEquals("new", result.clusters.get(0).vehicleId);
+        assertEquals(0, index.removeOlderThan(150));
+    }
+}